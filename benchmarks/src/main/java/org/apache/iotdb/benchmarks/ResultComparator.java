@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmarks;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Compares two JSON result files of JMH, e.g. of two commits:
+ *
+ * <pre>
+ * java -cp benchmarks.jar org.apache.iotdb.benchmarks.ResultComparator base.json new.json
+ * </pre>
+ *
+ * For each benchmark present in both files it prints both scores and the change of the second,
+ * where a positive change is always an improvement (higher throughput or lower time).
+ */
+public class ResultComparator {
+
+  private ResultComparator() {
+    throw new IllegalAccessError("Utility class");
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: ResultComparator <baseline.json> <candidate.json>");
+      return;
+    }
+    compare(load(args[0]), load(args[1]), System.out);
+  }
+
+  static Map<String, JSONObject> load(String file) throws IOException {
+    String content = new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8);
+    JSONArray results = JSON.parseArray(content);
+    Map<String, JSONObject> resultMap = new LinkedHashMap<>();
+    for (int i = 0; i < results.size(); i++) {
+      JSONObject result = results.getJSONObject(i);
+      resultMap.put(key(result), result);
+    }
+    return resultMap;
+  }
+
+  /**
+   * @return the benchmark method with its parameters sorted by name, which identifies a result
+   */
+  private static String key(JSONObject result) {
+    StringBuilder key = new StringBuilder(result.getString("benchmark"));
+    JSONObject params = result.getJSONObject("params");
+    if (params != null) {
+      for (Entry<String, Object> param : new TreeMap<>(params).entrySet()) {
+        key.append(' ').append(param.getKey()).append('=').append(param.getValue());
+      }
+    }
+    return key.toString();
+  }
+
+  static void compare(Map<String, JSONObject> baseline, Map<String, JSONObject> candidate,
+      PrintStream out) {
+    out.println(String.format("%-100s %14s %14s %-12s %8s", "Benchmark", "Baseline",
+        "Candidate", "Unit", "Change"));
+    for (Entry<String, JSONObject> entry : baseline.entrySet()) {
+      JSONObject other = candidate.get(entry.getKey());
+      if (other == null) {
+        continue;
+      }
+      JSONObject baseMetric = entry.getValue().getJSONObject("primaryMetric");
+      JSONObject candidateMetric = other.getJSONObject("primaryMetric");
+      double baseScore = baseMetric.getDoubleValue("score");
+      double candidateScore = candidateMetric.getDoubleValue("score");
+      double change = (candidateScore - baseScore) / baseScore * 100;
+      if (!"thrpt".equals(entry.getValue().getString("mode"))) {
+        // for time modes a lower score is better
+        change = -change;
+      }
+      out.println(String.format("%-100s %14.3f %14.3f %-12s %+7.1f%%", entry.getKey(),
+          baseScore, candidateScore, baseMetric.getString("scoreUnit"), change));
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmarks.tsfile;
+
+import java.util.Random;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+/**
+ * Realistic shapes of time series data, each generated deterministically from a seed so that
+ * results are comparable between runs and commits.
+ */
+public enum DataShape {
+
+  /**
+   * timestamps of a sensor sampling exactly every second.
+   */
+  MONOTONIC_TIMESTAMPS(TSDataType.INT64) {
+    @Override
+    Object generate(int size, Random random) {
+      long[] values = new long[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = START_TIME + i * 1000L;
+      }
+      return values;
+    }
+  },
+
+  /**
+   * timestamps of a sensor sampling about every second, with up to 50ms of jitter.
+   */
+  JITTERED_TIMESTAMPS(TSDataType.INT64) {
+    @Override
+    Object generate(int size, Random random) {
+      long[] values = new long[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = START_TIME + i * 1000L + random.nextInt(101) - 50;
+      }
+      return values;
+    }
+  },
+
+  /**
+   * a slowly changing measurement such as a temperature, with two decimal digits.
+   */
+  SMOOTH_FLOATS(TSDataType.FLOAT) {
+    @Override
+    Object generate(int size, Random random) {
+      float[] values = new float[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = Math.round((20 + 5 * Math.sin(i / 100.0)) * 100) / 100.0f;
+      }
+      return values;
+    }
+  },
+
+  /**
+   * a measurement dominated by noise, such as a vibration signal.
+   */
+  NOISY_DOUBLES(TSDataType.DOUBLE) {
+    @Override
+    Object generate(int size, Random random) {
+      double[] values = new double[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = random.nextGaussian() * 1000;
+      }
+      return values;
+    }
+  },
+
+  /**
+   * a status code that takes one of a few values and rarely changes.
+   */
+  LOW_CARDINALITY_INTS(TSDataType.INT32) {
+    @Override
+    Object generate(int size, Random random) {
+      int[] values = new int[size];
+      int status = 0;
+      for (int i = 0; i < size; i++) {
+        if (random.nextInt(20) == 0) {
+          status = random.nextInt(8);
+        }
+        values[i] = status;
+      }
+      return values;
+    }
+  };
+
+  private static final long START_TIME = 1_500_000_000_000L;
+
+  private final TSDataType dataType;
+
+  DataShape(TSDataType dataType) {
+    this.dataType = dataType;
+  }
+
+  public TSDataType getDataType() {
+    return dataType;
+  }
+
+  /**
+   * @return a primitive array (long[], int[], float[] or double[] according to the data type) of
+   * size values
+   */
+  abstract Object generate(int size, Random random);
+
+  public Object generate(int size) {
+    return generate(size, new Random(size));
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmarks.tsfile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.TSEncodingBuilder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Encode and decode throughput of every Encoder/Decoder pair on the data shapes it applies to.
+ * The scores are operations per second, where one operation encodes or decodes {@code size}
+ * points.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodingBenchmark {
+
+  private static final int BLOCK_SIZE = 1024;
+
+  /**
+   * data shape and encoding separated by ":", only the combinations supported by TsFile are
+   * listed. REGULAR is meant for timestamps and only applies to them.
+   */
+  @Param({
+      "MONOTONIC_TIMESTAMPS:PLAIN", "MONOTONIC_TIMESTAMPS:RLE", "MONOTONIC_TIMESTAMPS:TS_2DIFF",
+      "MONOTONIC_TIMESTAMPS:REGULAR",
+      "JITTERED_TIMESTAMPS:PLAIN", "JITTERED_TIMESTAMPS:RLE", "JITTERED_TIMESTAMPS:TS_2DIFF",
+      "JITTERED_TIMESTAMPS:REGULAR",
+      "SMOOTH_FLOATS:PLAIN", "SMOOTH_FLOATS:RLE", "SMOOTH_FLOATS:TS_2DIFF",
+      "SMOOTH_FLOATS:GORILLA",
+      "NOISY_DOUBLES:PLAIN", "NOISY_DOUBLES:RLE", "NOISY_DOUBLES:TS_2DIFF",
+      "NOISY_DOUBLES:GORILLA",
+      "LOW_CARDINALITY_INTS:PLAIN", "LOW_CARDINALITY_INTS:RLE", "LOW_CARDINALITY_INTS:TS_2DIFF"})
+  private String series;
+
+  @Param("10000")
+  private int size;
+
+  private TSDataType dataType;
+  private TSEncodingBuilder encodingBuilder;
+  private TSEncoding encoding;
+  private Object values;
+  private PublicBAOS out;
+  private ByteBuffer encoded;
+
+  private long[] longBlock = new long[BLOCK_SIZE];
+  private int[] intBlock = new int[BLOCK_SIZE];
+  private float[] floatBlock = new float[BLOCK_SIZE];
+  private double[] doubleBlock = new double[BLOCK_SIZE];
+
+  @Setup
+  public void setUp() throws IOException {
+    String[] shapeAndEncoding = series.split(":");
+    DataShape shape = DataShape.valueOf(shapeAndEncoding[0]);
+    encoding = TSEncoding.valueOf(shapeAndEncoding[1]);
+    dataType = shape.getDataType();
+    encodingBuilder = TSEncodingBuilder.getConverter(encoding);
+    encodingBuilder.initFromProps(null);
+    values = shape.generate(size);
+    out = new PublicBAOS();
+    encode();
+    encoded = ByteBuffer.wrap(out.toByteArray());
+  }
+
+  @Benchmark
+  public int encode() throws IOException {
+    out.reset();
+    Encoder encoder = encodingBuilder.getEncoder(dataType);
+    switch (dataType) {
+      case INT32:
+        for (int value : (int[]) values) {
+          encoder.encode(value, out);
+        }
+        break;
+      case INT64:
+        for (long value : (long[]) values) {
+          encoder.encode(value, out);
+        }
+        break;
+      case FLOAT:
+        for (float value : (float[]) values) {
+          encoder.encode(value, out);
+        }
+        break;
+      case DOUBLE:
+        for (double value : (double[]) values) {
+          encoder.encode(value, out);
+        }
+        break;
+      default:
+        throw new UnsupportedOperationException(dataType.toString());
+    }
+    encoder.flush(out);
+    return out.size();
+  }
+
+  @Benchmark
+  public void decode(Blackhole blackhole) throws IOException {
+    Decoder decoder = Decoder.getDecoderByType(encoding, dataType);
+    ByteBuffer buffer = encoded.duplicate();
+    switch (dataType) {
+      case INT32:
+        while (decoder.hasNext(buffer)) {
+          blackhole.consume(decoder.readInt(buffer));
+        }
+        break;
+      case INT64:
+        while (decoder.hasNext(buffer)) {
+          blackhole.consume(decoder.readLong(buffer));
+        }
+        break;
+      case FLOAT:
+        while (decoder.hasNext(buffer)) {
+          blackhole.consume(decoder.readFloat(buffer));
+        }
+        break;
+      case DOUBLE:
+        while (decoder.hasNext(buffer)) {
+          blackhole.consume(decoder.readDouble(buffer));
+        }
+        break;
+      default:
+        throw new UnsupportedOperationException(dataType.toString());
+    }
+  }
+
+  /**
+   * decode through the bulk methods of Decoder, as PageReader does.
+   */
+  @Benchmark
+  public void decodeBlocks(Blackhole blackhole) throws IOException {
+    Decoder decoder = Decoder.getDecoderByType(encoding, dataType);
+    ByteBuffer buffer = encoded.duplicate();
+    switch (dataType) {
+      case INT32:
+        while (decoder.readInts(buffer, intBlock, 0, BLOCK_SIZE) > 0) {
+          blackhole.consume(intBlock);
+        }
+        break;
+      case INT64:
+        while (decoder.readLongs(buffer, longBlock, 0, BLOCK_SIZE) > 0) {
+          blackhole.consume(longBlock);
+        }
+        break;
+      case FLOAT:
+        while (decoder.readFloats(buffer, floatBlock, 0, BLOCK_SIZE) > 0) {
+          blackhole.consume(floatBlock);
+        }
+        break;
+      case DOUBLE:
+        while (decoder.readDoubles(buffer, doubleBlock, 0, BLOCK_SIZE) > 0) {
+          blackhole.consume(doubleBlock);
+        }
+        break;
+      default:
+        throw new UnsupportedOperationException(dataType.toString());
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmarks.tsfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
+import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Latency of TsFileSequenceReader loading the metadata of a closed TsFile with {@code devices}
+ * devices of {@code sensors} sensors each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetadataBenchmark {
+
+  @Param({"100", "1000"})
+  private int devices;
+
+  @Param("10")
+  private int sensors;
+
+  @Param("100")
+  private int pointsPerSeries;
+
+  private File file;
+
+  @Setup
+  public void setUp() throws IOException, WriteProcessException {
+    file = Files.createTempFile("metadata-benchmark", ".tsfile").toFile();
+    Files.delete(file.toPath());
+    TsFileWriter writer = new TsFileWriter(file);
+    for (int s = 0; s < sensors; s++) {
+      writer.addMeasurement(new MeasurementSchema(sensor(s), TSDataType.INT64,
+          TSEncoding.TS_2DIFF));
+    }
+    for (int d = 0; d < devices; d++) {
+      for (int t = 0; t < pointsPerSeries; t++) {
+        TSRecord record = new TSRecord(t, device(d));
+        for (int s = 0; s < sensors; s++) {
+          record.addTuple(new LongDataPoint(sensor(s), t));
+        }
+        writer.write(record);
+      }
+    }
+    writer.close();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file.toPath());
+  }
+
+  @Benchmark
+  public TsFileMetaData readFileMetadata() throws IOException {
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(file.getPath())) {
+      return reader.readFileMetadata();
+    }
+  }
+
+  @Benchmark
+  public void readAllDeviceMetadata(Blackhole blackhole) throws IOException {
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(file.getPath())) {
+      for (TsDeviceMetadataIndex index : reader.readFileMetadata().getDeviceMap().values()) {
+        blackhole.consume(reader.readTsDeviceMetaData(index));
+      }
+    }
+  }
+
+  @Benchmark
+  public void readChunkMetadataOfAllSeries(Blackhole blackhole) throws IOException {
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(file.getPath())) {
+      for (int d = 0; d < devices; d++) {
+        for (int s = 0; s < sensors; s++) {
+          blackhole.consume(reader.getChunkMetadataList(new Path(device(d), sensor(s))));
+        }
+      }
+    }
+  }
+
+  private static String device(int index) {
+    return "root.sg.d" + index;
+  }
+
+  private static String sensor(int index) {
+    return "s" + index;
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmarks.tsfile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.reader.page.PageReader;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
+import org.apache.iotdb.tsfile.write.page.PageWriter;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of PageWriter and ChunkWriterImpl encoding a series, and of PageReader decoding a
+ * page of it. Times are encoded by the configured time encoder, one operation handles {@code
+ * size} points.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageBenchmark {
+
+  /**
+   * data shape and encoding of the values separated by ":".
+   */
+  @Param({"JITTERED_TIMESTAMPS:TS_2DIFF", "SMOOTH_FLOATS:GORILLA", "SMOOTH_FLOATS:RLE",
+      "NOISY_DOUBLES:GORILLA", "NOISY_DOUBLES:PLAIN", "LOW_CARDINALITY_INTS:RLE"})
+  private String series;
+
+  @Param("UNCOMPRESSED")
+  private String compressor;
+
+  @Param("10000")
+  private int size;
+
+  private MeasurementSchema schema;
+  private TSDataType dataType;
+  private TSEncoding encoding;
+  private long[] times;
+  private Object values;
+  private ByteBuffer pageData;
+
+  @Setup
+  public void setUp() throws IOException {
+    String[] shapeAndEncoding = series.split(":");
+    DataShape shape = DataShape.valueOf(shapeAndEncoding[0]);
+    dataType = shape.getDataType();
+    encoding = TSEncoding.valueOf(shapeAndEncoding[1]);
+    schema = new MeasurementSchema("s0", dataType, encoding,
+        CompressionType.valueOf(compressor));
+    times = (long[]) DataShape.MONOTONIC_TIMESTAMPS.generate(size);
+    values = shape.generate(size);
+
+    PageWriter pageWriter = new PageWriter(schema);
+    write(pageWriter);
+    pageData = pageWriter.getUncompressedBytes();
+  }
+
+  @Benchmark
+  public int writePage() throws IOException {
+    PageWriter pageWriter = new PageWriter(schema);
+    write(pageWriter);
+    PublicBAOS pageBuffer = new PublicBAOS();
+    pageWriter.writePageHeaderAndDataIntoBuff(pageBuffer);
+    return pageBuffer.size();
+  }
+
+  @Benchmark
+  public long writeChunk() {
+    ChunkWriterImpl chunkWriter = new ChunkWriterImpl(schema);
+    switch (dataType) {
+      case INT32:
+        chunkWriter.write(times, (int[]) values, size);
+        break;
+      case INT64:
+        chunkWriter.write(times, (long[]) values, size);
+        break;
+      case FLOAT:
+        chunkWriter.write(times, (float[]) values, size);
+        break;
+      case DOUBLE:
+        chunkWriter.write(times, (double[]) values, size);
+        break;
+      default:
+        throw new UnsupportedOperationException(dataType.toString());
+    }
+    chunkWriter.sealCurrentPage();
+    return chunkWriter.getCurrentChunkSize();
+  }
+
+  @Benchmark
+  public BatchData readPage() throws IOException {
+    Decoder timeDecoder = Decoder.getDecoderByType(TSEncoding
+            .valueOf(TSFileDescriptor.getInstance().getConfig().getTimeEncoder()),
+        TSDataType.INT64);
+    Decoder valueDecoder = Decoder.getDecoderByType(encoding, dataType);
+    PageReader pageReader = new PageReader(pageData.duplicate(), dataType, valueDecoder,
+        timeDecoder);
+    return pageReader.nextBatch();
+  }
+
+  private void write(PageWriter pageWriter) {
+    switch (dataType) {
+      case INT32:
+        pageWriter.write(times, (int[]) values, size);
+        break;
+      case INT64:
+        pageWriter.write(times, (long[]) values, size);
+        break;
+      case FLOAT:
+        pageWriter.write(times, (float[]) values, size);
+        break;
+      case DOUBLE:
+        pageWriter.write(times, (double[]) values, size);
+        break;
+      default:
+        throw new UnsupportedOperationException(dataType.toString());
+    }
+  }
+}
@@ -44,6 +44,11 @@ public class Config {
   static final String AUTH_PASSWORD = "password";
   static final String DEFALUT_PASSWORD = "password";
 
+  /**
+   * Whether to use framed transport, which a server running in selector mode requires.
+   */
+  static final String FRAMED_TRANSPORT = "framed_transport";
+
   static final int RETRY_NUM = 3;
   static final long RETRY_INTERVAL = 1000;
 
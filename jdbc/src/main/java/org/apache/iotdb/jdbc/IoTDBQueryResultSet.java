@@ -47,6 +47,7 @@ import java.util.Calendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.apache.iotdb.rpc.ColumnarRecordReader;
 import org.apache.iotdb.rpc.IoTDBRPCException;
 import org.apache.iotdb.rpc.RpcUtils;
 import org.apache.iotdb.service.rpc.thrift.TSCloseOperationReq;
@@ -87,6 +88,8 @@ public class IoTDBQueryResultSet implements ResultSet {
   
   private TSQueryDataSet tsQueryDataSet = null;
   private ByteBuffer byteBuffer = null;
+  // used instead of byteBuffer when the server returns results in columnar format
+  private ColumnarRecordReader columnarReader = null;
 
   // 0 means it is not constrained in sql
   private int rowsLimit = 0;
@@ -748,9 +751,10 @@ public class IoTDBQueryResultSet implements ResultSet {
 
   // the next record rule without constraints
   private boolean nextWithoutConstraints(int limitFetchSize) throws SQLException {
-    if ((tsQueryDataSet == null || !byteBuffer.hasRemaining()) && !emptyResultSet) {
+    if ((tsQueryDataSet == null || !hasCachedResults()) && !emptyResultSet) {
       int adaFetchSize = (limitFetchSize < fetchSize) ? limitFetchSize : fetchSize;
       TSFetchResultsReq req = new TSFetchResultsReq(sql, adaFetchSize, queryId);
+      req.setColumnar(true);
 
       try {
         TSFetchResultsResp resp = client.fetchResults(req);
@@ -763,11 +767,17 @@ public class IoTDBQueryResultSet implements ResultSet {
           emptyResultSet = true;
         } else {
           tsQueryDataSet = resp.getQueryDataSet();
-          try {
-            byteBuffer = Utils
-                .convertResultBuffer(tsQueryDataSet, columnTypeDeduplicatedList);
-          } catch (IOException e) {
-            throw new IoTDBSQLException(e.getMessage());
+          if (tsQueryDataSet.isColumnar()) {
+            columnarReader = Utils
+                .getColumnarRecordReader(tsQueryDataSet, columnTypeDeduplicatedList);
+          } else {
+            columnarReader = null;
+            try {
+              byteBuffer = Utils
+                  .convertResultBuffer(tsQueryDataSet, columnTypeDeduplicatedList);
+            } catch (IOException e) {
+              throw new IoTDBSQLException(e.getMessage());
+            }
           }
         }
       } catch (TException e) {
@@ -779,10 +789,18 @@ public class IoTDBQueryResultSet implements ResultSet {
     if (emptyResultSet) {
       return false;
     }
-    record = Utils.getRowRecord(byteBuffer, columnTypeDeduplicatedList);
+    if (columnarReader != null) {
+      record = columnarReader.next();
+    } else {
+      record = Utils.getRowRecord(byteBuffer, columnTypeDeduplicatedList);
+    }
     return true;
   }
 
+  private boolean hasCachedResults() {
+    return columnarReader != null ? columnarReader.hasNext() : byteBuffer.hasRemaining();
+  }
+
   @Override
   // the next record rule considering both the maxRows constraint and the LIMIT&OFFSET constraint
   public boolean next() throws SQLException {
@@ -23,10 +23,12 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.apache.iotdb.rpc.ColumnarRecordReader;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -83,10 +85,27 @@ public class Utils {
     if (info.containsKey(Config.AUTH_PASSWORD)) {
       params.setPassword(info.getProperty(Config.AUTH_PASSWORD));
     }
+    if (info.containsKey(Config.FRAMED_TRANSPORT)) {
+      params.setFramedTransport(
+          Boolean.parseBoolean(info.getProperty(Config.FRAMED_TRANSPORT)));
+    }
 
     return params;
   }
-  
+
+  /**
+   * create a reader that decodes records lazily from a data set in columnar format.
+   */
+  static ColumnarRecordReader getColumnarRecordReader(TSQueryDataSet tsQueryDataSet,
+      List<String> columnTypeList) {
+    List<TSDataType> dataTypes = new ArrayList<>(columnTypeList.size());
+    for (String type : columnTypeList) {
+      dataTypes.add(TSDataType.valueOf(type));
+    }
+    return new ColumnarRecordReader(tsQueryDataSet.bufferForValues(), dataTypes,
+        tsQueryDataSet.getRowCount());
+  }
+
   static ByteBuffer convertResultBuffer(TSQueryDataSet tsQueryDataSet,
       List<String> columnTypeList) throws IOException {
     int rowCount = tsQueryDataSet.getRowCount();
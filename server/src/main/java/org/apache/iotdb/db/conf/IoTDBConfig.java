@@ -20,6 +20,9 @@ package org.apache.iotdb.db.conf;
 
 import java.io.File;
 import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
@@ -28,6 +31,7 @@ import org.apache.iotdb.db.exception.LoadConfigurationException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.service.TSServiceImpl;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.fileSystem.FSType;
 import org.slf4j.Logger;
@@ -66,6 +70,28 @@ public class IoTDBConfig {
    */
   private int rpcMaxConcurrentClientNum = 65535;
 
+  /**
+   * whether to serve rpc requests by a selector-based server, whose thread number is independent
+   * of the number of connections. Clients must then use framed transport.
+   */
+  private boolean rpcSelectorServerEnable = false;
+
+  /**
+   * Number of selector threads reading and writing the connections of the selector-based server.
+   */
+  private int rpcSelectorThreadNum = 2;
+
+  /**
+   * Number of worker threads processing requests of the selector-based server.
+   */
+  private int rpcWorkerThreadNum = Runtime.getRuntime().availableProcessors() * 2;
+
+  /**
+   * Max bytes buffered for requests being read by the selector-based server, over all
+   * connections.
+   */
+  private long rpcMaxReadBufferSize = 256L * 1024 * 1024;
+
   /**
    * Memory allocated for the read process
    */
@@ -105,6 +131,34 @@ public class IoTDBConfig {
    */
   private long forceWalPeriodInMs = 10;
 
+  /**
+   * If true, an insertion returns only after its WAL is forced to disk, and the WALs of
+   * concurrent insertions are written and forced together by background threads.
+   */
+  private boolean enableWalGroupCommit = false;
+
+  /**
+   * How many threads write and force WALs in group commit mode. When <= 0, use CPU core number.
+   */
+  private int walGroupCommitThreadNum = 0;
+
+  /**
+   * If true, WAL files are preallocated segments written through memory mapping, and the segments
+   * of flushed logs are recycled instead of being deleted.
+   */
+  private boolean enableMmapWal = false;
+
+  /**
+   * Size of a preallocated WAL segment (in byte). A segment is extended by this size when it is
+   * full.
+   */
+  private long walSegmentSizeInByte = 64L * 1024 * 1024;
+
+  /**
+   * How many discarded WAL segments each log node keeps for reuse.
+   */
+  private int maxRecycledWalSegmentNum = 2;
+
   /**
    * Size of log buffer in each log node(in byte). If WAL is enabled and the size of a insert plan
    * is smaller than this parameter, then the insert plan will be rejected by WAL.
@@ -161,6 +215,41 @@ public class IoTDBConfig {
    */
   private int concurrentFlushThread = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * How many threads sort and encode the series of one flushing memtable in parallel. When <= 0,
+   * use CPU core number.
+   */
+  private int concurrentFlushEncodingThread = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * How many threads of the server execute the series of queries in parallel. When <= 0, use CPU
+   * core number.
+   */
+  private int concurrentQueryThread = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * How many series of one query can be executed in parallel, including the rpc thread. When <= 0,
+   * use CPU core number.
+   */
+  private int maxQueryParallelism = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Whether to write a rollup index beside each sealed sequence TsFile, so that aligned GROUP BY
+   * time windows and aggregations can be answered without reading pages.
+   */
+  private boolean enableRollupIndex = false;
+
+  /**
+   * The time bucket (in the unit of timestamp precision) of the rollup index. A GROUP BY window
+   * can be answered from the index only if both of its ends are aligned to this bucket.
+   */
+  private long rollupBucketSize = 60_000L;
+
+  /**
+   * How many loaded rollup indexes are cached in memory.
+   */
+  private int rollupIndexCacheSize = 64;
+
   private ZoneId zoneID = ZoneId.systemDefault();
 
   /**
@@ -180,12 +269,28 @@ public class IoTDBConfig {
   /**
    * Memory allocated for fileMetaData cache in read process
    */
-  private long allocateMemoryForFileMetaDataCache = allocateMemoryForRead * 3 / 19;
+  private long allocateMemoryForFileMetaDataCache = allocateMemoryForRead * 3 / 23;
 
   /**
    * Memory allocated for chunkMetaData cache in read process
    */
-  private long allocateMemoryForChumkMetaDataCache = allocateMemoryForRead * 6 / 19;
+  private long allocateMemoryForChumkMetaDataCache = allocateMemoryForRead * 6 / 23;
+
+  /**
+   * whether to cache the data of chunks in sealed files or not.
+   */
+  private boolean chunkCacheEnable = true;
+
+  /**
+   * Memory allocated for chunk cache in read process
+   */
+  private long allocateMemoryForChunkCache = allocateMemoryForRead * 4 / 23;
+
+  /**
+   * whether the chunk cache keeps pages uncompressed, which saves decompression on each hit at
+   * the cost of memory.
+   */
+  private boolean chunkCacheUncompressed = false;
 
   /**
    * The statMonitor writes statistics info into IoTDB every backLoopPeriodSec secs. The default
@@ -211,6 +316,12 @@ public class IoTDBConfig {
    */
   private int mManagerCacheSize = 400000;
 
+  /**
+   * A snapshot of the metadata tree is taken after this many metadata log entries, so that only
+   * the log written after the snapshot is replayed at startup. Non-positive disables snapshots.
+   */
+  private int metadataSnapshotInterval = 100000;
+
   /**
    * Is external sort enable.
    */
@@ -222,6 +333,40 @@ public class IoTDBConfig {
    */
   private int externalSortThreshold = 60;
 
+  /**
+   * Whether to account the memory used by queries against a pool made of the read memory that the
+   * metadata caches do not use, and to admit queries only when the pool can hold them.
+   */
+  private boolean enableQueryMemoryControl = true;
+
+  /**
+   * The most memory one query may hold. A query that needs more spills its unsequence data through
+   * external sort. 0 means a quarter of the query memory pool.
+   */
+  private long maxMemoryPerQuery = 0;
+
+  /**
+   * The memory a query is assumed to need for each series it reads at the same time, which is
+   * reserved when the query is admitted.
+   */
+  private long estimatedMemoryPerSeries = 128 * 1024L;
+
+  /**
+   * How long a new query waits for the query memory pool before it fails, in milliseconds.
+   */
+  private long queryAdmissionTimeoutInMs = 60_000L;
+
+  /**
+   * Whether sealed TsFiles on the local file system are read through memory mapping.
+   */
+  private boolean enableMmapRead = true;
+
+  /**
+   * The total size of the sealed TsFiles that may be mapped at the same time. Files opened beyond
+   * it are read through file channels.
+   */
+  private long maxMappedBytesForRead = 4L * 1024 * 1024 * 1024;
+
   /**
    * Is this IoTDB instance a receiver of sync or not.
    */
@@ -265,6 +410,30 @@ public class IoTDBConfig {
    */
   private boolean chunkBufferPoolEnable = false;
 
+  /**
+   * Max bytes of idle primitive arrays kept by PrimitiveArrayPool for each data type. Arrays
+   * released beyond this budget are left to GC.
+   */
+  private long primitiveArrayPoolBudgetInByte = 128 * 1024 * 1024L;
+
+  /**
+   * Storage groups whose memtables store numeric series in direct memory instead of pooled
+   * primitive arrays.
+   */
+  private Set<String> offHeapMemtableStorageGroups = Collections.emptySet();
+
+  /**
+   * Max bytes of direct memory used by off-heap memtables. Beyond it, idle direct memory is
+   * released first, and off-heap memtables fall back to heap memory if that is not enough.
+   */
+  private long offHeapMemtableBudgetInByte = 1024 * 1024 * 1024L;
+
+  /**
+   * Compressor of the series created without an explicit compressor, by storage group. Storage
+   * groups that are not listed use the compressor of TsFile.
+   */
+  private Map<String, CompressionType> storageGroupCompressors = Collections.emptyMap();
+
   /**
    * Switch of watermark function
    */
@@ -604,6 +773,46 @@ public class IoTDBConfig {
     this.forceWalPeriodInMs = forceWalPeriodInMs;
   }
 
+  public boolean isEnableWalGroupCommit() {
+    return enableWalGroupCommit;
+  }
+
+  public void setEnableWalGroupCommit(boolean enableWalGroupCommit) {
+    this.enableWalGroupCommit = enableWalGroupCommit;
+  }
+
+  public int getWalGroupCommitThreadNum() {
+    return walGroupCommitThreadNum;
+  }
+
+  public void setWalGroupCommitThreadNum(int walGroupCommitThreadNum) {
+    this.walGroupCommitThreadNum = walGroupCommitThreadNum;
+  }
+
+  public boolean isEnableMmapWal() {
+    return enableMmapWal;
+  }
+
+  public void setEnableMmapWal(boolean enableMmapWal) {
+    this.enableMmapWal = enableMmapWal;
+  }
+
+  public long getWalSegmentSizeInByte() {
+    return walSegmentSizeInByte;
+  }
+
+  public void setWalSegmentSizeInByte(long walSegmentSizeInByte) {
+    this.walSegmentSizeInByte = walSegmentSizeInByte;
+  }
+
+  public int getMaxRecycledWalSegmentNum() {
+    return maxRecycledWalSegmentNum;
+  }
+
+  public void setMaxRecycledWalSegmentNum(int maxRecycledWalSegmentNum) {
+    this.maxRecycledWalSegmentNum = maxRecycledWalSegmentNum;
+  }
+
   public String getSystemDir() {
     return systemDir;
   }
@@ -672,6 +881,54 @@ public class IoTDBConfig {
     this.concurrentFlushThread = concurrentFlushThread;
   }
 
+  public int getConcurrentFlushEncodingThread() {
+    return concurrentFlushEncodingThread;
+  }
+
+  void setConcurrentFlushEncodingThread(int concurrentFlushEncodingThread) {
+    this.concurrentFlushEncodingThread = concurrentFlushEncodingThread;
+  }
+
+  public int getConcurrentQueryThread() {
+    return concurrentQueryThread;
+  }
+
+  void setConcurrentQueryThread(int concurrentQueryThread) {
+    this.concurrentQueryThread = concurrentQueryThread;
+  }
+
+  public int getMaxQueryParallelism() {
+    return maxQueryParallelism;
+  }
+
+  public void setMaxQueryParallelism(int maxQueryParallelism) {
+    this.maxQueryParallelism = maxQueryParallelism;
+  }
+
+  public boolean isEnableRollupIndex() {
+    return enableRollupIndex;
+  }
+
+  public void setEnableRollupIndex(boolean enableRollupIndex) {
+    this.enableRollupIndex = enableRollupIndex;
+  }
+
+  public long getRollupBucketSize() {
+    return rollupBucketSize;
+  }
+
+  public void setRollupBucketSize(long rollupBucketSize) {
+    this.rollupBucketSize = rollupBucketSize;
+  }
+
+  public int getRollupIndexCacheSize() {
+    return rollupIndexCacheSize;
+  }
+
+  void setRollupIndexCacheSize(int rollupIndexCacheSize) {
+    this.rollupIndexCacheSize = rollupIndexCacheSize;
+  }
+
   void setZoneID(ZoneId zoneID) {
     this.zoneID = zoneID;
   }
@@ -708,6 +965,38 @@ public class IoTDBConfig {
     this.rpcMaxConcurrentClientNum = rpcMaxConcurrentClientNum;
   }
 
+  public boolean isRpcSelectorServerEnable() {
+    return rpcSelectorServerEnable;
+  }
+
+  public void setRpcSelectorServerEnable(boolean rpcSelectorServerEnable) {
+    this.rpcSelectorServerEnable = rpcSelectorServerEnable;
+  }
+
+  public int getRpcSelectorThreadNum() {
+    return rpcSelectorThreadNum;
+  }
+
+  public void setRpcSelectorThreadNum(int rpcSelectorThreadNum) {
+    this.rpcSelectorThreadNum = rpcSelectorThreadNum;
+  }
+
+  public int getRpcWorkerThreadNum() {
+    return rpcWorkerThreadNum;
+  }
+
+  public void setRpcWorkerThreadNum(int rpcWorkerThreadNum) {
+    this.rpcWorkerThreadNum = rpcWorkerThreadNum;
+  }
+
+  public long getRpcMaxReadBufferSize() {
+    return rpcMaxReadBufferSize;
+  }
+
+  public void setRpcMaxReadBufferSize(long rpcMaxReadBufferSize) {
+    this.rpcMaxReadBufferSize = rpcMaxReadBufferSize;
+  }
+
   public int getStatMonitorDetectFreqSec() {
     return statMonitorDetectFreqSec;
   }
@@ -732,6 +1021,14 @@ public class IoTDBConfig {
     this.mManagerCacheSize = mManagerCacheSize;
   }
 
+  public int getMetadataSnapshotInterval() {
+    return metadataSnapshotInterval;
+  }
+
+  public void setMetadataSnapshotInterval(int metadataSnapshotInterval) {
+    this.metadataSnapshotInterval = metadataSnapshotInterval;
+  }
+
   public boolean isSyncEnable() {
     return isSyncEnable;
   }
@@ -812,6 +1109,58 @@ public class IoTDBConfig {
     this.chunkBufferPoolEnable = chunkBufferPoolEnable;
   }
 
+  public long getPrimitiveArrayPoolBudgetInByte() {
+    return primitiveArrayPoolBudgetInByte;
+  }
+
+  public void setPrimitiveArrayPoolBudgetInByte(long primitiveArrayPoolBudgetInByte) {
+    this.primitiveArrayPoolBudgetInByte = primitiveArrayPoolBudgetInByte;
+  }
+
+  public Set<String> getOffHeapMemtableStorageGroups() {
+    return offHeapMemtableStorageGroups;
+  }
+
+  public void setOffHeapMemtableStorageGroups(Set<String> offHeapMemtableStorageGroups) {
+    this.offHeapMemtableStorageGroups = offHeapMemtableStorageGroups;
+  }
+
+  public long getOffHeapMemtableBudgetInByte() {
+    return offHeapMemtableBudgetInByte;
+  }
+
+  public void setOffHeapMemtableBudgetInByte(long offHeapMemtableBudgetInByte) {
+    this.offHeapMemtableBudgetInByte = offHeapMemtableBudgetInByte;
+  }
+
+  public boolean isOffHeapMemtable(String storageGroup) {
+    return offHeapMemtableStorageGroups.contains(storageGroup);
+  }
+
+  public Map<String, CompressionType> getStorageGroupCompressors() {
+    return storageGroupCompressors;
+  }
+
+  public void setStorageGroupCompressors(Map<String, CompressionType> storageGroupCompressors) {
+    this.storageGroupCompressors = storageGroupCompressors;
+  }
+
+  /**
+   * @param path full path of a time series
+   * @return the compressor configured for the storage group of the series, or the compressor of
+   * TsFile if its storage group is not configured
+   */
+  public CompressionType getDefaultCompressor(String path) {
+    for (Map.Entry<String, CompressionType> entry : storageGroupCompressors.entrySet()) {
+      String storageGroup = entry.getKey();
+      if (path.startsWith(storageGroup) && (path.length() == storageGroup.length()
+          || path.charAt(storageGroup.length()) == IoTDBConstant.PATH_SEPARATOR)) {
+        return entry.getValue();
+      }
+    }
+    return CompressionType.valueOf(TSFileDescriptor.getInstance().getConfig().getCompressor());
+  }
+
   public long getMergeMemoryBudget() {
     return mergeMemoryBudget;
   }
@@ -884,6 +1233,68 @@ public class IoTDBConfig {
     this.externalSortThreshold = externalSortThreshold;
   }
 
+  public boolean isEnableQueryMemoryControl() {
+    return enableQueryMemoryControl;
+  }
+
+  public void setEnableQueryMemoryControl(boolean enableQueryMemoryControl) {
+    this.enableQueryMemoryControl = enableQueryMemoryControl;
+  }
+
+  public long getMaxMemoryPerQuery() {
+    return maxMemoryPerQuery;
+  }
+
+  public void setMaxMemoryPerQuery(long maxMemoryPerQuery) {
+    this.maxMemoryPerQuery = maxMemoryPerQuery;
+  }
+
+  public long getEstimatedMemoryPerSeries() {
+    return estimatedMemoryPerSeries;
+  }
+
+  public void setEstimatedMemoryPerSeries(long estimatedMemoryPerSeries) {
+    this.estimatedMemoryPerSeries = estimatedMemoryPerSeries;
+  }
+
+  public long getQueryAdmissionTimeoutInMs() {
+    return queryAdmissionTimeoutInMs;
+  }
+
+  public void setQueryAdmissionTimeoutInMs(long queryAdmissionTimeoutInMs) {
+    this.queryAdmissionTimeoutInMs = queryAdmissionTimeoutInMs;
+  }
+
+  public boolean isEnableMmapRead() {
+    return enableMmapRead;
+  }
+
+  public void setEnableMmapRead(boolean enableMmapRead) {
+    this.enableMmapRead = enableMmapRead;
+  }
+
+  public long getMaxMappedBytesForRead() {
+    return maxMappedBytesForRead;
+  }
+
+  public void setMaxMappedBytesForRead(long maxMappedBytesForRead) {
+    this.maxMappedBytesForRead = maxMappedBytesForRead;
+  }
+
+  /**
+   * @return the read memory left to queries by the metadata caches
+   */
+  public long getQueryMemoryPoolSize() {
+    long poolSize = allocateMemoryForRead;
+    if (metaDataCacheEnable) {
+      poolSize -= allocateMemoryForFileMetaDataCache + allocateMemoryForChumkMetaDataCache;
+    }
+    if (chunkCacheEnable) {
+      poolSize -= allocateMemoryForChunkCache;
+    }
+    return Math.max(0, poolSize);
+  }
+
   public boolean isEnablePerformanceStat() {
     return enablePerformanceStat;
   }
@@ -989,6 +1400,30 @@ public class IoTDBConfig {
     this.allocateMemoryForChumkMetaDataCache = allocateMemoryForChumkMetaDataCache;
   }
 
+  public boolean isChunkCacheEnable() {
+    return chunkCacheEnable;
+  }
+
+  public void setChunkCacheEnable(boolean chunkCacheEnable) {
+    this.chunkCacheEnable = chunkCacheEnable;
+  }
+
+  public long getAllocateMemoryForChunkCache() {
+    return allocateMemoryForChunkCache;
+  }
+
+  public void setAllocateMemoryForChunkCache(long allocateMemoryForChunkCache) {
+    this.allocateMemoryForChunkCache = allocateMemoryForChunkCache;
+  }
+
+  public boolean isChunkCacheUncompressed() {
+    return chunkCacheUncompressed;
+  }
+
+  public void setChunkCacheUncompressed(boolean chunkCacheUncompressed) {
+    this.chunkCacheUncompressed = chunkCacheUncompressed;
+  }
+
   public boolean isEnableWatermark() {
     return enableWatermark;
   }
@@ -24,11 +24,17 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.utils.FilePathUtils;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.exception.compress.CompressionTypeNotSupportedException;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -123,6 +129,25 @@ public class IoTDBDescriptor {
       conf.setRpcPort(Integer.parseInt(properties.getProperty("rpc_port",
           Integer.toString(conf.getRpcPort()))));
 
+      conf.setRpcSelectorServerEnable(
+          Boolean.parseBoolean(properties.getProperty("rpc_selector_server_enable",
+              Boolean.toString(conf.isRpcSelectorServerEnable()))));
+
+      conf.setRpcSelectorThreadNum(Integer.parseInt(properties.getProperty(
+          "rpc_selector_thread_num", Integer.toString(conf.getRpcSelectorThreadNum()))));
+      if (conf.getRpcSelectorThreadNum() <= 0) {
+        conf.setRpcSelectorThreadNum(1);
+      }
+
+      conf.setRpcWorkerThreadNum(Integer.parseInt(properties.getProperty(
+          "rpc_worker_thread_num", Integer.toString(conf.getRpcWorkerThreadNum()))));
+      if (conf.getRpcWorkerThreadNum() <= 0) {
+        conf.setRpcWorkerThreadNum(Runtime.getRuntime().availableProcessors() * 2);
+      }
+
+      conf.setRpcMaxReadBufferSize(Long.parseLong(properties.getProperty(
+          "rpc_max_read_buffer_size", Long.toString(conf.getRpcMaxReadBufferSize()))));
+
       conf.setTimestampPrecision(properties.getProperty("timestamp_precision",
           conf.getTimestampPrecision()));
 
@@ -133,11 +158,30 @@ public class IoTDBDescriptor {
       conf.setMetaDataCacheEnable(
           Boolean.parseBoolean(properties.getProperty("meta_data_cache_enable",
               Boolean.toString(conf.isMetaDataCacheEnable()))));
+      conf.setChunkCacheEnable(Boolean.parseBoolean(properties
+          .getProperty("chunk_cache_enable", Boolean.toString(conf.isChunkCacheEnable())).trim()));
+      conf.setChunkCacheUncompressed(Boolean.parseBoolean(properties
+          .getProperty("chunk_cache_uncompressed",
+              Boolean.toString(conf.isChunkCacheUncompressed())).trim()));
 
       initMemoryAllocate(properties);
 
       loadWALProps(properties);
 
+      conf.setEnableWalGroupCommit(Boolean.parseBoolean(properties.getProperty(
+          "enable_wal_group_commit", Boolean.toString(conf.isEnableWalGroupCommit()))));
+      conf.setWalGroupCommitThreadNum(Integer.parseInt(properties.getProperty(
+          "wal_group_commit_thread_num", Integer.toString(conf.getWalGroupCommitThreadNum()))));
+      if (conf.getWalGroupCommitThreadNum() <= 0) {
+        conf.setWalGroupCommitThreadNum(Runtime.getRuntime().availableProcessors());
+      }
+      conf.setEnableMmapWal(Boolean.parseBoolean(properties.getProperty("enable_mmap_wal",
+          Boolean.toString(conf.isEnableMmapWal()))));
+      conf.setWalSegmentSizeInByte(Long.parseLong(properties.getProperty(
+          "wal_segment_size_in_byte", Long.toString(conf.getWalSegmentSizeInByte()))));
+      conf.setMaxRecycledWalSegmentNum(Integer.parseInt(properties.getProperty(
+          "max_recycled_wal_segment_num", Integer.toString(conf.getMaxRecycledWalSegmentNum()))));
+
       conf.setBaseDir(properties.getProperty("base_dir", conf.getBaseDir()));
 
       conf.setSystemDir(FilePathUtils.regularizePath(conf.getBaseDir()) + "system");
@@ -195,10 +239,47 @@ public class IoTDBDescriptor {
         conf.setConcurrentFlushThread(Runtime.getRuntime().availableProcessors());
       }
 
+      conf.setConcurrentFlushEncodingThread(Integer
+          .parseInt(properties.getProperty("concurrent_flush_encoding_thread",
+              Integer.toString(conf.getConcurrentFlushEncodingThread()))));
+      if (conf.getConcurrentFlushEncodingThread() <= 0) {
+        conf.setConcurrentFlushEncodingThread(Runtime.getRuntime().availableProcessors());
+      }
+
+      conf.setConcurrentQueryThread(Integer
+          .parseInt(properties.getProperty("concurrent_query_thread",
+              Integer.toString(conf.getConcurrentQueryThread()))));
+      if (conf.getConcurrentQueryThread() <= 0) {
+        conf.setConcurrentQueryThread(Runtime.getRuntime().availableProcessors());
+      }
+
+      conf.setMaxQueryParallelism(Integer
+          .parseInt(properties.getProperty("max_query_parallelism",
+              Integer.toString(conf.getMaxQueryParallelism()))));
+      if (conf.getMaxQueryParallelism() <= 0) {
+        conf.setMaxQueryParallelism(Runtime.getRuntime().availableProcessors());
+      }
+
+      conf.setEnableRollupIndex(Boolean.parseBoolean(properties
+          .getProperty("enable_rollup_index", Boolean.toString(conf.isEnableRollupIndex()))
+          .trim()));
+      conf.setRollupBucketSize(Long.parseLong(properties
+          .getProperty("rollup_bucket_size", Long.toString(conf.getRollupBucketSize())).trim()));
+      if (conf.getRollupBucketSize() <= 0) {
+        conf.setRollupBucketSize(60_000L);
+      }
+      conf.setRollupIndexCacheSize(Integer.parseInt(properties
+          .getProperty("rollup_index_cache_size", Integer.toString(conf.getRollupIndexCacheSize()))
+          .trim()));
+
       conf.setmManagerCacheSize(Integer
           .parseInt(properties.getProperty("schema_manager_cache_size",
               Integer.toString(conf.getmManagerCacheSize())).trim()));
 
+      conf.setMetadataSnapshotInterval(Integer
+          .parseInt(properties.getProperty("metadata_snapshot_interval",
+              Integer.toString(conf.getMetadataSnapshotInterval())).trim()));
+
       conf.setLanguageVersion(properties.getProperty("language_version",
           conf.getLanguageVersion()).trim());
 
@@ -206,6 +287,52 @@ public class IoTDBDescriptor {
         conf.setChunkBufferPoolEnable(Boolean
             .parseBoolean(properties.getProperty("chunk_buffer_pool_enable")));
       }
+
+      long primitiveArrayPoolBudget = Long.parseLong(properties
+          .getProperty("primitive_array_pool_budget_in_byte",
+              Long.toString(conf.getPrimitiveArrayPoolBudgetInByte())).trim());
+      if (primitiveArrayPoolBudget >= 0) {
+        conf.setPrimitiveArrayPoolBudgetInByte(primitiveArrayPoolBudget);
+      }
+
+      String offHeapStorageGroups = properties.getProperty("off_heap_memtable_storage_groups");
+      if (offHeapStorageGroups != null) {
+        Set<String> storageGroups = new HashSet<>();
+        for (String storageGroup : offHeapStorageGroups.split(",")) {
+          if (!storageGroup.trim().isEmpty()) {
+            storageGroups.add(storageGroup.trim());
+          }
+        }
+        conf.setOffHeapMemtableStorageGroups(storageGroups);
+      }
+
+      long offHeapMemtableBudget = Long.parseLong(properties
+          .getProperty("off_heap_memtable_budget_in_byte",
+              Long.toString(conf.getOffHeapMemtableBudgetInByte())).trim());
+      if (offHeapMemtableBudget >= 0) {
+        conf.setOffHeapMemtableBudgetInByte(offHeapMemtableBudget);
+      }
+
+      String storageGroupCompressors = properties.getProperty("storage_group_compressors");
+      if (storageGroupCompressors != null) {
+        Map<String, CompressionType> compressors = new HashMap<>();
+        for (String entry : storageGroupCompressors.split(",")) {
+          String[] storageGroupAndCompressor = entry.trim().split(":");
+          if (storageGroupAndCompressor.length != 2) {
+            if (!entry.trim().isEmpty()) {
+              logger.warn("Ignore illegal storage group compressor {}", entry);
+            }
+            continue;
+          }
+          try {
+            compressors.put(storageGroupAndCompressor[0].trim(),
+                CompressionType.findByShortName(storageGroupAndCompressor[1]));
+          } catch (CompressionTypeNotSupportedException e) {
+            logger.warn("Ignore unsupported storage group compressor {}", entry);
+          }
+        }
+        conf.setStorageGroupCompressors(compressors);
+      }
       conf.setZoneID(
           ZoneId.of(properties.getProperty("time_zone", conf.getZoneID().toString().trim())));
       logger.info("Time zone has been set to {}", conf.getZoneID());
@@ -215,6 +342,24 @@ public class IoTDBDescriptor {
       conf.setExternalSortThreshold(Integer.parseInt(properties
           .getProperty("external_sort_threshold",
               Integer.toString(conf.getExternalSortThreshold()))));
+
+      conf.setEnableQueryMemoryControl(Boolean.parseBoolean(properties
+          .getProperty("enable_query_memory_control",
+              Boolean.toString(conf.isEnableQueryMemoryControl()))));
+      conf.setMaxMemoryPerQuery(Long.parseLong(properties
+          .getProperty("max_memory_per_query_in_byte",
+              Long.toString(conf.getMaxMemoryPerQuery())).trim()));
+      conf.setEstimatedMemoryPerSeries(Long.parseLong(properties
+          .getProperty("estimated_memory_per_series_in_byte",
+              Long.toString(conf.getEstimatedMemoryPerSeries())).trim()));
+      conf.setQueryAdmissionTimeoutInMs(Long.parseLong(properties
+          .getProperty("query_admission_timeout_in_ms",
+              Long.toString(conf.getQueryAdmissionTimeoutInMs())).trim()));
+      conf.setEnableMmapRead(Boolean.parseBoolean(properties
+          .getProperty("enable_mmap_read", Boolean.toString(conf.isEnableMmapRead())).trim()));
+      conf.setMaxMappedBytesForRead(Long.parseLong(properties
+          .getProperty("max_mapped_bytes_for_read",
+              Long.toString(conf.getMaxMappedBytesForRead())).trim()));
       conf.setUpgradeThreadNum(Integer.parseInt(properties.getProperty("upgrade_thread_num",
           Integer.toString(conf.getUpgradeThreadNum()))));
       conf.setMergeMemoryBudget(Long.parseLong(properties.getProperty("merge_memory_budget",
@@ -415,6 +560,9 @@ public class IoTDBDescriptor {
             TSFileDescriptor.getInstance().getConfig().getValueEncoder()));
     TSFileDescriptor.getInstance().getConfig().setCompressor(properties
         .getProperty("compressor", TSFileDescriptor.getInstance().getConfig().getCompressor()));
+    TSFileDescriptor.getInstance().getConfig().setZstdCompressionLevel(Integer.parseInt(
+        properties.getProperty("zstd_compression_level", Integer.toString(
+            TSFileDescriptor.getInstance().getConfig().getZstdCompressionLevel()))));
   }
 
   public void loadHotModifiedProps() throws QueryProcessException {
@@ -509,6 +657,9 @@ public class IoTDBDescriptor {
             maxMemoryAvailable * Integer.parseInt(proportions[0].trim()) / proportionSum);
         conf.setAllocateMemoryForChumkMetaDataCache(
             maxMemoryAvailable * Integer.parseInt(proportions[1].trim()) / proportionSum);
+        // the chunk cache has no memory unless the proportion has four parts
+        conf.setAllocateMemoryForChunkCache(proportions.length > 3
+            ? maxMemoryAvailable * Integer.parseInt(proportions[2].trim()) / proportionSum : 0);
       } catch (Exception e) {
         throw new RuntimeException(
             "Each subsection of configuration item filemeta_chunkmeta_free_memory_proportion should be an integer, which is "
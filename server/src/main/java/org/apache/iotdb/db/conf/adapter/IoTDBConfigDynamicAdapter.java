@@ -202,13 +202,13 @@ public class IoTDBConfigDynamicAdapter implements IDynamicAdapter {
   }
 
   /**
-   * Get the floor threshold MemTable size. For Primitive Array, we think that the maximum memory
-   * occupied by each value is 8 bytes. The reason for multiplying 2 is that the timestamp also
-   * takes 8 bytes.
+   * Get the floor threshold MemTable size. A fresh series allocates one array of MIN_ARRAY_SIZE
+   * elements, and we think that the maximum memory occupied by each value is 8 bytes. The reason
+   * for multiplying 2 is that the timestamp also takes 8 bytes.
    */
   private long getMemTableSizeFloorThreshold() {
     return MManager.getInstance().getMaximalSeriesNumberAmongStorageGroups()
-        * PrimitiveArrayPool.ARRAY_SIZE * Long.BYTES * 2;
+        * PrimitiveArrayPool.MIN_ARRAY_SIZE * Long.BYTES * 2;
   }
 
   @Override
@@ -21,10 +21,13 @@ package org.apache.iotdb.db.engine;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
@@ -254,6 +257,49 @@ public class StorageEngine implements IService {
     }
   }
 
+  /**
+   * Insert BatchInsertPlans of many devices. The plans are grouped by storage group so that each
+   * storage group is locked once and logs all its plans by one WAL write.
+   *
+   * @return result of each row of each plan, in the order of the plans
+   */
+  public List<Integer[]> insertBatches(List<BatchInsertPlan> batchInsertPlans)
+      throws StorageEngineException {
+    Map<StorageGroupProcessor, List<Integer>> planIndexesOfProcessor = new LinkedHashMap<>();
+    for (int i = 0; i < batchInsertPlans.size(); i++) {
+      String deviceId = batchInsertPlans.get(i).getDeviceId();
+      StorageGroupProcessor storageGroupProcessor;
+      try {
+        storageGroupProcessor = getProcessor(deviceId);
+      } catch (StorageEngineException e) {
+        logger.warn("get StorageGroupProcessor of device {} failed, because {}", deviceId,
+            e.getMessage(), e);
+        throw new StorageEngineException(e);
+      }
+      planIndexesOfProcessor.computeIfAbsent(storageGroupProcessor, p -> new ArrayList<>())
+          .add(i);
+    }
+
+    Integer[][] resultsOfPlans = new Integer[batchInsertPlans.size()][];
+    for (Entry<StorageGroupProcessor, List<Integer>> entry : planIndexesOfProcessor.entrySet()) {
+      List<Integer> planIndexes = entry.getValue();
+      List<BatchInsertPlan> plans = new ArrayList<>(planIndexes.size());
+      for (int planIndex : planIndexes) {
+        plans.add(batchInsertPlans.get(planIndex));
+      }
+      List<Integer[]> results;
+      try {
+        results = entry.getKey().insertBatches(plans);
+      } catch (QueryProcessException e) {
+        throw new StorageEngineException(e);
+      }
+      for (int i = 0; i < planIndexes.size(); i++) {
+        resultsOfPlans[planIndexes.get(i)] = results.get(i);
+      }
+    }
+    return Arrays.asList(resultsOfPlans);
+  }
+
   /**
    * flush command Sync asyncCloseOneProcessor all file node processors.
    */
@@ -30,6 +30,7 @@ public class CacheHitRatioMonitor implements CacheHitRatioMonitorMXBean, IServic
 
   double chunkMetaDataHitRatio;
   double tsfileMetaDataHitRatio;
+  double chunkHitRatio;
 
   private static Logger logger = LoggerFactory.getLogger(CacheHitRatioMonitor.class);
   static final CacheHitRatioMonitor instance = AsyncCacheHitRatioHolder.DISPLAYER;
@@ -66,6 +67,12 @@ public class CacheHitRatioMonitor implements CacheHitRatioMonitorMXBean, IServic
     return tsfileMetaDataHitRatio;
   }
 
+  @Override
+  public double getChunkHitRatio() {
+    chunkHitRatio = ChunkCache.getInstance().calculateChunkHitRatio();
+    return chunkHitRatio;
+  }
+
   public static CacheHitRatioMonitor getInstance() {
     return instance;
   }
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.tsfile.compress.IUnCompressor;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is used to cache the data of chunks in sealed tsfiles. The cache is a
+ * {@link SegmentedLFUCache} keyed by the file path, the offset and the version of a chunk. The
+ * cached data is copied to the heap, so it neither refers to a mapped file nor grows with the
+ * mapped size, and it is shared by all queries, so a query must duplicate it before reading.
+ * <p>
+ * Deletions are applied by queries through the deletedAt of ChunkMetaData, so the cached data stays
+ * valid when a modification file changes. It becomes invalid only when the file is merged or
+ * removed.
+ */
+public class ChunkCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(ChunkCache.class);
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private static final long MEMORY_THRESHOLD_IN_B = config.getAllocateMemoryForChunkCache();
+  private static boolean cacheEnable = config.isChunkCacheEnable() && MEMORY_THRESHOLD_IN_B > 0;
+  private static boolean cacheUncompressed = config.isChunkCacheUncompressed();
+
+  /**
+   * approximate size of a chunk with a few pages
+   */
+  private static final long EXPECTED_ENTRY_SIZE_IN_B = 64 * 1024L;
+  /**
+   * shallow size of a ChunkKey, a Chunk, a ChunkHeader and a ByteBuffer
+   */
+  private static final long KEY_AND_CHUNK_OVERHEAD_IN_B = 40 + 32 + 48 + 64;
+
+  private SegmentedLFUCache<ChunkKey, Chunk> lruCache;
+
+  private LongAdder cacheHitNum = new LongAdder();
+  private LongAdder cacheRequestNum = new LongAdder();
+
+  private ChunkCache(long memoryThreshold) {
+    lruCache = new SegmentedLFUCache<ChunkKey, Chunk>(memoryThreshold, EXPECTED_ENTRY_SIZE_IN_B) {
+      @Override
+      protected long calEntrySize(ChunkKey key, Chunk value) {
+        return KEY_AND_CHUNK_OVERHEAD_IN_B + 2L * key.filePath.length()
+            + 2L * value.getHeader().getMeasurementID().length() + value.getData().capacity();
+      }
+    };
+  }
+
+  public static ChunkCache getInstance() {
+    return ChunkCacheHolder.INSTANCE;
+  }
+
+  /**
+   * get the chunk of chunkMetaData in a sealed file, reading it by reader if it is not cached.
+   * THREAD SAFE.
+   *
+   * @return a chunk whose data may be read without affecting the cached one
+   */
+  public Chunk get(TsFileResource resource, ChunkMetaData chunkMetaData,
+      TsFileSequenceReader reader) throws IOException {
+    if (!cacheEnable) {
+      return reader.readMemChunk(chunkMetaData);
+    }
+
+    ChunkKey key = new ChunkKey(resource.getFile().getPath(),
+        chunkMetaData.getOffsetOfChunkHeader(), chunkMetaData.getVersion());
+    cacheRequestNum.increment();
+    Chunk chunk = lruCache.get(key);
+    if (chunk != null) {
+      cacheHitNum.increment();
+      printCacheLog(true);
+    } else {
+      printCacheLog(false);
+      chunk = copyToHeap(reader.readMemChunk(chunkMetaData));
+      lruCache.put(key, chunk);
+    }
+    return new Chunk(chunk.getHeader(), chunk.getData().duplicate(),
+        chunkMetaData.getDeletedAt(), chunk.getEndianType());
+  }
+
+  /**
+   * copy the data of a chunk into a heap buffer owned by the cache, uncompressing its pages if
+   * chunk_cache_uncompressed is set.
+   */
+  private Chunk copyToHeap(Chunk chunk) throws IOException {
+    ChunkHeader header = chunk.getHeader();
+    ByteBuffer data = chunk.getData().duplicate();
+    if (!cacheUncompressed || header.getCompressionType() == CompressionType.UNCOMPRESSED) {
+      ByteBuffer copy = ByteBuffer.allocate(data.remaining());
+      copy.put(data);
+      copy.flip();
+      return new Chunk(header, copy, chunk.getDeletedAt(), chunk.getEndianType());
+    }
+
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(header.getCompressionType());
+    PublicBAOS outputStream = new PublicBAOS(data.remaining());
+    ByteBuffer uncompressedPage = ByteBuffer.allocate(0);
+    while (data.hasRemaining()) {
+      PageHeader pageHeader = PageHeader.deserializeFrom(data, header.getDataType());
+      ByteBuffer compressedPage = data.slice();
+      compressedPage.limit(pageHeader.getCompressedSize());
+      data.position(data.position() + pageHeader.getCompressedSize());
+
+      int uncompressedSize = pageHeader.getUncompressedSize();
+      if (uncompressedPage.capacity() < uncompressedSize) {
+        uncompressedPage = ByteBuffer.allocate(uncompressedSize);
+      }
+      uncompressedPage.clear();
+      IUnCompressor.uncompressByArray(unCompressor, compressedPage, uncompressedPage);
+      new PageHeader(uncompressedSize, uncompressedSize, pageHeader.getStatistics())
+          .serializeTo(outputStream);
+      outputStream.write(uncompressedPage.array(), 0, uncompressedSize);
+    }
+    ChunkHeader uncompressedHeader = new ChunkHeader(header.getMeasurementID(),
+        outputStream.size(), header.getDataType(), CompressionType.UNCOMPRESSED,
+        header.getEncodingType(), header.getNumOfPages());
+    return new Chunk(uncompressedHeader, ByteBuffer.wrap(outputStream.toByteArray()),
+        chunk.getDeletedAt(), chunk.getEndianType());
+  }
+
+  private void printCacheLog(boolean isHit) {
+    if (!logger.isDebugEnabled()) {
+      return;
+    }
+    logger.debug("[Chunk cache {}hit] The number of requests for cache is {}, hit rate is {}.",
+        isHit ? "" : "didn't ", cacheRequestNum.sum(),
+        cacheHitNum.sum() * 1.0 / cacheRequestNum.sum());
+  }
+
+  public double calculateChunkHitRatio() {
+    long requestNum = cacheRequestNum.sum();
+    if (requestNum != 0) {
+      return cacheHitNum.sum() * 1.0 / requestNum;
+    } else {
+      return 0;
+    }
+  }
+
+  /**
+   * clear LRUCache.
+   */
+  public void clear() {
+    lruCache.clear();
+  }
+
+  public void remove(TsFileResource resource) {
+    if (!cacheEnable) {
+      return;
+    }
+    String filePath = resource.getFile().getPath();
+    lruCache.removeIf(key -> key.filePath.equals(filePath));
+  }
+
+  /**
+   * The key of a chunk in a file. The version tells apart the chunks written at the same offset
+   * of a file that is truncated and appended by merge.
+   */
+  private static class ChunkKey {
+
+    private final String filePath;
+    private final long offset;
+    private final long version;
+    private final int hashCode;
+
+    private ChunkKey(String filePath, long offset, long version) {
+      this.filePath = filePath;
+      this.offset = offset;
+      this.version = version;
+      this.hashCode = Objects.hash(filePath, offset, version);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ChunkKey that = (ChunkKey) o;
+      return offset == that.offset && version == that.version && filePath.equals(that.filePath);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * singleton pattern.
+   */
+  private static class ChunkCacheHolder {
+
+    private static final ChunkCache INSTANCE = new ChunkCache(MEMORY_THRESHOLD_IN_B);
+  }
+}
@@ -20,11 +20,13 @@ package org.apache.iotdb.db.engine.cache;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.StorageEngine;
@@ -32,14 +34,16 @@ import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.utils.BloomFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This class is used to cache <code>List<ChunkMetaData></code> of tsfile in IoTDB. The caching
- * strategy is LRU.
+ * This class is used to cache <code>List<ChunkMetaData></code> of tsfile in IoTDB. The cache is a
+ * {@link SegmentedLFUCache}, and the cached lists are immutable and shared by all queries, so a
+ * query must copy a list before modifying it.
  */
 public class DeviceMetaDataCache {
 
@@ -48,31 +52,76 @@ public class DeviceMetaDataCache {
   private static final long MEMORY_THRESHOLD_IN_B = config.getAllocateMemoryForChumkMetaDataCache();
   private static StorageEngine storageEngine = StorageEngine.getInstance();
   private static boolean cacheEnable = config.isMetaDataCacheEnable();
+
+  /**
+   * approximate size of a cached chunkMetaData list with a few chunks and its key
+   */
+  private static final long EXPECTED_ENTRY_SIZE_IN_B = 1024;
+  /**
+   * shallow size of a SeriesKey, an unmodifiable list and the ArrayList it wraps
+   */
+  private static final long KEY_AND_LIST_OVERHEAD_IN_B = 32 + 16 + 24 + 16;
+  private static final int LOAD_LOCK_NUM = 64;
+
   /**
-   * key: file path dot deviceId dot sensorId.
+   * key: file path, deviceId and sensorId.
    * <p>
    * value: chunkMetaData list of one timeseries in the file.
    */
-  private LRULinkedHashMap<String, List<ChunkMetaData>> lruCache;
+  private SegmentedLFUCache<SeriesKey, List<ChunkMetaData>> lruCache;
 
-  private AtomicLong cacheHitNum = new AtomicLong();
-  private AtomicLong cacheRequestNum = new AtomicLong();
+  /**
+   * loading the metadata of one device in one file is serialized by one of these locks, so that
+   * concurrent queries of a device do not read the same metadata twice
+   */
+  private final Object[] loadLocks = new Object[LOAD_LOCK_NUM];
+
+  private LongAdder cacheHitNum = new LongAdder();
+  private LongAdder cacheRequestNum = new LongAdder();
 
   /**
-   * approximate estimation of chunkMetaData size
+   * approximate estimation of chunkMetaData size of each data type, 0 if not estimated yet
    */
-  private long chunkMetaDataSize = 0;
+  private long[] chunkMetaDataSizes = new long[TSDataType.values().length];
 
   private DeviceMetaDataCache(long memoryThreshold) {
-    lruCache = new LRULinkedHashMap<String, List<ChunkMetaData>>(memoryThreshold, true) {
+    lruCache = new SegmentedLFUCache<SeriesKey, List<ChunkMetaData>>(memoryThreshold,
+        EXPECTED_ENTRY_SIZE_IN_B) {
       @Override
-      protected long calEntrySize(String key, List<ChunkMetaData> value) {
-        if (chunkMetaDataSize == 0 && !value.isEmpty()) {
-          chunkMetaDataSize = RamUsageEstimator.sizeOf(value.get(0));
+      protected long calEntrySize(SeriesKey key, List<ChunkMetaData> value) {
+        long size = KEY_AND_LIST_OVERHEAD_IN_B + 4L * value.size()
+            + sizeOf(key.device) + sizeOf(key.measurement);
+        for (ChunkMetaData chunkMetaData : value) {
+          size += sizeOf(chunkMetaData);
         }
-        return value.size() * chunkMetaDataSize + key.length() * 2;
+        return size;
       }
     };
+    for (int i = 0; i < LOAD_LOCK_NUM; i++) {
+      loadLocks[i] = new Object();
+    }
+  }
+
+  private static long sizeOf(String string) {
+    // object header, fields and the char array
+    return 40 + 2L * string.length();
+  }
+
+  /**
+   * the size of a chunkMetaData only depends on its data type, except for TEXT whose statistics
+   * hold the values.
+   */
+  private long sizeOf(ChunkMetaData chunkMetaData) {
+    TSDataType dataType = chunkMetaData.getDataType();
+    if (dataType == TSDataType.TEXT) {
+      return RamUsageEstimator.sizeOf(chunkMetaData);
+    }
+    long size = chunkMetaDataSizes[dataType.ordinal()];
+    if (size == 0) {
+      size = RamUsageEstimator.sizeOf(chunkMetaData);
+      chunkMetaDataSizes[dataType.ordinal()] = size;
+    }
+    return size;
   }
 
   public static DeviceMetaDataCache getInstance() {
@@ -81,6 +130,8 @@ public class DeviceMetaDataCache {
 
   /**
    * get {@link ChunkMetaData}. THREAD SAFE.
+   *
+   * @return an immutable list which must be copied before being modified
    */
   public List<ChunkMetaData> get(TsFileResource resource, Path seriesPath)
       throws IOException {
@@ -92,40 +143,35 @@ public class DeviceMetaDataCache {
         if (logger.isDebugEnabled()) {
           logger.debug("path not found by bloom filter, file is: " + resource.getFile() + " path is: " + seriesPath);
         }
-        return new ArrayList<>();
+        return Collections.emptyList();
       }
       //
       TsDeviceMetadata deviceMetaData = TsFileMetadataUtils
           .getTsDeviceMetaData(resource, seriesPath, fileMetaData);
       // If measurement isn't included in the tsfile, empty list is returned.
       if (deviceMetaData == null) {
-        return new ArrayList<>();
+        return Collections.emptyList();
       }
       return TsFileMetadataUtils.getChunkMetaDataList(seriesPath.getMeasurement(), deviceMetaData);
     }
 
-    StringBuilder builder = new StringBuilder(resource.getFile().getPath()).append(".")
-        .append(seriesPath
-            .getDevice());
-    String pathDeviceStr = builder.toString();
-    String key = builder.append(".").append(seriesPath.getMeasurement()).toString();
-    Object devicePathObject = pathDeviceStr.intern();
-
-    synchronized (lruCache) {
-      cacheRequestNum.incrementAndGet();
-      if (lruCache.containsKey(key)) {
-        cacheHitNum.incrementAndGet();
-        printCacheLog(true);
-        return new ArrayList<>(lruCache.get(key));
-      }
+    String filePath = resource.getFile().getPath();
+    SeriesKey key = new SeriesKey(filePath, seriesPath.getDevice(),
+        seriesPath.getMeasurement());
+
+    cacheRequestNum.increment();
+    List<ChunkMetaData> chunkMetaDataList = lruCache.get(key);
+    if (chunkMetaDataList != null) {
+      cacheHitNum.increment();
+      printCacheLog(true);
+      return chunkMetaDataList;
     }
-    synchronized (devicePathObject) {
-      synchronized (lruCache) {
-        if (lruCache.containsKey(key)) {
-          printCacheLog(true);
-          cacheHitNum.incrementAndGet();
-          return new ArrayList<>(lruCache.get(key));
-        }
+    synchronized (loadLockFor(filePath, seriesPath.getDevice())) {
+      chunkMetaDataList = lruCache.peek(key);
+      if (chunkMetaDataList != null) {
+        cacheHitNum.increment();
+        printCacheLog(true);
+        return chunkMetaDataList;
       }
       printCacheLog(false);
       TsFileMetaData fileMetaData = TsFileMetaDataCache.getInstance().get(resource);
@@ -135,45 +181,54 @@ public class DeviceMetaDataCache {
         if (logger.isDebugEnabled()) {
           logger.debug("path not found by bloom filter, file is: " + resource.getFile() + " path is: " + seriesPath);
         }
-        return new ArrayList<>();
+        return Collections.emptyList();
       }
       //
       TsDeviceMetadata deviceMetaData = TsFileMetadataUtils
           .getTsDeviceMetaData(resource, seriesPath, fileMetaData);
       // If measurement isn't included in the tsfile, empty list is returned.
       if (deviceMetaData == null) {
-        return new ArrayList<>();
+        return Collections.emptyList();
       }
       Map<Path, List<ChunkMetaData>> chunkMetaData = TsFileMetadataUtils
           .getChunkMetaDataList(calHotSensorSet(seriesPath), deviceMetaData);
-      synchronized (lruCache) {
-        chunkMetaData.forEach((path, chunkMetaDataList) -> {
-          String k = pathDeviceStr + "." + path.getMeasurement();
-          if (!lruCache.containsKey(k)) {
-            lruCache.put(k, chunkMetaDataList);
+      for (Map.Entry<Path, List<ChunkMetaData>> entry : chunkMetaData.entrySet()) {
+        Path path = entry.getKey();
+        List<ChunkMetaData> value = Collections.unmodifiableList(entry.getValue());
+        if (path.equals(seriesPath)) {
+          lruCache.put(key, value);
+          chunkMetaDataList = value;
+        } else {
+          SeriesKey k = new SeriesKey(filePath, path.getDevice(), path.getMeasurement());
+          if (lruCache.peek(k) == null) {
+            lruCache.put(k, value);
           }
-        });
-        if (chunkMetaData.containsKey(seriesPath)) {
-          return new ArrayList<>(chunkMetaData.get(seriesPath));
         }
-        return new ArrayList<>();
       }
+      return chunkMetaDataList == null ? Collections.emptyList() : chunkMetaDataList;
     }
   }
 
+  private Object loadLockFor(String filePath, String device) {
+    int h = filePath.hashCode() * 31 + device.hashCode();
+    h ^= (h >>> 16);
+    return loadLocks[h & (LOAD_LOCK_NUM - 1)];
+  }
+
   private void printCacheLog(boolean isHit) {
     if (!logger.isDebugEnabled()) {
       return;
     }
     logger.debug(
         "[ChunkMetaData cache {}hit] The number of requests for cache is {}, hit rate is {}.",
-        isHit ? "" : "didn't ", cacheRequestNum.get(),
-        cacheHitNum.get() * 1.0 / cacheRequestNum.get());
+        isHit ? "" : "didn't ", cacheRequestNum.sum(),
+        cacheHitNum.sum() * 1.0 / cacheRequestNum.sum());
   }
 
   public double calculateChunkMetaDataHitRatio() {
-    if (cacheRequestNum.get() != 0) {
-      return cacheHitNum.get() * 1.0 / cacheRequestNum.get();
+    long requestNum = cacheRequestNum.sum();
+    if (requestNum != 0) {
+      return cacheHitNum.sum() * 1.0 / requestNum;
     } else {
       return 0;
     }
@@ -210,16 +265,47 @@ public class DeviceMetaDataCache {
    * clear LRUCache.
    */
   public void clear() {
-    synchronized (lruCache) {
-      if (lruCache != null) {
-        lruCache.clear();
-      }
-    }
+    lruCache.clear();
   }
 
   public void remove(TsFileResource resource) {
-    synchronized (lruCache) {
-      lruCache.entrySet().removeIf(e -> e.getKey().startsWith(resource.getFile().getPath()));
+    String filePath = resource.getFile().getPath();
+    lruCache.removeIf(key -> key.filePath.equals(filePath));
+  }
+
+  /**
+   * The key of a series in a file, which avoids building a string per lookup.
+   */
+  private static class SeriesKey {
+
+    private final String filePath;
+    private final String device;
+    private final String measurement;
+    private final int hashCode;
+
+    private SeriesKey(String filePath, String device, String measurement) {
+      this.filePath = filePath;
+      this.device = device;
+      this.measurement = measurement;
+      this.hashCode = Objects.hash(filePath, device, measurement);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      SeriesKey that = (SeriesKey) o;
+      return filePath.equals(that.filePath) && device.equals(that.device)
+          && measurement.equals(that.measurement);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
     }
   }
 
@@ -231,4 +317,4 @@ public class DeviceMetaDataCache {
     private static final DeviceMetaDataCache INSTANCE = new
         DeviceMetaDataCache(MEMORY_THRESHOLD_IN_B);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.function.Predicate;
+
+/**
+ * This class is a concurrent cache bounded by the estimated memory of its entries. The keys are
+ * spread over segments that are locked independently, so lookups of different keys rarely contend.
+ * <p>
+ * Each segment follows W-TinyLFU: a new entry enters a small LRU window (1% of the segment). An
+ * entry evicted from the window is a candidate for the main LRU space, and it is admitted only if
+ * the {@link FrequencySketch} estimates that it is accessed more often than the entries it would
+ * evict. Thus a scan over many cold series cannot flush the hot ones out of the cache.
+ */
+public abstract class SegmentedLFUCache<K, V> {
+
+  private static final int DEFAULT_SEGMENT_NUM = 16;
+  private static final double WINDOW_PROPORTION = 0.01;
+
+  private final Segment[] segments;
+  private final int segmentMask;
+  private final long maxMemInB;
+
+  /**
+   * @param maxMemInB maximum memory threshold
+   * @param expectedEntrySizeInB approximate size of an entry, to size the frequency sketches
+   */
+  public SegmentedLFUCache(long maxMemInB, long expectedEntrySizeInB) {
+    this.maxMemInB = maxMemInB;
+    this.segments = new SegmentedLFUCache.Segment[DEFAULT_SEGMENT_NUM];
+    this.segmentMask = DEFAULT_SEGMENT_NUM - 1;
+    long segmentMem = maxMemInB / DEFAULT_SEGMENT_NUM;
+    int expectedEntries = (int) Math
+        .min(Integer.MAX_VALUE, segmentMem / Math.max(1, expectedEntrySizeInB));
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new Segment(segmentMem, expectedEntries);
+    }
+  }
+
+  /**
+   * approximately estimate the size of key and value. It is called once per put.
+   */
+  protected abstract long calEntrySize(K key, V value);
+
+  /**
+   * @return the cached value or null, the access is counted for admission
+   */
+  public V get(K key) {
+    Segment segment = segmentFor(key);
+    synchronized (segment) {
+      segment.sketch.increment(key);
+      Node<V> node = segment.window.get(key);
+      if (node == null) {
+        node = segment.main.get(key);
+      }
+      return node == null ? null : node.value;
+    }
+  }
+
+  /**
+   * @return the cached value or null, without counting the access for admission
+   */
+  public V peek(K key) {
+    Segment segment = segmentFor(key);
+    synchronized (segment) {
+      Node<V> node = segment.window.get(key);
+      if (node == null) {
+        node = segment.main.get(key);
+      }
+      return node == null ? null : node.value;
+    }
+  }
+
+  /**
+   * put the entry into the cache. The entry may be rejected later by the admission policy.
+   */
+  public void put(K key, V value) {
+    Node<V> node = new Node<>(value, calEntrySize(key, value));
+    Segment segment = segmentFor(key);
+    synchronized (segment) {
+      segment.put(key, node);
+    }
+  }
+
+  public void remove(K key) {
+    Segment segment = segmentFor(key);
+    synchronized (segment) {
+      segment.remove(key);
+    }
+  }
+
+  public void removeIf(Predicate<K> predicate) {
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        segment.removeIf(predicate);
+      }
+    }
+  }
+
+  public void clear() {
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  /**
+   * calculate the proportion of used memory.
+   */
+  public double getUsedMemoryProportion() {
+    long usedMemInB = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        usedMemInB += segment.windowMemInB + segment.mainMemInB;
+      }
+    }
+    return usedMemInB * 1.0 / maxMemInB;
+  }
+
+  private Segment segmentFor(Object key) {
+    int h = key.hashCode();
+    h ^= (h >>> 16);
+    return segments[h & segmentMask];
+  }
+
+  private static class Node<V> {
+
+    private final V value;
+    private final long size;
+
+    private Node(V value, long size) {
+      this.value = value;
+      this.size = size;
+    }
+  }
+
+  private class Segment {
+
+    private final LinkedHashMap<K, Node<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Node<V>> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final long maxWindowMemInB;
+    private final long maxMainMemInB;
+    private long windowMemInB;
+    private long mainMemInB;
+
+    private Segment(long maxMemInB, int expectedEntries) {
+      this.maxWindowMemInB = (long) (maxMemInB * WINDOW_PROPORTION);
+      this.maxMainMemInB = maxMemInB - maxWindowMemInB;
+      this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    /**
+     * the access has been counted by the get() which missed, so it is not counted again here.
+     */
+    private void put(K key, Node<V> node) {
+      remove(key);
+      window.put(key, node);
+      windowMemInB += node.size;
+      while (windowMemInB > maxWindowMemInB && !window.isEmpty()) {
+        Iterator<Entry<K, Node<V>>> iterator = window.entrySet().iterator();
+        Entry<K, Node<V>> candidate = iterator.next();
+        iterator.remove();
+        windowMemInB -= candidate.getValue().size;
+        admit(candidate.getKey(), candidate.getValue());
+      }
+    }
+
+    /**
+     * move a candidate evicted from the window into the main space, if it is more frequent than
+     * the least recently used entries it has to evict.
+     */
+    private void admit(K key, Node<V> node) {
+      if (node.size > maxMainMemInB) {
+        return;
+      }
+      int candidateFrequency = sketch.frequency(key);
+      Iterator<Entry<K, Node<V>>> victims = main.entrySet().iterator();
+      while (mainMemInB + node.size > maxMainMemInB) {
+        Entry<K, Node<V>> victim = victims.next();
+        if (candidateFrequency <= sketch.frequency(victim.getKey())) {
+          return;
+        }
+        victims.remove();
+        mainMemInB -= victim.getValue().size;
+      }
+      main.put(key, node);
+      mainMemInB += node.size;
+    }
+
+    private void remove(K key) {
+      Node<V> node = window.remove(key);
+      if (node != null) {
+        windowMemInB -= node.size;
+      }
+      node = main.remove(key);
+      if (node != null) {
+        mainMemInB -= node.size;
+      }
+    }
+
+    private void removeIf(Predicate<K> predicate) {
+      Iterator<Entry<K, Node<V>>> iterator = window.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Entry<K, Node<V>> entry = iterator.next();
+        if (predicate.test(entry.getKey())) {
+          windowMemInB -= entry.getValue().size;
+          iterator.remove();
+        }
+      }
+      iterator = main.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Entry<K, Node<V>> entry = iterator.next();
+        if (predicate.test(entry.getKey())) {
+          mainMemInB -= entry.getValue().size;
+          iterator.remove();
+        }
+      }
+    }
+
+    private void clear() {
+      window.clear();
+      main.clear();
+      windowMemInB = 0;
+      mainMemInB = 0;
+    }
+  }
+}
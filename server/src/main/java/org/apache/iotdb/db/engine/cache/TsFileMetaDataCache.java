@@ -19,7 +19,7 @@
 package org.apache.iotdb.db.engine.cache;
 
 import java.io.IOException;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
@@ -28,7 +28,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This class is used to cache <code>TsFileMetaData</code> of tsfile in IoTDB.
+ * This class is used to cache <code>TsFileMetaData</code> of tsfile in IoTDB. The cache is a
+ * {@link SegmentedLFUCache} keyed by the path of the tsfile.
  */
 public class TsFileMetaDataCache {
 
@@ -37,12 +38,19 @@ public class TsFileMetaDataCache {
 
   private static boolean cacheEnable = config.isMetaDataCacheEnable();
   private static final long MEMORY_THRESHOLD_IN_B = config.getAllocateMemoryForFileMetaDataCache();
+  /**
+   * approximate size of a TsFileMetaData with dozens of devices and measurements
+   */
+  private static final long EXPECTED_ENTRY_SIZE_IN_B = 16 * 1024L;
+  private static final int LOAD_LOCK_NUM = 64;
+
   /**
    * key: Tsfile path. value: TsFileMetaData
    */
-  private LRULinkedHashMap<TsFileResource, TsFileMetaData> cache;
-  private AtomicLong cacheHitNum = new AtomicLong();
-  private AtomicLong cacheRequestNum = new AtomicLong();
+  private SegmentedLFUCache<String, TsFileMetaData> cache;
+  private final Object[] loadLocks = new Object[LOAD_LOCK_NUM];
+  private LongAdder cacheHitNum = new LongAdder();
+  private LongAdder cacheRequestNum = new LongAdder();
 
   /**
    * estimated size of a deviceIndexMap entry in TsFileMetaData.
@@ -58,9 +66,10 @@ public class TsFileMetaDataCache {
   private long versionAndCreatebySize = 10;
 
   private TsFileMetaDataCache() {
-    cache = new LRULinkedHashMap<TsFileResource, TsFileMetaData>(MEMORY_THRESHOLD_IN_B, true) {
+    cache = new SegmentedLFUCache<String, TsFileMetaData>(MEMORY_THRESHOLD_IN_B,
+        EXPECTED_ENTRY_SIZE_IN_B) {
       @Override
-      protected long calEntrySize(TsFileResource key, TsFileMetaData value) {
+      protected long calEntrySize(String key, TsFileMetaData value) {
         if (deviceIndexMapEntrySize == 0 && value.getDeviceMap().size() > 0) {
           deviceIndexMapEntrySize = RamUsageEstimator
               .sizeOf(value.getDeviceMap().entrySet().iterator().next());
@@ -69,12 +78,17 @@ public class TsFileMetaDataCache {
           measurementSchemaEntrySize = RamUsageEstimator
               .sizeOf(value.getMeasurementSchema().entrySet().iterator().next());
         }
+        long bloomFilterSize = value.getBloomFilter() == null ? 0
+            : RamUsageEstimator.sizeOf(value.getBloomFilter());
         long valueSize = value.getDeviceMap().size() * deviceIndexMapEntrySize
             + measurementSchemaEntrySize * value.getMeasurementSchema().size()
-            + versionAndCreatebySize;
-        return key.getFile().getPath().length() * 2 + valueSize;
+            + versionAndCreatebySize + bloomFilterSize;
+        return key.length() * 2 + valueSize;
       }
     };
+    for (int i = 0; i < LOAD_LOCK_NUM; i++) {
+      loadLocks[i] = new Object();
+    }
   }
 
   public static TsFileMetaDataCache getInstance() {
@@ -92,29 +106,25 @@ public class TsFileMetaDataCache {
     }
 
     String path = tsFileResource.getFile().getPath();
-    Object internPath = path.intern();
-    cacheRequestNum.incrementAndGet();
-    synchronized (cache) {
-      if (cache.containsKey(path)) {
-        cacheHitNum.incrementAndGet();
-        printCacheLog(true);
-        return cache.get(path);
-      }
+    cacheRequestNum.increment();
+    TsFileMetaData fileMetaData = cache.get(path);
+    if (fileMetaData != null) {
+      cacheHitNum.increment();
+      printCacheLog(true);
+      return fileMetaData;
     }
-    synchronized (internPath) {
-      synchronized (cache) {
-        if (cache.containsKey(path)) {
-          cacheHitNum.incrementAndGet();
-          printCacheLog(true);
-          return cache.get(path);
-        }
-      }
-      printCacheLog(false);
-      TsFileMetaData fileMetaData = TsFileMetadataUtils.getTsFileMetaData(tsFileResource);
-      synchronized (cache) {
-        cache.put(tsFileResource, fileMetaData);
+    int h = path.hashCode();
+    synchronized (loadLocks[(h ^ (h >>> 16)) & (LOAD_LOCK_NUM - 1)]) {
+      fileMetaData = cache.peek(path);
+      if (fileMetaData != null) {
+        cacheHitNum.increment();
+        printCacheLog(true);
         return fileMetaData;
       }
+      printCacheLog(false);
+      fileMetaData = TsFileMetadataUtils.getTsFileMetaData(tsFileResource);
+      cache.put(path, fileMetaData);
+      return fileMetaData;
     }
   }
 
@@ -122,39 +132,27 @@ public class TsFileMetaDataCache {
     if (!logger.isDebugEnabled()) {
       return;
     }
-    if (isHit) {
-      logger.debug(
-          "[TsFileMetaData cache hit] The number of requests for cache is {}, hit rate is {}.",
-          cacheRequestNum.get(), cacheHitNum.get() * 1.0 / cacheRequestNum.get());
-    } else {
-      logger.debug(
-          "[TsFileMetaData cache didn't hit] The number of requests for cache is {}, hit rate is {}.",
-          cacheRequestNum.get(), cacheHitNum.get() * 1.0 / cacheRequestNum.get());
-    }
+    logger.debug(
+        "[TsFileMetaData cache {}hit] The number of requests for cache is {}, hit rate is {}.",
+        isHit ? "" : "didn't ", cacheRequestNum.sum(),
+        cacheHitNum.sum() * 1.0 / cacheRequestNum.sum());
   }
 
   public double calculateTsfileMetaDataHitRatio() {
-    if (cacheRequestNum.get() != 0) {
-      return cacheHitNum.get() * 1.0 / cacheRequestNum.get();
+    long requestNum = cacheRequestNum.sum();
+    if (requestNum != 0) {
+      return cacheHitNum.sum() * 1.0 / requestNum;
     } else {
       return 0;
     }
   }
 
   public void remove(TsFileResource resource) {
-    synchronized (cache) {
-      if (cache != null) {
-        cache.remove(resource);
-      }
-    }
+    cache.remove(resource.getFile().getPath());
   }
 
   public void clear() {
-    synchronized (cache) {
-      if (cache != null) {
-        cache.clear();
-      }
-    }
+    cache.clear();
   }
 
   /**
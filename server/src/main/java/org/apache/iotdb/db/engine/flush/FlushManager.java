@@ -19,7 +19,7 @@
 package org.apache.iotdb.db.engine.flush;
 
 import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.iotdb.db.engine.flush.pool.FlushSubTaskPoolManager;
 import org.apache.iotdb.db.engine.flush.pool.FlushTaskPoolManager;
 import org.apache.iotdb.db.engine.storagegroup.TsFileProcessor;
@@ -38,6 +38,11 @@ public class FlushManager implements FlushManagerMBean, IService {
 
   private FlushTaskPoolManager flushPool = FlushTaskPoolManager.getInstance();
 
+  private LongAdder flushedMemTableNum = new LongAdder();
+  private LongAdder totalSortTime = new LongAdder();
+  private LongAdder totalEncodingTime = new LongAdder();
+  private LongAdder totalIoTime = new LongAdder();
+
   @Override
   public void start() throws StartupException {
     FlushSubTaskPoolManager.getInstance().start();
@@ -81,6 +86,36 @@ public class FlushManager implements FlushManagerMBean, IService {
     return FlushSubTaskPoolManager.getInstance().getWaitingTasksNumber();
   }
 
+  @Override
+  public long getNumberOfFlushedMemTables() {
+    return flushedMemTableNum.sum();
+  }
+
+  @Override
+  public long getTotalFlushSortTime() {
+    return totalSortTime.sum();
+  }
+
+  @Override
+  public long getTotalFlushEncodingTime() {
+    return totalEncodingTime.sum();
+  }
+
+  @Override
+  public long getTotalFlushIoTime() {
+    return totalIoTime.sum();
+  }
+
+  /**
+   * Accumulate the stage costs (ms) of a finished memtable flush.
+   */
+  void recordFlushCost(long sortTime, long encodingTime, long ioTime) {
+    flushedMemTableNum.increment();
+    totalSortTime.add(sortTime);
+    totalEncodingTime.add(encodingTime);
+    totalIoTime.add(ioTime);
+  }
+
   class FlushThread implements Runnable {
 
     @Override
@@ -29,4 +29,23 @@ public interface FlushManagerMBean {
 
   public int getNumberOfPendingSubTasks();
 
+  public long getNumberOfFlushedMemTables();
+
+  /**
+   * @return total time (ms) spent sorting the series of flushed memtables, summed over the
+   * encoding workers
+   */
+  public long getTotalFlushSortTime();
+
+  /**
+   * @return total time (ms) spent encoding the series of flushed memtables into chunks, summed
+   * over the encoding workers
+   */
+  public long getTotalFlushEncodingTime();
+
+  /**
+   * @return total time (ms) spent writing the chunks of flushed memtables into TsFiles
+   */
+  public long getTotalFlushIoTime();
+
 }
@@ -19,229 +19,340 @@
 package org.apache.iotdb.db.engine.flush;
 
 import java.io.IOException;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.adapter.ActiveTimeSeriesCounter;
 import org.apache.iotdb.db.engine.flush.pool.FlushSubTaskPoolManager;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
 import org.apache.iotdb.db.engine.memtable.IWritableMemChunk;
+import org.apache.iotdb.db.engine.rollup.RollupIndex;
+import org.apache.iotdb.db.engine.rollup.RollupIndex.SeriesBuilder;
 import org.apache.iotdb.db.exception.runtime.FlushRunTimeException;
 import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
-import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.IChunkWriter;
-import org.apache.iotdb.tsfile.write.schema.Schema;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.schema.Schema;
 import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Flushes one memtable as a pipeline: several encoding workers sort and encode the series in
+ * parallel, and a single io task writes the encoded chunks in the order of the memtable, so every
+ * device still forms one chunk group. Each series has its own future as the handoff, the io task
+ * blocks on the next one instead of polling. The encoding workers may run at most
+ * {@link #LOOKAHEAD_PER_WORKER} chunks per worker ahead of the io task, which bounds the memory
+ * held by encoded but unwritten chunks.
+ */
 public class MemTableFlushTask {
 
   private static final Logger logger = LoggerFactory.getLogger(MemTableFlushTask.class);
   private static final FlushSubTaskPoolManager subTaskPoolManager = FlushSubTaskPoolManager
       .getInstance();
-  private Future ioTaskFuture;
-  private RestorableTsFileIOWriter writer;
+  private static final int LOOKAHEAD_PER_WORKER = 4;
 
-  private ConcurrentLinkedQueue ioTaskQueue = new ConcurrentLinkedQueue();
-  private ConcurrentLinkedQueue encodingTaskQueue = new ConcurrentLinkedQueue();
+  private RestorableTsFileIOWriter writer;
   private String storageGroup;
 
   private IMemTable memTable;
   private Schema schema;
 
-  private volatile boolean noMoreEncodingTask = false;
-  private volatile boolean noMoreIOTask = false;
+  /**
+   * fed with every flushed point, null if the file needs no rollup index
+   */
+  private RollupIndex.Builder rollupIndexBuilder;
+
+  /**
+   * devices in flushing order, the series of devices[i] are seriesOffsets[i] (inclusive) to
+   * seriesOffsets[i + 1] (exclusive) of measurements and encodedChunks
+   */
+  private List<String> devices = new ArrayList<>();
+  private List<Integer> seriesOffsets = new ArrayList<>();
+  private List<String> measurements = new ArrayList<>();
+  private List<CompletableFuture<IChunkWriter>> encodedChunks = new ArrayList<>();
+
+  private AtomicInteger nextSeries = new AtomicInteger();
+  private Semaphore lookahead;
+  private volatile boolean aborted = false;
+
+  private LongAdder sortTime = new LongAdder();
+  private LongAdder encodingTime = new LongAdder();
+  private long ioTime = 0;
+
+  public MemTableFlushTask(IMemTable memTable, Schema schema, RestorableTsFileIOWriter writer,
+      String storageGroup) {
+    this(memTable, schema, writer, storageGroup, null);
+  }
 
-  public MemTableFlushTask(IMemTable memTable, Schema schema, RestorableTsFileIOWriter writer, String storageGroup) {
+  public MemTableFlushTask(IMemTable memTable, Schema schema, RestorableTsFileIOWriter writer,
+      String storageGroup, RollupIndex.Builder rollupIndexBuilder) {
+    this.rollupIndexBuilder = rollupIndexBuilder;
     this.memTable = memTable;
     this.schema = schema;
     this.writer = writer;
     this.storageGroup = storageGroup;
-    subTaskPoolManager.submit(encodingTask);
-    this.ioTaskFuture = subTaskPoolManager.submit(ioTask);
+    for (Map.Entry<String, Map<String, IWritableMemChunk>> deviceEntry : memTable.getMemTableMap()
+        .entrySet()) {
+      devices.add(deviceEntry.getKey());
+      seriesOffsets.add(measurements.size());
+      for (String measurementId : deviceEntry.getValue().keySet()) {
+        measurements.add(measurementId);
+        encodedChunks.add(new CompletableFuture<>());
+      }
+    }
+    seriesOffsets.add(measurements.size());
     logger.debug("flush task of Storage group {} memtable {} is created ",
         storageGroup, memTable.getVersion());
   }
 
-
   /**
    * the function for flushing memtable.
    */
   public void syncFlushMemTable() throws ExecutionException, InterruptedException {
     long start = System.currentTimeMillis();
-    long sortTime = 0;
-    for (String deviceId : memTable.getMemTableMap().keySet()) {
-      encodingTaskQueue.add(new StartFlushGroupIOTask(deviceId));
-      for (String measurementId : memTable.getMemTableMap().get(deviceId).keySet()) {
-        long startTime = System.currentTimeMillis();
-        IWritableMemChunk series = memTable.getMemTableMap().get(deviceId).get(measurementId);
-        MeasurementSchema desc = schema.getMeasurementSchema(measurementId);
-        TVList tvList = series.getSortedTVList();
-        sortTime += System.currentTimeMillis() - startTime;
-        encodingTaskQueue.add(new Pair<>(tvList, desc));
-        // register active time series to the ActiveTimeSeriesCounter
-        ActiveTimeSeriesCounter.getInstance().offer(storageGroup, deviceId, measurementId);
+    int workerNum = Math.max(1, Math.min(measurements.size(),
+        IoTDBDescriptor.getInstance().getConfig().getConcurrentFlushEncodingThread()));
+    lookahead = new Semaphore(workerNum * LOOKAHEAD_PER_WORKER);
+
+    List<Future<?>> encodingFutures = new ArrayList<>(workerNum);
+    for (int i = 0; i < workerNum; i++) {
+      encodingFutures.add(subTaskPoolManager.submit(this::encodeSeries));
+    }
+    Future<?> ioTaskFuture = subTaskPoolManager.submit(this::writeChunks);
+    try {
+      ioTaskFuture.get();
+    } catch (ExecutionException | InterruptedException e) {
+      abort(e);
+      throw e;
+    } finally {
+      // the memtable is released after the flush, so the workers must have left it
+      for (Future<?> encodingFuture : encodingFutures) {
+        waitQuietly(encodingFuture);
       }
-      encodingTaskQueue.add(new EndChunkGroupIoTask(memTable.getVersion()));
     }
     ActiveTimeSeriesCounter.getInstance().updateActiveRatio(storageGroup);
-    noMoreEncodingTask = true;
-    logger.debug(
-        "Storage group {} memtable {}, flushing into disk: data sort time cost {} ms.",
-        storageGroup, memTable.getVersion(), sortTime);
-
-    ioTaskFuture.get();
 
+    long sortCost = sortTime.sum() / 1_000_000;
+    long encodingCost = encodingTime.sum() / 1_000_000;
+    long ioCost = ioTime / 1_000_000;
+    FlushManager.getInstance().recordFlushCost(sortCost, encodingCost, ioCost);
+    logger.debug("Storage group {} memtable {}, flushing into disk with {} encoding workers: "
+            + "data sort time cost {} ms, encoding time cost {} ms, io time cost {} ms.",
+        storageGroup, memTable.getVersion(), workerNum, sortCost, encodingCost, ioCost);
     logger.info(
         "Storage group {} memtable {} flushing a memtable has finished! Time consumption: {}ms",
         storageGroup, memTable, System.currentTimeMillis() - start);
   }
 
+  /**
+   * An encoding worker: claims the next unencoded series, sorts and encodes it, and hands the chunk
+   * to the io task through the future of the series.
+   */
+  private void encodeSeries() {
+    while (!aborted) {
+      try {
+        lookahead.acquire();
+      } catch (InterruptedException e) {
+        logger.error("Storage group {} memtable {}, encoding task is interrupted.",
+            storageGroup, memTable.getVersion(), e);
+        abort(e);
+        Thread.currentThread().interrupt();
+        return;
+      }
+      int index = nextSeries.getAndIncrement();
+      if (index >= measurements.size()) {
+        lookahead.release();
+        return;
+      }
+      try {
+        encodedChunks.get(index).complete(encodeOneSeries(index));
+      } catch (Throwable e) {
+        logger.error("Storage group {} memtable {}, encoding task meets error.", storageGroup,
+            memTable.getVersion(), e);
+        // an Error such as OutOfMemoryError must fail the series too, or the io task waits for
+        // it forever
+        abort(e instanceof Exception ? (Exception) e : new ExecutionException(e));
+        return;
+      }
+    }
+  }
 
-  private Runnable encodingTask = new Runnable() {
-    private void writeOneSeries(TVList tvPairs, IChunkWriter seriesWriterImpl,
-        TSDataType dataType){
-      for (int i = 0; i < tvPairs.size(); i++) {
-        long time = tvPairs.getTime(i);
+  private IChunkWriter encodeOneSeries(int index) {
+    long startTime = System.nanoTime();
+    String measurementId = measurements.get(index);
+    String deviceId = devices.get(deviceOf(index));
+    IWritableMemChunk series = memTable.getMemTableMap().get(deviceId).get(measurementId);
+    MeasurementSchema desc = schema.getMeasurementSchema(measurementId);
+    TVList tvList = series.getSortedTVList();
+    long sortedTime = System.nanoTime();
+    sortTime.add(sortedTime - startTime);
 
-        // skip duplicated data
-        if ((i+1 < tvPairs.size() && (time == tvPairs.getTime(i+1)))) {
-          continue;
-        }
+    IChunkWriter seriesWriter = new ChunkWriterImpl(desc);
+    SeriesBuilder rollup = rollupIndexBuilder == null ? null
+        : rollupIndexBuilder.getSeriesBuilder(deviceId + "." + measurementId, desc.getType());
+    writeOneSeries(tvList, seriesWriter, desc.getType(), rollup);
+    encodingTime.add(System.nanoTime() - sortedTime);
+    return seriesWriter;
+  }
 
-        switch (dataType) {
-          case BOOLEAN:
-            seriesWriterImpl.write(time, tvPairs.getBoolean(i));
-            break;
-          case INT32:
-            seriesWriterImpl.write(time, tvPairs.getInt(i));
-            break;
-          case INT64:
-            seriesWriterImpl.write(time, tvPairs.getLong(i));
-            break;
-          case FLOAT:
-            seriesWriterImpl.write(time, tvPairs.getFloat(i));
-            break;
-          case DOUBLE:
-            seriesWriterImpl.write(time, tvPairs.getDouble(i));
-            break;
-          case TEXT:
-            seriesWriterImpl.write(time, tvPairs.getBinary(i));
-            break;
-          default:
-            logger.error("Storage group {} does not support data type: {}", storageGroup,
-                dataType);
-            break;
-        }
+  private int deviceOf(int seriesIndex) {
+    int low = 0;
+    int high = devices.size() - 1;
+    // the last device whose first series is not after seriesIndex
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (seriesOffsets.get(mid) <= seriesIndex) {
+        low = mid;
+      } else {
+        high = mid - 1;
       }
     }
+    return low;
+  }
 
-    @Override
-    public void run() {
-      long memSerializeTime = 0;
-      boolean noMoreMessages = false;
-      logger.debug("Storage group {} memtable {}, starts to encoding data.", storageGroup,
-          memTable.getVersion());
-      while (true) {
-        if (noMoreEncodingTask) {
-          noMoreMessages = true;
-        }
-        Object task = encodingTaskQueue.poll();
-        if (task == null) {
-          if (noMoreMessages) {
-            break;
+  /**
+   * @param rollup the rollup buckets of the series to be updated with the written points, or null
+   */
+  private void writeOneSeries(TVList tvPairs, IChunkWriter seriesWriterImpl,
+      TSDataType dataType, SeriesBuilder rollup) {
+    for (int i = 0; i < tvPairs.size(); i++) {
+      long time = tvPairs.getTime(i);
+
+      // skip duplicated data
+      if ((i + 1 < tvPairs.size() && (time == tvPairs.getTime(i + 1)))) {
+        continue;
+      }
+
+      Statistics bucket = rollup == null ? null : rollup.getBucket(time);
+      switch (dataType) {
+        case BOOLEAN:
+          boolean booleanValue = tvPairs.getBoolean(i);
+          seriesWriterImpl.write(time, booleanValue);
+          if (bucket != null) {
+            bucket.update(time, booleanValue);
           }
-          try {
-            Thread.sleep(10);
-          } catch (InterruptedException e) {
-            logger.error("Storage group {} memtable {}, encoding task is interrupted.",
-                storageGroup, memTable.getVersion(), e);
-            Thread.currentThread().interrupt();
+          break;
+        case INT32:
+          int intValue = tvPairs.getInt(i);
+          seriesWriterImpl.write(time, intValue);
+          if (bucket != null) {
+            bucket.update(time, intValue);
           }
-        } else {
-          if (task instanceof StartFlushGroupIOTask) {
-            ioTaskQueue.add(task);
-          } else if (task instanceof EndChunkGroupIoTask) {
-            ioTaskQueue.add(task);
-          } else {
-            long starTime = System.currentTimeMillis();
-            Pair<TVList, MeasurementSchema> encodingMessage = (Pair<TVList, MeasurementSchema>) task;
-            IChunkWriter seriesWriter = new ChunkWriterImpl(encodingMessage.right);
-            writeOneSeries(encodingMessage.left, seriesWriter, encodingMessage.right.getType());
-            ioTaskQueue.add(seriesWriter);
-            memSerializeTime += System.currentTimeMillis() - starTime;
+          break;
+        case INT64:
+          long longValue = tvPairs.getLong(i);
+          seriesWriterImpl.write(time, longValue);
+          if (bucket != null) {
+            bucket.update(time, longValue);
           }
-        }
-      }
-      noMoreIOTask = true;
-      logger.debug("Storage group {}, flushing memtable {} into disk: Encoding data cost "
-              + "{} ms.",
-          storageGroup, memTable.getVersion(), memSerializeTime);
-    }
-  };
-
-  private Runnable ioTask = () -> {
-      long ioTime = 0;
-      boolean returnWhenNoTask = false;
-      logger.debug("Storage group {} memtable {}, start io.", storageGroup, memTable.getVersion());
-      while (true) {
-        if (noMoreIOTask) {
-          returnWhenNoTask = true;
-        }
-        Object ioMessage = ioTaskQueue.poll();
-        if (ioMessage == null) {
-          if (returnWhenNoTask) {
-            break;
+          break;
+        case FLOAT:
+          float floatValue = tvPairs.getFloat(i);
+          seriesWriterImpl.write(time, floatValue);
+          if (bucket != null) {
+            bucket.update(time, floatValue);
           }
-          try {
-            Thread.sleep(10);
-          } catch (InterruptedException e) {
-            logger.error("Storage group {} memtable, io task is interrupted.", storageGroup
-                , memTable.getVersion(), e);
-            Thread.currentThread().interrupt();
+          break;
+        case DOUBLE:
+          double doubleValue = tvPairs.getDouble(i);
+          seriesWriterImpl.write(time, doubleValue);
+          if (bucket != null) {
+            bucket.update(time, doubleValue);
           }
-        } else {
-          long starTime = System.currentTimeMillis();
-          try {
-            if (ioMessage instanceof StartFlushGroupIOTask) {
-              writer.startChunkGroup(((StartFlushGroupIOTask) ioMessage).deviceId);
-            } else if (ioMessage instanceof IChunkWriter) {
-              ChunkWriterImpl chunkWriter = (ChunkWriterImpl) ioMessage;
-              chunkWriter.writeToFileWriter(MemTableFlushTask.this.writer);
-            } else {
-              EndChunkGroupIoTask endGroupTask = (EndChunkGroupIoTask) ioMessage;
-              writer.endChunkGroup(endGroupTask.version);
-            }
-          } catch (IOException e) {
-            logger.error("Storage group {} memtable {}, io task meets error.", storageGroup,
-                memTable.getVersion(), e);
-            throw new FlushRunTimeException(e);
+          break;
+        case TEXT:
+          Binary binaryValue = tvPairs.getBinary(i);
+          seriesWriterImpl.write(time, binaryValue);
+          if (bucket != null) {
+            bucket.update(time, binaryValue);
           }
-          ioTime += System.currentTimeMillis() - starTime;
-        }
+          break;
+        default:
+          logger.error("Storage group {} does not support data type: {}", storageGroup,
+              dataType);
+          break;
       }
-      logger.debug("flushing a memtable {} in storage group {}, io cost {}ms", memTable.getVersion(),
-          storageGroup, ioTime);
-    };
-
-  static class EndChunkGroupIoTask {
-    private long version;
-
-    EndChunkGroupIoTask(long version) {
-      this.version = version;
     }
   }
 
-  static class StartFlushGroupIOTask {
-    private String deviceId;
+  /**
+   * The io task: writes the chunk groups in the order of the memtable, waiting for each encoded
+   * chunk in turn.
+   */
+  private void writeChunks() {
+    logger.debug("Storage group {} memtable {}, start io.", storageGroup, memTable.getVersion());
+    try {
+      for (int device = 0; device < devices.size(); device++) {
+        String deviceId = devices.get(device);
+        long startTime = System.nanoTime();
+        writer.startChunkGroup(deviceId);
+        ioTime += System.nanoTime() - startTime;
+        for (int i = seriesOffsets.get(device); i < seriesOffsets.get(device + 1); i++) {
+          ChunkWriterImpl chunkWriter = (ChunkWriterImpl) encodedChunks.get(i).get();
+          startTime = System.nanoTime();
+          chunkWriter.writeToFileWriter(writer);
+          ioTime += System.nanoTime() - startTime;
+          // drop the reference so the written chunk can be collected
+          encodedChunks.set(i, null);
+          lookahead.release();
+          // register active time series to the ActiveTimeSeriesCounter
+          ActiveTimeSeriesCounter.getInstance().offer(storageGroup, deviceId, measurements.get(i));
+        }
+        startTime = System.nanoTime();
+        writer.endChunkGroup(memTable.getVersion());
+        ioTime += System.nanoTime() - startTime;
+      }
+    } catch (IOException | ExecutionException e) {
+      logger.error("Storage group {} memtable {}, io task meets error.", storageGroup,
+          memTable.getVersion(), e);
+      abort(e);
+      throw new FlushRunTimeException(e);
+    } catch (InterruptedException e) {
+      logger.error("Storage group {} memtable {}, io task is interrupted.", storageGroup,
+          memTable.getVersion(), e);
+      abort(e);
+      Thread.currentThread().interrupt();
+      throw new FlushRunTimeException(e);
+    }
+  }
 
-    StartFlushGroupIOTask(String deviceId) {
-      this.deviceId = deviceId;
+  /**
+   * Stops the pipeline: the series not encoded yet fail with the cause, and the workers waiting
+   * for room to run ahead are woken up to exit.
+   */
+  private void abort(Exception cause) {
+    aborted = true;
+    for (int i = 0; i < encodedChunks.size(); i++) {
+      CompletableFuture<IChunkWriter> encodedChunk = encodedChunks.get(i);
+      if (encodedChunk != null) {
+        encodedChunk.completeExceptionally(cause);
+      }
+    }
+    if (lookahead != null) {
+      lookahead.release(measurements.size() + 1);
     }
   }
 
+  private void waitQuietly(Future<?> future) {
+    try {
+      future.get();
+    } catch (ExecutionException e) {
+      logger.debug("Storage group {} memtable {}, encoding task exits with error.", storageGroup,
+          memTable.getVersion(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
 }
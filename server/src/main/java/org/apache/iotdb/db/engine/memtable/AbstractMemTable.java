@@ -31,7 +31,6 @@ import org.apache.iotdb.db.qp.constant.SQLConstant;
 import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.rescon.TVListAllocator;
-import org.apache.iotdb.db.utils.MemUtils;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Binary;
 
@@ -45,6 +44,11 @@ public abstract class AbstractMemTable implements IMemTable {
 
   private long memSize = 0;
 
+  /**
+   * whether newly created series use off-heap TVLists
+   */
+  protected boolean offHeap = false;
+
   public AbstractMemTable() {
     this.memTableMap = new HashMap<>();
   }
@@ -87,11 +91,16 @@ public abstract class AbstractMemTable implements IMemTable {
       for (int i = 0; i < insertPlan.getValues().length; i++) {
 
         Object value = parseValue(insertPlan.getDataTypes()[i], insertPlan.getValues()[i]);
-        write(insertPlan.getDeviceId(), insertPlan.getMeasurements()[i],
-            insertPlan.getDataTypes()[i], insertPlan.getTime(), value);
+        IWritableMemChunk memSeries = createIfNotExistAndGet(insertPlan.getDeviceId(),
+            insertPlan.getMeasurements()[i], insertPlan.getDataTypes()[i]);
+        // account the arrays actually allocated rather than the size of the inserted values
+        long ramSizeBefore = memSeries.ramSize();
+        memSeries.write(insertPlan.getTime(), value);
+        memSize += memSeries.ramSize() - ramSizeBefore;
+        if (value instanceof Binary) {
+          memSize += ((Binary) value).getLength();
+        }
       }
-      long recordSizeInByte = MemUtils.getRecordSize(insertPlan);
-      memSize += recordSizeInByte;
     } catch (RuntimeException e) {
       throw new QueryProcessException(e.getMessage());
     }
@@ -140,9 +149,20 @@ public abstract class AbstractMemTable implements IMemTable {
   @Override
   public void insertBatch(BatchInsertPlan batchInsertPlan, List<Integer> indexes) throws QueryProcessException {
     try {
-      write(batchInsertPlan, indexes);
-      long recordSizeInByte = MemUtils.getRecordSize(batchInsertPlan);
-      memSize += recordSizeInByte;
+      for (int i = 0; i < batchInsertPlan.getMeasurements().length; i++) {
+        IWritableMemChunk memSeries = createIfNotExistAndGet(batchInsertPlan.getDeviceId(),
+            batchInsertPlan.getMeasurements()[i], batchInsertPlan.getDataTypes()[i]);
+        long ramSizeBefore = memSeries.ramSize();
+        memSeries.write(batchInsertPlan.getTimes(), batchInsertPlan.getColumns()[i],
+            batchInsertPlan.getDataTypes()[i], indexes);
+        memSize += memSeries.ramSize() - ramSizeBefore;
+        if (batchInsertPlan.getDataTypes()[i] == TSDataType.TEXT) {
+          Binary[] binaries = (Binary[]) batchInsertPlan.getColumns()[i];
+          for (int index : indexes) {
+            memSize += binaries[index].getLength();
+          }
+        }
+      }
     } catch (RuntimeException e) {
       throw new QueryProcessException(e.getMessage());
     }
@@ -187,6 +207,7 @@ public abstract class AbstractMemTable implements IMemTable {
     memTableMap.clear();
     modifications.clear();
     memSize = 0;
+    offHeap = false;
   }
 
   @Override
@@ -250,6 +271,11 @@ public abstract class AbstractMemTable implements IMemTable {
     return version;
   }
 
+  @Override
+  public void setOffHeap(boolean offHeap) {
+    this.offHeap = offHeap;
+  }
+
   @Override
   public void release() {
     for (Entry<String, Map<String, IWritableMemChunk>> entry: memTableMap.entrySet()) {
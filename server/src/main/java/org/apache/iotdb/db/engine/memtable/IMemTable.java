@@ -99,4 +99,10 @@ public interface IMemTable {
   void setVersion(long version);
 
   void release();
+
+  /**
+   * Decide whether the series created in this memtable from now on store their data in direct
+   * memory. The flag is reset by clear().
+   */
+  void setOffHeap(boolean offHeap);
 }
@@ -55,6 +55,12 @@ public interface IWritableMemChunk extends TimeValuePairSorter {
 
   long count();
 
+  /**
+   * @return bytes of the arrays allocated for this chunk, which can be larger than the data in it
+   * because the last array is usually not full. Contents of TEXT values are not included.
+   */
+  long ramSize();
+
   TSDataType getType();
 
   /**
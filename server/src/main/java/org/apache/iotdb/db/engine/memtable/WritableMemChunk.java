@@ -20,6 +20,7 @@ package org.apache.iotdb.db.engine.memtable;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.iotdb.db.utils.MemUtils;
 import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.db.utils.TsPrimitiveType.TsBinary;
 import org.apache.iotdb.db.utils.TsPrimitiveType.TsBoolean;
@@ -219,6 +220,11 @@ public class WritableMemChunk implements IWritableMemChunk {
     return list.size();
   }
 
+  @Override
+  public long ramSize() {
+    return list.getCapacity() * (Long.BYTES + MemUtils.getPrimitiveSize(dataType));
+  }
+
   @Override
   public TSDataType getType() {
     return dataType;
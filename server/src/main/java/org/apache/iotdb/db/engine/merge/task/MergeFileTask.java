@@ -28,11 +28,13 @@ import java.util.Map;
 import java.util.Map.Entry;
 import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.engine.cache.ChunkCache;
 import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
 import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
 import org.apache.iotdb.db.engine.merge.manage.MergeContext;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
 import org.apache.iotdb.db.engine.merge.recover.MergeLogger;
+import org.apache.iotdb.db.engine.rollup.RollupIndexManager;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.tsfile.exception.write.TsFileNotCompleteException;
@@ -120,6 +122,7 @@ class MergeFileTask {
     try {
       TsFileMetaDataCache.getInstance().remove(seqFile);
       DeviceMetaDataCache.getInstance().remove(seqFile);
+      ChunkCache.getInstance().remove(seqFile);
       FileReaderManager.getInstance().closeFileAndRemoveReader(seqFile);
 
       resource.removeFileReader(seqFile);
@@ -161,10 +164,13 @@ class MergeFileTask {
       FileUtils
           .moveFile(new File(seqFile.getFile().getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX),
               new File(nextMergeVersionFile.getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX));
+      RollupIndexManager.getInstance().removeIndex(seqFile.getFile());
       seqFile.setFile(nextMergeVersionFile);
     } finally {
       seqFile.getWriteQueryLock().writeLock().unlock();
     }
+    // queries fall back to the raw data until the index of the merged file is rebuilt
+    RollupIndexManager.getInstance().rebuildIndex(seqFile.getFile());
   }
 
   private void writeMergedChunkGroup(ChunkGroupMetaData chunkGroupMetaData,
@@ -222,6 +228,7 @@ class MergeFileTask {
       resource.removeFileReader(seqFile);
       TsFileMetaDataCache.getInstance().remove(seqFile);
       DeviceMetaDataCache.getInstance().remove(seqFile);
+      ChunkCache.getInstance().remove(seqFile);
       FileReaderManager.getInstance().closeFileAndRemoveReader(seqFile);
       seqFile.getFile().delete();
 
@@ -230,10 +237,13 @@ class MergeFileTask {
       FileUtils
           .moveFile(new File(seqFile.getFile().getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX),
               new File(nextMergeVersionFile.getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX));
+      RollupIndexManager.getInstance().removeIndex(seqFile.getFile());
       seqFile.setFile(nextMergeVersionFile);
     } finally {
       seqFile.getWriteQueryLock().writeLock().unlock();
     }
+    // queries fall back to the raw data until the index of the merged file is rebuilt
+    RollupIndexManager.getInstance().rebuildIndex(seqFile.getFile());
   }
 
   private File getNextMergeVersionFile(File seqFile) {
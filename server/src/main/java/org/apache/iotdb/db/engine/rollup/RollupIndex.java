@@ -0,0 +1,322 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.fileSystem.fsFactory.FSFactory;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithoutFilter;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * RollupIndex holds, for every series of a sealed TsFile, the Statistics (count, sum, min, max,
+ * first and last) of each fixed time bucket. Buckets are aligned to timestamp 0, i.e. the bucket of
+ * a point with time t starts at t - floorMod(t, bucketSize). The index is stored beside the TsFile
+ * in a file named {@code <tsfile>.rollup}.
+ */
+public class RollupIndex {
+
+  public static final String ROLLUP_SUFFIX = ".rollup";
+  private static final String TEMP_SUFFIX = ".temp";
+
+  private static final FSFactory fsFactory = FSFactoryProducer.getFSFactory();
+
+  private long bucketSize;
+
+  /**
+   * key: full path of a series
+   */
+  private Map<String, SeriesRollup> seriesRollups;
+
+  private RollupIndex(long bucketSize, Map<String, SeriesRollup> seriesRollups) {
+    this.bucketSize = bucketSize;
+    this.seriesRollups = seriesRollups;
+  }
+
+  public static File getIndexFile(File tsFile) {
+    return fsFactory.getFile(tsFile.getPath() + ROLLUP_SUFFIX);
+  }
+
+  /**
+   * scan all points of a sealed TsFile and roll them up into buckets of the given size. Files
+   * written by flushes get their index from a {@link Builder} fed by the flush instead, this is
+   * for files rewritten by merge.
+   */
+  public static RollupIndex build(File tsFile, long bucketSize) throws IOException {
+    Builder builder = new Builder(bucketSize);
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(tsFile.getPath())) {
+      for (Entry<String, TsDeviceMetadataIndex> deviceEntry : reader.readFileMetadata()
+          .getDeviceMap().entrySet()) {
+        TsDeviceMetadata deviceMetadata = reader.readTsDeviceMetaData(deviceEntry.getValue());
+        for (ChunkGroupMetaData chunkGroupMetaData : deviceMetadata
+            .getChunkGroupMetaDataList()) {
+          for (ChunkMetaData chunkMetaData : chunkGroupMetaData.getChunkMetaDataList()) {
+            String path = deviceEntry.getKey() + "." + chunkMetaData.getMeasurementUid();
+            rollupChunk(reader.readMemChunk(chunkMetaData),
+                builder.getSeriesBuilder(path, chunkMetaData.getDataType()));
+          }
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  private static void rollupChunk(Chunk chunk, SeriesBuilder seriesBuilder) throws IOException {
+    ChunkReader chunkReader = new ChunkReaderWithoutFilter(chunk);
+    while (chunkReader.hasNextBatch()) {
+      BatchData batchData = chunkReader.nextBatch();
+      while (batchData.hasNext()) {
+        updateStatistics(seriesBuilder.getBucket(batchData.currentTime()), batchData);
+        batchData.next();
+      }
+    }
+  }
+
+  private static void updateStatistics(Statistics statistics, BatchData batchData) {
+    long time = batchData.currentTime();
+    switch (batchData.getDataType()) {
+      case BOOLEAN:
+        statistics.update(time, batchData.getBoolean());
+        break;
+      case INT32:
+        statistics.update(time, batchData.getInt());
+        break;
+      case INT64:
+        statistics.update(time, batchData.getLong());
+        break;
+      case FLOAT:
+        statistics.update(time, batchData.getFloat());
+        break;
+      case DOUBLE:
+        statistics.update(time, batchData.getDouble());
+        break;
+      case TEXT:
+        statistics.update(time, batchData.getBinary());
+        break;
+      default:
+        throw new UnsupportedOperationException(
+            "Unsupported data type: " + batchData.getDataType());
+    }
+  }
+
+  /**
+   * write the index beside the TsFile. The index is written to a temporary file first so that a
+   * crash never leaves a partial index behind.
+   */
+  public void serialize(File tsFile) throws IOException {
+    File temp = fsFactory.getFile(tsFile.getPath() + ROLLUP_SUFFIX + TEMP_SUFFIX);
+    try (OutputStream outputStream = fsFactory.getBufferedOutputStream(temp.getPath())) {
+      ReadWriteIOUtils.write(bucketSize, outputStream);
+      ReadWriteIOUtils.write(seriesRollups.size(), outputStream);
+      for (Entry<String, SeriesRollup> entry : seriesRollups.entrySet()) {
+        SeriesRollup seriesRollup = entry.getValue();
+        ReadWriteIOUtils.write(entry.getKey(), outputStream);
+        ReadWriteIOUtils.write(seriesRollup.dataType, outputStream);
+        ReadWriteIOUtils.write(seriesRollup.bucketStarts.length, outputStream);
+        for (int i = 0; i < seriesRollup.bucketStarts.length; i++) {
+          ReadWriteIOUtils.write(seriesRollup.bucketStarts[i], outputStream);
+          seriesRollup.statistics[i].serialize(outputStream);
+        }
+      }
+    }
+    File dest = getIndexFile(tsFile);
+    dest.delete();
+    fsFactory.moveFile(temp, dest);
+  }
+
+  public static RollupIndex deserialize(File tsFile) throws IOException {
+    try (InputStream inputStream = fsFactory.getBufferedInputStream(
+        getIndexFile(tsFile).getPath())) {
+      long bucketSize = ReadWriteIOUtils.readLong(inputStream);
+      int seriesNum = ReadWriteIOUtils.readInt(inputStream);
+      Map<String, SeriesRollup> seriesRollups = new HashMap<>(seriesNum);
+      for (int i = 0; i < seriesNum; i++) {
+        String path = ReadWriteIOUtils.readString(inputStream);
+        TSDataType dataType = ReadWriteIOUtils.readDataType(inputStream);
+        int bucketNum = ReadWriteIOUtils.readInt(inputStream);
+        long[] bucketStarts = new long[bucketNum];
+        Statistics[] statistics = new Statistics[bucketNum];
+        for (int j = 0; j < bucketNum; j++) {
+          bucketStarts[j] = ReadWriteIOUtils.readLong(inputStream);
+          statistics[j] = Statistics.deserialize(inputStream, dataType);
+        }
+        seriesRollups.put(path, new SeriesRollup(dataType, bucketStarts, statistics));
+      }
+      return new RollupIndex(bucketSize, seriesRollups);
+    }
+  }
+
+  public long getBucketSize() {
+    return bucketSize;
+  }
+
+  /**
+   * @return the rollup of the series, or null if the series has no data in the TsFile
+   */
+  public SeriesRollup getSeriesRollup(String path) {
+    return seriesRollups.get(path);
+  }
+
+  /**
+   * Collects the buckets of a TsFile while its memtables are flushed, so that the index is ready
+   * when the file is sealed without reading the file again. The encoding workers of a flush may
+   * update different series concurrently, one series is only updated by one thread at a time.
+   */
+  public static class Builder {
+
+    private final long bucketSize;
+
+    /**
+     * key: full path of a series
+     */
+    private final Map<String, SeriesBuilder> seriesBuilders = new ConcurrentHashMap<>();
+
+    public Builder(long bucketSize) {
+      this.bucketSize = bucketSize;
+    }
+
+    public SeriesBuilder getSeriesBuilder(String path, TSDataType dataType) {
+      return seriesBuilders.computeIfAbsent(path, k -> new SeriesBuilder(dataType, bucketSize));
+    }
+
+    public RollupIndex build() {
+      Map<String, SeriesRollup> seriesRollups = new HashMap<>(seriesBuilders.size());
+      for (Entry<String, SeriesBuilder> entry : seriesBuilders.entrySet()) {
+        SeriesBuilder seriesBuilder = entry.getValue();
+        seriesRollups.put(entry.getKey(),
+            new SeriesRollup(seriesBuilder.dataType, seriesBuilder.buckets));
+      }
+      return new RollupIndex(bucketSize, seriesRollups);
+    }
+  }
+
+  /**
+   * The buckets of one series being built. Points are expected in time order, so the bucket of
+   * the previous point is looked up first.
+   */
+  public static class SeriesBuilder {
+
+    private final TSDataType dataType;
+    private final long bucketSize;
+    private final TreeMap<Long, Statistics> buckets = new TreeMap<>();
+    private long currentBucket;
+    private Statistics currentStatistics;
+
+    private SeriesBuilder(TSDataType dataType, long bucketSize) {
+      this.dataType = dataType;
+      this.bucketSize = bucketSize;
+    }
+
+    /**
+     * @return the statistics of the bucket that the given time falls in, to be updated with the
+     * point by the caller
+     */
+    public Statistics getBucket(long time) {
+      long bucket = time - Math.floorMod(time, bucketSize);
+      if (currentStatistics == null || bucket != currentBucket) {
+        currentBucket = bucket;
+        currentStatistics = buckets.computeIfAbsent(bucket,
+            k -> Statistics.getStatsByType(dataType));
+      }
+      return currentStatistics;
+    }
+  }
+
+  /**
+   * The buckets of one series, sorted by their start time.
+   */
+  public static class SeriesRollup {
+
+    private TSDataType dataType;
+    private long[] bucketStarts;
+    private Statistics[] statistics;
+
+    private SeriesRollup(TSDataType dataType, TreeMap<Long, Statistics> buckets) {
+      this.dataType = dataType;
+      this.bucketStarts = new long[buckets.size()];
+      this.statistics = new Statistics[buckets.size()];
+      int i = 0;
+      for (Entry<Long, Statistics> entry : buckets.entrySet()) {
+        bucketStarts[i] = entry.getKey();
+        statistics[i] = entry.getValue();
+        i++;
+      }
+    }
+
+    private SeriesRollup(TSDataType dataType, long[] bucketStarts, Statistics[] statistics) {
+      this.dataType = dataType;
+      this.bucketStarts = bucketStarts;
+      this.statistics = statistics;
+    }
+
+    public TSDataType getDataType() {
+      return dataType;
+    }
+
+    /**
+     * @return the statistics of the buckets in [startTime, endTime), in time order
+     */
+    public List<Statistics> getStatistics(long startTime, long endTime) {
+      List<Statistics> result = new ArrayList<>();
+      int i = lowerBound(startTime);
+      while (i < bucketStarts.length && bucketStarts[i] < endTime) {
+        result.add(statistics[i]);
+        i++;
+      }
+      return result;
+    }
+
+    /**
+     * @return the index of the first bucket starting at or after the given time
+     */
+    private int lowerBound(long time) {
+      int low = 0;
+      int high = bucketStarts.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (bucketStarts[mid] < time) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+}
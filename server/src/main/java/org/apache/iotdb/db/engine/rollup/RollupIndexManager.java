@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * RollupIndexManager writes the rollup index of sequence TsFiles when they are sealed or merged,
+ * and caches the loaded indexes for queries. The index of a sealed file comes from its flushes, the
+ * index of a merged file is rebuilt from the file by a background thread.
+ */
+public class RollupIndexManager implements IService {
+
+  private static final Logger logger = LoggerFactory.getLogger(RollupIndexManager.class);
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  /**
+   * key: TsFile path, value: its loaded rollup index
+   */
+  private final Map<String, RollupIndex> cache;
+
+  private ExecutorService rebuildPool;
+
+  private RollupIndexManager() {
+    cache = new LinkedHashMap<String, RollupIndex>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, RollupIndex> eldest) {
+        return size() > config.getRollupIndexCacheSize();
+      }
+    };
+  }
+
+  public static RollupIndexManager getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * persist the rollup index of a sealed TsFile built by its flushes. A failure only costs the
+   * queries the index, so it is logged instead of failing the close.
+   */
+  public void writeIndex(File tsFile, RollupIndex index) {
+    if (!config.isEnableRollupIndex()) {
+      return;
+    }
+    try {
+      synchronized (cache) {
+        index.serialize(tsFile);
+        cache.put(tsFile.getPath(), index);
+      }
+    } catch (IOException e) {
+      logger.error("Cannot write the rollup index of {}", tsFile, e);
+      removeIndex(tsFile);
+    }
+  }
+
+  /**
+   * rebuild the rollup index of a TsFile rewritten by merge in the background. Queries use the raw
+   * data of the file until the index is written. If the service is not running, the index is built
+   * in the calling thread.
+   */
+  public void rebuildIndex(File tsFile) {
+    if (!config.isEnableRollupIndex()) {
+      return;
+    }
+    ExecutorService pool = rebuildPool;
+    if (pool != null) {
+      try {
+        pool.submit(() -> buildIndex(tsFile));
+        return;
+      } catch (RejectedExecutionException e) {
+        logger.debug("Rollup index service is stopped, build the index of {} directly", tsFile);
+      }
+    }
+    buildIndex(tsFile);
+  }
+
+  private void buildIndex(File tsFile) {
+    long startTime = System.currentTimeMillis();
+    try {
+      RollupIndex index = RollupIndex.build(tsFile, config.getRollupBucketSize());
+      synchronized (cache) {
+        // the file may have been merged again or removed meanwhile
+        if (!tsFile.exists()) {
+          return;
+        }
+        index.serialize(tsFile);
+        cache.put(tsFile.getPath(), index);
+      }
+      logger.debug("Rollup index of {} is rebuilt in {}ms", tsFile,
+          System.currentTimeMillis() - startTime);
+    } catch (IOException e) {
+      logger.error("Cannot rebuild the rollup index of {}", tsFile, e);
+      removeIndex(tsFile);
+    }
+  }
+
+  /**
+   * delete the rollup index of a TsFile whose content is changed or which is removed.
+   */
+  public void removeIndex(File tsFile) {
+    synchronized (cache) {
+      cache.remove(tsFile.getPath());
+      File indexFile = RollupIndex.getIndexFile(tsFile);
+      if (indexFile.exists() && !indexFile.delete()) {
+        logger.warn("Cannot delete the rollup index {}", indexFile);
+      }
+    }
+  }
+
+  /**
+   * @return the rollup index of a sealed TsFile, or null if the index is disabled or the file has
+   * no index
+   */
+  public RollupIndex get(TsFileResource resource) {
+    if (!config.isEnableRollupIndex() || !resource.isClosed()) {
+      return null;
+    }
+    File tsFile = resource.getFile();
+    String path = tsFile.getPath();
+    synchronized (cache) {
+      RollupIndex index = cache.get(path);
+      if (index != null) {
+        return index;
+      }
+    }
+    if (!RollupIndex.getIndexFile(tsFile).exists()) {
+      return null;
+    }
+    try {
+      RollupIndex index = RollupIndex.deserialize(tsFile);
+      synchronized (cache) {
+        cache.put(path, index);
+      }
+      return index;
+    } catch (IOException e) {
+      logger.warn("Cannot read the rollup index of {}, use the raw data instead", tsFile, e);
+      return null;
+    }
+  }
+
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  @Override
+  public void start() {
+    if (rebuildPool == null) {
+      rebuildPool = IoTDBThreadPoolFactory
+          .newSingleThreadExecutor(ThreadName.ROLLUP_INDEX_SERVICE.getName());
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (rebuildPool != null) {
+      rebuildPool.shutdownNow();
+      try {
+        rebuildPool.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        logger.warn("Interrupted when waiting for the rollup index rebuilding to stop");
+        Thread.currentThread().interrupt();
+      }
+      rebuildPool = null;
+    }
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.ROLLUP_INDEX_SERVICE;
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+    }
+
+    private static final RollupIndexManager INSTANCE = new RollupIndexManager();
+  }
+}
@@ -74,6 +74,7 @@ import org.apache.iotdb.db.utils.UpgradeUtils;
 import org.apache.iotdb.rpc.TSStatusCode;
 import org.apache.iotdb.db.utils.CopyOnReadLinkedList;
 import org.apache.iotdb.db.utils.TestOnly;
+import org.apache.iotdb.db.writelog.node.PendingWalWrites;
 import org.apache.iotdb.db.writelog.recover.TsFileRecoverPerformer;
 import org.apache.iotdb.rpc.TSStatusCode;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
@@ -355,6 +356,7 @@ public class StorageGroupProcessor {
     if (!checkTTL(insertPlan.getTime())) {
       throw new OutOfTTLException(insertPlan.getTime(), (System.currentTimeMillis() - dataTTL));
     }
+    PendingWalWrites pendingWalWrites = new PendingWalWrites();
     writeLock();
     try {
       // init map
@@ -363,20 +365,28 @@ public class StorageGroupProcessor {
 
       // insert to sequence or unSequence file
       insertToTsFileProcessor(insertPlan,
-          insertPlan.getTime() > latestFlushedTimeForEachDevice.get(insertPlan.getDeviceId()));
+          insertPlan.getTime() > latestFlushedTimeForEachDevice.get(insertPlan.getDeviceId()),
+          pendingWalWrites);
     } finally {
       writeUnlock();
     }
+    // wait for the WAL out of the lock so that concurrent inserts share one group commit
+    if (!pendingWalWrites.await()) {
+      throw new QueryProcessException(
+          String.format("WAL of %s is not durable", insertPlan.getDeviceId()));
+    }
   }
 
   public Integer[] insertBatch(BatchInsertPlan batchInsertPlan) throws QueryProcessException {
+    PendingWalWrites pendingWalWrites = new PendingWalWrites();
+    Integer[] results;
     writeLock();
     try {
       // init map
       latestTimeForEachDevice.putIfAbsent(batchInsertPlan.getDeviceId(), Long.MIN_VALUE);
       latestFlushedTimeForEachDevice.putIfAbsent(batchInsertPlan.getDeviceId(), Long.MIN_VALUE);
 
-      Integer[] results = new Integer[batchInsertPlan.getRowCount()];
+      results = new Integer[batchInsertPlan.getRowCount()];
       List<Integer> sequenceIndexes = new ArrayList<>();
       List<Integer> unsequenceIndexes = new ArrayList<>();
 
@@ -397,16 +407,92 @@ public class StorageGroupProcessor {
       }
 
       if (!sequenceIndexes.isEmpty()) {
-        insertBatchToTsFileProcessor(batchInsertPlan, sequenceIndexes, true, results);
+        insertBatchToTsFileProcessor(batchInsertPlan, sequenceIndexes, true, results,
+            pendingWalWrites);
       }
 
       if (!unsequenceIndexes.isEmpty()) {
-        insertBatchToTsFileProcessor(batchInsertPlan, unsequenceIndexes, false, results);
+        insertBatchToTsFileProcessor(batchInsertPlan, unsequenceIndexes, false, results,
+            pendingWalWrites);
       }
-      return results;
     } finally {
       writeUnlock();
     }
+    pendingWalWrites.await();
+    return results;
+  }
+
+  /**
+   * Insert BatchInsertPlans of devices in this storage group under one acquisition of the write
+   * lock. The rows of all plans that go to the same TsFileProcessor are logged by one WAL write.
+   *
+   * @return result of each row of each plan
+   */
+  public List<Integer[]> insertBatches(List<BatchInsertPlan> batchInsertPlans)
+      throws QueryProcessException {
+    PendingWalWrites pendingWalWrites = new PendingWalWrites();
+    List<Integer[]> resultsList = new ArrayList<>(batchInsertPlans.size());
+    writeLock();
+    try {
+      List<BatchInsertPlan> sequencePlans = new ArrayList<>();
+      List<List<Integer>> sequenceIndexesList = new ArrayList<>();
+      List<Integer[]> sequenceResultsList = new ArrayList<>();
+      List<BatchInsertPlan> unsequencePlans = new ArrayList<>();
+      List<List<Integer>> unsequenceIndexesList = new ArrayList<>();
+      List<Integer[]> unsequenceResultsList = new ArrayList<>();
+
+      for (BatchInsertPlan batchInsertPlan : batchInsertPlans) {
+        // init map
+        latestTimeForEachDevice.putIfAbsent(batchInsertPlan.getDeviceId(), Long.MIN_VALUE);
+        latestFlushedTimeForEachDevice.putIfAbsent(batchInsertPlan.getDeviceId(), Long.MIN_VALUE);
+
+        Integer[] results = new Integer[batchInsertPlan.getRowCount()];
+        resultsList.add(results);
+        List<Integer> sequenceIndexes = new ArrayList<>();
+        List<Integer> unsequenceIndexes = new ArrayList<>();
+
+        long lastFlushTime = latestFlushedTimeForEachDevice.get(batchInsertPlan.getDeviceId());
+        for (int i = 0; i < batchInsertPlan.getRowCount(); i++) {
+          long currTime = batchInsertPlan.getTimes()[i];
+          // skip points that do not satisfy TTL
+          if (!checkTTL(currTime)) {
+            results[i] = TSStatusCode.OUT_OF_TTL_ERROR.getStatusCode();
+            continue;
+          }
+          results[i] = TSStatusCode.SUCCESS_STATUS.getStatusCode();
+          if (currTime > lastFlushTime) {
+            sequenceIndexes.add(i);
+          } else {
+            unsequenceIndexes.add(i);
+          }
+        }
+
+        if (!sequenceIndexes.isEmpty()) {
+          sequencePlans.add(batchInsertPlan);
+          sequenceIndexesList.add(sequenceIndexes);
+          sequenceResultsList.add(results);
+        }
+        if (!unsequenceIndexes.isEmpty()) {
+          unsequencePlans.add(batchInsertPlan);
+          unsequenceIndexesList.add(unsequenceIndexes);
+          unsequenceResultsList.add(results);
+        }
+      }
+
+      if (!sequencePlans.isEmpty()) {
+        insertBatchesToTsFileProcessor(sequencePlans, sequenceIndexesList, true,
+            sequenceResultsList, pendingWalWrites);
+      }
+
+      if (!unsequencePlans.isEmpty()) {
+        insertBatchesToTsFileProcessor(unsequencePlans, unsequenceIndexesList, false,
+            unsequenceResultsList, pendingWalWrites);
+      }
+    } finally {
+      writeUnlock();
+    }
+    pendingWalWrites.await();
+    return resultsList;
   }
 
   /**
@@ -417,7 +503,8 @@ public class StorageGroupProcessor {
   }
 
   private void insertBatchToTsFileProcessor(BatchInsertPlan batchInsertPlan,
-      List<Integer> indexes, boolean sequence, Integer[] results) throws QueryProcessException {
+      List<Integer> indexes, boolean sequence, Integer[] results,
+      PendingWalWrites pendingWalWrites) throws QueryProcessException {
 
     TsFileProcessor tsFileProcessor = getOrCreateTsFileProcessor(sequence);
     if (tsFileProcessor == null) {
@@ -427,7 +514,8 @@ public class StorageGroupProcessor {
       return;
     }
 
-    boolean result = tsFileProcessor.insertBatch(batchInsertPlan, indexes, results);
+    boolean result = tsFileProcessor
+        .insertBatch(batchInsertPlan, indexes, results, pendingWalWrites);
 
     // try to update the latest time of the device of this tsRecord
     if (result && latestTimeForEachDevice.get(batchInsertPlan.getDeviceId()) < batchInsertPlan
@@ -449,8 +537,49 @@ public class StorageGroupProcessor {
     }
   }
 
-  private void insertToTsFileProcessor(InsertPlan insertPlan, boolean sequence)
-      throws QueryProcessException {
+  private void insertBatchesToTsFileProcessor(List<BatchInsertPlan> batchInsertPlans,
+      List<List<Integer>> indexesList, boolean sequence, List<Integer[]> resultsList,
+      PendingWalWrites pendingWalWrites) throws QueryProcessException {
+
+    TsFileProcessor tsFileProcessor = getOrCreateTsFileProcessor(sequence);
+    if (tsFileProcessor == null) {
+      for (int i = 0; i < batchInsertPlans.size(); i++) {
+        for (int index : indexesList.get(i)) {
+          resultsList.get(i)[index] = TSStatusCode.INTERNAL_SERVER_ERROR.getStatusCode();
+        }
+      }
+      return;
+    }
+
+    boolean result = tsFileProcessor
+        .insertBatches(batchInsertPlans, indexesList, resultsList, pendingWalWrites);
+
+    // try to update the latest time of the devices
+    if (result) {
+      for (BatchInsertPlan batchInsertPlan : batchInsertPlans) {
+        if (latestTimeForEachDevice.get(batchInsertPlan.getDeviceId()) < batchInsertPlan
+            .getMaxTime()) {
+          latestTimeForEachDevice.put(batchInsertPlan.getDeviceId(), batchInsertPlan.getMaxTime());
+        }
+      }
+    }
+
+    // check memtable size and may asyncTryToFlush the work memtable
+    if (tsFileProcessor.shouldFlush()) {
+      logger.info("The memtable size {} reaches the threshold, async flush it to tsfile: {}",
+          tsFileProcessor.getWorkMemTableMemory(),
+          tsFileProcessor.getTsFileResource().getFile().getAbsolutePath());
+
+      if (tsFileProcessor.shouldClose()) {
+        moveOneWorkProcessorToClosingList(sequence);
+      } else {
+        tsFileProcessor.asyncFlush();
+      }
+    }
+  }
+
+  private void insertToTsFileProcessor(InsertPlan insertPlan, boolean sequence,
+      PendingWalWrites pendingWalWrites) throws QueryProcessException {
     TsFileProcessor tsFileProcessor;
     boolean result;
 
@@ -461,7 +590,7 @@ public class StorageGroupProcessor {
     }
 
     // insert TsFileProcessor
-    result = tsFileProcessor.insert(insertPlan);
+    result = tsFileProcessor.insert(insertPlan, pendingWalWrites);
 
     // try to update the latest time of the device of this tsRecord
     if (result && latestTimeForEachDevice.get(insertPlan.getDeviceId()) < insertPlan.getTime()) {
@@ -1343,6 +1472,10 @@ public class StorageGroupProcessor {
     return workSequenceTsFileProcessor;
   }
 
+  public boolean isMerging() {
+    return isMerging;
+  }
+
   public void setDataTTL(long dataTTL) {
     this.dataTTL = dataTTL;
     checkFilesTTL();
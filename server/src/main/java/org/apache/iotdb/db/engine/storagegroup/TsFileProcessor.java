@@ -20,6 +20,7 @@ package org.apache.iotdb.db.engine.storagegroup;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -44,18 +45,23 @@ import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
+import org.apache.iotdb.db.engine.rollup.RollupIndex;
+import org.apache.iotdb.db.engine.rollup.RollupIndexManager;
 import org.apache.iotdb.db.engine.storagegroup.StorageGroupProcessor.CloseTsFileCallBack;
 import org.apache.iotdb.db.engine.version.VersionController;
 import org.apache.iotdb.db.exception.TsFileProcessorException;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.qp.constant.DatetimeUtils;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.rescon.MemTablePool;
 import org.apache.iotdb.db.utils.QueryUtils;
+import org.apache.iotdb.db.utils.TestOnly;
 import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
+import org.apache.iotdb.db.writelog.node.PendingWalWrites;
 import org.apache.iotdb.db.writelog.node.WriteLogNode;
 import org.apache.iotdb.rpc.TSStatusCode;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
@@ -117,6 +123,11 @@ public class TsFileProcessor {
 
   private long totalMemTableSize;
 
+  /**
+   * collects the rollup index of a sequence file from its flushes, null if the index is disabled
+   */
+  private RollupIndex.Builder rollupIndexBuilder;
+
   TsFileProcessor(String storageGroupName, File tsfile, Schema schema,
       VersionController versionController,
       CloseTsFileCallBack closeTsFileCallback,
@@ -130,6 +141,10 @@ public class TsFileProcessor {
     this.closeTsFileCallback = closeTsFileCallback;
     this.updateLatestFlushTimeCallback = updateLatestFlushTimeCallback;
     this.sequence = sequence;
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    if (sequence && config.isEnableRollupIndex()) {
+      this.rollupIndexBuilder = new RollupIndex.Builder(config.getRollupBucketSize());
+    }
     logger.info("create a new tsfile processor {}", tsfile.getAbsolutePath());
   }
 
@@ -140,9 +155,24 @@ public class TsFileProcessor {
    * @return succeed or fail
    */
   public boolean insert(InsertPlan insertPlan) throws QueryProcessException {
+    PendingWalWrites pendingWalWrites = new PendingWalWrites();
+    return insert(insertPlan, pendingWalWrites) && pendingWalWrites.await();
+  }
+
+  /**
+   * insert data in an InsertPlan into the workingMemtable without waiting for its WAL.
+   *
+   * @param insertPlan physical plan of insertion
+   * @param pendingWalWrites collects the WAL to be waited for by the caller
+   * @return succeed or fail
+   */
+  public boolean insert(InsertPlan insertPlan, PendingWalWrites pendingWalWrites)
+      throws QueryProcessException {
 
     if (workMemTable == null) {
       workMemTable = MemTablePool.getInstance().getAvailableMemTable(this);
+      workMemTable.setOffHeap(
+          IoTDBDescriptor.getInstance().getConfig().isOffHeapMemtable(storageGroupName));
     }
 
     // insert insertPlan to the work memtable
@@ -150,7 +180,8 @@ public class TsFileProcessor {
 
     if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
       try {
-        getLogNode().write(insertPlan);
+        pendingWalWrites.add(getLogNode(),
+            getLogNode().append(Collections.singletonList(insertPlan)), null);
       } catch (IOException e) {
         logger.error("write WAL failed", e);
         return false;
@@ -168,11 +199,17 @@ public class TsFileProcessor {
     return true;
   }
 
+  /**
+   * insert the given rows of a BatchInsertPlan into the workingMemtable without waiting for its
+   * WAL. The results of the rows are set to an error code if the WAL fails.
+   */
   public boolean insertBatch(BatchInsertPlan batchInsertPlan, List<Integer> indexes,
-      Integer[] results) throws QueryProcessException {
+      Integer[] results, PendingWalWrites pendingWalWrites) throws QueryProcessException {
 
     if (workMemTable == null) {
       workMemTable = MemTablePool.getInstance().getAvailableMemTable(this);
+      workMemTable.setOffHeap(
+          IoTDBDescriptor.getInstance().getConfig().isOffHeapMemtable(storageGroupName));
     }
 
     // insert insertPlan to the work memtable
@@ -181,12 +218,12 @@ public class TsFileProcessor {
     if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
       try {
         batchInsertPlan.setIndex(new HashSet<>(indexes));
-        getLogNode().write(batchInsertPlan);
+        pendingWalWrites.add(getLogNode(),
+            getLogNode().append(Collections.singletonList(batchInsertPlan)),
+            () -> setFailed(indexes, results));
       } catch (IOException e) {
         logger.error("write WAL failed", e);
-        for (int index: indexes) {
-          results[index] = TSStatusCode.INTERNAL_SERVER_ERROR.getStatusCode();
-        }
+        setFailed(indexes, results);
         return false;
       }
     }
@@ -202,6 +239,65 @@ public class TsFileProcessor {
     return true;
   }
 
+  /**
+   * Insert the rows of several BatchInsertPlans, possibly of different devices, and log them with
+   * one WAL append, which the caller waits for through pendingWalWrites.
+   *
+   * @param indexesList the rows to be inserted of each plan
+   * @param resultsList the result of each row of each plan, set to an error code if the WAL fails
+   * @return false if the WAL failed to be appended
+   */
+  public boolean insertBatches(List<BatchInsertPlan> batchInsertPlans,
+      List<List<Integer>> indexesList, List<Integer[]> resultsList,
+      PendingWalWrites pendingWalWrites) throws QueryProcessException {
+
+    if (workMemTable == null) {
+      workMemTable = MemTablePool.getInstance().getAvailableMemTable(this);
+      workMemTable.setOffHeap(
+          IoTDBDescriptor.getInstance().getConfig().isOffHeapMemtable(storageGroupName));
+    }
+
+    for (int i = 0; i < batchInsertPlans.size(); i++) {
+      workMemTable.insertBatch(batchInsertPlans.get(i), indexesList.get(i));
+    }
+
+    if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
+      List<PhysicalPlan> logs = new ArrayList<>(batchInsertPlans.size());
+      for (int i = 0; i < batchInsertPlans.size(); i++) {
+        BatchInsertPlan batchInsertPlan = batchInsertPlans.get(i);
+        batchInsertPlan.setIndex(new HashSet<>(indexesList.get(i)));
+        logs.add(batchInsertPlan);
+      }
+      Runnable failureHandler = () -> {
+        for (int i = 0; i < indexesList.size(); i++) {
+          setFailed(indexesList.get(i), resultsList.get(i));
+        }
+      };
+      try {
+        pendingWalWrites.add(getLogNode(), getLogNode().append(logs), failureHandler);
+      } catch (IOException e) {
+        logger.error("write WAL failed", e);
+        failureHandler.run();
+        return false;
+      }
+    }
+
+    for (BatchInsertPlan batchInsertPlan : batchInsertPlans) {
+      tsFileResource.updateStartTime(batchInsertPlan.getDeviceId(), batchInsertPlan.getMinTime());
+      if (!sequence) {
+        tsFileResource.updateEndTime(batchInsertPlan.getDeviceId(), batchInsertPlan.getMaxTime());
+      }
+    }
+
+    return true;
+  }
+
+  private static void setFailed(List<Integer> indexes, Integer[] results) {
+    for (int index : indexes) {
+      results[index] = TSStatusCode.INTERNAL_SERVER_ERROR.getStatusCode();
+    }
+  }
+
   /**
    * Delete data which belongs to the timeseries `deviceId.measurementId` and the timestamp of which
    * <= 'timestamp' in the deletion. <br/>
@@ -425,13 +521,15 @@ public class TsFileProcessor {
     // signal memtable only may appear when calling asyncClose()
     if (!memTableToFlush.isSignalMemTable()) {
       MemTableFlushTask flushTask = new MemTableFlushTask(memTableToFlush, schema, writer,
-          storageGroupName);
+          storageGroupName, rollupIndexBuilder);
       try {
         writer.mark();
         flushTask.syncFlushMemTable();
       } catch (ExecutionException | InterruptedException | IOException e) {
         logger.error("meet error when flushing a memtable, change system mode to read-only", e);
         IoTDBDescriptor.getInstance().getConfig().setReadOnly(true);
+        // the buckets may hold points that are truncated from the file
+        rollupIndexBuilder = null;
         try {
           logger.error("IOTask meets error, truncate the corrupted data", e);
           writer.reset();
@@ -492,6 +590,13 @@ public class TsFileProcessor {
 
     tsFileResource.serialize();
     writer.endFile(schema);
+    if (rollupIndexBuilder != null) {
+      // written before the resource is marked closed, so queries never see a sealed file whose
+      // index is still being written
+      RollupIndexManager.getInstance()
+          .writeIndex(tsFileResource.getFile(), rollupIndexBuilder.build());
+      rollupIndexBuilder = null;
+    }
 
     // remove this processor from Closing list in StorageGroupProcessor,
     // mark the TsFileResource closed, no need writer anymore
@@ -523,6 +628,11 @@ public class TsFileProcessor {
     return logNode;
   }
 
+  @TestOnly
+  void setLogNode(WriteLogNode logNode) {
+    this.logNode = logNode;
+  }
+
   public void close() throws TsFileProcessorException {
     try {
       tsFileResource.close();
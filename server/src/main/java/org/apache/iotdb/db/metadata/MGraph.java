@@ -51,6 +51,22 @@ public class MGraph implements Serializable {
     ptreeMap = new HashMap<>();
   }
 
+  MGraph(MTree mtree) {
+    this.mtree = mtree;
+    ptreeMap = new HashMap<>();
+  }
+
+  MTree getMTree() {
+    return mtree;
+  }
+
+  /**
+   * @return whether any {@code PTree} exists, which metadata snapshots do not cover
+   */
+  boolean hasPTree() {
+    return !ptreeMap.isEmpty();
+  }
+
   /**
    * Add a {@code PTree} to current {@code MGraph}.
    */
@@ -21,9 +21,10 @@ package org.apache.iotdb.db.metadata;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -33,6 +34,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
@@ -48,6 +50,7 @@ import org.apache.iotdb.db.exception.path.PathException;
 import org.apache.iotdb.db.exception.storageGroup.StorageGroupException;
 import org.apache.iotdb.db.monitor.MonitorConstants;
 import org.apache.iotdb.db.utils.RandomDeleteCache;
+import org.apache.iotdb.db.utils.TestOnly;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.exception.cache.CacheException;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
@@ -78,6 +81,15 @@ public class MManager {
   private BufferedWriter logWriter;
   private boolean writeToLog;
   private String schemaDir;
+  private String snapshotFilePath;
+  // the number of metadata log entries written since the latest snapshot
+  private long logEntryNumSinceSnapshot;
+  // the number of metadata log entries replayed by the latest init()
+  private long replayedLogEntryNum;
+  // serializes the snapshots, never acquired while holding the lock
+  private final Object snapshotLock = new Object();
+  // the thread of the running background snapshot, or null
+  private volatile Thread snapshotThread;
 
   private RandomDeleteCache<String, PathCheckRet> checkAndGetDataTypeCache;
   private RandomDeleteCache<String, MNode> mNodeCache;
@@ -100,6 +112,7 @@ public class MManager {
       }
     }
     logFilePath = schemaDir + File.separator + MetadataConstant.METADATA_LOG;
+    snapshotFilePath = schemaDir + File.separator + MetadataConstant.METADATA_SNAPSHOT;
     writeToLog = false;
 
     int cacheSize = IoTDBDescriptor.getInstance().getConfig().getmManagerCacheSize();
@@ -145,9 +158,18 @@ public class MManager {
     }
     lock.writeLock().lock();
     File logFile = SystemFileFactory.INSTANCE.getFile(logFilePath);
+    File snapshotFile = SystemFileFactory.INSTANCE.getFile(snapshotFilePath);
 
     try {
-      initFromLog(logFile);
+      // replayed operations must not be logged again, even if the manager has been cleared
+      writeToLog = false;
+      long startTime = System.currentTimeMillis();
+      long logOffset = initFromSnapshot(snapshotFile, logFile);
+      long replayStartTime = System.currentTimeMillis();
+      long replayedEntryNum = initFromLog(logFile, logOffset);
+      replayedLogEntryNum = replayedEntryNum;
+      logger.info("{}: replayed {} metadata log entries in {} ms", IoTDBConstant.GLOBAL_DB_NAME,
+          replayedEntryNum, System.currentTimeMillis() - replayStartTime);
       seriesNumberInStorageGroups = mgraph.countSeriesNumberInEachStorageGroup();
       if (seriesNumberInStorageGroups.isEmpty()) {
         maxSeriesNumberAmongStorageGroup = 0;
@@ -156,6 +178,11 @@ public class MManager {
             .max(Integer::compareTo).get();
       }
       writeToLog = true;
+      logger.info("{}: metadata initialized in {} ms", IoTDBConstant.GLOBAL_DB_NAME,
+          System.currentTimeMillis() - startTime);
+      // a long log tail makes the next restart slow, so snapshot it right away
+      logEntryNumSinceSnapshot = replayedEntryNum;
+      checkSnapshot();
     } catch (PathException | IOException | MetadataException e) {
       mgraph = new MGraph(ROOT_NAME);
       logger.error("Cannot read MGraph from file, using an empty new one", e);
@@ -166,25 +193,178 @@ public class MManager {
   }
 
 
-  private void initFromLog(File logFile)
-      throws IOException, PathException, MetadataException {
-    // init the metadata from the operation log
+  /**
+   * Load the MTree from the latest snapshot if there is a usable one, otherwise start from an
+   * empty MGraph.
+   *
+   * @return the length of the metadata log already reflected by the loaded MTree
+   */
+  private long initFromSnapshot(File snapshotFile, File logFile)
+      throws PathException, MetadataException {
     mgraph = new MGraph(ROOT_NAME);
+    if (!snapshotFile.exists()) {
+      return 0;
+    }
+    long startTime = System.currentTimeMillis();
+    MetadataSnapshot snapshot;
+    try {
+      snapshot = MetadataSnapshot.read(snapshotFile);
+    } catch (IOException e) {
+      logger.warn("Cannot read metadata snapshot {}, replay the whole metadata log instead",
+          snapshotFile.getAbsolutePath(), e);
+      return 0;
+    }
+    if (snapshot.getLogOffset() > logFile.length()) {
+      logger.warn("Metadata snapshot {} is ahead of the metadata log, replay the whole metadata "
+          + "log instead", snapshotFile.getAbsolutePath());
+      return 0;
+    }
+
+    mgraph = new MGraph(snapshot.getMTree());
+    for (String storageGroup : mgraph.getAllStorageGroupNames()) {
+      ActiveTimeSeriesCounter.getInstance().init(storageGroup);
+    }
+    try {
+      IoTDBConfigDynamicAdapter.getInstance()
+          .addOrDeleteStorageGroup(snapshot.getStorageGroupNum());
+      IoTDBConfigDynamicAdapter.getInstance().addOrDeleteTimeSeries(snapshot.getSeriesNum());
+    } catch (ConfigAdjusterException e) {
+      throw new MetadataException(e);
+    }
+    // replaying the log tail updates the series number of each storage group
+    seriesNumberInStorageGroups = mgraph.countSeriesNumberInEachStorageGroup();
+    logger.info("{}: loaded metadata snapshot of {} storage groups and {} timeseries in {} ms",
+        IoTDBConstant.GLOBAL_DB_NAME, snapshot.getStorageGroupNum(), snapshot.getSeriesNum(),
+        System.currentTimeMillis() - startTime);
+    return snapshot.getLogOffset();
+  }
+
+  /**
+   * Replay the metadata log from the given offset.
+   *
+   * @return the number of replayed log entries
+   */
+  private long initFromLog(File logFile, long logOffset)
+      throws IOException, PathException, MetadataException {
+    long entryNum = 0;
     if (logFile.exists()) {
-      try (FileReader fr = new FileReader(logFile);
-          BufferedReader br = new BufferedReader(fr)) {
+      try (FileInputStream inputStream = new FileInputStream(logFile)) {
+        long skipped = 0;
+        while (skipped < logOffset) {
+          long skippedOnce = inputStream.skip(logOffset - skipped);
+          if (skippedOnce <= 0) {
+            throw new IOException(String.format("Cannot skip %d bytes of the metadata log %s",
+                logOffset, logFile.getAbsolutePath()));
+          }
+          skipped += skippedOnce;
+        }
+        BufferedReader br = new BufferedReader(new InputStreamReader(inputStream));
         String cmd;
         while ((cmd = br.readLine()) != null) {
           operation(cmd);
+          entryNum++;
+        }
+      }
+    }
+    return entryNum;
+  }
+
+  /**
+   * Write a snapshot of the MTree which covers the whole metadata log written so far. Snapshots
+   * are skipped while any PTree exists, as they do not cover PTrees.
+   * <p>
+   * The MTree is copied into memory under the read lock, then the copy is written and synced
+   * without any lock, and only the final rename is done under the write lock, so a snapshot does
+   * not block metadata operations for long. This must not be called while holding the lock.
+   */
+  public void takeSnapshot() {
+    synchronized (snapshotLock) {
+      long startTime = System.currentTimeMillis();
+      byte[] snapshot;
+      long logOffset;
+      lock.readLock().lock();
+      try {
+        if (mgraph.hasPTree()) {
+          logger.debug("Skip the metadata snapshot because PTrees exist");
+          return;
         }
+        // the log is only written under the write lock, so it is complete here
+        if (logWriter != null) {
+          logWriter.flush();
+        }
+        logOffset = SystemFileFactory.INSTANCE.getFile(logFilePath).length();
+        snapshot = MetadataSnapshot.serialize(mgraph.getMTree(), logOffset);
+      } catch (IOException e) {
+        logger.error("Cannot copy the metadata snapshot, because:", e);
+        return;
+      } finally {
+        lock.readLock().unlock();
+      }
+
+      File snapshotFile = SystemFileFactory.INSTANCE.getFile(snapshotFilePath);
+      File tmpFile = MetadataSnapshot.getTmpFile(snapshotFile);
+      try {
+        MetadataSnapshot.writeTmpFile(snapshot, tmpFile);
+        lock.writeLock().lock();
+        try {
+          MetadataSnapshot.install(tmpFile, snapshotFile);
+        } finally {
+          lock.writeLock().unlock();
+        }
+        logger.info("{}: took metadata snapshot at log offset {} in {} ms",
+            IoTDBConstant.GLOBAL_DB_NAME, logOffset, System.currentTimeMillis() - startTime);
+      } catch (IOException e) {
+        logger.error("Cannot write the metadata snapshot, because:", e);
       }
     }
   }
 
+  /**
+   * Start a snapshot in the background once enough metadata log entries have been written since
+   * the latest one, unless a snapshot is running, in which case the entries are counted until the
+   * next check after it ends. It must be called under the write lock after the logged operation
+   * has been applied to the MGraph.
+   */
+  private void checkSnapshot() {
+    int snapshotInterval = IoTDBDescriptor.getInstance().getConfig().getMetadataSnapshotInterval();
+    if (snapshotInterval <= 0 || logEntryNumSinceSnapshot < snapshotInterval
+        || snapshotThread != null) {
+      return;
+    }
+    logEntryNumSinceSnapshot = 0;
+    snapshotThread = new Thread(() -> {
+      try {
+        takeSnapshot();
+      } finally {
+        snapshotThread = null;
+      }
+    }, ThreadName.METADATA_SNAPSHOT.getName());
+    snapshotThread.setDaemon(true);
+    snapshotThread.start();
+  }
+
+  /**
+   * Wait for the running background snapshot, if any.
+   */
+  private void waitSnapshot() {
+    Thread thread = snapshotThread;
+    if (thread == null) {
+      return;
+    }
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      logger.warn("Interrupted when waiting for the metadata snapshot");
+      Thread.currentThread().interrupt();
+    }
+  }
+
   /**
    * function for clearing MGraph.
    */
   public void clear() {
+    // a running snapshot must not be written after the metadata files are removed
+    waitSnapshot();
     lock.writeLock().lock();
     try {
       this.mgraph = new MGraph(ROOT_NAME);
@@ -192,10 +372,13 @@ public class MManager {
       this.mNodeCache.clear();
       this.seriesNumberInStorageGroups.clear();
       this.maxSeriesNumberAmongStorageGroup = 0;
+      this.logEntryNumSinceSnapshot = 0;
       if (logWriter != null) {
         logWriter.close();
         logWriter = null;
       }
+      // the next init() loads the metadata files again, as after a restart
+      initialized = false;
     } catch (IOException e) {
       logger.error("Cannot close metadata log writer, because:", e);
     } finally {
@@ -404,6 +587,8 @@ public class MManager {
       }
       writer.newLine();
       writer.flush();
+      logEntryNumSinceSnapshot++;
+      checkSnapshot();
     }
   }
 
@@ -565,6 +750,7 @@ public class MManager {
         writer.write(MetadataOperationType.DELETE_PATH_FROM_MTREE + "," + path);
         writer.newLine();
         writer.flush();
+        logEntryNumSinceSnapshot++;
       }
       String storageGroup = getStorageGroupNameByPath(path);
       int size = seriesNumberInStorageGroups.get(storageGroup);
@@ -580,6 +766,7 @@ public class MManager {
       } else {
         maxSeriesNumberAmongStorageGroup--;
       }
+      checkSnapshot();
       return storageGroupName;
     } finally {
       lock.writeLock().unlock();
@@ -604,6 +791,8 @@ public class MManager {
         writer.write(MetadataOperationType.SET_STORAGE_GROUP_TO_MTREE + "," + path);
         writer.newLine();
         writer.flush();
+        logEntryNumSinceSnapshot++;
+        checkSnapshot();
       }
     } catch (StorageGroupException e) {
       throw new MetadataException(e);
@@ -640,6 +829,7 @@ public class MManager {
         writer.write(MetadataOperationType.DELETE_STORAGE_GROUP_FROM_MTREE + jointPath);
         writer.newLine();
         writer.flush();
+        logEntryNumSinceSnapshot++;
       }
       for (String delStorageGroup : pathList) {
         try {
@@ -658,6 +848,8 @@ public class MManager {
           throw new MetadataException(e);
         }
       }
+      // the storage groups are deleted only after being logged
+      checkSnapshot();
     } catch (ConfigAdjusterException e) {
       throw new MetadataException(e);
     } catch (IOException e) {
@@ -1384,6 +1576,11 @@ public class MManager {
     }
   }
 
+  @TestOnly
+  long getReplayedLogEntryNum() {
+    return replayedLogEntryNum;
+  }
+
   /**
    * Only for test
    */
@@ -1437,6 +1634,8 @@ public class MManager {
             .write(String.format("%s,%s,%s", MetadataOperationType.SET_TTL, storageGroup, dataTTL));
         writer.newLine();
         writer.flush();
+        logEntryNumSinceSnapshot++;
+        checkSnapshot();
       }
     } finally {
       lock.writeLock().unlock();
@@ -19,9 +19,16 @@
 package org.apache.iotdb.db.metadata;
 
 import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -31,36 +38,37 @@ import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 /**
  * This class is the implementation of Metadata Node where "MNode" is the shorthand of "Metadata
  * Node". One MNode instance represents one node in the Metadata Tree
+ *
+ * <p>The layout is kept compact as there is one node per timeseries: a leaf only refers to its
+ * name, its parent and a schema shared with the leaves of the same measurement, full paths and
+ * storage group names are computed from the parents when asked for, and a node with few children
+ * keeps them in a small array instead of a map. Fields only storage groups need live in {@link
+ * StorageGroupInfo}.
  */
 public class MNode implements Serializable {
 
   private static final long serialVersionUID = -770028375899514063L;
 
+  /**
+   * Nodes with at most this many children keep them in an array.
+   */
+  static final int SMALL_CHILDREN_THRESHOLD = 8;
+  private static final MNode[] NO_CHILDREN = new MNode[0];
+
   // The name of the MNode
   private String name;
   // Whether current node is a leaf in the Metadata Tree
   private boolean isLeaf;
-  // Whether current node is Storage group in the Metadata Tree
-  private boolean isStorageGroup;
-  // Map for the schema in this storage group
-  private Map<String, MeasurementSchema> schemaMap;
-  private Map<String, Integer> numSchemaMap;
-  // Corresponding data file name for current node
-  private String dataFileName;
   // Column's Schema for one timeseries represented by current node if current
   // node is one leaf
   private MeasurementSchema schema;
   private MNode parent;
+  // Children in insertion order. A non-leaf node keeps them in smallChildren until there are more
+  // than SMALL_CHILDREN_THRESHOLD and in children afterwards; the other one is null.
+  private MNode[] smallChildren;
   private Map<String, MNode> children;
-
-  private String fullPath;
-
-  /**
-   * when the data in a storage group is older than dataTTL, it is considered invalid and will
-   * be eventually removed.
-   * only set at storage group level.
-   */
-  private long dataTTL = Long.MAX_VALUE;
+  // not null if and only if current node is a storage group
+  private StorageGroupInfo storageGroupInfo;
 
   /**
    * Constructor of MNode.
@@ -69,42 +77,53 @@ public class MNode implements Serializable {
     this.setName(name);
     this.parent = parent;
     this.isLeaf = isLeaf;
-    this.isStorageGroup = false;
     if (!isLeaf) {
-      children = new LinkedHashMap<>();
+      smallChildren = NO_CHILDREN;
     }
   }
 
   public MNode(String name, MNode parent, TSDataType dataType, TSEncoding encoding,
       CompressionType type) {
+    this(name, parent, dataType, encoding, type, null);
+  }
+
+  /**
+   * Constructor of a leaf. Leaves of the same measurement without props share one schema.
+   */
+  public MNode(String name, MNode parent, TSDataType dataType, TSEncoding encoding,
+      CompressionType type, Map<String, String> props) {
     this(name, parent, true);
-    this.schema = new MeasurementSchema(name, dataType, encoding, type);
+    if (props == null || props.isEmpty()) {
+      this.schema = MeasurementSchemaInterner
+          .intern(new MeasurementSchema(name, dataType, encoding, type));
+    } else {
+      this.schema = new MeasurementSchema(name, dataType, encoding, type, props);
+    }
   }
 
   public boolean isStorageGroup() {
-    return isStorageGroup;
+    return storageGroupInfo != null;
   }
 
   /**
    * function for setting storage group.
    */
   public void setStorageGroup(boolean b) {
-    this.isStorageGroup = b;
     if (b) {
-      schemaMap = new HashMap<>();
-      numSchemaMap = new HashMap<>();
+      if (storageGroupInfo == null) {
+        storageGroupInfo = new StorageGroupInfo();
+      }
     } else {
-      numSchemaMap = null;
-      schemaMap = null;
+      storageGroupInfo = null;
     }
   }
 
   public Map<String, MeasurementSchema> getSchemaMap() {
-    return schemaMap;
+    return storageGroupInfo == null ? null : storageGroupInfo.schemaMap;
   }
 
   public Map<String, Integer> getNumSchemaMap() {
-    return numSchemaMap;
+    return storageGroupInfo == null ? null : storageGroupInfo.numSchemaMap;
   }
 
   public boolean isLeaf() {
@@ -113,6 +132,12 @@ public class MNode implements Serializable {
 
   public void setLeaf(boolean isLeaf) {
     this.isLeaf = isLeaf;
+    if (isLeaf) {
+      smallChildren = null;
+      children = null;
+    } else if (smallChildren == null && children == null) {
+      smallChildren = NO_CHILDREN;
+    }
   }
 
   /**
@@ -129,33 +154,75 @@ public class MNode implements Serializable {
    * function for checking whether mnode's children contain the given key.
    */
   public boolean hasChild(String key) {
-    if (!isLeaf) {
-      return this.children.containsKey(key);
-    }
-    return false;
+    return getChild(key) != null;
   }
 
   /**
    * function for adding the given key to the given child mnode.
    */
   public void addChild(String key, MNode child) {
-    if (!isLeaf) {
-      this.children.put(key, child);
+    if (isLeaf) {
+      return;
+    }
+    if (children != null) {
+      children.put(key, child);
+      return;
+    }
+    int index = indexOfSmallChild(key);
+    if (index >= 0) {
+      smallChildren[index] = child;
+    } else if (smallChildren.length < SMALL_CHILDREN_THRESHOLD) {
+      smallChildren = Arrays.copyOf(smallChildren, smallChildren.length + 1);
+      smallChildren[smallChildren.length - 1] = child;
+    } else {
+      children = new LinkedHashMap<>();
+      for (MNode smallChild : smallChildren) {
+        children.put(smallChild.getName(), smallChild);
+      }
+      children.put(key, child);
+      smallChildren = null;
     }
   }
 
   public void deleteChild(String key) {
-    children.remove(key);
+    if (children != null) {
+      children.remove(key);
+      return;
+    }
+    int index = indexOfSmallChild(key);
+    if (index >= 0) {
+      MNode[] newChildren = new MNode[smallChildren.length - 1];
+      System.arraycopy(smallChildren, 0, newChildren, 0, index);
+      System.arraycopy(smallChildren, index + 1, newChildren, index,
+          smallChildren.length - index - 1);
+      smallChildren = newChildren.length == 0 ? NO_CHILDREN : newChildren;
+    }
   }
 
   /**
    * function for getting the child mnode under the given key.
    */
   public MNode getChild(String key) {
-    if (!isLeaf) {
+    if (isLeaf) {
+      return null;
+    }
+    if (children != null) {
       return children.get(key);
     }
-    return null;
+    int index = indexOfSmallChild(key);
+    return index >= 0 ? smallChildren[index] : null;
+  }
+
+  private int indexOfSmallChild(String key) {
+    if (smallChildren == null) {
+      return -1;
+    }
+    for (int i = 0; i < smallChildren.length; i++) {
+      if (smallChildren[i].getName().equals(key)) {
+        return i;
+      }
+    }
+    return -1;
   }
 
   /**
@@ -166,19 +233,23 @@ public class MNode implements Serializable {
       return 1;
     } else {
       int leafCount = 0;
-      for (MNode child : this.children.values()) {
+      for (MNode child : getChildren().values()) {
         leafCount += child.getLeafCount();
       }
       return leafCount;
     }
   }
 
+  /**
+   * @return the name of the storage group current node belongs to, or null if it is above the
+   * storage groups
+   */
   public String getDataFileName() {
-    return dataFileName;
-  }
-
-  public void setDataFileName(String dataFileName) {
-    this.dataFileName = dataFileName;
+    MNode cur = this;
+    while (cur != null && !cur.isStorageGroup()) {
+      cur = cur.parent;
+    }
+    return cur == null ? null : cur.getFullPath();
   }
 
   @Override
@@ -202,12 +273,25 @@ public class MNode implements Serializable {
     this.parent = parent;
   }
 
+  /**
+   * @return a read-only view of the children in insertion order, or null for a leaf
+   */
   public Map<String, MNode> getChildren() {
-    return children;
+    if (children != null) {
+      return Collections.unmodifiableMap(children);
+    }
+    if (smallChildren != null) {
+      return new SmallChildrenView(smallChildren);
+    }
+    return null;
   }
 
   public void setChildren(Map<String, MNode> children) {
-    this.children = children;
+    this.children = null;
+    this.smallChildren = NO_CHILDREN;
+    for (Map.Entry<String, MNode> entry : children.entrySet()) {
+      addChild(entry.getKey(), entry.getValue());
+    }
   }
 
   public String getName() {
@@ -218,17 +302,26 @@ public class MNode implements Serializable {
     this.name = name;
   }
 
+  /**
+   * when the data in a storage group is older than dataTTL, it is considered invalid and will
+   * be eventually removed. only set at storage group level, other nodes return Long.MAX_VALUE.
+   */
   public long getDataTTL() {
-    return dataTTL;
+    return storageGroupInfo == null ? Long.MAX_VALUE : storageGroupInfo.dataTTL;
   }
 
   public void setDataTTL(long dataTTL) {
-    this.dataTTL = dataTTL;
+    if (storageGroupInfo != null) {
+      storageGroupInfo.dataTTL = dataTTL;
+    }
   }
 
+  /**
+   * The full path is computed from the parents and only cached by storage groups.
+   */
   public String getFullPath() {
-    if (fullPath != null) {
-      return fullPath;
+    if (storageGroupInfo != null && storageGroupInfo.fullPath != null) {
+      return storageGroupInfo.fullPath;
     }
     StringBuilder builder = new StringBuilder(name);
     MNode curr = this;
@@ -236,6 +329,87 @@ public class MNode implements Serializable {
       curr = curr.parent;
       builder.insert(0, IoTDBConstant.PATH_SEPARATOR).insert(0, curr.name);
     }
-    return fullPath = builder.toString();
+    String fullPath = builder.toString();
+    if (storageGroupInfo != null) {
+      storageGroupInfo.fullPath = fullPath;
+    }
+    return fullPath;
+  }
+
+  /**
+   * State only storage group nodes carry.
+   */
+  private static class StorageGroupInfo implements Serializable {
+
+    private static final long serialVersionUID = 3541372254452765407L;
+
+    // Map for the schema in this storage group
+    private Map<String, MeasurementSchema> schemaMap = new HashMap<>();
+    private Map<String, Integer> numSchemaMap = new HashMap<>();
+    private long dataTTL = Long.MAX_VALUE;
+    private String fullPath;
+  }
+
+  /**
+   * A read-only map view over the children array of a node with few children.
+   */
+  private static class SmallChildrenView extends AbstractMap<String, MNode> {
+
+    private final MNode[] nodes;
+
+    private SmallChildrenView(MNode[] nodes) {
+      this.nodes = nodes;
+    }
+
+    @Override
+    public int size() {
+      return nodes.length;
+    }
+
+    @Override
+    public MNode get(Object key) {
+      for (MNode node : nodes) {
+        if (node.getName().equals(key)) {
+          return node;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<String, MNode>> entrySet() {
+      return new AbstractSet<Entry<String, MNode>>() {
+        @Override
+        public Iterator<Entry<String, MNode>> iterator() {
+          return new Iterator<Entry<String, MNode>>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+              return index < nodes.length;
+            }
+
+            @Override
+            public Entry<String, MNode> next() {
+              if (index >= nodes.length) {
+                throw new NoSuchElementException();
+              }
+              MNode node = nodes[index++];
+              return new SimpleImmutableEntry<>(node.getName(), node);
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return nodes.length;
+        }
+      };
+    }
   }
 }
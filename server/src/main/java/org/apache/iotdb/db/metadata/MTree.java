@@ -59,6 +59,10 @@ public class MTree implements Serializable {
     this.root = new MNode(rootName, null, false);
   }
 
+  MTree(MNode root) {
+    this.root = root;
+  }
+
   /**
    * function for adding timeseries.It should check whether seriesPath exists.
    */
@@ -69,13 +73,9 @@ public class MTree implements Serializable {
       throw new MTreePathException("Timeseries", timeseriesPath);
     }
     MNode cur = findLeafParent(nodeNames);
-    String levelPath = cur.getDataFileName();
 
-    MNode leaf = new MNode(nodeNames[nodeNames.length - 1], cur, dataType, encoding, compressor);
-    if (props != null && !props.isEmpty()) {
-      leaf.getSchema().setProps(props);
-    }
-    leaf.setDataFileName(levelPath);
+    MNode leaf = new MNode(nodeNames[nodeNames.length - 1], cur, dataType, encoding, compressor,
+        props);
     if (cur.isLeaf()) {
       throw new MTreePathException(timeseriesPath, "can't be created",
           String.format("node [%s] is left node", cur.getName()));
@@ -103,13 +103,9 @@ public class MTree implements Serializable {
 
   private MNode findLeafParent(String[] nodeNames) throws PathException {
     MNode cur = root;
-    String levelPath = null;
     int i = 1;
     while (i < nodeNames.length - 1) {
       String nodeName = nodeNames[i];
-      if (cur.isStorageGroup()) {
-        levelPath = cur.getDataFileName();
-      }
       if (!cur.hasChild(nodeName)) {
         if (cur.isLeaf()) {
           throw new MTreePathException(String.join(",", nodeNames), "can't be created",
@@ -117,14 +113,9 @@ public class MTree implements Serializable {
         }
         cur.addChild(nodeName, new MNode(nodeName, cur, false));
       }
-      cur.setDataFileName(levelPath);
       cur = cur.getChild(nodeName);
-      if (levelPath == null) {
-        levelPath = cur.getDataFileName();
-      }
       i++;
     }
-    cur.setDataFileName(levelPath);
     return cur;
   }
 
@@ -220,10 +211,8 @@ public class MTree implements Serializable {
               path));
     }
     cur = cur.getChild(nodeNames[i]);
-    cur.setDataTTL(IoTDBDescriptor.getInstance().getConfig().getDefaultTTL());
     cur.setStorageGroup(true);
-
-    setStorageGroup(path, cur);
+    cur.setDataTTL(IoTDBDescriptor.getInstance().getConfig().getDefaultTTL());
   }
 
   void deleteStorageGroup(String path) throws PathException {
@@ -267,16 +256,6 @@ public class MTree implements Serializable {
     return temp != null && temp.isStorageGroup();
   }
 
-  private void setStorageGroup(String path, MNode node) {
-    node.setDataFileName(path);
-    if (node.getChildren() == null) {
-      return;
-    }
-    for (MNode child : node.getChildren().values()) {
-      setStorageGroup(path, child);
-    }
-  }
-
   /**
    * Delete one seriesPath from current Metadata Tree.
    *
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+/**
+ * Shares one MeasurementSchema among the MTree leaves of the same measurement, so that e.g. the
+ * "temperature" series of a million devices do not keep a million equal schemas. Schemas are
+ * only weakly referenced and disappear with the last leaf using them. Only schemas without props
+ * may be interned as {@link MeasurementSchema#equals(Object)} ignores props.
+ */
+class MeasurementSchemaInterner {
+
+  private static final Map<MeasurementSchema, WeakReference<MeasurementSchema>> SCHEMAS =
+      new WeakHashMap<>();
+
+  private MeasurementSchemaInterner() {
+    // util class
+  }
+
+  static synchronized MeasurementSchema intern(MeasurementSchema schema) {
+    WeakReference<MeasurementSchema> reference = SCHEMAS.get(schema);
+    MeasurementSchema interned = reference == null ? null : reference.get();
+    if (interned == null) {
+      SCHEMAS.put(schema, new WeakReference<>(schema));
+      interned = schema;
+    }
+    return interned;
+  }
+
+  static synchronized int size() {
+    return SCHEMAS.size();
+  }
+}
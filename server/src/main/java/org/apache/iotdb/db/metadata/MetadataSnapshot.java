@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+/**
+ * A compact binary snapshot of the MTree: storage groups with their TTL and every timeseries with
+ * its schema. The snapshot records how many bytes of the metadata log it reflects, so only the log
+ * written after it has to be replayed at startup.
+ *
+ * <p>Nodes are written in pre-order and read back by a streaming deserializer, which rebuilds the
+ * schema maps of the storage groups on the way instead of going through the usual checks for
+ * every timeseries.
+ */
+public class MetadataSnapshot {
+
+  // "MTS" followed by the format version
+  private static final int MAGIC_NUMBER = 0x4d545301;
+
+  private static final byte INTERNAL_NODE = 0;
+  private static final byte STORAGE_GROUP_NODE = 1;
+  private static final byte LEAF_NODE = 2;
+
+  private final long logOffset;
+  private MTree mtree;
+  private int storageGroupNum;
+  private int seriesNum;
+
+  private MetadataSnapshot(long logOffset) {
+    this.logOffset = logOffset;
+  }
+
+  /**
+   * Write a snapshot of the given tree. The snapshot is written to a temporary file first and then
+   * renamed, so a crash never leaves a partial snapshot behind.
+   *
+   * @param logOffset the length of the metadata log reflected by the tree
+   */
+  static void write(MTree mtree, long logOffset, File snapshotFile) throws IOException {
+    File tmpFile = getTmpFile(snapshotFile);
+    writeTmpFile(serialize(mtree, logOffset), tmpFile);
+    install(tmpFile, snapshotFile);
+  }
+
+  /**
+   * Serialize the given tree into memory, which is much faster than writing and syncing it, so the
+   * tree only has to stay unchanged while it is copied.
+   *
+   * @param logOffset the length of the metadata log reflected by the tree
+   */
+  static byte[] serialize(MTree mtree, long logOffset) throws IOException {
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(byteArrayOutputStream)) {
+      out.writeInt(MAGIC_NUMBER);
+      out.writeLong(logOffset);
+      serializeNode(mtree.getRoot(), out);
+    }
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  static File getTmpFile(File snapshotFile) {
+    return new File(snapshotFile.getPath() + ".tmp");
+  }
+
+  /**
+   * Write and sync a serialized snapshot to the temporary file, it takes effect after
+   * {@link #install(File, File)}.
+   */
+  static void writeTmpFile(byte[] snapshot, File tmpFile) throws IOException {
+    try (FileOutputStream fileOutputStream = new FileOutputStream(tmpFile)) {
+      fileOutputStream.write(snapshot);
+      fileOutputStream.getFD().sync();
+    }
+  }
+
+  static void install(File tmpFile, File snapshotFile) throws IOException {
+    Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  static MetadataSnapshot read(File snapshotFile) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+      if (in.readInt() != MAGIC_NUMBER) {
+        throw new IOException(
+            String.format("%s is not a metadata snapshot", snapshotFile.getAbsolutePath()));
+      }
+      MetadataSnapshot snapshot = new MetadataSnapshot(in.readLong());
+      MNode root = snapshot.deserializeNode(in, null, null);
+      snapshot.mtree = new MTree(root);
+      return snapshot;
+    }
+  }
+
+  private static void serializeNode(MNode node, DataOutputStream out) throws IOException {
+    if (node.isLeaf()) {
+      out.writeByte(LEAF_NODE);
+      out.writeUTF(node.getName());
+      MeasurementSchema schema = node.getSchema();
+      out.writeShort(schema.getType().serialize());
+      out.writeShort(schema.getEncodingType().serialize());
+      out.writeShort(schema.getCompressor().serialize());
+      Map<String, String> props = schema.getProps();
+      if (props == null) {
+        out.writeInt(0);
+      } else {
+        out.writeInt(props.size());
+        for (Map.Entry<String, String> entry : props.entrySet()) {
+          out.writeUTF(entry.getKey());
+          out.writeUTF(entry.getValue());
+        }
+      }
+      return;
+    }
+
+    if (node.isStorageGroup()) {
+      out.writeByte(STORAGE_GROUP_NODE);
+      out.writeUTF(node.getName());
+      out.writeLong(node.getDataTTL());
+    } else {
+      out.writeByte(INTERNAL_NODE);
+      out.writeUTF(node.getName());
+    }
+    Map<String, MNode> children = node.getChildren();
+    out.writeInt(children.size());
+    for (MNode child : children.values()) {
+      serializeNode(child, out);
+    }
+  }
+
+  /**
+   * @param storageGroupNode the storage group the node belongs to, null above storage groups
+   */
+  private MNode deserializeNode(DataInputStream in, MNode parent, MNode storageGroupNode)
+      throws IOException {
+    byte nodeType = in.readByte();
+    String name = in.readUTF();
+
+    if (nodeType == LEAF_NODE) {
+      TSDataType dataType = TSDataType.deserialize(in.readShort());
+      TSEncoding encoding = TSEncoding.deserialize(in.readShort());
+      CompressionType compressor = CompressionType.deserialize(in.readShort());
+      int propNum = in.readInt();
+      Map<String, String> props = null;
+      if (propNum > 0) {
+        props = new HashMap<>(propNum + 1, 1);
+        for (int i = 0; i < propNum; i++) {
+          props.put(in.readUTF(), in.readUTF());
+        }
+      }
+      MNode leaf = new MNode(name, parent, dataType, encoding, compressor, props);
+      if (storageGroupNode != null) {
+        // the schema of the first timeseries of a measurement stands for the storage group
+        storageGroupNode.getSchemaMap().putIfAbsent(name, leaf.getSchema());
+        storageGroupNode.getNumSchemaMap().merge(name, 1, Integer::sum);
+      }
+      seriesNum++;
+      return leaf;
+    }
+
+    MNode node = new MNode(name, parent, false);
+    if (nodeType == STORAGE_GROUP_NODE) {
+      node.setStorageGroup(true);
+      node.setDataTTL(in.readLong());
+      storageGroupNode = node;
+      storageGroupNum++;
+    } else if (nodeType != INTERNAL_NODE) {
+      throw new IOException("Unknown node type " + nodeType + " in metadata snapshot");
+    }
+    int childNum = in.readInt();
+    for (int i = 0; i < childNum; i++) {
+      MNode child = deserializeNode(in, node, storageGroupNode);
+      node.addChild(child.getName(), child);
+    }
+    return node;
+  }
+
+  public long getLogOffset() {
+    return logOffset;
+  }
+
+  MTree getMTree() {
+    return mtree;
+  }
+
+  public int getStorageGroupNum() {
+    return storageGroupNum;
+  }
+
+  public int getSeriesNum() {
+    return seriesNum;
+  }
+}
@@ -48,6 +48,7 @@ import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
 import org.apache.iotdb.db.qp.physical.sys.ShowPlan;
 import org.apache.iotdb.db.qp.physical.sys.ShowTTLPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
 import org.apache.iotdb.db.query.dataset.DeviceIterateDataSet;
 import org.apache.iotdb.db.query.dataset.ListDataSet;
 import org.apache.iotdb.db.query.executor.EngineQueryRouter;
@@ -193,6 +194,8 @@ public abstract class AbstractQueryProcessExecutor implements IQueryProcessExecu
   private QueryDataSet processDataQuery(QueryPlan queryPlan, QueryContext context)
       throws StorageEngineException, QueryFilterOptimizationException, QueryProcessException,
       IOException {
+    QueryResourceManager.getInstance()
+        .admitQuery(context.getJobId(), getConcurrentSeriesNumber(queryPlan));
     if (queryPlan.isGroupByDevice()) {
       return new DeviceIterateDataSet(queryPlan, context, queryRouter);
     }
@@ -231,6 +234,21 @@ public abstract class AbstractQueryProcessExecutor implements IQueryProcessExecu
     return queryRouter.query(queryExpression, context);
   }
 
+  /**
+   * Estimate how many series the query reads at the same time. A query grouped by device reads
+   * one device after another, so only the widest device counts.
+   */
+  private int getConcurrentSeriesNumber(QueryPlan queryPlan) {
+    if (!queryPlan.isGroupByDevice()) {
+      return new HashSet<>(queryPlan.getPaths()).size();
+    }
+    int seriesNumber = 0;
+    for (Set<String> measurements : queryPlan.getMeasurementColumnsGroupByDevice().values()) {
+      seriesNumber = Math.max(seriesNumber, measurements.size());
+    }
+    return seriesNumber;
+  }
+
   /**
    * Note that the deduplication strategy must be consistent with that of IoTDBQueryResultSet.
    */
@@ -119,6 +119,14 @@ public interface IQueryProcessExecutor {
    */
   Integer[] insertBatch(BatchInsertPlan batchInsertPlan) throws QueryProcessException;
 
+  /**
+   * execute batch insert plans of many devices, grouped by storage group
+   *
+   * @return result of each row of each plan
+   */
+  List<Integer[]> insertBatches(List<BatchInsertPlan> batchInsertPlans)
+      throws QueryProcessException;
+
   boolean judgePathExists(Path fullPath);
 
   /**
@@ -67,7 +67,6 @@ import org.apache.iotdb.db.query.dataset.ListDataSet;
 import org.apache.iotdb.db.query.fill.IFill;
 import org.apache.iotdb.db.utils.AuthUtils;
 import org.apache.iotdb.db.utils.TypeInferenceUtils;
-import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.exception.cache.CacheException;
 import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
@@ -267,38 +266,24 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
   @Override
   public Integer[] insertBatch(BatchInsertPlan batchInsertPlan) throws QueryProcessException {
     try {
-      String[] measurementList = batchInsertPlan.getMeasurements();
-      String deviceId = batchInsertPlan.getDeviceId();
-      MNode node = mManager.getNodeByDeviceIdFromCache(deviceId);
-      TSDataType[] dataTypes = batchInsertPlan.getDataTypes();
-      IoTDBConfig conf = IoTDBDescriptor.getInstance().getConfig();
-
-      for (int i = 0; i < measurementList.length; i++) {
+      checkBatchInsertSchema(batchInsertPlan);
+      return storageEngine.insertBatch(batchInsertPlan);
 
-        // check if timeseries exists
-        if (!node.hasChild(measurementList[i])) {
-          if (!conf.isAutoCreateSchemaEnabled()) {
-            throw new QueryProcessException(
-                String.format("Current deviceId[%s] does not contain measurement:%s",
-                    deviceId, measurementList[i]));
-          }
-          addPathToMTree(deviceId, measurementList[i], dataTypes[i]);
-        }
-        MNode measurementNode = node.getChild(measurementList[i]);
-        if (!measurementNode.isLeaf()) {
-          throw new QueryProcessException(
-              String.format("Current Path is not leaf node. %s.%s", deviceId, measurementList[i]));
-        }
+    } catch (PathException | StorageEngineException | MetadataException e) {
+      throw new QueryProcessException(e);
+    } catch (CacheException e) {
+      throw new QueryProcessException(e.getMessage());
+    }
+  }
 
-        // check data type
-        if (measurementNode.getSchema().getType() != batchInsertPlan.getDataTypes()[i]) {
-          throw new QueryProcessException(String
-              .format("Datatype mismatch, Insert measurement %s type %s, metadata tree type %s",
-                  measurementList[i], batchInsertPlan.getDataTypes()[i],
-                  measurementNode.getSchema().getType()));
-        }
+  @Override
+  public List<Integer[]> insertBatches(List<BatchInsertPlan> batchInsertPlans)
+      throws QueryProcessException {
+    try {
+      for (BatchInsertPlan batchInsertPlan : batchInsertPlans) {
+        checkBatchInsertSchema(batchInsertPlan);
       }
-      return storageEngine.insertBatch(batchInsertPlan);
+      return storageEngine.insertBatches(batchInsertPlans);
 
     } catch (PathException | StorageEngineException | MetadataException e) {
       throw new QueryProcessException(e);
@@ -307,6 +292,46 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
     }
   }
 
+  /**
+   * check that the measurements of the plan exist (or create them if auto create schema is
+   * enabled) and that their data types match the plan
+   */
+  private void checkBatchInsertSchema(BatchInsertPlan batchInsertPlan)
+      throws QueryProcessException, PathException, MetadataException, CacheException,
+      StorageEngineException {
+    String[] measurementList = batchInsertPlan.getMeasurements();
+    String deviceId = batchInsertPlan.getDeviceId();
+    MNode node = mManager.getNodeByDeviceIdFromCache(deviceId);
+    TSDataType[] dataTypes = batchInsertPlan.getDataTypes();
+    IoTDBConfig conf = IoTDBDescriptor.getInstance().getConfig();
+
+    for (int i = 0; i < measurementList.length; i++) {
+
+      // check if timeseries exists
+      if (!node.hasChild(measurementList[i])) {
+        if (!conf.isAutoCreateSchemaEnabled()) {
+          throw new QueryProcessException(
+              String.format("Current deviceId[%s] does not contain measurement:%s",
+                  deviceId, measurementList[i]));
+        }
+        addPathToMTree(deviceId, measurementList[i], dataTypes[i]);
+      }
+      MNode measurementNode = node.getChild(measurementList[i]);
+      if (!measurementNode.isLeaf()) {
+        throw new QueryProcessException(
+            String.format("Current Path is not leaf node. %s.%s", deviceId, measurementList[i]));
+      }
+
+      // check data type
+      if (measurementNode.getSchema().getType() != batchInsertPlan.getDataTypes()[i]) {
+        throw new QueryProcessException(String
+            .format("Datatype mismatch, Insert measurement %s type %s, metadata tree type %s",
+                measurementList[i], batchInsertPlan.getDataTypes()[i],
+                measurementNode.getSchema().getType()));
+      }
+    }
+  }
+
   @Override
   public List<String> getAllPaths(String originPath) throws MetadataException {
     return MManager.getInstance().getPaths(originPath);
@@ -705,7 +730,7 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
     String fullPath = deviceId + IoTDBConstant.PATH_SEPARATOR + measurementId;
     TSEncoding defaultEncoding = getDefaultEncoding(dataType);
     CompressionType defaultCompressor =
-        CompressionType.valueOf(TSFileDescriptor.getInstance().getConfig().getCompressor());
+        IoTDBDescriptor.getInstance().getConfig().getDefaultCompressor(fullPath);
     boolean result = mManager.addPathToMTree(
         fullPath, dataType, defaultEncoding, defaultCompressor, Collections.emptyMap());
     if (result) {
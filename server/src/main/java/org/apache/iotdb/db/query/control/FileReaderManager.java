@@ -25,18 +25,25 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.service.IService;
 import org.apache.iotdb.db.service.ServiceType;
+import org.apache.iotdb.tsfile.fileSystem.FSType;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.UnClosedTsFileReader;
+import org.apache.iotdb.tsfile.read.reader.MappedTsFileInput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * FileReaderManager is a singleton, which is used to manage
  * all file readers(opened file streams) to ensure that each file is opened at most once.
+ * Sealed files are mapped into memory when enable_mmap_read is on, and the total mapped size is
+ * bounded by max_mapped_bytes_for_read. A mapping is unmapped as soon as its reader is closed,
+ * which only happens when no query refers to the file, as the chunks in ChunkCache are copied to
+ * the heap.
  */
 public class FileReaderManager implements IService {
 
@@ -69,6 +76,13 @@ public class FileReaderManager implements IService {
    */
   private Map<TsFileResource, AtomicInteger> unclosedReferenceMap;
 
+  /**
+   * the key of mappedFileSizeMap is a sealed file whose reader maps it into memory and the value
+   * is the mapped size, which is counted in mappedBytes until the reader is closed and unmapped.
+   */
+  private Map<TsFileResource, Long> mappedFileSizeMap;
+  private long mappedBytes = 0;
+
   private ScheduledExecutorService executorService;
 
   private FileReaderManager() {
@@ -76,6 +90,7 @@ public class FileReaderManager implements IService {
     unclosedFileReaderMap = new ConcurrentHashMap<>();
     closedReferenceMap = new ConcurrentHashMap<>();
     unclosedReferenceMap = new ConcurrentHashMap<>();
+    mappedFileSizeMap = new ConcurrentHashMap<>();
     executorService = IoTDBThreadPoolFactory.newScheduledThreadPool(1,
         "open-files-manager");
 
@@ -92,6 +107,7 @@ public class FileReaderManager implements IService {
     if (reader != null) {
       reader.close();
     }
+    releaseMapping(seqFile);
     unclosedReferenceMap.remove(seqFile);
     reader = unclosedFileReaderMap.remove(seqFile);
     if (reader != null) {
@@ -125,6 +141,7 @@ public class FileReaderManager implements IService {
         }
         readerMap.remove(entry.getKey());
         refMap.remove(entry.getKey());
+        releaseMapping(entry.getKey());
       }
     }
   }
@@ -151,7 +168,7 @@ public class FileReaderManager implements IService {
       }
 
       TsFileSequenceReader tsFileReader = !isClosed ? new UnClosedTsFileReader(tsFile.getFile().getPath())
-          : new TsFileSequenceReader(tsFile.getFile().getPath());
+          : createClosedFileReader(tsFile);
 
       readerMap.put(tsFile, tsFileReader);
       return tsFileReader;
@@ -160,6 +177,32 @@ public class FileReaderManager implements IService {
     return readerMap.get(tsFile);
   }
 
+  /**
+   * Map a sealed file on the local file system into memory if the mapped size stays within
+   * max_mapped_bytes_for_read, otherwise read it through a file channel.
+   */
+  private TsFileSequenceReader createClosedFileReader(TsFileResource tsFile) throws IOException {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    String filePath = tsFile.getFile().getPath();
+    long fileSize = tsFile.getFile().length();
+    if (!config.isEnableMmapRead() || config.getTsFileStorageFs() != FSType.LOCAL
+        || mappedBytes + fileSize > config.getMaxMappedBytesForRead()) {
+      return new TsFileSequenceReader(filePath);
+    }
+    TsFileSequenceReader reader = new TsFileSequenceReader(filePath,
+        new MappedTsFileInput(tsFile.getFile().toPath()), true);
+    mappedFileSizeMap.put(tsFile, fileSize);
+    mappedBytes += fileSize;
+    return reader;
+  }
+
+  private void releaseMapping(TsFileResource tsFile) {
+    Long fileSize = mappedFileSizeMap.remove(tsFile);
+    if (fileSize != null) {
+      mappedBytes -= fileSize;
+    }
+  }
+
   /**
    * Increase the reference count of the reader specified by filePath. Only when the reference count
    * of a reader equals zero, the reader can be closed and removed.
@@ -185,12 +228,35 @@ public class FileReaderManager implements IService {
       if (!isClosed && unclosedReferenceMap.containsKey(tsFile)) {
         unclosedReferenceMap.get(tsFile).getAndDecrement();
       } else if (closedReferenceMap.containsKey(tsFile)){
-        closedReferenceMap.get(tsFile).getAndDecrement();
+        int refCount = closedReferenceMap.get(tsFile).decrementAndGet();
+        if (refCount == 0) {
+          releaseDeletedFile(tsFile);
+        }
       }
     }
     tsFile.getWriteQueryLock().readLock().unlock();
   }
 
+  /**
+   * A deleted file keeps its disk space while it is mapped, so close its reader once it is not
+   * used instead of waiting for the periodic clearing.
+   */
+  private void releaseDeletedFile(TsFileResource tsFile) {
+    if (!mappedFileSizeMap.containsKey(tsFile) || tsFile.getFile().exists()) {
+      return;
+    }
+    closedReferenceMap.remove(tsFile);
+    TsFileSequenceReader reader = closedFileReaderMap.remove(tsFile);
+    releaseMapping(tsFile);
+    if (reader != null) {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        logger.error("Can not close TsFileSequenceReader {} !", reader.getFileName(), e);
+      }
+    }
+  }
+
   /**
    * Only for <code>EnvironmentUtils.cleanEnv</code> method. To make sure that unit tests and
    * integration tests will not conflict with each other.
@@ -200,6 +266,7 @@ public class FileReaderManager implements IService {
       entry.getValue().close();
       closedReferenceMap.remove(entry.getKey());
       closedFileReaderMap.remove(entry.getKey());
+      releaseMapping(entry.getKey());
     }
     for (Map.Entry<TsFileResource, TsFileSequenceReader> entry : unclosedFileReaderMap.entrySet()) {
       entry.getValue().close();
@@ -208,6 +275,13 @@ public class FileReaderManager implements IService {
     }
   }
 
+  /**
+   * This method is only for unit tests.
+   */
+  public synchronized long getMappedBytes() {
+    return mappedBytes;
+  }
+
   /**
    * This method is only for unit tests.
    */
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.control;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.utils.TestOnly;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * QueryMemoryPool accounts the memory held by each query job against a server-wide pool, which is
+ * the read memory left by the metadata caches. A query is admitted by reserving the memory it is
+ * estimated to need, waiting while the pool is full. A running query may then ask for more, up to
+ * its own budget, and is expected to fall back to a disk-based alternative (e.g. external sort)
+ * when refused. All memory of a job is returned when the job ends.
+ * <p>
+ * Jobs that were never admitted (e.g. internal queries of merge or tests) are not accounted and
+ * are never refused.
+ */
+public class QueryMemoryPool {
+
+  private static final Logger logger = LoggerFactory.getLogger(QueryMemoryPool.class);
+
+  private boolean enabled;
+  private long poolSize;
+  private long maxMemoryPerQuery;
+  private long admissionTimeoutInMs;
+
+  private long usedMemory = 0;
+  /**
+   * the memory held by each admitted job
+   */
+  private Map<Long, Long> jobMemory = new HashMap<>();
+
+  private QueryMemoryPool() {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    this.enabled = config.isEnableQueryMemoryControl();
+    this.poolSize = config.getQueryMemoryPoolSize();
+    this.maxMemoryPerQuery = config.getMaxMemoryPerQuery() > 0
+        ? Math.min(config.getMaxMemoryPerQuery(), poolSize) : poolSize / 4;
+    this.admissionTimeoutInMs = config.getQueryAdmissionTimeoutInMs();
+  }
+
+  @TestOnly
+  QueryMemoryPool(long poolSize, long maxMemoryPerQuery, long admissionTimeoutInMs) {
+    this.enabled = true;
+    this.poolSize = poolSize;
+    this.maxMemoryPerQuery = maxMemoryPerQuery;
+    this.admissionTimeoutInMs = admissionTimeoutInMs;
+  }
+
+  public static QueryMemoryPool getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Admit a job by reserving its estimated memory, capped at the budget of one query. Waits until
+   * enough memory is returned by other jobs. Admitting a job twice only reserves the difference.
+   *
+   * @throws QueryProcessException if the memory cannot be reserved within the admission timeout
+   */
+  public synchronized void admit(long jobId, long estimatedMemory) throws QueryProcessException {
+    if (!enabled) {
+      return;
+    }
+    // a job admitted again (e.g. a statement re-executed in the same context) keeps what it holds
+    long memory = Math.max(0,
+        Math.min(estimatedMemory, maxMemoryPerQuery) - jobMemory.getOrDefault(jobId, 0L));
+    long deadline = System.currentTimeMillis() + admissionTimeoutInMs;
+    while (usedMemory + memory > poolSize) {
+      long waitTime = deadline - System.currentTimeMillis();
+      if (waitTime <= 0) {
+        throw new QueryProcessException(String.format(
+            "Query %d needs %d bytes but only %d of %d bytes of query memory are free after "
+                + "waiting %dms, please retry later", jobId, memory, poolSize - usedMemory,
+            poolSize, admissionTimeoutInMs));
+      }
+      try {
+        wait(waitTime);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new QueryProcessException("Interrupted while waiting for query memory");
+      }
+    }
+    usedMemory += memory;
+    jobMemory.merge(jobId, memory, Long::sum);
+    if (logger.isDebugEnabled()) {
+      logger.debug("Query {} is admitted with {} bytes, {} of {} bytes are used", jobId, memory,
+          usedMemory, poolSize);
+    }
+  }
+
+  /**
+   * Reserve more memory for a running job without waiting.
+   *
+   * @return false if the job would exceed its budget or the pool is full, true otherwise or if
+   * the job is not accounted
+   */
+  public synchronized boolean tryAllocate(long jobId, long memory) {
+    Long heldMemory = jobMemory.get(jobId);
+    if (!enabled || heldMemory == null) {
+      return true;
+    }
+    if (heldMemory + memory > maxMemoryPerQuery || usedMemory + memory > poolSize) {
+      return false;
+    }
+    usedMemory += memory;
+    jobMemory.put(jobId, heldMemory + memory);
+    return true;
+  }
+
+  /**
+   * Return all memory held by a job and wake up the queries waiting for admission.
+   */
+  public synchronized void release(long jobId) {
+    Long heldMemory = jobMemory.remove(jobId);
+    if (heldMemory != null) {
+      usedMemory -= heldMemory;
+      notifyAll();
+    }
+  }
+
+  public synchronized long getUsedMemory() {
+    return usedMemory;
+  }
+
+  public synchronized long getUsedMemory(long jobId) {
+    return jobMemory.getOrDefault(jobId, 0L);
+  }
+
+  public long getPoolSize() {
+    return poolSize;
+  }
+
+  public long getMaxMemoryPerQuery() {
+    return maxMemoryPerQuery;
+  }
+
+  private static class InstanceHolder {
+
+    private static final QueryMemoryPool INSTANCE = new QueryMemoryPool();
+
+    private InstanceHolder() {
+    }
+  }
+}
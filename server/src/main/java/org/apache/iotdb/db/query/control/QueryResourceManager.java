@@ -24,9 +24,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.externalsort.serialize.IExternalSortFileDeserializer;
 import org.apache.iotdb.tsfile.read.common.Path;
@@ -39,6 +41,10 @@ import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
  * 1. assignJobId - get an Id for the new job. 2. getQueryDataSource - open files for the job or
  * reuse existing readers. 3. endQueryForGivenJob - release the resource used by this job.
  * </p>
+ * <p>
+ * It also accounts the memory of the jobs admitted by admitQuery in the {@link QueryMemoryPool},
+ * which is returned by endQueryForGivenJob.
+ * </p>
  */
 public class QueryResourceManager {
 
@@ -82,6 +88,28 @@ public class QueryResourceManager {
   }
 
 
+  /**
+   * Admit a query job into the query memory pool, reserving the estimated memory of reading
+   * seriesNumber series at the same time. Blocks while the pool is full.
+   *
+   * @throws QueryProcessException if the pool stays full for longer than the admission timeout
+   */
+  public void admitQuery(long jobId, int seriesNumber) throws QueryProcessException {
+    long estimatedMemory = seriesNumber * IoTDBDescriptor.getInstance().getConfig()
+        .getEstimatedMemoryPerSeries();
+    QueryMemoryPool.getInstance().admit(jobId, estimatedMemory);
+  }
+
+  /**
+   * Reserve more memory for an admitted query job, e.g. for chunks it keeps in memory.
+   *
+   * @return false if the job would exceed its budget or the pool is full, in which case the caller
+   * should use a disk-based alternative
+   */
+  public boolean tryAllocateMemory(long jobId, long memory) {
+    return QueryMemoryPool.getInstance().tryAllocate(jobId, memory);
+  }
+
   public QueryDataSource getQueryDataSource(Path selectedPath,
       QueryContext context) throws StorageEngineException {
 
@@ -108,6 +136,7 @@ public class QueryResourceManager {
     }
     // remove usage of opened file paths of current thread
     filePathsManager.removeUsedFilesForGivenJob(jobId);
+    QueryMemoryPool.getInstance().release(jobId);
   }
 
   private static class QueryTokenManagerHelper {
@@ -22,11 +22,13 @@ package org.apache.iotdb.db.query.dataset.groupby;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.query.aggregation.AggregateFunction;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
 import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderByTimestamp;
 import org.apache.iotdb.db.query.timegenerator.EngineTimeGenerator;
@@ -106,10 +108,7 @@ public class GroupByWithValueFilterDataSet extends GroupByEngineDataSet {
       timeArrayLength = constructTimeArrayForOneCal(timestampArray, timeArrayLength);
 
       // cal result using timestamp array
-      for (int i = 0; i < selectedSeries.size(); i++) {
-        functions.get(i).calcAggregationUsingTimestamps(
-            timestampArray, timeArrayLength, allDataReaderList.get(i));
-      }
+      calcAggregationUsingTimestamps(timestampArray, timeArrayLength);
 
       timeArrayLength = 0;
       // judge if it's end
@@ -121,14 +120,32 @@ public class GroupByWithValueFilterDataSet extends GroupByEngineDataSet {
 
     if (timeArrayLength > 0) {
       // cal result using timestamp array
-      for (int i = 0; i < selectedSeries.size(); i++) {
-        functions.get(i).calcAggregationUsingTimestamps(
-            timestampArray, timeArrayLength, allDataReaderList.get(i));
-      }
+      calcAggregationUsingTimestamps(timestampArray, timeArrayLength);
     }
     return constructRowRecord();
   }
 
+  /**
+   * calculate all series with the timestamp array in parallel.
+   */
+  private void calcAggregationUsingTimestamps(long[] timestampArray, int timeArrayLength)
+      throws IOException {
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (int i = 0; i < selectedSeries.size(); i++) {
+      int index = i;
+      tasks.add(() -> {
+        functions.get(index).calcAggregationUsingTimestamps(
+            timestampArray, timeArrayLength, allDataReaderList.get(index));
+        return null;
+      });
+    }
+    try {
+      QueryTaskPoolManager.getInstance().invokeAll(tasks);
+    } catch (QueryProcessException e) {
+      throw new IOException(e);
+    }
+  }
+
   /**
    * construct an array of timestamps for one batch of a group by partition calculating.
    *
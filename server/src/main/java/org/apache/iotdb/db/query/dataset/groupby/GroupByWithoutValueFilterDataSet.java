@@ -22,6 +22,7 @@ package org.apache.iotdb.db.query.dataset.groupby;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.path.PathException;
@@ -30,8 +31,10 @@ import org.apache.iotdb.db.query.aggregation.AggreResultData;
 import org.apache.iotdb.db.query.aggregation.AggregateFunction;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.RollupIndexReader;
 import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
 import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
@@ -51,6 +54,7 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
   private List<IAggregateReader> sequenceReaderList;
   private List<BatchData> batchDataList;
   private List<Boolean> hasCachedSequenceDataList;
+  private List<RollupIndexReader> rollupReaderList;
   private Filter timeFilter;
 
   /**
@@ -61,6 +65,7 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
     super(jobId, paths, unit, origin, mergedIntervals);
     this.unSequenceReaderList = new ArrayList<>();
     this.sequenceReaderList = new ArrayList<>();
+    this.rollupReaderList = new ArrayList<>();
     this.timeFilter = null;
     this.hasCachedSequenceDataList = new ArrayList<>();
     this.batchDataList = new ArrayList<>();
@@ -97,6 +102,8 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
 
       sequenceReaderList.add(seqResourceIterateReader);
       unSequenceReaderList.add(unseqResourceMergeReader);
+      rollupReaderList.add(new RollupIndexReader(queryDataSource.getSeriesPath(), queryDataSource,
+          timeFilter, context));
     }
 
   }
@@ -109,13 +116,19 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
     }
     hasCachedTimeInterval = false;
     RowRecord record = new RowRecord(startTime);
+    // each series only touches its own readers and cached batch, so they run in parallel
+    List<Callable<AggreResultData>> tasks = new ArrayList<>();
     for (int i = 0; i < functions.size(); i++) {
-      AggreResultData res;
-      try {
-        res = nextSeries(i);
-      } catch (QueryProcessException e) {
-        throw new IOException(e);
-      }
+      int index = i;
+      tasks.add(() -> nextSeries(index));
+    }
+    List<AggreResultData> results;
+    try {
+      results = QueryTaskPoolManager.getInstance().invokeAll(tasks);
+    } catch (QueryProcessException e) {
+      throw new IOException(e);
+    }
+    for (AggreResultData res : results) {
       if (res == null) {
         record.addField(new Field(null));
       } else {
@@ -136,6 +149,14 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
     AggregateFunction function = functions.get(idx);
     function.init();
 
+    // an aligned window over sealed and unmodified data is answered by the rollup index, the raw
+    // readers skip the window when the next window is calculated
+    RollupIndexReader rollupReader = rollupReaderList.get(idx);
+    if (rollupReader.canAnswer(startTime, endTime)) {
+      rollupReader.aggregate(function, startTime, endTime);
+      return function.getResult().deepCopy();
+    }
+
     // skip the points with timestamp less than startTime
     skipBeforeStartTimeData(idx, sequenceReader, unsequenceReader);
 
@@ -22,6 +22,7 @@ package org.apache.iotdb.db.query.executor;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.StorageEngineException;
@@ -37,9 +38,11 @@ import org.apache.iotdb.db.query.control.QueryResourceManager;
 import org.apache.iotdb.db.query.dataset.AggreResultDataPointReader;
 import org.apache.iotdb.db.query.dataset.EngineDataSetWithoutValueFilter;
 import org.apache.iotdb.db.query.factory.AggreFuncFactory;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
+import org.apache.iotdb.db.query.reader.resourceRelated.RollupIndexReader;
 import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
 import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader;
 import org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderByTimestamp;
@@ -90,6 +93,8 @@ public class AggregateEngineExecutor {
     List<IAggregateReader> readersOfSequenceData = new ArrayList<>();
     List<IPointReader> readersOfUnSequenceData = new ArrayList<>();
     List<AggregateFunction> aggregateFunctions = new ArrayList<>();
+    List<Filter> timeFilters = new ArrayList<>();
+    List<RollupIndexReader> rollupReaders = new ArrayList<>();
     for (int i = 0; i < selectedSeries.size(); i++) {
       // construct AggregateFunction
       TSDataType tsDataType = MManager.getInstance()
@@ -104,14 +109,12 @@ public class AggregateEngineExecutor {
       timeFilter = queryDataSource.updateTimeFilter(timeFilter);
 
       // sequence reader for sealed tsfile, unsealed tsfile, memory
-      IAggregateReader seqResourceIterateReader;
-      if (function instanceof MaxTimeAggrFunc || function instanceof LastValueAggrFunc) {
-        seqResourceIterateReader = new SeqResourceIterateReader(queryDataSource.getSeriesPath(),
-            queryDataSource.getSeqResources(), timeFilter, context, true);
-      } else {
-        seqResourceIterateReader = new SeqResourceIterateReader(queryDataSource.getSeriesPath(),
-            queryDataSource.getSeqResources(), timeFilter, context, false);
-      }
+      // chunks that no unsequence TsFile or deletion touches are answered from their metadata
+      boolean isReverse =
+          function instanceof MaxTimeAggrFunc || function instanceof LastValueAggrFunc;
+      IAggregateReader seqResourceIterateReader = new SeqResourceIterateReader(
+          queryDataSource.getSeriesPath(), queryDataSource.getSeqResources(),
+          queryDataSource.getUnseqResources(), timeFilter, context, isReverse);
 
       // unseq reader for all chunk groups in unSeqFile, memory
       IPointReader unseqResourceMergeReader = new UnseqResourceMergeReader(
@@ -120,14 +123,29 @@ public class AggregateEngineExecutor {
 
       readersOfSequenceData.add(seqResourceIterateReader);
       readersOfUnSequenceData.add(unseqResourceMergeReader);
+      timeFilters.add(timeFilter);
+      rollupReaders.add(new RollupIndexReader(queryDataSource.getSeriesPath(), queryDataSource,
+          timeFilter, context));
     }
-    List<AggreResultData> aggreResultDataList = new ArrayList<>();
-    //TODO use multi-thread
+
+    // the series are independent of each other, aggregate them in parallel
+    List<Callable<AggreResultData>> tasks = new ArrayList<>();
     for (int i = 0; i < selectedSeries.size(); i++) {
-      AggreResultData aggreResultData = aggregateWithoutValueFilter(aggregateFunctions.get(i),
-          readersOfSequenceData.get(i), readersOfUnSequenceData.get(i), timeFilter);
-      aggreResultDataList.add(aggreResultData);
+      int index = i;
+      tasks.add(() -> {
+        RollupIndexReader rollupReader = rollupReaders.get(index);
+        // all data of the series is sealed, unmodified and selected by the filter
+        if (rollupReader.isClean() && rollupReader.filterContainsAll()) {
+          rollupReader.aggregateAll(aggregateFunctions.get(index));
+          return aggregateFunctions.get(index).getResult();
+        }
+        return aggregateWithoutValueFilter(aggregateFunctions.get(index),
+            readersOfSequenceData.get(index), readersOfUnSequenceData.get(index),
+            timeFilters.get(index));
+      });
     }
+    List<AggreResultData> aggreResultDataList = QueryTaskPoolManager.getInstance()
+        .invokeAll(tasks);
     return constructDataSet(aggreResultDataList);
   }
 
@@ -260,7 +278,7 @@ public class AggregateEngineExecutor {
    * @param context query context.
    */
   public QueryDataSet executeWithValueFilter(QueryContext context)
-      throws StorageEngineException, PathException, IOException {
+      throws StorageEngineException, PathException, IOException, QueryProcessException {
 
     EngineTimeGenerator timestampGenerator = new EngineTimeGenerator(expression, context);
     List<IReaderByTimestamp> readersOfSelectedSeries = new ArrayList<>();
@@ -289,7 +307,7 @@ public class AggregateEngineExecutor {
       List<AggregateFunction> aggregateFunctions,
       EngineTimeGenerator timestampGenerator,
       List<IReaderByTimestamp> readersOfSelectedSeries)
-      throws IOException {
+      throws IOException, QueryProcessException {
 
     while (timestampGenerator.hasNext()) {
 
@@ -304,10 +322,17 @@ public class AggregateEngineExecutor {
       }
 
       // cal part of aggregate result
+      List<Callable<Void>> tasks = new ArrayList<>();
       for (int i = 0; i < readersOfSelectedSeries.size(); i++) {
-        aggregateFunctions.get(i).calcAggregationUsingTimestamps(timeArray, timeArrayLength,
-            readersOfSelectedSeries.get(i));
+        int index = i;
+        int length = timeArrayLength;
+        tasks.add(() -> {
+          aggregateFunctions.get(index).calcAggregationUsingTimestamps(timeArray, length,
+              readersOfSelectedSeries.get(index));
+          return null;
+        });
       }
+      QueryTaskPoolManager.getInstance().invokeAll(tasks);
     }
 
     List<AggreResultData> aggreResultDataArrayList = new ArrayList<>();
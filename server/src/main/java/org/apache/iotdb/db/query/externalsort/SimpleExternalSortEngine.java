@@ -25,6 +25,7 @@
  import org.apache.commons.io.FileUtils;
  import org.apache.iotdb.db.conf.IoTDBDescriptor;
  import org.apache.iotdb.db.exception.runtime.StorageEngineFailureException;
+ import org.apache.iotdb.db.query.control.QueryResourceManager;
  import org.apache.iotdb.db.query.externalsort.adapter.ByTimestampReaderAdapter;
  import org.apache.iotdb.db.query.reader.IPointReader;
  import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
@@ -62,7 +63,7 @@
    public List<IPointReader> executeForIPointReader(long queryId,
        List<ChunkReaderWrap> chunkReaderWraps)
        throws IOException {
-     if (!enableExternalSort || chunkReaderWraps.size() < minExternalSortSourceCount) {
+     if (!needExternalSort(queryId, chunkReaderWraps)) {
        return generateIPointReader(chunkReaderWraps, 0, chunkReaderWraps.size());
      }
      if (logger.isInfoEnabled()) {
@@ -76,7 +77,7 @@
    @Override
    public List<IReaderByTimestamp> executeForByTimestampReader(long queryId,
        List<ChunkReaderWrap> chunkReaderWraps) throws IOException {
-     if (!enableExternalSort || chunkReaderWraps.size() < minExternalSortSourceCount) {
+     if (!needExternalSort(queryId, chunkReaderWraps)) {
        return generateIReaderByTimestamp(chunkReaderWraps, 0, chunkReaderWraps.size());
      }
      if (logger.isInfoEnabled()) {
@@ -87,6 +88,32 @@
      return convert(job.executeForIPointReader());
    }
 
+   /**
+    * External sort is used when there are too many chunks to merge at the same time, or when the
+    * query cannot afford to keep them in memory.
+    */
+   private boolean needExternalSort(long queryId, List<ChunkReaderWrap> chunkReaderWraps) {
+     if (!enableExternalSort) {
+       return false;
+     }
+     if (chunkReaderWraps.size() >= minExternalSortSourceCount) {
+       return true;
+     }
+     if (chunkReaderWraps.size() <= 1) {
+       return false;
+     }
+     long estimatedMemory = 0;
+     for (ChunkReaderWrap chunkReaderWrap : chunkReaderWraps) {
+       estimatedMemory += chunkReaderWrap.getEstimatedMemory();
+     }
+     if (QueryResourceManager.getInstance().tryAllocateMemory(queryId, estimatedMemory)) {
+       return false;
+     }
+     logger.info("query {} cannot hold {} bytes of chunks of measurement {} in memory, use "
+         + "external sort", queryId, estimatedMemory, chunkReaderWraps.get(0).getMeasurementUid());
+     return true;
+   }
+
    @Override
    public ExternalSortJob createJob(long queryId, List<ChunkReaderWrap> readerWrapList) {
      long jodId = scheduler.genJobId();
@@ -96,7 +123,8 @@
      }
 
      int partId = 0;
-     while (ret.size() >= minExternalSortSourceCount) {
+     // merge at least once, so that a job created because of the memory budget does spill
+     do {
        List<ExternalSortJobPart> tmpPartList = new ArrayList<>();
        for (int i = 0; i < ret.size(); ) {
          int toIndex = Math.min(i + minExternalSortSourceCount, ret.size());
@@ -110,7 +138,7 @@
          partId++;
        }
        ret = tmpPartList;
-     }
+     } while (ret.size() >= minExternalSortSourceCount);
      return new ExternalSortJob(jodId, ret);
    }
 
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.pool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.flush.pool.AbstractPoolManager;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * QueryTaskPoolManager executes the per-series tasks of queries. The pool is shared by all queries
+ * and sized by concurrent_query_thread, and one query uses at most max_query_parallelism threads
+ * including its own. The pool only exists while the service is started, otherwise queries run
+ * their tasks in their own thread.
+ */
+public class QueryTaskPoolManager extends AbstractPoolManager implements IService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryTaskPoolManager.class);
+
+  private QueryTaskPoolManager() {
+  }
+
+  public static QueryTaskPoolManager getInstance() {
+    return InstanceHolder.instance;
+  }
+
+  /**
+   * Execute the tasks and return their results in the same order. The calling thread executes
+   * tasks too, so the tasks are finished even if the pool is busy or stopped.
+   *
+   * @throws IOException if a task throws an IOException or an unexpected checked exception
+   * @throws QueryProcessException if a task throws a QueryProcessException
+   */
+  @SuppressWarnings("unchecked")
+  public <T> List<T> invokeAll(List<Callable<T>> tasks)
+      throws IOException, QueryProcessException {
+    int taskNum = tasks.size();
+    Object[] results = new Object[taskNum];
+    AtomicInteger nextTask = new AtomicInteger();
+    AtomicReference<Exception> failure = new AtomicReference<>();
+    Runnable worker = () -> {
+      int i;
+      while (failure.get() == null && (i = nextTask.getAndIncrement()) < taskNum) {
+        try {
+          results[i] = tasks.get(i).call();
+        } catch (Exception e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+    };
+
+    int helperNum = Math.min(taskNum,
+        IoTDBDescriptor.getInstance().getConfig().getMaxQueryParallelism()) - 1;
+    List<Future<?>> helpers = new ArrayList<>();
+    // a helper runs only if it is claimed by itself before the calling thread finishes
+    List<AtomicBoolean> helperClaims = new ArrayList<>();
+    for (int i = 0; i < helperNum; i++) {
+      AtomicBoolean claim = new AtomicBoolean();
+      Future<?> helper = trySubmit(() -> {
+        if (claim.compareAndSet(false, true)) {
+          worker.run();
+        }
+      });
+      if (helper == null) {
+        break;
+      }
+      helpers.add(helper);
+      helperClaims.add(claim);
+    }
+    worker.run();
+    for (int i = 0; i < helpers.size(); i++) {
+      if (helperClaims.get(i).compareAndSet(false, true)) {
+        // the helper has not started and there is nothing left to do
+        helpers.get(i).cancel(false);
+        continue;
+      }
+      try {
+        helpers.get(i).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted when waiting for query tasks", e);
+      } catch (ExecutionException e) {
+        failure.compareAndSet(null, new IOException(e.getCause()));
+      }
+    }
+
+    Exception e = failure.get();
+    if (e instanceof IOException) {
+      throw (IOException) e;
+    } else if (e instanceof QueryProcessException) {
+      throw (QueryProcessException) e;
+    } else if (e instanceof RuntimeException) {
+      throw (RuntimeException) e;
+    } else if (e != null) {
+      throw new IOException(e);
+    }
+    return (List<T>) Arrays.asList(results);
+  }
+
+  /**
+   * @return the future of the task, or null if the pool is stopped
+   */
+  private synchronized Future<?> trySubmit(Runnable task) {
+    if (pool == null) {
+      return null;
+    }
+    try {
+      return pool.submit(task);
+    } catch (RejectedExecutionException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public Logger getLogger() {
+    return LOGGER;
+  }
+
+  @Override
+  public String getName() {
+    return "query task";
+  }
+
+  @Override
+  public synchronized void start() {
+    if (pool == null) {
+      int threadCnt = IoTDBDescriptor.getInstance().getConfig().getConcurrentQueryThread();
+      pool = IoTDBThreadPoolFactory
+          .newFixedThreadPool(threadCnt, ThreadName.QUERY_SERVICE.getName());
+    }
+    LOGGER.info("Query task manager started.");
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (pool != null) {
+      close();
+      pool = null;
+    }
+    LOGGER.info("Query task manager stopped");
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.QUERY_TASK_SERVICE;
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+      //allowed to do nothing
+    }
+
+    private static QueryTaskPoolManager instance = new QueryTaskPoolManager();
+  }
+}
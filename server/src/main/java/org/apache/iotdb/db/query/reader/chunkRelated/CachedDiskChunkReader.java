@@ -20,13 +20,14 @@
 package org.apache.iotdb.db.query.reader.chunkRelated;
 
 import java.io.IOException;
+import org.apache.iotdb.db.query.reader.IBatchReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.db.utils.TimeValuePairUtils;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
 
-public class CachedDiskChunkReader implements IPointReader {
+public class CachedDiskChunkReader implements IPointReader, IBatchReader {
 
   private ChunkReader chunkReader;
   private BatchData data;
@@ -81,6 +82,17 @@ public class CachedDiskChunkReader implements IPointReader {
     return current;
   }
 
+  /**
+   * @return the rest of the current page, the reader can not be used point by point afterwards
+   */
+  @Override
+  public BatchData nextBatch() throws IOException {
+    hasNext();
+    BatchData ret = data;
+    data = null;
+    return ret;
+  }
+
   @Override
   public void close() {
     this.chunkReader.close();
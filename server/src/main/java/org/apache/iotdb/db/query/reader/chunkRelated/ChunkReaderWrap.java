@@ -22,6 +22,7 @@ import java.io.IOException;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
+import org.apache.iotdb.db.utils.MemUtils;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.controller.IChunkLoader;
@@ -91,6 +92,18 @@ public class ChunkReaderWrap {
     }
   }
 
+  /**
+   * @return the memory that reading the whole chunk into memory may take, 0 for a memory chunk,
+   * whose data is already in memory
+   */
+  public long getEstimatedMemory() {
+    if (chunkMetaData == null) {
+      return 0;
+    }
+    return chunkMetaData.getNumOfPoints()
+        * (Long.BYTES + MemUtils.getPrimitiveSize(chunkMetaData.getDataType()));
+  }
+
   public String getMeasurementUid() {
     if (chunkMetaData != null) {
       return chunkMetaData.getMeasurementUid();
@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.query.reader.chunkRelated;
 
 import java.io.IOException;
+import org.apache.iotdb.db.query.reader.IBatchReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.db.utils.TimeValuePairUtils;
@@ -26,15 +27,15 @@ import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
 
 /**
- * To read chunk data on disk, this class implements an interface {@link IPointReader} based on the
- * data reader {@link ChunkReader}.
+ * To read chunk data on disk, this class implements the interfaces {@link IPointReader} and {@link
+ * IBatchReader} based on the data reader {@link ChunkReader}.
  * <p>
  * Note that <code>ChunkReader</code> is an abstract class with three concrete classes, two of which
  * are used here: <code>ChunkReaderWithoutFilter</code> and <code>ChunkReaderWithFilter</code>.
  * <p>
  * This class is used in {@link org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceMergeReader}.
  */
-public class DiskChunkReader implements IPointReader {
+public class DiskChunkReader implements IPointReader, IBatchReader {
 
   private ChunkReader chunkReader;
   private BatchData data;
@@ -70,6 +71,17 @@ public class DiskChunkReader implements IPointReader {
     return TimeValuePairUtils.getCurrentTimeValuePair(data);
   }
 
+  /**
+   * @return the rest of the current page, the reader can not be used point by point afterwards
+   */
+  @Override
+  public BatchData nextBatch() throws IOException {
+    hasNext();
+    BatchData ret = data;
+    data = null;
+    return ret;
+  }
+
   @Override
   public void close() {
     this.chunkReader.close();
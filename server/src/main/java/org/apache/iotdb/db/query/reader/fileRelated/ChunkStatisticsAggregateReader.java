@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.reader.fileRelated;
+
+import java.io.IOException;
+import java.util.List;
+import org.apache.iotdb.db.query.reader.IAggregateReader;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.apache.iotdb.tsfile.read.controller.IChunkLoader;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithFilter;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithoutFilter;
+
+/**
+ * To aggregate one series of a sealed sequence TsFile, this class implements {@link
+ * IAggregateReader} and decides chunk by chunk whether the chunk has to be read at all.
+ * <p>
+ * A chunk is answered from the statistics of its {@link ChunkMetaData}, without loading it from
+ * disk, if no deletion reaches into it, the time filter contains it entirely and it intersects the
+ * time range of no unsequence TsFile of the device. Such a chunk is returned by {@link
+ * #nextPageHeader()} as a single page whose header carries the chunk statistics. Any other chunk is
+ * loaded and returned page by page, as {@link FileSeriesReaderAdapter} does, except that the
+ * header of a page with deleted points is hidden (null) because its statistics still count them.
+ * <p>
+ * This class is used in {@link org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader}
+ * for aggregations.
+ */
+public class ChunkStatisticsAggregateReader implements IAggregateReader {
+
+  private IChunkLoader chunkLoader;
+  private List<ChunkMetaData> chunkMetaDataList;
+  private Filter filter;
+  private List<TimeRange> unseqTimeRanges;
+  private int chunkToRead = 0;
+
+  /**
+   * the chunk to be answered from its statistics, or null if the current chunk is being read
+   */
+  private ChunkMetaData statisticsChunk;
+  private ChunkReader chunkReader;
+  private long deletedAt;
+
+  /**
+   * @param chunkMetaDataList the chunks of the series, with the deletions already applied
+   * @param filter the time filter or null
+   * @param unseqTimeRanges the time ranges of the unsequence TsFiles of the device
+   */
+  public ChunkStatisticsAggregateReader(IChunkLoader chunkLoader,
+      List<ChunkMetaData> chunkMetaDataList, Filter filter, List<TimeRange> unseqTimeRanges) {
+    this.chunkLoader = chunkLoader;
+    this.chunkMetaDataList = chunkMetaDataList;
+    this.filter = filter;
+    this.unseqTimeRanges = unseqTimeRanges;
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    if (statisticsChunk != null || (chunkReader != null && chunkReader.hasNextBatch())) {
+      return true;
+    }
+    while (chunkToRead < chunkMetaDataList.size()) {
+      ChunkMetaData chunkMetaData = chunkMetaDataList.get(chunkToRead++);
+      if (filter != null && !filter.satisfy(chunkMetaData.getStatistics())) {
+        continue;
+      }
+      if (canUseStatistics(chunkMetaData)) {
+        statisticsChunk = chunkMetaData;
+        chunkReader = null;
+        return true;
+      }
+      initChunkReader(chunkMetaData);
+      if (chunkReader.hasNextBatch()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean canUseStatistics(ChunkMetaData chunkMetaData) {
+    long startTime = chunkMetaData.getStartTime();
+    long endTime = chunkMetaData.getEndTime();
+    if (chunkMetaData.getDeletedAt() >= startTime) {
+      return false;
+    }
+    if (filter != null && !filter.containStartEndTime(startTime, endTime)) {
+      return false;
+    }
+    for (TimeRange range : unseqTimeRanges) {
+      if (range.getMin() <= endTime && startTime <= range.getMax()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void initChunkReader(ChunkMetaData chunkMetaData) throws IOException {
+    Chunk chunk = chunkLoader.getChunk(chunkMetaData);
+    chunkReader = filter == null ? new ChunkReaderWithoutFilter(chunk)
+        : new ChunkReaderWithFilter(chunk, filter);
+    deletedAt = chunkMetaData.getDeletedAt();
+  }
+
+  @Override
+  public PageHeader nextPageHeader() throws IOException {
+    if (statisticsChunk != null) {
+      return new PageHeader(0, 0, statisticsChunk.getStatistics());
+    }
+    PageHeader pageHeader = chunkReader.nextPageHeader();
+    return pageHeader.getStartTime() <= deletedAt ? null : pageHeader;
+  }
+
+  @Override
+  public void skipPageData() {
+    if (statisticsChunk != null) {
+      statisticsChunk = null;
+    } else {
+      chunkReader.skipPageData();
+    }
+  }
+
+  @Override
+  public BatchData nextBatch() throws IOException {
+    if (statisticsChunk != null) {
+      // the caller cannot use the statistics after all, read the chunk page by page instead
+      ChunkMetaData chunkMetaData = statisticsChunk;
+      statisticsChunk = null;
+      initChunkReader(chunkMetaData);
+      if (!chunkReader.hasNextBatch()) {
+        return new BatchData(chunkMetaData.getDataType());
+      }
+    }
+    return chunkReader.nextBatch();
+  }
+
+  @Override
+  public void close() throws IOException {
+    chunkLoader.close();
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.reader.resourceRelated;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.rollup.RollupIndex;
+import org.apache.iotdb.db.engine.rollup.RollupIndex.SeriesRollup;
+import org.apache.iotdb.db.engine.rollup.RollupIndexManager;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.query.aggregation.AggregateFunction;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+
+/**
+ * To answer aggregations of a series from the rollup indexes of its sealed sequence TsFiles.
+ * <p>
+ * A time range is "dirty" if the indexes cannot describe the data in it: it is covered by an
+ * unsealed or unsequence TsFile, by a sequence TsFile without an index, or by a TsFile with
+ * modifications of the series. A window can be answered from the indexes only if it is aligned to
+ * the bucket of every index it covers and it overlaps no dirty range.
+ */
+public class RollupIndexReader {
+
+  private String seriesPath;
+  private Filter timeFilter;
+
+  /**
+   * the rollups of the series in the clean sequence TsFiles, in chronological order
+   */
+  private List<SeriesRollup> rollups = new ArrayList<>();
+  private List<Long> bucketSizes = new ArrayList<>();
+  private List<TimeRange> rollupRanges = new ArrayList<>();
+
+  private List<TimeRange> dirtyRanges = new ArrayList<>();
+  private boolean enabled;
+
+  /**
+   * @param timeFilter the time filter of the query, which has been updated by the data TTL
+   */
+  public RollupIndexReader(Path seriesPath, QueryDataSource dataSource, Filter timeFilter,
+      QueryContext context) {
+    this.seriesPath = seriesPath.getFullPath();
+    this.timeFilter = timeFilter;
+    this.enabled = IoTDBDescriptor.getInstance().getConfig().isEnableRollupIndex();
+    if (!enabled) {
+      return;
+    }
+
+    String device = seriesPath.getDevice();
+    for (TsFileResource resource : dataSource.getSeqResources()) {
+      if (!resource.containsDevice(device)) {
+        continue;
+      }
+      TimeRange range = getTimeRange(resource, device);
+      RollupIndex index = RollupIndexManager.getInstance().get(resource);
+      if (index == null || !context.getPathModifications(resource.getModFile(), this.seriesPath)
+          .isEmpty()) {
+        dirtyRanges.add(range);
+        continue;
+      }
+      SeriesRollup rollup = index.getSeriesRollup(this.seriesPath);
+      if (rollup != null) {
+        rollups.add(rollup);
+        bucketSizes.add(index.getBucketSize());
+        rollupRanges.add(range);
+      }
+    }
+    for (TsFileResource resource : dataSource.getUnseqResources()) {
+      if (resource.containsDevice(device)) {
+        dirtyRanges.add(getTimeRange(resource, device));
+      }
+    }
+  }
+
+  private TimeRange getTimeRange(TsFileResource resource, String device) {
+    long startTime = resource.getStartTimeMap().get(device);
+    Long endTime = resource.isClosed() ? resource.getEndTimeMap().get(device) : null;
+    return new TimeRange(startTime, endTime == null ? Long.MAX_VALUE : endTime);
+  }
+
+  /**
+   * TimeRange.intersects() also treats adjacent ranges as intersecting, which is not wanted here.
+   */
+  private static boolean overlaps(TimeRange a, TimeRange b) {
+    return a.getMin() <= b.getMax() && b.getMin() <= a.getMax();
+  }
+
+  /**
+   * @return whether no data of the series is in a dirty range
+   */
+  public boolean isClean() {
+    return enabled && dirtyRanges.isEmpty();
+  }
+
+  /**
+   * @return whether the aggregation of [startTime, endTime) can be answered from the indexes
+   */
+  public boolean canAnswer(long startTime, long endTime) {
+    if (!enabled || startTime >= endTime) {
+      return false;
+    }
+    if (timeFilter != null && !timeFilter.containStartEndTime(startTime, endTime - 1)) {
+      return false;
+    }
+    TimeRange window = new TimeRange(startTime, endTime - 1);
+    for (TimeRange dirtyRange : dirtyRanges) {
+      if (overlaps(dirtyRange, window)) {
+        return false;
+      }
+    }
+    for (int i = 0; i < rollups.size(); i++) {
+      long bucketSize = bucketSizes.get(i);
+      if (overlaps(rollupRanges.get(i), window) && (Math.floorMod(startTime, bucketSize) != 0
+          || Math.floorMod(endTime, bucketSize) != 0)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * aggregate the buckets in [startTime, endTime) into the function. The caller must make sure
+   * that {@link #canAnswer(long, long)} holds.
+   */
+  public void aggregate(AggregateFunction function, long startTime, long endTime)
+      throws QueryProcessException {
+    TimeRange window = new TimeRange(startTime, endTime - 1);
+    for (int i = 0; i < rollups.size(); i++) {
+      if (!overlaps(rollupRanges.get(i), window)) {
+        continue;
+      }
+      for (Statistics statistics : rollups.get(i).getStatistics(startTime, endTime)) {
+        function.calculateValueFromPageHeader(new PageHeader(0, 0, statistics));
+      }
+    }
+  }
+
+  /**
+   * aggregate all buckets of the series into the function. The caller must make sure that {@link
+   * #isClean()} holds and that the time filter, if any, contains all data of the series.
+   */
+  public void aggregateAll(AggregateFunction function) throws QueryProcessException {
+    aggregate(function, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * @return whether the time filter is null or contains all buckets of the series
+   */
+  public boolean filterContainsAll() {
+    if (timeFilter == null) {
+      return true;
+    }
+    for (TimeRange range : rollupRanges) {
+      if (!timeFilter.containStartEndTime(range.getMin(), range.getMax())) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.query.reader.resourceRelated;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
@@ -27,6 +28,8 @@ import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
+import org.apache.iotdb.db.query.reader.chunkRelated.DiskChunkLoader;
+import org.apache.iotdb.db.query.reader.fileRelated.ChunkStatisticsAggregateReader;
 import org.apache.iotdb.db.query.reader.fileRelated.FileSeriesReaderAdapter;
 import org.apache.iotdb.db.query.reader.fileRelated.UnSealedTsFileIterateReader;
 import org.apache.iotdb.db.query.reader.universal.IterateReader;
@@ -34,8 +37,8 @@ import org.apache.iotdb.db.utils.QueryUtils;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
 import org.apache.iotdb.tsfile.read.controller.IChunkLoader;
-import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReader;
 import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReaderWithFilter;
@@ -69,6 +72,13 @@ public class SeqResourceIterateReader extends IterateReader {
   private Filter filter;
   private QueryContext context;
 
+  /**
+   * the time ranges of the unsequence TsFiles of the device if the reader is used for an
+   * aggregation, in which case the chunks of sealed TsFiles outside them are answered from their
+   * statistics; null otherwise
+   */
+  private List<TimeRange> unseqTimeRanges;
+
   /**
    * Constructor function.
    * <p>
@@ -102,6 +112,30 @@ public class SeqResourceIterateReader extends IterateReader {
     this(seriesPath, seqResources, timeFilter, context, false);
   }
 
+  /**
+   * Constructor function for aggregations. A chunk of a sealed TsFile that no deletion reaches
+   * into, that the filter contains entirely and that intersects no unsequence TsFile is returned
+   * as one page header made of the chunk statistics, without being loaded.
+   *
+   * @param unseqResources the unsequence TsFiles to be merged with the sequence data
+   */
+  public SeqResourceIterateReader(Path seriesPath, List<TsFileResource> seqResources,
+      List<TsFileResource> unseqResources, Filter filter, QueryContext context,
+      boolean isReverse) {
+    this(seriesPath, seqResources, filter, context, isReverse);
+    String device = seriesPath.getDevice();
+    this.unseqTimeRanges = new ArrayList<>();
+    for (TsFileResource unseqResource : unseqResources) {
+      Long startTime = unseqResource.getStartTimeMap().get(device);
+      if (startTime == null) {
+        continue;
+      }
+      // an unsealed TsFile may still receive data of any time
+      Long endTime = unseqResource.isClosed() ? unseqResource.getEndTimeMap().get(device) : null;
+      unseqTimeRanges.add(new TimeRange(startTime, endTime == null ? Long.MAX_VALUE : endTime));
+    }
+  }
+
   /**
    * If the idx-th TsFile in the <code>seqResources</code> might satisfy this <code>filter</code>,
    * then construct <code>IAggregateReader</code> for it, assign to <code>currentSeriesReader</code>
@@ -163,16 +197,24 @@ public class SeqResourceIterateReader extends IterateReader {
     List<Modification> pathModifications = context.getPathModifications(sealedTsFile.getModFile(),
         seriesPath.getFullPath());
     if (!pathModifications.isEmpty()) {
+      // the cached list is shared by queries
+      metaDataList = new ArrayList<>(metaDataList);
       QueryUtils.modifyChunkMetaData(metaDataList, pathModifications);
     }
 
     if (enableReverse) {
+      metaDataList = new ArrayList<>(metaDataList);
       Collections.reverse(metaDataList);
     }
     // prepare chunkLoader
     TsFileSequenceReader tsFileReader = FileReaderManager.getInstance()
         .get(sealedTsFile, true);
-    IChunkLoader chunkLoader = new ChunkLoaderImpl(tsFileReader);
+    IChunkLoader chunkLoader = new DiskChunkLoader(sealedTsFile, tsFileReader);
+
+    if (unseqTimeRanges != null) {
+      return new ChunkStatisticsAggregateReader(chunkLoader, metaDataList, filter,
+          unseqTimeRanges);
+    }
 
     // init fileSeriesReader
     FileSeriesReader fileSeriesReader;
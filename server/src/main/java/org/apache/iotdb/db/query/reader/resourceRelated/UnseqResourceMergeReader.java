@@ -31,16 +31,18 @@ import org.apache.iotdb.db.query.externalsort.ExternalSortJobEngine;
 import org.apache.iotdb.db.query.externalsort.SimpleExternalSortEngine;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.chunkRelated.ChunkReaderWrap;
-import org.apache.iotdb.db.query.reader.universal.PriorityMergeReader;
+import org.apache.iotdb.db.query.reader.chunkRelated.DiskChunkLoader;
+import org.apache.iotdb.db.query.reader.universal.BatchPriorityMergeReader;
 import org.apache.iotdb.db.utils.QueryUtils;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
+import org.apache.iotdb.tsfile.read.controller.IChunkLoader;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
 /**
- * To read a list of unsequence TsFiles, this class extends {@link PriorityMergeReader} to
+ * To read a list of unsequence TsFiles, this class extends {@link BatchPriorityMergeReader} to
  * implement
  * <code>IPointReader</code> for the TsFiles.
  * <p>
@@ -49,7 +51,7 @@ import org.apache.iotdb.tsfile.read.filter.basic.Filter;
  * <p>
  * This class is used in {@link org.apache.iotdb.db.query.reader.seriesRelated.SeriesReaderWithoutValueFilter}.
  */
-public class UnseqResourceMergeReader extends PriorityMergeReader {
+public class UnseqResourceMergeReader extends BatchPriorityMergeReader {
 
   private Path seriesPath;
   private long queryId;
@@ -74,6 +76,8 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
         List<Modification> pathModifications = context
             .getPathModifications(tsFileResource.getModFile(), seriesPath.getFullPath());
         if (!pathModifications.isEmpty()) {
+          // the cached list is shared by queries
+          metaDataList = new ArrayList<>(metaDataList);
           QueryUtils.modifyChunkMetaData(metaDataList, pathModifications);
         }
       } else {
@@ -85,11 +89,12 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
         metaDataList = tsFileResource.getChunkMetaDataList();
       }
 
-      ChunkLoaderImpl chunkLoader = null;
+      IChunkLoader chunkLoader = null;
       if (!metaDataList.isEmpty()) {
         TsFileSequenceReader tsFileReader = FileReaderManager.getInstance()
             .get(tsFileResource, tsFileResource.isClosed());
-        chunkLoader = new ChunkLoaderImpl(tsFileReader);
+        chunkLoader = tsFileResource.isClosed()
+            ? new DiskChunkLoader(tsFileResource, tsFileReader) : new ChunkLoaderImpl(tsFileReader);
       }
 
       for (ChunkMetaData chunkMetaData : metaDataList) {
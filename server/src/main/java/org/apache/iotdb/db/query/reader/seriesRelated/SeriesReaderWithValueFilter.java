@@ -24,8 +24,18 @@ import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.reader.IBatchReader;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsBinary;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsBoolean;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsDouble;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsFloat;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsInt;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsLong;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.utils.Binary;
 
 /**
  * To read series data with value filter, this class extends {@link SeriesReaderWithoutValueFilter}
@@ -41,10 +51,22 @@ import org.apache.iotdb.tsfile.read.filter.basic.Filter;
  */
 public class SeriesReaderWithValueFilter extends SeriesReaderWithoutValueFilter {
 
+  /**
+   * the merged points are examined by the filter in blocks of this size
+   */
+  private static final int BLOCK_SIZE = 1024;
+
   private Filter filter;
   private boolean hasCachedValue;
   private TimeValuePair timeValuePair;
 
+  private TSDataType dataType;
+  private long[] times = new long[BLOCK_SIZE];
+  private Object values;
+  private int[] selection = new int[BLOCK_SIZE];
+  private int selected = 0;
+  private int cursor = 0;
+
   public SeriesReaderWithValueFilter(Path seriesPath, Filter filter, QueryContext context)
       throws StorageEngineException, IOException {
     super(seriesPath, filter, context, false);
@@ -62,14 +84,104 @@ public class SeriesReaderWithValueFilter extends SeriesReaderWithoutValueFilter
     if (hasCachedValue) {
       return true;
     }
-    while (super.hasNext()) {
-      timeValuePair = super.next();
-      if (filter.satisfy(timeValuePair.getTimestamp(), timeValuePair.getValue().getValue())) {
-        hasCachedValue = true;
-        return true;
+    while (cursor == selected) {
+      if (!nextBlock()) {
+        return false;
+      }
+    }
+    int index = selection[cursor++];
+    timeValuePair = new TimeValuePair(times[index], getValue(index));
+    hasCachedValue = true;
+    return true;
+  }
+
+  /**
+   * Copy the next block of merged points into primitive columns and let the filter select from
+   * them. The pairs themselves are not kept, as the merge readers may reuse them.
+   *
+   * @return false if there is no more point
+   */
+  private boolean nextBlock() throws IOException {
+    int n = 0;
+    while (n < BLOCK_SIZE && super.hasNext()) {
+      TimeValuePair pair = super.next();
+      if (values == null) {
+        dataType = pair.getValue().getDataType();
+        values = allocateValues(dataType);
       }
+      times[n] = pair.getTimestamp();
+      setValue(n, pair.getValue());
+      n++;
+    }
+    for (int i = 0; i < n; i++) {
+      selection[i] = i;
+    }
+    selected = n == 0 ? 0 : filter.satisfyBatch(times, values, selection, n);
+    cursor = 0;
+    return n > 0;
+  }
+
+  private static Object allocateValues(TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new boolean[BLOCK_SIZE];
+      case INT32:
+        return new int[BLOCK_SIZE];
+      case INT64:
+        return new long[BLOCK_SIZE];
+      case FLOAT:
+        return new float[BLOCK_SIZE];
+      case DOUBLE:
+        return new double[BLOCK_SIZE];
+      case TEXT:
+        return new Binary[BLOCK_SIZE];
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  private void setValue(int index, TsPrimitiveType value) {
+    switch (dataType) {
+      case BOOLEAN:
+        ((boolean[]) values)[index] = value.getBoolean();
+        break;
+      case INT32:
+        ((int[]) values)[index] = value.getInt();
+        break;
+      case INT64:
+        ((long[]) values)[index] = value.getLong();
+        break;
+      case FLOAT:
+        ((float[]) values)[index] = value.getFloat();
+        break;
+      case DOUBLE:
+        ((double[]) values)[index] = value.getDouble();
+        break;
+      case TEXT:
+        ((Binary[]) values)[index] = value.getBinary();
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  private TsPrimitiveType getValue(int index) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new TsBoolean(((boolean[]) values)[index]);
+      case INT32:
+        return new TsInt(((int[]) values)[index]);
+      case INT64:
+        return new TsLong(((long[]) values)[index]);
+      case FLOAT:
+        return new TsFloat(((float[]) values)[index]);
+      case DOUBLE:
+        return new TsDouble(((double[]) values)[index]);
+      case TEXT:
+        return new TsBinary(((Binary[]) values)[index]);
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
     }
-    return false;
   }
 
   @Override
@@ -86,4 +198,4 @@ public class SeriesReaderWithValueFilter extends SeriesReaderWithoutValueFilter
   public TimeValuePair current() {
     return timeValuePair;
   }
-}
\ No newline at end of file
+}
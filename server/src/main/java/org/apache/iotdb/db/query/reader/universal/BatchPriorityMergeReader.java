@@ -0,0 +1,419 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.reader.universal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.query.reader.IBatchReader;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TimeValuePairUtils;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+
+/**
+ * This class merges data sources with different priorities like {@link PriorityMergeReader}, but
+ * it works on pages ({@link BatchData}) instead of single points. When several sources have a
+ * point at the same time, the one with the highest priority is kept.
+ * <p>
+ * The sources are ordered by a loser tree keyed by the primitive time of their current points. The
+ * winner's points before the current time of the runner-up can not overlap with any other source,
+ * so they are copied as a whole run without touching the tree; and if its whole page is such a run,
+ * the page itself is returned. The tree is only replayed when the winner changes, which makes
+ * merging sources that barely overlap nearly as cheap as reading a single one.
+ * <p>
+ * Sources implementing {@link IBatchReader} are read page by page, other {@link IPointReader}s are
+ * packed into pages.
+ */
+public class BatchPriorityMergeReader implements IPointReader, IBatchReader {
+
+  private static final int BATCH_SIZE = 4096;
+
+  private List<IBatchReader> readerList = new ArrayList<>();
+  private List<Integer> priorityList = new ArrayList<>();
+
+  // the state of each source, indexed by the order the sources are added
+  private IBatchReader[] readers;
+  private BatchData[] batches;
+  private long[] times;
+  private int[] priorities;
+  private boolean[] exhausted;
+
+  /**
+   * losers[0] is the winner, losers[t] is the loser of the match at internal node t.
+   */
+  private int[] losers;
+  private boolean treeBuilt = false;
+
+  private BatchData output;
+  private TimeValuePair cachedPair;
+
+  public BatchPriorityMergeReader() {
+  }
+
+  public BatchPriorityMergeReader(List<IPointReader> prioritySeriesReaders, int startPriority)
+      throws IOException {
+    for (IPointReader reader : prioritySeriesReaders) {
+      addReaderWithPriority(reader, startPriority++);
+    }
+  }
+
+  public void addReaderWithPriority(IPointReader reader, int priority) throws IOException {
+    if (!reader.hasNext()) {
+      reader.close();
+      return;
+    }
+    readerList.add(reader instanceof IBatchReader ? (IBatchReader) reader
+        : new PointBatchReader(reader));
+    priorityList.add(priority);
+    treeBuilt = false;
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    while (output == null || !output.hasNext()) {
+      output = fill();
+      cachedPair = null;
+      if (output == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public TimeValuePair next() throws IOException {
+    TimeValuePair ret = current();
+    output.next();
+    cachedPair = null;
+    return ret;
+  }
+
+  @Override
+  public TimeValuePair current() throws IOException {
+    if (cachedPair == null) {
+      cachedPair = TimeValuePairUtils.getCurrentTimeValuePair(currentBatch());
+    }
+    return cachedPair;
+  }
+
+  /**
+   * @return the merged points in the next page, which may be shared with a source
+   */
+  @Override
+  public BatchData nextBatch() throws IOException {
+    BatchData ret = currentBatch();
+    output = null;
+    cachedPair = null;
+    return ret;
+  }
+
+  /**
+   * @return the page holding the current point, whose cursor is at the current point
+   */
+  protected BatchData currentBatch() throws IOException {
+    if (!hasNext()) {
+      throw new IOException("no more data in the merge reader");
+    }
+    return output;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (readers != null) {
+      for (int i = 0; i < readers.length; i++) {
+        if (!exhausted[i]) {
+          exhausted[i] = true;
+          readers[i].close();
+        }
+      }
+    }
+    for (int i = readers == null ? 0 : readers.length; i < readerList.size(); i++) {
+      readerList.get(i).close();
+    }
+    readerList.clear();
+    priorityList.clear();
+    readers = null;
+  }
+
+  /**
+   * (re)build the tree with the sources added so far, keeping the progress of the old ones.
+   */
+  private void buildTree() throws IOException {
+    int oldSize = readers == null ? 0 : readers.length;
+    int size = readerList.size();
+    IBatchReader[] newReaders = new IBatchReader[size];
+    BatchData[] newBatches = new BatchData[size];
+    long[] newTimes = new long[size];
+    int[] newPriorities = new int[size];
+    boolean[] newExhausted = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      newReaders[i] = readerList.get(i);
+      newPriorities[i] = priorityList.get(i);
+      if (i < oldSize) {
+        newBatches[i] = batches[i];
+        newTimes[i] = times[i];
+        newExhausted[i] = exhausted[i];
+      }
+    }
+    readers = newReaders;
+    batches = newBatches;
+    times = newTimes;
+    priorities = newPriorities;
+    exhausted = newExhausted;
+    for (int i = oldSize; i < size; i++) {
+      loadNextBatch(i);
+    }
+
+    losers = new int[Math.max(size, 1)];
+    for (int i = 0; i < losers.length; i++) {
+      losers[i] = -1;
+    }
+    for (int i = size - 1; i >= 0; i--) {
+      adjust(i);
+    }
+    treeBuilt = true;
+  }
+
+  /**
+   * fetch the next non-empty page of a source, or mark it exhausted.
+   */
+  private void loadNextBatch(int source) throws IOException {
+    while (readers[source].hasNext()) {
+      BatchData batchData = readers[source].nextBatch();
+      if (batchData.hasNext()) {
+        batches[source] = batchData;
+        times[source] = batchData.currentTime();
+        return;
+      }
+    }
+    batches[source] = null;
+    exhausted[source] = true;
+    readers[source].close();
+  }
+
+  /**
+   * move the cursor of a source by one point.
+   */
+  private void advance(int source) throws IOException {
+    BatchData batchData = batches[source];
+    batchData.next();
+    if (batchData.hasNext()) {
+      times[source] = batchData.currentTime();
+    } else {
+      loadNextBatch(source);
+    }
+  }
+
+  /**
+   * @return whether the current point of source a precedes that of source b
+   */
+  private boolean beats(int a, int b) {
+    if (exhausted[a]) {
+      return false;
+    }
+    if (exhausted[b]) {
+      return true;
+    }
+    return times[a] < times[b] || (times[a] == times[b] && priorities[a] > priorities[b]);
+  }
+
+  /**
+   * replay the matches from the leaf of the source to the root. -1 is a virtual source that beats
+   * all, which is only met while building the tree.
+   */
+  private void adjust(int source) {
+    int winner = source;
+    for (int t = (source + readers.length) >>> 1; t > 0; t >>>= 1) {
+      int other = losers[t];
+      if (winner != -1 && (other == -1 || beats(other, winner))) {
+        losers[t] = winner;
+        winner = other;
+      }
+    }
+    losers[0] = winner;
+  }
+
+  /**
+   * @return the smallest current time of the sources except the winner, which are the losers on
+   * the path of the winner
+   */
+  private long runnerUpTime(int winner) {
+    long time = Long.MAX_VALUE;
+    for (int t = (winner + readers.length) >>> 1; t > 0; t >>>= 1) {
+      int other = losers[t];
+      if (other != -1 && !exhausted[other] && times[other] < time) {
+        time = times[other];
+      }
+    }
+    return time;
+  }
+
+  /**
+   * @return the next page of merged points, or null if all sources are exhausted
+   */
+  private BatchData fill() throws IOException {
+    if (!treeBuilt) {
+      buildTree();
+    }
+    BatchData ret = null;
+    while (readers.length > 0 && !exhausted[losers[0]]
+        && (ret == null || ret.length() < BATCH_SIZE)) {
+      int winner = losers[0];
+      BatchData batchData = batches[winner];
+      long bound = runnerUpTime(winner);
+      long lastTime;
+      if (ret == null && batchData.getTimeByIndex(batchData.length() - 1) < bound) {
+        // no other source overlaps the rest of the page, hand it over as it is
+        loadNextBatch(winner);
+        adjust(winner);
+        return batchData;
+      }
+      if (ret == null) {
+        ret = new BatchData(batchData.getDataType(), true);
+      }
+      if (times[winner] < bound) {
+        lastTime = copyRun(batchData, ret, bound, BATCH_SIZE - ret.length());
+        if (!batchData.hasNext()) {
+          loadNextBatch(winner);
+        } else {
+          times[winner] = batchData.currentTime();
+        }
+      } else {
+        // another source has a point at the same time with a lower priority
+        lastTime = times[winner];
+        copyRun(batchData, ret, lastTime + 1, 1);
+        if (!batchData.hasNext()) {
+          loadNextBatch(winner);
+        } else {
+          times[winner] = batchData.currentTime();
+        }
+      }
+      adjust(winner);
+      // drop the overwritten points of the sources with lower priorities
+      while (!exhausted[losers[0]] && times[losers[0]] == lastTime) {
+        int source = losers[0];
+        advance(source);
+        adjust(source);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * copy the points of the source page before the bound into the target page, at most limit
+   * points.
+   *
+   * @return the time of the last copied point
+   */
+  private long copyRun(BatchData source, BatchData target, long bound, int limit) {
+    long time;
+    int copied = 0;
+    switch (source.getDataType()) {
+      case BOOLEAN:
+        while (copied < limit && source.hasNext() && (time = source.currentTime()) < bound) {
+          target.putTime(time);
+          target.putBoolean(source.getBoolean());
+          source.next();
+          copied++;
+        }
+        break;
+      case INT32:
+        while (copied < limit && source.hasNext() && (time = source.currentTime()) < bound) {
+          target.putTime(time);
+          target.putInt(source.getInt());
+          source.next();
+          copied++;
+        }
+        break;
+      case INT64:
+        while (copied < limit && source.hasNext() && (time = source.currentTime()) < bound) {
+          target.putTime(time);
+          target.putLong(source.getLong());
+          source.next();
+          copied++;
+        }
+        break;
+      case FLOAT:
+        while (copied < limit && source.hasNext() && (time = source.currentTime()) < bound) {
+          target.putTime(time);
+          target.putFloat(source.getFloat());
+          source.next();
+          copied++;
+        }
+        break;
+      case DOUBLE:
+        while (copied < limit && source.hasNext() && (time = source.currentTime()) < bound) {
+          target.putTime(time);
+          target.putDouble(source.getDouble());
+          source.next();
+          copied++;
+        }
+        break;
+      case TEXT:
+        while (copied < limit && source.hasNext() && (time = source.currentTime()) < bound) {
+          target.putTime(time);
+          target.putBinary(source.getBinary());
+          source.next();
+          copied++;
+        }
+        break;
+      default:
+        throw new UnsupportedOperationException(
+            "Unsupported data type: " + source.getDataType());
+    }
+    return target.getTimeByIndex(target.length() - 1);
+  }
+
+  /**
+   * packs the points of an {@link IPointReader} into pages.
+   */
+  private static class PointBatchReader implements IBatchReader {
+
+    private IPointReader reader;
+
+    private PointBatchReader(IPointReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+      return reader.hasNext();
+    }
+
+    @Override
+    public BatchData nextBatch() throws IOException {
+      TimeValuePair timeValuePair = reader.next();
+      BatchData batchData = new BatchData(timeValuePair.getValue().getDataType(), true);
+      batchData.putTime(timeValuePair.getTimestamp());
+      batchData.putAnObject(timeValuePair.getValue().getValue());
+      while (batchData.length() < BATCH_SIZE && reader.hasNext()) {
+        timeValuePair = reader.next();
+        batchData.putTime(timeValuePair.getTimestamp());
+        batchData.putAnObject(timeValuePair.getValue().getValue());
+      }
+      return batchData;
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+}
@@ -23,19 +23,19 @@ import java.io.IOException;
 import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.db.utils.TimeValuePairUtils;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
 
 /**
- * CachedPriorityMergeReader use a cache to reduce unnecessary heap updates and increase locality.
+ * CachedPriorityMergeReader reuses a ring of TimeValuePairs instead of allocating one per point. A
+ * returned pair stays valid for the next CACHE_SIZE - 1 calls of next().
  */
-public class CachedPriorityMergeReader extends PriorityMergeReader {
+public class CachedPriorityMergeReader extends BatchPriorityMergeReader {
 
   private static final int CACHE_SIZE = 100;
 
   private TimeValuePair[] timeValuePairCache = new TimeValuePair[CACHE_SIZE];
-  private int cacheLimit = 0;
   private int cacheIdx = 0;
-
-  private Long lastTimestamp = null;
+  private boolean cacheFilled = false;
 
   public CachedPriorityMergeReader(TSDataType dataType) {
     for (int i = 0; i < CACHE_SIZE; i++) {
@@ -44,52 +44,26 @@ public class CachedPriorityMergeReader extends PriorityMergeReader {
   }
 
   @Override
-  public boolean hasNext() {
-    return cacheIdx < cacheLimit || !heap.isEmpty();
-  }
-
-  private void fetch() throws IOException {
-    cacheLimit = 0;
-    cacheIdx = 0;
-    while (!heap.isEmpty() && cacheLimit < CACHE_SIZE) {
-      Element top = heap.peek();
-      if (lastTimestamp == null || top.currTime() != lastTimestamp) {
-        TimeValuePairUtils.setTimeValuePair(top.timeValuePair, timeValuePairCache[cacheLimit++]);
-        lastTimestamp = top.currTime();
-      }
-      // remove duplicates
-      while (heap.peek() != null && heap.peek().currTime() == lastTimestamp) {
-        top = heap.poll();
-        if (top.hasNext()) {
-          top.next();
-          heap.add(top);
-        } else {
-          top.close();
-        }
-      }
-    }
+  public TimeValuePair next() throws IOException {
+    TimeValuePair ret = current();
+    currentBatch().next();
+    cacheFilled = false;
+    cacheIdx = (cacheIdx + 1) % CACHE_SIZE;
+    return ret;
   }
 
-
   @Override
-  public TimeValuePair next() throws IOException {
-    TimeValuePair ret;
-    if (cacheIdx < cacheLimit) {
-      ret = timeValuePairCache[cacheIdx++];
-    } else {
-      fetch();
-      ret = timeValuePairCache[cacheIdx++];
-    }
-    return ret;
+  public BatchData nextBatch() throws IOException {
+    cacheFilled = false;
+    return super.nextBatch();
   }
 
   @Override
   public TimeValuePair current() throws IOException {
-    if (0 <= cacheIdx && cacheIdx < cacheLimit) {
-      return timeValuePairCache[cacheIdx];
-    } else {
-      fetch();
-      return timeValuePairCache[cacheIdx];
+    if (!cacheFilled) {
+      TimeValuePairUtils.setCurrentTimeValuePair(currentBatch(), timeValuePairCache[cacheIdx]);
+      cacheFilled = true;
     }
+    return timeValuePairCache[cacheIdx];
   }
 }
@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.rescon;
+
+import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.ARRAY_SIZE;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.tsfile.utils.MmapUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Manage the direct memory used by off-heap TVLists.
+ *
+ * Direct memory is allocated in large slabs, and each slab is cut into fixed-size blocks. A block
+ * holds ARRAY_SIZE timestamps followed by ARRAY_SIZE values, so a block plays the role of one
+ * long[] plus one value array of an on-heap TVList. A block is identified by an int handle, whose
+ * high bits are the slab index and low bits are the block index inside the slab, so that a TVList
+ * only keeps an int[] of handles on heap. Released blocks are reused by later TVLists.
+ *
+ * The direct slabs of all pools are bounded by off_heap_memtable_budget_in_byte. When a new slab
+ * would exceed it, the idle direct slabs of all pools are freed first, and if that is not enough,
+ * the slab is allocated on heap instead. A heap slab is dropped as soon as it becomes idle, so
+ * later slabs are direct again once memtables are flushed.
+ */
+public class OffHeapSlabPool {
+
+  private static final Logger logger = LoggerFactory.getLogger(OffHeapSlabPool.class);
+
+  private static final int BLOCK_INDEX_BITS = 11;
+  private static final int BLOCKS_PER_SLAB = 1 << BLOCK_INDEX_BITS;
+  private static final int BLOCK_INDEX_MASK = BLOCKS_PER_SLAB - 1;
+
+  /**
+   * guards the slabs of all pools, as a pool may free the idle slabs of the others
+   */
+  private static final Object POOL_LOCK = new Object();
+
+  private static final OffHeapSlabPool BYTE_VALUE_POOL = new OffHeapSlabPool(Byte.BYTES);
+  private static final OffHeapSlabPool INT_VALUE_POOL = new OffHeapSlabPool(Integer.BYTES);
+  private static final OffHeapSlabPool LONG_VALUE_POOL = new OffHeapSlabPool(Long.BYTES);
+  private static final OffHeapSlabPool[] POOLS = {BYTE_VALUE_POOL, INT_VALUE_POOL,
+      LONG_VALUE_POOL};
+
+  /**
+   * bytes of direct slabs of all pools
+   */
+  private static long directSizeInByte = 0;
+
+  private final int valueSize;
+  private final int blockSize;
+  private final int slabSize;
+
+  /**
+   * a freed slab leaves a null in its slot, which is reused by the next slab
+   */
+  private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+  private int[] usedBlockNums = new int[0];
+
+  /**
+   * stack of free block handles
+   */
+  private int[] freeBlocks = new int[BLOCKS_PER_SLAB];
+  private int freeBlockNum = 0;
+
+  private OffHeapSlabPool(int valueSize) {
+    this.valueSize = valueSize;
+    this.blockSize = ARRAY_SIZE * (Long.BYTES + valueSize);
+    this.slabSize = blockSize * BLOCKS_PER_SLAB;
+  }
+
+  /**
+   * @param valueSize bytes of one value, must be 1, 4 or 8
+   */
+  public static OffHeapSlabPool getInstance(int valueSize) {
+    switch (valueSize) {
+      case Byte.BYTES:
+        return BYTE_VALUE_POOL;
+      case Integer.BYTES:
+        return INT_VALUE_POOL;
+      case Long.BYTES:
+        return LONG_VALUE_POOL;
+      default:
+        throw new IllegalArgumentException("Unsupported value size: " + valueSize);
+    }
+  }
+
+  public int allocate() {
+    synchronized (POOL_LOCK) {
+      if (freeBlockNum == 0) {
+        addSlab();
+      }
+      int block = freeBlocks[--freeBlockNum];
+      usedBlockNums[block >>> BLOCK_INDEX_BITS]++;
+      return block;
+    }
+  }
+
+  public void release(int block) {
+    synchronized (POOL_LOCK) {
+      pushFreeBlock(block);
+      int slabIndex = block >>> BLOCK_INDEX_BITS;
+      if (--usedBlockNums[slabIndex] == 0 && !slabs[slabIndex].isDirect()) {
+        removeSlab(slabIndex);
+      }
+    }
+  }
+
+  /**
+   * Free the idle slabs of all pools, e.g., when memtables are no longer allocated.
+   */
+  public static void releaseIdleSlabs() {
+    synchronized (POOL_LOCK) {
+      for (OffHeapSlabPool pool : POOLS) {
+        pool.removeIdleSlabs();
+      }
+    }
+  }
+
+  private void pushFreeBlock(int block) {
+    if (freeBlockNum == freeBlocks.length) {
+      freeBlocks = Arrays.copyOf(freeBlocks, freeBlocks.length * 2);
+    }
+    freeBlocks[freeBlockNum++] = block;
+  }
+
+  private void addSlab() {
+    long budget = IoTDBDescriptor.getInstance().getConfig().getOffHeapMemtableBudgetInByte();
+    if (directSizeInByte + slabSize > budget) {
+      releaseIdleSlabs();
+    }
+    ByteBuffer slab;
+    if (directSizeInByte + slabSize <= budget) {
+      slab = ByteBuffer.allocateDirect(slabSize);
+      directSizeInByte += slabSize;
+    } else {
+      logger.debug("Off-heap memtables use up {} bytes of direct memory, allocate {} bytes on heap",
+          directSizeInByte, slabSize);
+      slab = ByteBuffer.allocate(slabSize);
+    }
+    slab.order(ByteOrder.nativeOrder());
+
+    int slabIndex = 0;
+    while (slabIndex < slabs.length && slabs[slabIndex] != null) {
+      slabIndex++;
+    }
+    ByteBuffer[] newSlabs = slabIndex < slabs.length ? slabs.clone()
+        : Arrays.copyOf(slabs, slabIndex + 1);
+    newSlabs[slabIndex] = slab;
+    if (slabIndex >= usedBlockNums.length) {
+      usedBlockNums = Arrays.copyOf(usedBlockNums, slabIndex + 1);
+    }
+    // push in reverse order so that blocks are handed out in address order
+    for (int i = BLOCKS_PER_SLAB - 1; i >= 0; i--) {
+      pushFreeBlock((slabIndex << BLOCK_INDEX_BITS) | i);
+    }
+    slabs = newSlabs;
+  }
+
+  private void removeIdleSlabs() {
+    for (int i = 0; i < slabs.length; i++) {
+      if (slabs[i] != null && usedBlockNums[i] == 0) {
+        removeSlab(i);
+      }
+    }
+  }
+
+  /**
+   * Remove an idle slab and its free blocks. No TVList refers to the slab, so its direct memory
+   * can be freed at once.
+   */
+  private void removeSlab(int slabIndex) {
+    int newFreeBlockNum = 0;
+    for (int i = 0; i < freeBlockNum; i++) {
+      if (freeBlocks[i] >>> BLOCK_INDEX_BITS != slabIndex) {
+        freeBlocks[newFreeBlockNum++] = freeBlocks[i];
+      }
+    }
+    freeBlockNum = newFreeBlockNum;
+    ByteBuffer slab = slabs[slabIndex];
+    ByteBuffer[] newSlabs = slabs.clone();
+    newSlabs[slabIndex] = null;
+    slabs = newSlabs;
+    if (slab.isDirect()) {
+      directSizeInByte -= slabSize;
+      MmapUtils.clean(slab);
+    }
+  }
+
+  /**
+   * @return the slab containing the block, blocks are accessed with absolute get/put methods
+   */
+  public ByteBuffer getSlab(int block) {
+    return slabs[block >>> BLOCK_INDEX_BITS];
+  }
+
+  /**
+   * @return the byte offset of the index-th timestamp of the block in its slab
+   */
+  public int getTimeOffset(int block, int index) {
+    return (block & BLOCK_INDEX_MASK) * blockSize + index * Long.BYTES;
+  }
+
+  /**
+   * @return the byte offset of the index-th value of the block in its slab
+   */
+  public int getValueOffset(int block, int index) {
+    return (block & BLOCK_INDEX_MASK) * blockSize + ARRAY_SIZE * Long.BYTES + index * valueSize;
+  }
+
+  public int getValueSize() {
+    return valueSize;
+  }
+
+  /**
+   * @return bytes of direct and heap memory allocated by this pool
+   */
+  public long getAllocatedSizeInByte() {
+    synchronized (POOL_LOCK) {
+      long size = 0;
+      for (ByteBuffer slab : slabs) {
+        if (slab != null) {
+          size += slabSize;
+        }
+      }
+      return size;
+    }
+  }
+
+  /**
+   * @return bytes of direct memory allocated by all pools
+   */
+  public static long getDirectSizeInByte() {
+    synchronized (POOL_LOCK) {
+      return directSizeInByte;
+    }
+  }
+}
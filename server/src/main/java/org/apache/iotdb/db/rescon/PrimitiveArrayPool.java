@@ -20,30 +20,54 @@ package org.apache.iotdb.db.rescon;
 
 import java.util.ArrayDeque;
 import java.util.EnumMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Binary;
 
 /**
  * Manage all primitive data list in memory, including get and release operation.
+ *
+ * Arrays come in size classes from MIN_ARRAY_SIZE to MAX_ARRAY_SIZE (powers of two), each class
+ * being pooled separately, so that TVLists can start with small arrays and grow geometrically.
+ *
+ * Each thread keeps a small magazine of arrays per data type, so the common get/release path
+ * touches no shared state. Magazines overflow into and refill from a lock-free depot per data
+ * type, whose size is bounded by primitive_array_pool_budget_in_byte; arrays released beyond
+ * the budget are dropped and left to GC.
  */
-public class PrimitiveArrayPool {
+public class PrimitiveArrayPool implements PrimitiveArrayPoolMBean {
 
   /**
-   * data type -> Array<PrimitiveArray>
+   * size of the arrays used as sorting buffers and of the blocks of off-heap TVLists
    */
-  private static final EnumMap<TSDataType, ArrayDeque> primitiveArraysMap = new EnumMap<>(TSDataType.class);
-
   public static final int ARRAY_SIZE = 128;
 
-  static {
-    primitiveArraysMap.put(TSDataType.BOOLEAN, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.INT32, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.INT64, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.FLOAT, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.DOUBLE, new ArrayDeque());
-    primitiveArraysMap.put(TSDataType.TEXT, new ArrayDeque());
-  }
+  public static final int MIN_ARRAY_SIZE = 16;
+
+  public static final int MAX_ARRAY_SIZE = 1024;
+
+  private static final int SIZE_CLASS_NUM =
+      Integer.numberOfTrailingZeros(MAX_ARRAY_SIZE / MIN_ARRAY_SIZE) + 1;
+
+  /**
+   * max number of arrays a thread caches locally for each data type
+   */
+  private static final int MAGAZINE_CAPACITY = 32;
+
+  /**
+   * data type -> pooled arrays of the type, indexed by size class
+   */
+  private final EnumMap<TSDataType, TypedArrayPool[]> typedPools = new EnumMap<>(
+      TSDataType.class);
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder discardCount = new LongAdder();
 
   public static PrimitiveArrayPool getInstance() {
     return INSTANCE;
@@ -51,71 +75,102 @@ public class PrimitiveArrayPool {
 
   private static final PrimitiveArrayPool INSTANCE = new PrimitiveArrayPool();
 
+  private PrimitiveArrayPool() {
+    long budget = IoTDBDescriptor.getInstance().getConfig().getPrimitiveArrayPoolBudgetInByte();
+    for (TSDataType dataType : TSDataType.values()) {
+      int elementSize = getElementSize(dataType);
+      if (elementSize > 0) {
+        // the budget of a data type is shared evenly by its size classes
+        TypedArrayPool[] pools = new TypedArrayPool[SIZE_CLASS_NUM];
+        for (int sizeClass = 0; sizeClass < SIZE_CLASS_NUM; sizeClass++) {
+          int arraySize = MIN_ARRAY_SIZE << sizeClass;
+          pools[sizeClass] = new TypedArrayPool(dataType, arraySize, (int) Math.min(
+              Integer.MAX_VALUE, budget / SIZE_CLASS_NUM / ((long) elementSize * arraySize)));
+        }
+        typedPools.put(dataType, pools);
+      }
+    }
+  }
 
-  private PrimitiveArrayPool() {}
+  public Object getPrimitiveDataListByType(TSDataType dataType) {
+    return getPrimitiveDataListByType(dataType, ARRAY_SIZE);
+  }
 
-  public synchronized Object getPrimitiveDataListByType(TSDataType dataType) {
-    ArrayDeque dataListQueue = primitiveArraysMap.computeIfAbsent(dataType, k ->new ArrayDeque<>());
-    Object dataArray = dataListQueue.poll();
+  /**
+   * @param arraySize length of the array, must be a power of two between MIN_ARRAY_SIZE and
+   * MAX_ARRAY_SIZE
+   */
+  public Object getPrimitiveDataListByType(TSDataType dataType, int arraySize) {
+    TypedArrayPool[] pools = typedPools.get(dataType);
+    if (pools == null) {
+      throw new UnSupportedDataTypeException("DataType: " + dataType);
+    }
+    int sizeClass = getSizeClass(arraySize);
+    if (sizeClass < 0) {
+      throw new IllegalArgumentException("Unsupported array size: " + arraySize);
+    }
+    Object dataArray = pools[sizeClass].poll();
+    if (dataArray != null) {
+      hitCount.increment();
+      return dataArray;
+    }
+    missCount.increment();
     switch (dataType) {
       case BOOLEAN:
-        if (dataArray == null) {
-          dataArray = new boolean[ARRAY_SIZE];
-        }
-        break;
+        return new boolean[arraySize];
       case INT32:
-        if (dataArray == null) {
-          dataArray = new int[ARRAY_SIZE];
-        }
-        break;
+        return new int[arraySize];
       case INT64:
-        if (dataArray == null) {
-          dataArray = new long[ARRAY_SIZE];
-        }
-        break;
+        return new long[arraySize];
       case FLOAT:
-        if (dataArray == null) {
-          dataArray = new float[ARRAY_SIZE];
-        }
-        break;
+        return new float[arraySize];
       case DOUBLE:
-        if (dataArray == null) {
-          dataArray = new double[ARRAY_SIZE];
-        }
-        break;
+        return new double[arraySize];
       case TEXT:
-        if (dataArray == null) {
-          dataArray = new Binary[ARRAY_SIZE];
-        }
-        break;
+        return new Binary[arraySize];
       default:
         throw new UnSupportedDataTypeException("DataType: " + dataType);
     }
-    return dataArray;
   }
 
 
-  public synchronized void release(Object dataArray) {
+  public void release(Object dataArray) {
+    TSDataType dataType;
+    int arraySize;
     if (dataArray instanceof boolean[]) {
-      primitiveArraysMap.get(TSDataType.BOOLEAN).add(dataArray);
+      dataType = TSDataType.BOOLEAN;
+      arraySize = ((boolean[]) dataArray).length;
     } else if (dataArray instanceof int[]) {
-      primitiveArraysMap.get(TSDataType.INT32).add(dataArray);
-    } else if (dataArray instanceof long[]){
-      primitiveArraysMap.get(TSDataType.INT64).add(dataArray);
+      dataType = TSDataType.INT32;
+      arraySize = ((int[]) dataArray).length;
+    } else if (dataArray instanceof long[]) {
+      dataType = TSDataType.INT64;
+      arraySize = ((long[]) dataArray).length;
     } else if (dataArray instanceof float[]) {
-      primitiveArraysMap.get(TSDataType.FLOAT).add(dataArray);
+      dataType = TSDataType.FLOAT;
+      arraySize = ((float[]) dataArray).length;
     } else if (dataArray instanceof double[]) {
-      primitiveArraysMap.get(TSDataType.DOUBLE).add(dataArray);
+      dataType = TSDataType.DOUBLE;
+      arraySize = ((double[]) dataArray).length;
     } else if (dataArray instanceof Binary[]) {
-      primitiveArraysMap.get(TSDataType.TEXT).add(dataArray);
+      dataType = TSDataType.TEXT;
+      arraySize = ((Binary[]) dataArray).length;
+    } else {
+      return;
     }
+    int sizeClass = getSizeClass(arraySize);
+    if (sizeClass < 0) {
+      // not allocated by this pool, leave it to GC
+      return;
+    }
+    typedPools.get(dataType)[sizeClass].offer(dataArray);
   }
 
   /**
    * @param size needed capacity
    * @return an array of primitive data arrays
    */
-  public synchronized Object getDataListsByType(TSDataType dataType, int size) {
+  public Object getDataListsByType(TSDataType dataType, int size) {
     int arrayNumber = (int) Math.ceil((float) size / (float)ARRAY_SIZE);
     switch (dataType) {
       case BOOLEAN:
@@ -159,4 +214,125 @@ public class PrimitiveArrayPool {
     }
   }
 
+  /**
+   * @return index of the size class of the given array size, or -1 if it is not a size class
+   */
+  private static int getSizeClass(int arraySize) {
+    if (arraySize < MIN_ARRAY_SIZE || arraySize > MAX_ARRAY_SIZE
+        || Integer.bitCount(arraySize) != 1) {
+      return -1;
+    }
+    return Integer.numberOfTrailingZeros(arraySize / MIN_ARRAY_SIZE);
+  }
+
+  /**
+   * @return bytes of one element of the given type in a primitive array, or -1 if the type is
+   * not stored in primitive arrays
+   */
+  private static int getElementSize(TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+        return 1;
+      case INT32:
+      case FLOAT:
+        return 4;
+      case INT64:
+      case DOUBLE:
+        return 8;
+      case TEXT:
+        // only the reference is accounted here, the Binary itself belongs to the caller
+        return 8;
+      default:
+        return -1;
+    }
+  }
+
+  @Override
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  @Override
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  @Override
+  public long getDiscardCount() {
+    return discardCount.sum();
+  }
+
+  @Override
+  public int getNumberOfPooledArrays() {
+    int number = 0;
+    for (TypedArrayPool[] pools : typedPools.values()) {
+      for (TypedArrayPool pool : pools) {
+        number += pool.depotSize.get();
+      }
+    }
+    return number;
+  }
+
+  @Override
+  public long getPooledArraySizeInByte() {
+    long bytes = 0;
+    for (TypedArrayPool[] pools : typedPools.values()) {
+      for (TypedArrayPool pool : pools) {
+        bytes += (long) pool.depotSize.get() * getElementSize(pool.dataType) * pool.arraySize;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Arrays of one data type and size class: thread-local magazines backed by a bounded lock-free depot.
+   */
+  private class TypedArrayPool {
+
+    private final TSDataType dataType;
+    private final int arraySize;
+    private final int maxDepotSize;
+    private final Queue<Object> depot = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() is O(n), so the depot size is tracked separately
+    private final AtomicInteger depotSize = new AtomicInteger();
+    private final ThreadLocal<ArrayDeque<Object>> magazine = ThreadLocal
+        .withInitial(() -> new ArrayDeque<>(MAGAZINE_CAPACITY));
+
+    private TypedArrayPool(TSDataType dataType, int arraySize, int maxDepotSize) {
+      this.dataType = dataType;
+      this.arraySize = arraySize;
+      this.maxDepotSize = maxDepotSize;
+    }
+
+    private Object poll() {
+      Object dataArray = magazine.get().poll();
+      if (dataArray == null) {
+        dataArray = depot.poll();
+        if (dataArray != null) {
+          depotSize.decrementAndGet();
+        }
+      }
+      return dataArray;
+    }
+
+    private void offer(Object dataArray) {
+      ArrayDeque<Object> localArrays = magazine.get();
+      if (localArrays.size() >= MAGAZINE_CAPACITY) {
+        // hand half of the magazine over to the depot so that other threads can reuse them
+        for (int i = 0; i < MAGAZINE_CAPACITY / 2; i++) {
+          offerToDepot(localArrays.poll());
+        }
+      }
+      localArrays.push(dataArray);
+    }
+
+    private void offerToDepot(Object dataArray) {
+      if (depotSize.incrementAndGet() > maxDepotSize) {
+        depotSize.decrementAndGet();
+        discardCount.increment();
+        return;
+      }
+      depot.add(dataArray);
+    }
+  }
 }
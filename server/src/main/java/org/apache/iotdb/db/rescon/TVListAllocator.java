@@ -34,15 +34,20 @@ import org.apache.iotdb.db.utils.datastructure.DoubleTVList;
 import org.apache.iotdb.db.utils.datastructure.FloatTVList;
 import org.apache.iotdb.db.utils.datastructure.IntTVList;
 import org.apache.iotdb.db.utils.datastructure.LongTVList;
+import org.apache.iotdb.db.utils.datastructure.OffHeapTVList;
 import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 
 public class TVListAllocator implements TVListAllocatorMBean, IService {
 
   private Map<TSDataType, Queue<TVList>> tvListCache = new EnumMap<>(TSDataType.class);
+  private Map<TSDataType, Queue<TVList>> offHeapTvListCache = new EnumMap<>(TSDataType.class);
   private String mbeanName = String
       .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE,
           getID().getJmxName());
+  private String arrayPoolMbeanName = String
+      .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE,
+          "Primitive Array Pool");
 
   private static final TVListAllocator INSTANCE = new TVListAllocator();
 
@@ -57,14 +62,34 @@ public class TVListAllocator implements TVListAllocatorMBean, IService {
     return list != null ? list : TVList.newList(dataType);
   }
 
+  /**
+   * @param offHeap whether the list should store its data in direct memory, a data type that
+   * cannot be stored off-heap always gets an on-heap list
+   */
+  public synchronized TVList allocate(TSDataType dataType, boolean offHeap) {
+    if (!offHeap) {
+      return allocate(dataType);
+    }
+    Queue<TVList> tvLists = offHeapTvListCache.computeIfAbsent(dataType,
+        k -> new ArrayDeque<>());
+    TVList list = tvLists.poll();
+    return list != null ? list : TVList.newOffHeapList(dataType);
+  }
+
   public synchronized void release(TSDataType dataType, TVList list) {
     list.clear();
-    tvListCache.get(dataType).add(list);
+    if (list instanceof OffHeapTVList) {
+      offHeapTvListCache.get(dataType).add(list);
+    } else {
+      tvListCache.get(dataType).add(list);
+    }
   }
 
   public synchronized void release(TVList list) {
     list.clear();
-    if (list instanceof BinaryTVList) {
+    if (list instanceof OffHeapTVList) {
+      offHeapTvListCache.get(((OffHeapTVList) list).getDataType()).add(list);
+    } else if (list instanceof BinaryTVList) {
       tvListCache.get(TSDataType.TEXT).add(list);
     } else if (list instanceof BooleanTVList) {
       tvListCache.get(TSDataType.BOOLEAN).add(list);
@@ -85,6 +110,9 @@ public class TVListAllocator implements TVListAllocatorMBean, IService {
     for (Queue<TVList> queue : tvListCache.values()) {
       number += queue.size();
     }
+    for (Queue<TVList> queue : offHeapTvListCache.values()) {
+      number += queue.size();
+    }
     return number;
   }
 
@@ -92,6 +120,7 @@ public class TVListAllocator implements TVListAllocatorMBean, IService {
   public void start() throws StartupException {
     try {
       JMXService.registerMBean(INSTANCE, mbeanName);
+      JMXService.registerMBean(PrimitiveArrayPool.getInstance(), arrayPoolMbeanName);
     } catch (Exception e) {
       throw new StartupException(this.getID().getName(), e.getMessage());
     }
@@ -100,7 +129,10 @@ public class TVListAllocator implements TVListAllocatorMBean, IService {
   @Override
   public void stop() {
     JMXService.deregisterMBean(mbeanName);
+    JMXService.deregisterMBean(arrayPoolMbeanName);
     tvListCache.clear();
+    offHeapTvListCache.clear();
+    OffHeapSlabPool.releaseIdleSlabs();
   }
 
   @Override
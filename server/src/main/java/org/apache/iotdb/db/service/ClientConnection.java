@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.service;
+
+import org.apache.thrift.server.ServerContext;
+
+/**
+ * The server-side context of one client connection. The thrift server creates it when the client
+ * connects and hands it to {@link JDBCServiceEventHandler} before every request, which binds it to
+ * the worker thread serving that request.
+ */
+class ClientConnection implements ServerContext {
+
+  private volatile ClientSession session;
+
+  ClientSession getSession() {
+    return session;
+  }
+
+  void setSession(ClientSession session) {
+    this.session = session;
+  }
+}
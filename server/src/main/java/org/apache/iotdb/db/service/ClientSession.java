@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.service;
+
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+
+/**
+ * State of one logged-in rpc session. A session is identified by the id carried in its session
+ * handle rather than by the thread serving it, so consecutive requests of the same client may be
+ * served by different worker threads.
+ */
+public class ClientSession {
+
+  private final long sessionId;
+  private final String username;
+  private volatile ZoneId zoneId;
+
+  // The statementId is unique in one session for each statement.
+  private final AtomicLong statementIdGenerator = new AtomicLong();
+  // The queryId is unique in one session for each operation.
+  private final AtomicLong queryIdGenerator = new AtomicLong();
+  // (statement -> Set(queryId))
+  private final Map<Long, Set<Long>> statementId2QueryId = new ConcurrentHashMap<>();
+  // (queryId -> PhysicalPlan)
+  private final Map<Long, PhysicalPlan> operationStatus = new ConcurrentHashMap<>();
+  // (queryId -> QueryDataSet)
+  private final Map<Long, QueryDataSet> queryDataSets = new ConcurrentHashMap<>();
+  // (queryId -> QueryContext)
+  private final Map<Long, QueryContext> queryContexts = new ConcurrentHashMap<>();
+
+  ClientSession(long sessionId, String username, ZoneId zoneId) {
+    this.sessionId = sessionId;
+    this.username = username;
+    this.zoneId = zoneId;
+  }
+
+  public long getSessionId() {
+    return sessionId;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public ZoneId getZoneId() {
+    return zoneId;
+  }
+
+  public void setZoneId(ZoneId zoneId) {
+    this.zoneId = zoneId;
+  }
+
+  public long generateStatementId() {
+    return statementIdGenerator.getAndIncrement();
+  }
+
+  public long generateQueryId() {
+    return queryIdGenerator.getAndIncrement();
+  }
+
+  public Map<Long, Set<Long>> getStatementId2QueryId() {
+    return statementId2QueryId;
+  }
+
+  public Map<Long, PhysicalPlan> getOperationStatus() {
+    return operationStatus;
+  }
+
+  public Map<Long, QueryDataSet> getQueryDataSets() {
+    return queryDataSets;
+  }
+
+  public Map<Long, QueryContext> getQueryContexts() {
+    return queryContexts;
+  }
+}
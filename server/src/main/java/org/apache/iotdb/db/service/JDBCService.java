@@ -33,7 +33,10 @@ import org.apache.thrift.protocol.TCompactProtocol;
 import org.apache.thrift.protocol.TProtocolFactory;
 import org.apache.thrift.server.TServer;
 import org.apache.thrift.server.TThreadPoolServer;
+import org.apache.thrift.server.TThreadedSelectorServer;
+import org.apache.thrift.transport.TNonblockingServerSocket;
 import org.apache.thrift.transport.TServerSocket;
+import org.apache.thrift.transport.TServerTransport;
 import org.apache.thrift.transport.TTransportException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,7 +55,6 @@ public class JDBCService implements JDBCServiceMBean, IService {
   private Thread jdbcServiceThread;
   private TProtocolFactory protocolFactory;
   private Processor<TSIService.Iface> processor;
-  private TThreadPoolServer.Args poolArgs;
   private TSServiceImpl impl;
   private CountDownLatch startLatch;
   private CountDownLatch stopLatch;
@@ -180,7 +182,7 @@ public class JDBCService implements JDBCServiceMBean, IService {
 
   private class JDBCServiceThread extends Thread {
 
-    private TServerSocket serverTransport;
+    private TServerTransport serverTransport;
     private TServer poolServer;
     private CountDownLatch threadStartLatch;
     private CountDownLatch threadStopLatch;
@@ -205,15 +207,13 @@ public class JDBCService implements JDBCServiceMBean, IService {
     public void run() {
       try {
         IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
-        serverTransport = new TServerSocket(new InetSocketAddress(config.getRpcAddress(),
-            config.getRpcPort()));
-        poolArgs = new TThreadPoolServer.Args(serverTransport).maxWorkerThreads(IoTDBDescriptor.
-            getInstance().getConfig().getRpcMaxConcurrentClientNum()).minWorkerThreads(1);
-        poolArgs.executorService = IoTDBThreadPoolFactory.createThriftRpcClientThreadPool(poolArgs,
-            ThreadName.JDBC_CLIENT.getName());
-        poolArgs.processor(processor);
-        poolArgs.protocolFactory(protocolFactory);
-        poolServer = new TThreadPoolServer(poolArgs);
+        InetSocketAddress address = new InetSocketAddress(config.getRpcAddress(),
+            config.getRpcPort());
+        if (config.isRpcSelectorServerEnable()) {
+          poolServer = createSelectorServer(address, config);
+        } else {
+          poolServer = createThreadPoolServer(address, config);
+        }
         poolServer.setServerEventHandler(new JDBCServiceEventHandler(impl, threadStartLatch));
         poolServer.serve();
       } catch (TTransportException e) {
@@ -234,12 +234,46 @@ public class JDBCService implements JDBCServiceMBean, IService {
         if (threadStopLatch != null && threadStopLatch.getCount() == 1) {
           threadStopLatch.countDown();
         }
-        logger.info("{}: close TThreadPoolServer and TServerSocket for {}",
+        logger.info("{}: close rpc server and server transport for {}",
             IoTDBConstant.GLOBAL_DB_NAME,
             getID().getName());
       }
     }
 
+    /**
+     * One thread serves each connection, so the thread number grows with the connections.
+     */
+    private TServer createThreadPoolServer(InetSocketAddress address, IoTDBConfig config)
+        throws TTransportException {
+      serverTransport = new TServerSocket(address);
+      TThreadPoolServer.Args poolArgs = new TThreadPoolServer.Args(serverTransport)
+          .maxWorkerThreads(config.getRpcMaxConcurrentClientNum()).minWorkerThreads(1);
+      poolArgs.executorService = IoTDBThreadPoolFactory.createThriftRpcClientThreadPool(poolArgs,
+          ThreadName.JDBC_CLIENT.getName());
+      poolArgs.processor(processor);
+      poolArgs.protocolFactory(protocolFactory);
+      return new TThreadPoolServer(poolArgs);
+    }
+
+    /**
+     * A few selector threads do the network IO of all connections and hand complete requests to a
+     * fixed worker pool, so idle connections hold no thread. The server reads framed requests.
+     */
+    private TServer createSelectorServer(InetSocketAddress address, IoTDBConfig config)
+        throws TTransportException {
+      TNonblockingServerSocket nonblockingServerSocket = new TNonblockingServerSocket(address);
+      serverTransport = nonblockingServerSocket;
+      TThreadedSelectorServer.Args selectorArgs =
+          new TThreadedSelectorServer.Args(nonblockingServerSocket)
+              .selectorThreads(config.getRpcSelectorThreadNum())
+              .executorService(IoTDBThreadPoolFactory.newFixedThreadPool(
+                  config.getRpcWorkerThreadNum(), ThreadName.JDBC_CLIENT.getName()));
+      selectorArgs.maxReadBufferBytes = config.getRpcMaxReadBufferSize();
+      selectorArgs.processor(processor);
+      selectorArgs.protocolFactory(protocolFactory);
+      return new TThreadedSelectorServer(selectorArgs);
+    }
+
     private synchronized void close() {
       if (poolServer != null) {
         poolServer.stop();
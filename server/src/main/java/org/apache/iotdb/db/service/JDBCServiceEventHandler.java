@@ -36,13 +36,12 @@ public class JDBCServiceEventHandler implements TServerEventHandler {
 
   @Override
   public ServerContext createContext(TProtocol arg0, TProtocol arg1) {
-    // TODO Auto-generated method stub
-    return null;
+    return new ClientConnection();
   }
 
   @Override
   public void deleteContext(ServerContext arg0, TProtocol arg1, TProtocol arg2) {
-    serviceImpl.handleClientExit();
+    serviceImpl.handleClientExit((ClientConnection) arg0);
   }
 
   @Override
@@ -52,8 +51,7 @@ public class JDBCServiceEventHandler implements TServerEventHandler {
 
   @Override
   public void processContext(ServerContext arg0, TTransport arg1, TTransport arg2) {
-    // TODO Auto-generated method stub
-
+    serviceImpl.bindConnection((ClientConnection) arg0);
   }
 
 }
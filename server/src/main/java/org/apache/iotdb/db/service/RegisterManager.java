@@ -44,7 +44,10 @@ public class RegisterManager {
       }
     }
     iServices.add(service);
+    long startTime = System.currentTimeMillis();
     service.start();
+    logger.info("{} started in {} ms", service.getID().getName(),
+        System.currentTimeMillis() - startTime);
   }
 
   /**
@@ -40,6 +40,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.iotdb.db.auth.AuthException;
 import org.apache.iotdb.db.auth.AuthorityChecker;
 import org.apache.iotdb.db.auth.authorizer.IAuthorizer;
@@ -100,6 +102,7 @@ import org.apache.iotdb.service.rpc.thrift.TSHandleIdentifier;
 import org.apache.iotdb.service.rpc.thrift.TSIService;
 import org.apache.iotdb.service.rpc.thrift.TSInsertInBatchReq;
 import org.apache.iotdb.service.rpc.thrift.TSInsertReq;
+import org.apache.iotdb.service.rpc.thrift.TSMultiBatchInsertionReq;
 import org.apache.iotdb.service.rpc.thrift.TSInsertionReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionResp;
@@ -135,23 +138,15 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
   public static Vector<SqlArgument> sqlArgumentsList = new Vector<>();
 
   protected QueryProcessor processor;
-  // Record the username for every rpc connection. Username.get() is null if
-  // login is failed.
-  protected ThreadLocal<String> username = new ThreadLocal<>();
-
-  // The statementId is unique in one session for each statement.
-  private ThreadLocal<Long> statementIdGenerator = new ThreadLocal<>();
-  // The queryId is unique in one session for each operation.
-  private ThreadLocal<Long> queryIdGenerator = new ThreadLocal<>();
-  // (statement -> Set(queryId))
-  private ThreadLocal<Map<Long, Set<Long>>> statementId2QueryId = new ThreadLocal<>();
-  // (queryId -> PhysicalPlan)
-  private ThreadLocal<Map<Long, PhysicalPlan>> operationStatus = new ThreadLocal<>();
-  // (queryId -> QueryDataSet)
-  private ThreadLocal<Map<Long, QueryDataSet>> queryDataSets = new ThreadLocal<>();
-  private ThreadLocal<ZoneId> zoneIds = new ThreadLocal<>();
+  // (sessionId -> ClientSession) of every logged-in rpc session
+  private final Map<Long, ClientSession> sessions = new ConcurrentHashMap<>();
+  private final AtomicLong sessionIdGenerator = new AtomicLong();
+  // The connection whose request the current thread is serving. The server event handler binds it
+  // before every request, so session state does not depend on which worker thread serves the
+  // request. A thread that was never bound behaves as its own connection.
+  private ThreadLocal<ClientConnection> currentConnection =
+      ThreadLocal.withInitial(ClientConnection::new);
   private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
-  private ThreadLocal<Map<Long, QueryContext>> contextMapLocal = new ThreadLocal<>();
 
   public TSServiceImpl() {
     processor = new QueryProcessor(new QueryProcessExecutor());
@@ -216,11 +211,15 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       status = false;
     }
     TSStatus tsStatus;
+    long sessionId = -1L;
     if (status) {
       tsStatus = new TSStatus(getStatus(TSStatusCode.SUCCESS_STATUS, "Login successfully"));
-      username.set(req.getUsername());
-      zoneIds.set(config.getZoneID());
-      initForOneSession();
+      // a connection that logs in again drops its previous session
+      closeSession(currentConnection.get());
+      sessionId = sessionIdGenerator.incrementAndGet();
+      ClientSession session = new ClientSession(sessionId, req.getUsername(), config.getZoneID());
+      sessions.put(sessionId, session);
+      currentConnection.get().setSession(session);
     } else {
       tsStatus = getStatus(TSStatusCode.WRONG_LOGIN_PASSWORD_ERROR);
     }
@@ -228,70 +227,64 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
         TSProtocolVersion.IOTDB_SERVICE_PROTOCOL_V1);
     resp.setSessionHandle(
         new TS_SessionHandle(new TSHandleIdentifier(ByteBuffer.wrap(req.getUsername().getBytes()),
-            ByteBuffer.wrap(req.getPassword().getBytes()), -1L)));
+            ByteBuffer.wrap(req.getPassword().getBytes()), sessionId)));
     logger.info("{}: Login status: {}. User : {}", IoTDBConstant.GLOBAL_DB_NAME,
         tsStatus.getStatusType().getMessage(), req.getUsername());
 
     return resp;
   }
 
-  private void initForOneSession() {
-    operationStatus.set(new HashMap<>());
-    queryDataSets.set(new HashMap<>());
-    queryIdGenerator.set(0L);
-    statementIdGenerator.set(0L);
-    contextMapLocal.set(new HashMap<>());
-    statementId2QueryId.set(new HashMap<>());
-  }
-
   @Override
   public TSStatus closeSession(TSCloseSessionReq req) {
     logger.info("{}: receive close session", IoTDBConstant.GLOBAL_DB_NAME);
-    TSStatus tsStatus;
-    if (username.get() == null) {
-      tsStatus = getStatus(TSStatusCode.NOT_LOGIN_ERROR);
-    } else {
-      tsStatus = new TSStatus(getStatus(TSStatusCode.SUCCESS_STATUS));
-      username.remove();
-    }
-    if (zoneIds.get() != null) {
-      zoneIds.remove();
-    }
-    // clear the statementId counter
-    if (statementIdGenerator.get() != null) {
-      statementIdGenerator.remove();
-    }
-    // clear the queryId counter
-    if (queryIdGenerator.get() != null) {
-      queryIdGenerator.remove();
-    }
-    // clear all cached physical plans of the connection
-    if (operationStatus.get() != null) {
-      operationStatus.remove();
-    }
-    // clear all cached ResultSets of the connection
-    if (queryDataSets.get() != null) {
-      queryDataSets.remove();
+    return closeSession(currentConnection.get());
+  }
+
+  private TSStatus closeSession(ClientConnection connection) {
+    ClientSession session = connection.getSession();
+    if (session == null) {
+      return new TSStatus(getStatus(TSStatusCode.NOT_LOGIN_ERROR));
     }
-    // clear all cached query context of the connection
-    if (contextMapLocal.get() != null) {
-      try {
-        for (QueryContext context : contextMapLocal.get().values()) {
-          QueryResourceManager.getInstance().endQueryForGivenJob(context.getJobId());
-        }
-        contextMapLocal.remove();
-      } catch (StorageEngineException e) {
-        logger.error("Error in closeSession : ", e);
-        return new TSStatus(
-            getStatus(TSStatusCode.CLOSE_OPERATION_ERROR, "Error in closeOperation"));
+    connection.setSession(null);
+    sessions.remove(session.getSessionId());
+    // clear all cached query context of the session
+    try {
+      for (QueryContext context : session.getQueryContexts().values()) {
+        QueryResourceManager.getInstance().endQueryForGivenJob(context.getJobId());
       }
+    } catch (StorageEngineException e) {
+      logger.error("Error in closeSession : ", e);
+      return new TSStatus(
+          getStatus(TSStatusCode.CLOSE_OPERATION_ERROR, "Error in closeOperation"));
     }
-    // clear the statementId to queryId map
-    if (statementId2QueryId.get() != null) {
-      statementId2QueryId.remove();
-    }
+    return new TSStatus(getStatus(TSStatusCode.SUCCESS_STATUS));
+  }
 
-    return new TSStatus(tsStatus);
+  /**
+   * @return the session of the connection served by the current thread, or null if the
+   * connection has not logged in
+   */
+  private ClientSession currentSession() {
+    return currentConnection.get().getSession();
+  }
+
+  private String getUsername() {
+    ClientSession session = currentSession();
+    return session == null ? null : session.getUsername();
+  }
+
+  /**
+   * Bind the connection whose request is about to be processed to the current thread.
+   */
+  void bindConnection(ClientConnection connection) {
+    currentConnection.set(connection);
+  }
+
+  /**
+   * @return the number of logged-in sessions
+   */
+  public int getSessionNum() {
+    return sessions.size();
   }
 
   @Override
@@ -306,12 +299,12 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       // statement close
       if (req.isSetStmtId()) {
         long stmtId = req.getStmtId();
-        Set<Long> queryIdSet = statementId2QueryId.get().get(stmtId);
+        Set<Long> queryIdSet = currentSession().getStatementId2QueryId().get(stmtId);
         if (queryIdSet != null) {
           for (long queryId : queryIdSet) {
             releaseQueryResource(queryId);
           }
-          statementId2QueryId.get().remove(stmtId);
+          currentSession().getStatementId2QueryId().remove(stmtId);
         }
       }
       // ResultSet close
@@ -330,19 +323,18 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
    * release single operation resource
    */
   private void releaseQueryResource(long queryId) throws StorageEngineException {
-
-    // remove the corresponding Physical Plan
-    if (operationStatus.get() != null) {
-      operationStatus.get().remove(queryId);
+    ClientSession session = currentSession();
+    if (session == null) {
+      return;
     }
+    // remove the corresponding Physical Plan
+    session.getOperationStatus().remove(queryId);
     // remove the corresponding Dataset
-    if (queryDataSets.get() != null) {
-      queryDataSets.get().remove(queryId);
-    }
+    session.getQueryDataSets().remove(queryId);
     // remove the corresponding query context and query resource
-    if (contextMapLocal.get() != null && contextMapLocal.get().containsKey(queryId)) {
-      QueryResourceManager.getInstance()
-          .endQueryForGivenJob(contextMapLocal.get().remove(queryId).getJobId());
+    QueryContext context = session.getQueryContexts().remove(queryId);
+    if (context != null) {
+      QueryResourceManager.getInstance().endQueryForGivenJob(context.getJobId());
     }
   }
 
@@ -494,7 +486,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
    * @return true if the statement is ADMIN COMMAND
    */
   private boolean execAdminCommand(String statement) throws StorageEngineException {
-    if (!"root".equals(username.get())) {
+    if (!"root".equals(getUsername())) {
       return false;
     }
     if (statement == null) {
@@ -554,7 +546,8 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
   private boolean executeStatementInBatch(String statement, StringBuilder batchErrorMessage,
       List<Integer> result) {
     try {
-      PhysicalPlan physicalPlan = processor.parseSQLToPhysicalPlan(statement, zoneIds.get());
+      PhysicalPlan physicalPlan = processor
+          .parseSQLToPhysicalPlan(statement, currentSession().getZoneId());
       if (physicalPlan.isQuery()) {
         throw new QueryInBatchStatementException(statement);
       }
@@ -607,7 +600,8 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       }
 
       PhysicalPlan physicalPlan;
-      physicalPlan = processor.parseSQLToPhysicalPlan(statement, zoneIds.get());
+      physicalPlan = processor
+          .parseSQLToPhysicalPlan(statement, currentSession().getZoneId());
       if (physicalPlan.isQuery()) {
         resp = executeQueryStatement(req.statementId, physicalPlan);
         long endTime = System.currentTimeMillis();
@@ -655,12 +649,12 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       // generate the queryId for the operation
       long queryId = generateQueryId();
       // put it into the corresponding Set
-      Set<Long> queryIdSet = statementId2QueryId.get()
+      Set<Long> queryIdSet = currentSession().getStatementId2QueryId()
           .computeIfAbsent(statementId, k -> new HashSet<>());
       queryIdSet.add(queryId);
 
       TSHandleIdentifier operationId = new TSHandleIdentifier(
-          ByteBuffer.wrap(username.get().getBytes()), ByteBuffer.wrap("PASS".getBytes()),
+          ByteBuffer.wrap(getUsername().getBytes()), ByteBuffer.wrap("PASS".getBytes()),
           queryId);
       TSOperationHandle operationHandle = new TSOperationHandle(operationId, true);
       resp.setOperationHandle(operationHandle);
@@ -686,7 +680,8 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     String statement = req.getStatement();
     PhysicalPlan physicalPlan;
     try {
-      physicalPlan = processor.parseSQLToPhysicalPlan(statement, zoneIds.get());
+      physicalPlan = processor
+          .parseSQLToPhysicalPlan(statement, currentSession().getZoneId());
     } catch (QueryProcessException | MetadataException e) {
       logger.info("meet error while parsing SQL to physical plan: {}", e.getMessage());
       return getTSExecuteStatementResp(getStatus(TSStatusCode.SQL_PARSE_ERROR, e.getMessage()));
@@ -911,16 +906,17 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       }
 
       long queryId = req.queryId;
-      if (!operationStatus.get().containsKey(queryId)) {
+      ClientSession session = currentSession();
+      if (!session.getOperationStatus().containsKey(queryId)) {
         return getTSFetchResultsResp(
             getStatus(TSStatusCode.EXECUTE_STATEMENT_ERROR, "Has not executed statement"));
       }
 
       QueryDataSet queryDataSet;
-      if (!queryDataSets.get().containsKey(queryId)) {
-        queryDataSet = createNewDataSet(queryId, req);
+      if (!session.getQueryDataSets().containsKey(queryId)) {
+        queryDataSet = createNewDataSet(session, queryId, req);
       } else {
-        queryDataSet = queryDataSets.get().get(queryId);
+        queryDataSet = session.getQueryDataSets().get(queryId);
       }
 
       int fetchSize = req.getFetch_size();
@@ -931,22 +927,24 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
         throw new TException(e);
       }
       TSQueryDataSet result;
-      if (config.isEnableWatermark() && authorizer.isUserUseWaterMark(username.get())) {
-        WatermarkEncoder encoder;
+      WatermarkEncoder encoder = null;
+      if (config.isEnableWatermark() && authorizer.isUserUseWaterMark(getUsername())) {
         if (config.getWatermarkMethodName().equals(IoTDBConfig.WATERMARK_GROUPED_LSB)) {
           encoder = new GroupedLSBWatermarkEncoder(config);
         } else {
           throw new UnSupportedDataTypeException(String.format(
               "Watermark method is not supported yet: %s", config.getWatermarkMethodName()));
         }
+      }
+      if (req.isColumnar()) {
+        result = QueryDataSetUtils.convertQueryDataSetToColumnar(queryDataSet, fetchSize, encoder);
+      } else {
         result = QueryDataSetUtils
             .convertQueryDataSetByFetchSize(queryDataSet, fetchSize, encoder);
-      } else {
-        result = QueryDataSetUtils.convertQueryDataSetByFetchSize(queryDataSet, fetchSize);
       }
       boolean hasResultSet = (result.getRowCount() != 0);
-      if (!hasResultSet && queryDataSets.get() != null) {
-        queryDataSets.get().remove(queryId);
+      if (!hasResultSet) {
+        session.getQueryDataSets().remove(queryId);
       }
 
       TSFetchResultsResp resp = getTSFetchResultsResp(getStatus(TSStatusCode.SUCCESS_STATUS,
@@ -960,30 +958,22 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     }
   }
 
-  private QueryDataSet createNewDataSet(long queryId, TSFetchResultsReq req)
+  private QueryDataSet createNewDataSet(ClientSession session, long queryId,
+      TSFetchResultsReq req)
       throws QueryProcessException, QueryFilterOptimizationException, StorageEngineException, IOException {
-    PhysicalPlan physicalPlan = operationStatus.get().get(queryId);
+    PhysicalPlan physicalPlan = session.getOperationStatus().get(queryId);
 
     QueryDataSet queryDataSet;
     QueryContext context = new QueryContext(QueryResourceManager.getInstance().assignJobId());
 
-    initContextMap();
-    contextMapLocal.get().put(req.queryId, context);
+    session.getQueryContexts().put(req.queryId, context);
 
     queryDataSet = processor.getExecutor().processQuery(physicalPlan, context);
 
-    queryDataSets.get().put(req.queryId, queryDataSet);
+    session.getQueryDataSets().put(req.queryId, queryDataSet);
     return queryDataSet;
   }
 
-  private void initContextMap() {
-    Map<Long, QueryContext> contextMap = contextMapLocal.get();
-    if (contextMap == null) {
-      contextMap = new HashMap<>();
-      contextMapLocal.set(contextMap);
-    }
-  }
-
   @Override
   public TSExecuteStatementResp executeUpdateStatement(TSExecuteStatementReq req) {
     try {
@@ -1010,7 +1000,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     TSExecuteStatementResp resp = getTSExecuteStatementResp(status);
     long queryId = generateQueryId();
     TSHandleIdentifier operationId = new TSHandleIdentifier(
-        ByteBuffer.wrap(username.get().getBytes()),
+        ByteBuffer.wrap(getUsername().getBytes()),
         ByteBuffer.wrap("PASS".getBytes()), queryId);
     TSOperationHandle operationHandle;
     operationHandle = new TSOperationHandle(operationId, false);
@@ -1030,7 +1020,8 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
 
     PhysicalPlan physicalPlan;
     try {
-      physicalPlan = processor.parseSQLToPhysicalPlan(statement, zoneIds.get());
+      physicalPlan = processor
+          .parseSQLToPhysicalPlan(statement, currentSession().getZoneId());
     } catch (QueryProcessException | MetadataException e) {
       logger.info("meet error while parsing SQL to physical plan: {}", e.getMessage());
       return getTSExecuteStatementResp(getStatus(TSStatusCode.SQL_PARSE_ERROR, e.getMessage()));
@@ -1045,7 +1036,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
   }
 
   private void recordANewQuery(long queryId, PhysicalPlan physicalPlan) {
-    operationStatus.get().put(queryId, physicalPlan);
+    currentSession().getOperationStatus().put(queryId, physicalPlan);
   }
 
   /**
@@ -1054,7 +1045,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
    * @return true: If logged in; false: If not logged in
    */
   private boolean checkLogin() {
-    return username.get() != null;
+    return currentSession() != null;
   }
 
   private boolean checkAuthorization(List<Path> paths, PhysicalPlan plan) throws AuthException {
@@ -1062,7 +1053,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     if (plan instanceof AuthorPlan) {
       targetUser = ((AuthorPlan) plan).getUserName();
     }
-    return AuthorityChecker.check(username.get(), paths, plan.getOperatorType(), targetUser);
+    return AuthorityChecker.check(getUsername(), paths, plan.getOperatorType(), targetUser);
   }
 
   private TSExecuteStatementResp getTSExecuteStatementResp(TSStatus status) {
@@ -1070,7 +1061,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     TSStatus tsStatus = new TSStatus(status);
     resp.setStatus(tsStatus);
     TSHandleIdentifier operationId = new TSHandleIdentifier(
-        ByteBuffer.wrap(username.get().getBytes()),
+        ByteBuffer.wrap(getUsername().getBytes()),
         ByteBuffer.wrap("PASS".getBytes()), generateQueryId());
     TSOperationHandle operationHandle = new TSOperationHandle(operationId, false);
     resp.setOperationHandle(operationHandle);
@@ -1093,8 +1084,8 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     return resp;
   }
 
-  void handleClientExit() {
-    closeSession(null);
+  void handleClientExit(ClientConnection connection) {
+    closeSession(connection);
   }
 
   @Override
@@ -1103,7 +1094,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     TSGetTimeZoneResp resp;
     try {
       tsStatus = new TSStatus(getStatus(TSStatusCode.SUCCESS_STATUS));
-      resp = new TSGetTimeZoneResp(tsStatus, zoneIds.get().toString());
+      resp = new TSGetTimeZoneResp(tsStatus, currentSession().getZoneId().toString());
     } catch (Exception e) {
       logger.error("meet error while generating time zone.", e);
       tsStatus = getStatus(TSStatusCode.GENERATE_TIME_ZONE_ERROR);
@@ -1117,7 +1108,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     TSStatus tsStatus;
     try {
       String timeZoneID = req.getTimeZone();
-      zoneIds.set(ZoneId.of(timeZoneID));
+      currentSession().setZoneId(ZoneId.of(timeZoneID));
       tsStatus = new TSStatus(getStatus(TSStatusCode.SUCCESS_STATUS));
     } catch (Exception e) {
       logger.error("meet error while setting time zone.", e);
@@ -1147,7 +1138,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     }
 
     long stmtId = req.getStmtId();
-    InsertPlan plan = (InsertPlan) operationStatus.get()
+    InsertPlan plan = (InsertPlan) currentSession().getOperationStatus()
         .computeIfAbsent(stmtId, k -> new InsertPlan());
 
     // the old parameter will be used if new parameter is not set
@@ -1293,6 +1284,62 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     }
   }
 
+  @Override
+  public TSExecuteBatchStatementResp insertMultiBatch(TSMultiBatchInsertionReq req) {
+    long t1 = System.currentTimeMillis();
+    try {
+      if (!checkLogin()) {
+        logger.info(INFO_NOT_LOGIN, IoTDBConstant.GLOBAL_DB_NAME);
+        return getTSBatchExecuteStatementResp(getStatus(TSStatusCode.NOT_LOGIN_ERROR), null);
+      }
+
+      List<BatchInsertPlan> batchInsertPlans = new ArrayList<>(req.deviceIds.size());
+      for (int i = 0; i < req.deviceIds.size(); i++) {
+        List<String> measurements = req.measurementsList.get(i);
+        int size = req.sizeList.get(i);
+        // the buffers of all devices are concatenated, so the plans keep the decoded columns only
+        BatchInsertPlan batchInsertPlan = new BatchInsertPlan(req.deviceIds.get(i), measurements);
+        batchInsertPlan.setTimes(QueryDataSetUtils.readTimesFromBuffer(req.timestamps, size));
+        batchInsertPlan.setColumns(QueryDataSetUtils
+            .readValuesFromBuffer(req.values, req.typesList.get(i), measurements.size(), size));
+        batchInsertPlan.setRowCount(size);
+        batchInsertPlan.setDataTypes(req.typesList.get(i));
+
+        TSStatus status = checkAuthority(batchInsertPlan);
+        if (status != null) {
+          return new TSExecuteBatchStatementResp(status);
+        }
+        batchInsertPlans.add(batchInsertPlan);
+      }
+
+      boolean isAllSuccessful = true;
+      List<Integer> results = new ArrayList<>();
+      for (Integer[] resultsOfPlan : processor.getExecutor().insertBatches(batchInsertPlans)) {
+        for (Integer result : resultsOfPlan) {
+          if (result != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
+            isAllSuccessful = false;
+          }
+          results.add(result);
+        }
+      }
+
+      if (isAllSuccessful) {
+        logger.debug("Insert RowBatches of {} devices successfully", req.deviceIds.size());
+        return getTSBatchExecuteStatementResp(getStatus(TSStatusCode.SUCCESS_STATUS), results);
+      } else {
+        logger.debug("Insert RowBatches of {} devices failed!", req.deviceIds.size());
+        return getTSBatchExecuteStatementResp(getStatus(TSStatusCode.INTERNAL_SERVER_ERROR),
+            results);
+      }
+    } catch (Exception e) {
+      logger.info("{}: error occurs when executing statements", IoTDBConstant.GLOBAL_DB_NAME, e);
+      return getTSBatchExecuteStatementResp(
+          getStatus(TSStatusCode.EXECUTE_STATEMENT_ERROR, e.getMessage()), null);
+    } finally {
+      Measurement.INSTANCE.addOperationLatency(Operation.EXECUTE_RPC_BATCH_INSERT, t1);
+    }
+  }
+
   @Override
   public TSStatus setStorageGroup(String storageGroup) {
     if (!checkLogin()) {
@@ -1362,9 +1409,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
 
   @Override
   public long requestStatementId() {
-    long statementId = statementIdGenerator.get();
-    statementIdGenerator.set(statementId + 1);
-    return statementId;
+    return currentSession().generateStatementId();
   }
 
   private TSStatus checkAuthority(PhysicalPlan plan) {
@@ -1394,9 +1439,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
   }
 
   private long generateQueryId() {
-    long queryId = queryIdGenerator.get();
-    queryIdGenerator.set(queryId + 1);
-    return queryId;
+    return currentSession().generateQueryId();
   }
 }
 
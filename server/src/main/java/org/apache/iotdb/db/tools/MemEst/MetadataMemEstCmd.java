@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.tools.MemEst;
+
+import io.airlift.airline.Command;
+import io.airlift.airline.Option;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.metadata.MetadataException;
+import org.apache.iotdb.db.exception.path.PathException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+
+@Command(name = "calmeta", description = "measure the heap used by metadata by creating the given number of storage groups, devices and measurements in memory")
+public class MetadataMemEstCmd implements Runnable {
+
+  @Option(title = "storage group number", name = {"-sg",
+      "--storagegroup"}, description = "Storage group number")
+  private String sgNumString = "10";
+
+  @Option(title = "device number", name = {"-d",
+      "--device"}, description = "Total device number, spread evenly among storage groups")
+  private String deviceNumString = "10000";
+
+  @Option(title = "measurement number", name = {"-m",
+      "--measurement"}, description = "Measurement number of each device")
+  private String measurementNumString = "100";
+
+  @Override
+  public void run() {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    boolean enableParameterAdapter = config.isEnableParameterAdapter();
+    // only the heap is of interest, do not let the write memory estimation reject timeseries
+    config.setEnableParameterAdapter(false);
+
+    int sgNum = Integer.parseInt(sgNumString);
+    int deviceNum = Integer.parseInt(deviceNumString);
+    int measurementNum = Integer.parseInt(measurementNumString);
+    long tsNum = (long) deviceNum * measurementNum;
+
+    MManager manager = MManager.getInstance();
+    manager.clear();
+    long before = usedMemory();
+    long start = System.currentTimeMillis();
+    try {
+      for (int sg = 0; sg < sgNum; sg++) {
+        manager.setStorageGroupToMTree("root.sg" + sg);
+      }
+      long created = 0;
+      for (int device = 0; device < deviceNum; device++) {
+        String devicePath = "root.sg" + (device % sgNum) + ".d" + device;
+        for (int measurement = 0; measurement < measurementNum; measurement++) {
+          manager.addPathToMTree(devicePath + ".s" + measurement, TSDataType.DOUBLE,
+              TSEncoding.GORILLA, CompressionType.SNAPPY, null);
+        }
+        created += measurementNum;
+        if (device % 100 == 0) {
+          System.out.print(String.format("Creating timeseries progress : %d%%\r",
+              created * 100 / tsNum));
+        }
+      }
+    } catch (MetadataException | PathException e) {
+      throw new IllegalStateException(e);
+    } finally {
+      config.setEnableParameterAdapter(enableParameterAdapter);
+    }
+    long elapsed = System.currentTimeMillis() - start;
+    long metadataMemory = usedMemory() - before;
+
+    System.out.println(String
+        .format("Memory for metadata: %dMB, SG: %d, devices: %d, TS: %d",
+            metadataMemory / IoTDBConstant.MB, sgNum, deviceNum, tsNum));
+    System.out.println(String.format("Memory for metadata per timeseries: %dB",
+        metadataMemory / tsNum));
+    System.out.println(String.format("Creating timeseries consumes: %dms", elapsed));
+    // keep the metadata reachable until the memory has been measured
+    manager.clear();
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    long used = Long.MAX_VALUE;
+    // a single gc may not collect everything, take the smallest value of a few rounds
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+      used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+    }
+    return used;
+  }
+}
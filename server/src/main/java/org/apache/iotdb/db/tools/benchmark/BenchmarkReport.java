@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.tools.benchmark;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.conf.directories.DirectoryManager;
+import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
+
+/**
+ * Per-phase throughput, latency and GC figures plus on-disk file statistics of an {@link
+ * EngineBenchmark} run.
+ */
+public class BenchmarkReport {
+
+  private final BenchmarkScenario scenario;
+  private final List<PhaseResult> phases = new ArrayList<>();
+  private final List<FileStatistics> fileStatistics = new ArrayList<>();
+
+  BenchmarkReport(BenchmarkScenario scenario) {
+    this.scenario = scenario;
+  }
+
+  /**
+   * Start timing a phase. The GC counters are sampled now and again in {@link
+   * PhaseResult#finish}, so the reported GC time only covers this phase.
+   */
+  PhaseResult startPhase(String name) {
+    PhaseResult phase = new PhaseResult(name);
+    phases.add(phase);
+    return phase;
+  }
+
+  /**
+   * Record the number and size of the sequence and unsequence TsFiles of the given storage
+   * groups as they are right now.
+   */
+  void snapshotFiles(String label, List<String> storageGroups) {
+    FileStatistics statistics = new FileStatistics(label);
+    DirectoryManager directoryManager = DirectoryManager.getInstance();
+    for (String storageGroup : storageGroups) {
+      for (String folder : directoryManager.getAllSequenceFileFolders()) {
+        statistics.seqFileNumber += countTsFiles(new File(folder, storageGroup), statistics);
+      }
+      for (String folder : directoryManager.getAllUnSequenceFileFolders()) {
+        statistics.unseqFileNumber += countTsFiles(new File(folder, storageGroup), statistics);
+      }
+    }
+    fileStatistics.add(statistics);
+  }
+
+  private static int countTsFiles(File storageGroupFolder, FileStatistics statistics) {
+    File[] files = storageGroupFolder
+        .listFiles((dir, name) -> name.endsWith(TsFileConstant.TSFILE_SUFFIX));
+    if (files == null) {
+      return 0;
+    }
+    for (File file : files) {
+      statistics.totalBytes += file.length();
+    }
+    return files.length;
+  }
+
+  public void print(PrintStream out) {
+    out.println(scenario);
+    out.println();
+    out.println(String.format("%-16s %10s %14s %12s %14s %10s %10s %10s %10s %10s %8s",
+        "phase", "ops", "points", "elapsed(s)", "points/s", "p50(us)", "p90(us)", "p99(us)",
+        "p999(us)", "max(us)", "gc(ms)"));
+    for (PhaseResult phase : phases) {
+      LatencyRecorder latencies = phase.latencies;
+      out.println(String.format("%-16s %10d %14d %12.3f %14.1f %10d %10d %10d %10d %10d %8d",
+          phase.name, latencies.getCount(), phase.points, phase.elapsedNanos / 1e9,
+          phase.getPointThroughput(), toMicros(latencies.getPercentile(0.5)),
+          toMicros(latencies.getPercentile(0.9)), toMicros(latencies.getPercentile(0.99)),
+          toMicros(latencies.getPercentile(0.999)), toMicros(latencies.getMax()),
+          phase.gcMillis));
+    }
+    out.println();
+    out.println(String.format("%-16s %10s %10s %16s %14s", "files", "seq", "unseq", "bytes",
+        "bytes/point"));
+    for (FileStatistics statistics : fileStatistics) {
+      out.println(String.format("%-16s %10d %10d %16d %14.3f", statistics.label,
+          statistics.seqFileNumber, statistics.unseqFileNumber, statistics.totalBytes,
+          (double) statistics.totalBytes / scenario.getTotalPoints()));
+    }
+  }
+
+  private static long toMicros(long nanos) {
+    return nanos / 1000;
+  }
+
+  private static long totalGcMillis() {
+    long total = 0;
+    for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      // -1 means the collector does not report its time
+      total += Math.max(0, bean.getCollectionTime());
+    }
+    return total;
+  }
+
+  static class PhaseResult {
+
+    private final String name;
+    private final LatencyRecorder latencies = new LatencyRecorder();
+    private final long startNanos;
+    private final long startGcMillis;
+    private long elapsedNanos;
+    private long gcMillis;
+    private long points;
+
+    private PhaseResult(String name) {
+      this.name = name;
+      this.startGcMillis = totalGcMillis();
+      this.startNanos = System.nanoTime();
+    }
+
+    LatencyRecorder getLatencies() {
+      return latencies;
+    }
+
+    void finish(long points) {
+      this.elapsedNanos = System.nanoTime() - startNanos;
+      this.gcMillis = totalGcMillis() - startGcMillis;
+      this.points = points;
+    }
+
+    private double getPointThroughput() {
+      return elapsedNanos == 0 ? 0 : points * 1e9 / elapsedNanos;
+    }
+  }
+
+  private static class FileStatistics {
+
+    private final String label;
+    private int seqFileNumber;
+    private int unseqFileNumber;
+    private long totalBytes;
+
+    private FileStatistics(String label) {
+      this.label = label;
+    }
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.tools.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Properties;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+
+/**
+ * The workload run by {@link EngineBenchmark}, loaded from a scenario properties file. Every key
+ * is optional; see tools/benchmark/default.properties for the meaning of each one.
+ */
+public class BenchmarkScenario {
+
+  private String name = "default";
+  private int storageGroupNumber = 1;
+  private int deviceNumber = 10;
+  private int sensorNumber = 10;
+  private TSDataType dataType = TSDataType.DOUBLE;
+  private TSEncoding encoding = TSEncoding.GORILLA;
+  private CompressionType compressor = CompressionType.SNAPPY;
+
+  private int pointsPerDevice = 100_000;
+  private int batchSize = 100;
+  private long startTime = 0;
+  private long timeInterval = 1000;
+  private double outOfOrderRatio = 0;
+  private int clientNumber = 1;
+  private int flushEveryRows = 0;
+  private boolean fullMerge = false;
+
+  private int queryNumber = 100;
+  private int querySensorNumber = 1;
+  private long queryRange = 3_600_000;
+  private long groupByUnit = 60_000;
+
+  private boolean cleanUp = true;
+  private long seed = 1L;
+
+  public static BenchmarkScenario load(String filePath) throws IOException {
+    Properties properties = new Properties();
+    try (InputStream inputStream = Files.newInputStream(Paths.get(filePath))) {
+      properties.load(inputStream);
+    }
+    BenchmarkScenario scenario = new BenchmarkScenario();
+    String fileName = Paths.get(filePath).getFileName().toString();
+    scenario.name = properties.getProperty("name",
+        fileName.endsWith(".properties") ? fileName.substring(0, fileName.lastIndexOf('.'))
+            : fileName);
+    scenario.load(properties);
+    return scenario;
+  }
+
+  private void load(Properties properties) {
+    storageGroupNumber = getInt(properties, "storage_group_number", storageGroupNumber);
+    deviceNumber = getInt(properties, "device_number", deviceNumber);
+    sensorNumber = getInt(properties, "sensor_number", sensorNumber);
+    dataType = TSDataType.valueOf(
+        properties.getProperty("data_type", dataType.name()).trim().toUpperCase());
+    encoding = TSEncoding.valueOf(
+        properties.getProperty("encoding", encoding.name()).trim().toUpperCase());
+    compressor = CompressionType.valueOf(
+        properties.getProperty("compressor", compressor.name()).trim().toUpperCase());
+
+    pointsPerDevice = getInt(properties, "points_per_device", pointsPerDevice);
+    batchSize = getInt(properties, "batch_size", batchSize);
+    startTime = getLong(properties, "start_time", startTime);
+    timeInterval = getLong(properties, "time_interval", timeInterval);
+    outOfOrderRatio = Double.parseDouble(
+        properties.getProperty("out_of_order_ratio", Double.toString(outOfOrderRatio)).trim());
+    clientNumber = getInt(properties, "client_number", clientNumber);
+    flushEveryRows = getInt(properties, "flush_every_rows", flushEveryRows);
+    fullMerge = Boolean.parseBoolean(
+        properties.getProperty("full_merge", Boolean.toString(fullMerge)).trim());
+
+    queryNumber = getInt(properties, "query_number", queryNumber);
+    querySensorNumber = getInt(properties, "query_sensor_number", querySensorNumber);
+    queryRange = getLong(properties, "query_range", queryRange);
+    groupByUnit = getLong(properties, "group_by_unit", groupByUnit);
+
+    cleanUp = Boolean.parseBoolean(
+        properties.getProperty("clean_up", Boolean.toString(cleanUp)).trim());
+    seed = getLong(properties, "seed", seed);
+
+    check();
+  }
+
+  private void check() {
+    if (storageGroupNumber <= 0 || deviceNumber <= 0 || sensorNumber <= 0) {
+      throw new IllegalArgumentException(
+          "storage_group_number, device_number and sensor_number must be positive");
+    }
+    if (dataType != TSDataType.INT32 && dataType != TSDataType.INT64
+        && dataType != TSDataType.FLOAT && dataType != TSDataType.DOUBLE) {
+      throw new IllegalArgumentException("data_type must be INT32, INT64, FLOAT or DOUBLE");
+    }
+    if (pointsPerDevice <= 0 || batchSize <= 0 || timeInterval <= 0 || clientNumber <= 0) {
+      throw new IllegalArgumentException(
+          "points_per_device, batch_size, time_interval and client_number must be positive");
+    }
+    if (outOfOrderRatio < 0 || outOfOrderRatio > 1) {
+      throw new IllegalArgumentException("out_of_order_ratio must be in [0, 1]");
+    }
+    if (querySensorNumber <= 0 || querySensorNumber > sensorNumber || queryRange <= 0
+        || groupByUnit <= 0) {
+      throw new IllegalArgumentException(
+          "query_sensor_number must be in [1, sensor_number], query_range and group_by_unit "
+              + "must be positive");
+    }
+  }
+
+  private static int getInt(Properties properties, String key, int defaultValue) {
+    return Integer.parseInt(properties.getProperty(key, Integer.toString(defaultValue)).trim());
+  }
+
+  private static long getLong(Properties properties, String key, long defaultValue) {
+    return Long.parseLong(properties.getProperty(key, Long.toString(defaultValue)).trim());
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getStorageGroupNumber() {
+    return storageGroupNumber;
+  }
+
+  public int getDeviceNumber() {
+    return deviceNumber;
+  }
+
+  public int getSensorNumber() {
+    return sensorNumber;
+  }
+
+  public TSDataType getDataType() {
+    return dataType;
+  }
+
+  public TSEncoding getEncoding() {
+    return encoding;
+  }
+
+  public CompressionType getCompressor() {
+    return compressor;
+  }
+
+  public int getPointsPerDevice() {
+    return pointsPerDevice;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public long getTimeInterval() {
+    return timeInterval;
+  }
+
+  public long getEndTime() {
+    return startTime + (pointsPerDevice - 1) * timeInterval;
+  }
+
+  public double getOutOfOrderRatio() {
+    return outOfOrderRatio;
+  }
+
+  public int getClientNumber() {
+    return clientNumber;
+  }
+
+  public int getFlushEveryRows() {
+    return flushEveryRows;
+  }
+
+  public boolean isFullMerge() {
+    return fullMerge;
+  }
+
+  public int getQueryNumber() {
+    return queryNumber;
+  }
+
+  public int getQuerySensorNumber() {
+    return querySensorNumber;
+  }
+
+  public long getQueryRange() {
+    return queryRange;
+  }
+
+  public long getGroupByUnit() {
+    return groupByUnit;
+  }
+
+  public boolean isCleanUp() {
+    return cleanUp;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public long getTotalPoints() {
+    return (long) deviceNumber * sensorNumber * pointsPerDevice;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("scenario %s: %d storage groups, %d devices x %d sensors of %s/%s/%s, "
+            + "%d points per device, batch size %d, out-of-order ratio %.2f, %d clients",
+        name, storageGroupNumber, deviceNumber, sensorNumber, dataType, encoding, compressor,
+        pointsPerDevice, batchSize, outOfOrderRatio, clientNumber);
+  }
+}
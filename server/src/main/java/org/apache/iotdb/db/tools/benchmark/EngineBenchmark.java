@@ -0,0 +1,503 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.tools.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.adapter.IoTDBConfigDynamicAdapter;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.flush.FlushManager;
+import org.apache.iotdb.db.engine.merge.manage.MergeManager;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.qp.constant.SQLConstant;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.executor.EngineQueryRouter;
+import org.apache.iotdb.db.query.fill.IFill;
+import org.apache.iotdb.db.query.fill.PreviousFill;
+import org.apache.iotdb.db.rescon.TVListAllocator;
+import org.apache.iotdb.db.service.RegisterManager;
+import org.apache.iotdb.db.tools.benchmark.BenchmarkReport.PhaseResult;
+import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.expression.IExpression;
+import org.apache.iotdb.tsfile.read.expression.QueryExpression;
+import org.apache.iotdb.tsfile.read.expression.impl.BinaryExpression;
+import org.apache.iotdb.tsfile.read.expression.impl.GlobalTimeExpression;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.utils.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An in-process benchmark of the storage engine. It starts the services a write needs (without
+ * the RPC layer), inserts the workload of a {@link BenchmarkScenario} through {@link
+ * StorageEngine#insert} or {@link StorageEngine#insertBatch}, forces a flush and a merge, runs
+ * raw, aggregation, fill and group-by queries through {@link EngineQueryRouter} and prints a
+ * {@link BenchmarkReport}.
+ *
+ * <p>Data is written to the directories configured in iotdb-engine.properties, under the storage
+ * groups root.benchmark.sg*, which are deleted before and (unless clean_up is false) after the
+ * run. Do not point it at the data directories of a running server.
+ */
+public class EngineBenchmark {
+
+  private static final Logger logger = LoggerFactory.getLogger(EngineBenchmark.class);
+
+  private static final String STORAGE_GROUP_PREFIX =
+      IoTDBConstant.PATH_ROOT + IoTDBConstant.PATH_SEPARATOR + "benchmark";
+
+  private final BenchmarkScenario scenario;
+  private final BenchmarkReport report;
+  private final RegisterManager registerManager = new RegisterManager();
+  private final EngineQueryRouter queryRouter = new EngineQueryRouter();
+
+  private final List<String> storageGroups = new ArrayList<>();
+  private final List<String> devices = new ArrayList<>();
+  private final String[] sensors;
+
+  public EngineBenchmark(BenchmarkScenario scenario) {
+    this.scenario = scenario;
+    this.report = new BenchmarkReport(scenario);
+    this.sensors = new String[scenario.getSensorNumber()];
+    for (int i = 0; i < sensors.length; i++) {
+      sensors[i] = "s" + i;
+    }
+  }
+
+  public static void main(String[] args) {
+    if (args.length != 1) {
+      System.out.println("Usage: engine-benchmark <scenario.properties>");
+      System.exit(1);
+    }
+    int status = 0;
+    try {
+      BenchmarkScenario scenario = BenchmarkScenario.load(args[0]);
+      new EngineBenchmark(scenario).run().print(System.out);
+    } catch (Exception e) {
+      logger.error("Benchmark failed", e);
+      status = 2;
+    }
+    System.exit(status);
+  }
+
+  public BenchmarkReport run() throws Exception {
+    setUp();
+    try {
+      createSchema();
+      write();
+      flush();
+      merge();
+      query();
+    } finally {
+      tearDown();
+    }
+    return report;
+  }
+
+  private void setUp() throws StartupException {
+    MManager.getInstance().init();
+    IoTDBConfigDynamicAdapter.getInstance().setInitialized(true);
+    registerManager.register(StorageEngine.getInstance());
+    registerManager.register(MultiFileLogNodeManager.getInstance());
+    registerManager.register(TVListAllocator.getInstance());
+    registerManager.register(FlushManager.getInstance());
+    registerManager.register(MergeManager.getINSTANCE());
+  }
+
+  private void tearDown() {
+    if (scenario.isCleanUp()) {
+      try {
+        deleteStorageGroups(storageGroups);
+      } catch (Exception e) {
+        logger.warn("Cannot clean up benchmark storage groups {}", storageGroups, e);
+      }
+    }
+    registerManager.deregisterAll();
+  }
+
+  private void createSchema() throws Exception {
+    // remove what an aborted run may have left behind
+    List<String> leftovers = new ArrayList<>();
+    for (String storageGroup : MManager.getInstance().getAllStorageGroupNames()) {
+      if (storageGroup.startsWith(STORAGE_GROUP_PREFIX + IoTDBConstant.PATH_SEPARATOR)) {
+        leftovers.add(storageGroup);
+      }
+    }
+    deleteStorageGroups(leftovers);
+
+    MManager mManager = MManager.getInstance();
+    for (int i = 0; i < scenario.getStorageGroupNumber(); i++) {
+      String storageGroup = STORAGE_GROUP_PREFIX + IoTDBConstant.PATH_SEPARATOR + "sg" + i;
+      mManager.setStorageGroupToMTree(storageGroup);
+      storageGroups.add(storageGroup);
+    }
+    for (int i = 0; i < scenario.getDeviceNumber(); i++) {
+      String device = storageGroups.get(i % storageGroups.size()) + IoTDBConstant.PATH_SEPARATOR
+          + "d" + i;
+      devices.add(device);
+      for (String sensor : sensors) {
+        Path path = new Path(device, sensor);
+        if (mManager.addPathToMTree(path, scenario.getDataType(), scenario.getEncoding(),
+            scenario.getCompressor(), Collections.emptyMap())) {
+          StorageEngine.getInstance().addTimeSeries(path, scenario.getDataType(),
+              scenario.getEncoding(), scenario.getCompressor(), Collections.emptyMap());
+        }
+      }
+    }
+  }
+
+  private void deleteStorageGroups(List<String> storageGroupNames) throws Exception {
+    if (storageGroupNames.isEmpty()) {
+      return;
+    }
+    List<Path> paths = new ArrayList<>();
+    for (String storageGroup : storageGroupNames) {
+      paths.add(new Path(storageGroup));
+    }
+    MManager.getInstance().deleteStorageGroupsFromMTree(paths);
+    for (String storageGroup : storageGroupNames) {
+      StorageEngine.getInstance().deleteStorageGroup(storageGroup);
+    }
+  }
+
+  /**
+   * Each client owns the devices whose index modulo the client number equals its own index and
+   * writes them batch by batch in a round-robin, so all devices advance together as they would
+   * with real sensors.
+   */
+  private void write() throws Exception {
+    int clientNumber = Math.min(scenario.getClientNumber(), devices.size());
+    PhaseResult phase = report.startPhase(scenario.getBatchSize() == 1 ? "insert"
+        : "insertBatch");
+    AtomicLong writtenRows = new AtomicLong();
+    ExecutorService pool = Executors.newFixedThreadPool(clientNumber);
+    try {
+      List<Future<LatencyRecorder>> futures = new ArrayList<>();
+      for (int i = 0; i < clientNumber; i++) {
+        List<String> ownDevices = new ArrayList<>();
+        for (int j = i; j < devices.size(); j += clientNumber) {
+          ownDevices.add(devices.get(j));
+        }
+        long seed = scenario.getSeed() + i;
+        futures.add(pool.submit(() -> writeDevices(ownDevices, writtenRows, new Random(seed))));
+      }
+      for (Future<LatencyRecorder> future : futures) {
+        phase.getLatencies().merge(future.get());
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    phase.finish(writtenRows.get() * sensors.length);
+  }
+
+  private LatencyRecorder writeDevices(List<String> ownDevices, AtomicLong writtenRows,
+      Random random) throws Exception {
+    LatencyRecorder latencies = new LatencyRecorder();
+    long flushThreshold = (long) scenario.getFlushEveryRows() * devices.size();
+    int pointsPerDevice = scenario.getPointsPerDevice();
+    for (int row = 0; row < pointsPerDevice; row += scenario.getBatchSize()) {
+      int rowCount = Math.min(scenario.getBatchSize(), pointsPerDevice - row);
+      for (String device : ownDevices) {
+        long[] times = generateTimes(row, rowCount, random);
+        long start = System.nanoTime();
+        if (rowCount == 1 && scenario.getBatchSize() == 1) {
+          StorageEngine.getInstance().insert(createInsertPlan(device, times[0], random));
+        } else {
+          StorageEngine.getInstance().insertBatch(createBatchPlan(device, times, random));
+        }
+        latencies.record(System.nanoTime() - start);
+
+        long before = writtenRows.getAndAdd(rowCount);
+        if (flushThreshold > 0 && before / flushThreshold != (before + rowCount) / flushThreshold) {
+          StorageEngine.getInstance().syncCloseAllProcessor();
+        }
+      }
+    }
+    return latencies;
+  }
+
+  /**
+   * Rows are in time order except that, with probability out_of_order_ratio, a row goes back to
+   * a random earlier point in the series, which sends it to an unsequence file once the earlier
+   * data has been flushed.
+   */
+  private long[] generateTimes(int firstRow, int rowCount, Random random) {
+    long[] times = new long[rowCount];
+    for (int i = 0; i < rowCount; i++) {
+      int row = firstRow + i;
+      if (row > 0 && random.nextDouble() < scenario.getOutOfOrderRatio()) {
+        row = random.nextInt(row);
+      }
+      times[i] = scenario.getStartTime() + row * scenario.getTimeInterval();
+    }
+    return times;
+  }
+
+  private InsertPlan createInsertPlan(String device, long time, Random random) {
+    String[] values = new String[sensors.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = formatValue(generateValue(time, random));
+    }
+    InsertPlan plan = new InsertPlan(device, time, sensors, values);
+    TSDataType[] dataTypes = new TSDataType[sensors.length];
+    Arrays.fill(dataTypes, scenario.getDataType());
+    plan.setDataTypes(dataTypes);
+    return plan;
+  }
+
+  private String formatValue(double value) {
+    switch (scenario.getDataType()) {
+      case INT32:
+        return String.valueOf((int) value);
+      case INT64:
+        return String.valueOf((long) value);
+      case FLOAT:
+        return String.valueOf((float) value);
+      case DOUBLE:
+      default:
+        return String.valueOf(value);
+    }
+  }
+
+  private BatchInsertPlan createBatchPlan(String device, long[] times, Random random) {
+    List<Integer> dataTypes = new ArrayList<>(sensors.length);
+    Object[] columns = new Object[sensors.length];
+    for (int i = 0; i < sensors.length; i++) {
+      dataTypes.add(scenario.getDataType().ordinal());
+      columns[i] = generateColumn(times, random);
+    }
+    BatchInsertPlan plan = new BatchInsertPlan(device, sensors, dataTypes);
+    plan.setTimes(times);
+    plan.setColumns(columns);
+    plan.setRowCount(times.length);
+    return plan;
+  }
+
+  private Object generateColumn(long[] times, Random random) {
+    switch (scenario.getDataType()) {
+      case INT32:
+        int[] ints = new int[times.length];
+        for (int i = 0; i < times.length; i++) {
+          ints[i] = (int) generateValue(times[i], random);
+        }
+        return ints;
+      case INT64:
+        long[] longs = new long[times.length];
+        for (int i = 0; i < times.length; i++) {
+          longs[i] = (long) generateValue(times[i], random);
+        }
+        return longs;
+      case FLOAT:
+        float[] floats = new float[times.length];
+        for (int i = 0; i < times.length; i++) {
+          floats[i] = (float) generateValue(times[i], random);
+        }
+        return floats;
+      case DOUBLE:
+      default:
+        double[] doubles = new double[times.length];
+        for (int i = 0; i < times.length; i++) {
+          doubles[i] = generateValue(times[i], random);
+        }
+        return doubles;
+    }
+  }
+
+  /**
+   * A slowly varying signal with some noise, so that the encodings behave as they would on
+   * sensor data rather than on random numbers.
+   */
+  private double generateValue(long time, Random random) {
+    return 1000 * Math.sin(time / (1000.0 * scenario.getTimeInterval())) + random.nextGaussian();
+  }
+
+  private void flush() {
+    PhaseResult phase = report.startPhase("flush");
+    long start = System.nanoTime();
+    StorageEngine.getInstance().syncCloseAllProcessor();
+    phase.getLatencies().record(System.nanoTime() - start);
+    phase.finish(0);
+    report.snapshotFiles("after flush", storageGroups);
+  }
+
+  /**
+   * Submit a merge of every storage group and wait until all of them are done. A storage group
+   * without unsequence files has nothing to merge.
+   */
+  private void merge() throws StorageEngineException, InterruptedException {
+    PhaseResult phase = report.startPhase(scenario.isFullMerge() ? "fullMerge" : "merge");
+    long start = System.nanoTime();
+    StorageEngine.getInstance().mergeAll(scenario.isFullMerge());
+    for (String storageGroup : storageGroups) {
+      while (StorageEngine.getInstance().getProcessor(storageGroup).isMerging()) {
+        Thread.sleep(10);
+      }
+    }
+    phase.getLatencies().record(System.nanoTime() - start);
+    phase.finish(0);
+    report.snapshotFiles("after merge", storageGroups);
+  }
+
+  private void query() throws Exception {
+    Random random = new Random(scenario.getSeed());
+    List<String> aggregations = Arrays.asList(SQLConstant.COUNT, SQLConstant.AVG,
+        SQLConstant.MAX_VALUE);
+
+    PhaseResult raw = report.startPhase("rawQuery");
+    long points = 0;
+    for (int i = 0; i < scenario.getQueryNumber(); i++) {
+      long startTime = randomQueryStart(random);
+      List<Path> paths = randomPaths(random);
+      long jobId = QueryResourceManager.getInstance().assignJobId();
+      long start = System.nanoTime();
+      try {
+        QueryExpression expression = QueryExpression.create(paths,
+            timeRange(startTime, startTime + scenario.getQueryRange()));
+        points += consume(queryRouter.query(expression, new QueryContext(jobId)));
+      } finally {
+        QueryResourceManager.getInstance().endQueryForGivenJob(jobId);
+      }
+      raw.getLatencies().record(System.nanoTime() - start);
+    }
+    raw.finish(points);
+
+    PhaseResult aggregate = report.startPhase("aggregation");
+    points = 0;
+    for (int i = 0; i < scenario.getQueryNumber(); i++) {
+      long startTime = randomQueryStart(random);
+      List<Path> paths = repeatForAggregations(randomPaths(random), aggregations.size());
+      long jobId = QueryResourceManager.getInstance().assignJobId();
+      long start = System.nanoTime();
+      try {
+        points += consume(queryRouter.aggregate(paths, repeat(aggregations, paths.size()),
+            timeRange(startTime, startTime + scenario.getQueryRange()), new QueryContext(jobId)));
+      } finally {
+        QueryResourceManager.getInstance().endQueryForGivenJob(jobId);
+      }
+      aggregate.getLatencies().record(System.nanoTime() - start);
+    }
+    aggregate.finish(points);
+
+    PhaseResult fill = report.startPhase("fill");
+    points = 0;
+    for (int i = 0; i < scenario.getQueryNumber(); i++) {
+      long queryTime = randomQueryStart(random) + scenario.getQueryRange();
+      List<Path> paths = randomPaths(random);
+      Map<TSDataType, IFill> fillTypes = Collections.singletonMap(scenario.getDataType(),
+          new PreviousFill(scenario.getDataType(), queryTime, scenario.getQueryRange()));
+      long jobId = QueryResourceManager.getInstance().assignJobId();
+      long start = System.nanoTime();
+      try {
+        points += consume(queryRouter.fill(paths, queryTime, fillTypes, new QueryContext(jobId)));
+      } finally {
+        QueryResourceManager.getInstance().endQueryForGivenJob(jobId);
+      }
+      fill.getLatencies().record(System.nanoTime() - start);
+    }
+    fill.finish(points);
+
+    PhaseResult groupBy = report.startPhase("groupBy");
+    points = 0;
+    for (int i = 0; i < scenario.getQueryNumber(); i++) {
+      long startTime = randomQueryStart(random);
+      long endTime = startTime + scenario.getQueryRange();
+      List<Path> paths = repeatForAggregations(randomPaths(random), aggregations.size());
+      long jobId = QueryResourceManager.getInstance().assignJobId();
+      long start = System.nanoTime();
+      try {
+        points += consume(queryRouter.groupBy(paths, repeat(aggregations, paths.size()),
+            timeRange(startTime, endTime), scenario.getGroupByUnit(), startTime,
+            Collections.singletonList(new Pair<>(startTime, endTime)), new QueryContext(jobId)));
+      } finally {
+        QueryResourceManager.getInstance().endQueryForGivenJob(jobId);
+      }
+      groupBy.getLatencies().record(System.nanoTime() - start);
+    }
+    groupBy.finish(points);
+  }
+
+  private long randomQueryStart(Random random) {
+    long span = scenario.getEndTime() - scenario.getStartTime() - scenario.getQueryRange();
+    return scenario.getStartTime() + (span <= 0 ? 0 : (long) (random.nextDouble() * span));
+  }
+
+  /**
+   * @return query_sensor_number consecutive sensors of a random device
+   */
+  private List<Path> randomPaths(Random random) {
+    String device = devices.get(random.nextInt(devices.size()));
+    int firstSensor = random.nextInt(sensors.length - scenario.getQuerySensorNumber() + 1);
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < scenario.getQuerySensorNumber(); i++) {
+      paths.add(new Path(device, sensors[firstSensor + i]));
+    }
+    return paths;
+  }
+
+  private static List<Path> repeatForAggregations(List<Path> paths, int aggregationNumber) {
+    List<Path> repeated = new ArrayList<>();
+    for (Path path : paths) {
+      for (int i = 0; i < aggregationNumber; i++) {
+        repeated.add(path);
+      }
+    }
+    return repeated;
+  }
+
+  private static List<String> repeat(List<String> aggregations, int size) {
+    List<String> repeated = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      repeated.add(aggregations.get(i % aggregations.size()));
+    }
+    return repeated;
+  }
+
+  private static IExpression timeRange(long startTime, long endTime) {
+    return BinaryExpression.and(new GlobalTimeExpression(TimeFilter.gtEq(startTime)),
+        new GlobalTimeExpression(TimeFilter.ltEq(endTime)));
+  }
+
+  /**
+   * @return the number of values read
+   */
+  private static long consume(QueryDataSet dataSet) throws IOException {
+    long values = 0;
+    while (dataSet.hasNext()) {
+      values += dataSet.next().getFields().size();
+    }
+    return values;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.tools.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Collects operation latencies in nanoseconds and reports their percentiles. Not thread-safe:
+ * each client records into its own instance and the instances are merged afterwards.
+ */
+public class LatencyRecorder {
+
+  private long[] latencies = new long[1024];
+  private int size = 0;
+  private boolean sorted = true;
+
+  public void record(long latencyInNanos) {
+    if (size == latencies.length) {
+      latencies = Arrays.copyOf(latencies, size * 2);
+    }
+    latencies[size++] = latencyInNanos;
+    sorted = false;
+  }
+
+  public void merge(LatencyRecorder other) {
+    if (size + other.size > latencies.length) {
+      latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, size + other.size));
+    }
+    System.arraycopy(other.latencies, 0, latencies, size, other.size);
+    size += other.size;
+    sorted = false;
+  }
+
+  public int getCount() {
+    return size;
+  }
+
+  /**
+   * @param quantile in [0, 1]
+   * @return the latency at the given quantile in nanoseconds, or 0 if nothing was recorded
+   */
+  public long getPercentile(double quantile) {
+    if (size == 0) {
+      return 0;
+    }
+    if (!sorted) {
+      Arrays.sort(latencies, 0, size);
+      sorted = true;
+    }
+    int index = (int) Math.ceil(quantile * size) - 1;
+    return latencies[Math.max(0, Math.min(size - 1, index))];
+  }
+
+  public long getMax() {
+    return getPercentile(1.0);
+  }
+}
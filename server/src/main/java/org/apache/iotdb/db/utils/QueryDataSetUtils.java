@@ -22,8 +22,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.iotdb.db.tools.watermark.WatermarkEncoder;
+import org.apache.iotdb.rpc.ColumnarRecordReader;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -41,6 +43,37 @@ public class QueryDataSetUtils {
   private QueryDataSetUtils() {
   }
 
+  /**
+   * convert query data set by fetch size into the columnar format of ColumnarRecordReader, which
+   * uses a null bitmap per column instead of a boolean byte per cell and is written into one
+   * buffer of the exact size directly.
+   */
+  public static TSQueryDataSet convertQueryDataSetToColumnar(QueryDataSet queryDataSet,
+      int fetchSize, WatermarkEncoder watermarkEncoder) throws IOException {
+    int columnNum = queryDataSet.getDataTypes().size();
+    List<RowRecord> records = new ArrayList<>();
+    for (int i = 0; i < fetchSize && queryDataSet.hasNext(); i++) {
+      RowRecord rowRecord = queryDataSet.next();
+      if (watermarkEncoder != null) {
+        rowRecord = watermarkEncoder.encodeRecord(rowRecord);
+      }
+      records.add(rowRecord);
+    }
+
+    int size = ColumnarRecordReader.getSerializedSize(records, columnNum);
+    // the buffer is owned by the response, so no memory is pinned by the rpc thread after it is sent
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    ColumnarRecordReader.serialize(records, columnNum, buffer);
+    buffer.flip();
+
+    TSQueryDataSet tsQueryDataSet = new TSQueryDataSet();
+    // assign the field directly, the generated setter copies the buffer
+    tsQueryDataSet.values = buffer;
+    tsQueryDataSet.setRowCount(records.size());
+    tsQueryDataSet.setColumnar(true);
+    return tsQueryDataSet;
+  }
+
   /**
    * convert query data set by fetch size.
    *
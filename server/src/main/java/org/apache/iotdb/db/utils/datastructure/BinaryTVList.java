@@ -42,8 +42,8 @@ public class BinaryTVList extends TVList {
   @Override
   public void putBinary(long timestamp, Binary value) {
     checkExpansion();
-    int arrayIndex = size / ARRAY_SIZE;
-    int elementIndex = size % ARRAY_SIZE;
+    int arrayIndex = getArrayIndex(size);
+    int elementIndex = getElementIndex(size);
     minTime = minTime <= timestamp ? minTime : timestamp;
     timestamps.get(arrayIndex)[elementIndex] = timestamp;
     values.get(arrayIndex)[elementIndex] = value;
@@ -58,8 +58,8 @@ public class BinaryTVList extends TVList {
     if (index >= size) {
       throw new ArrayIndexOutOfBoundsException(index);
     }
-    int arrayIndex = index / ARRAY_SIZE;
-    int elementIndex = index % ARRAY_SIZE;
+    int arrayIndex = getArrayIndex(index);
+    int elementIndex = getElementIndex(index);
     return values.get(arrayIndex)[elementIndex];
   }
 
@@ -67,8 +67,8 @@ public class BinaryTVList extends TVList {
     if (index >= size) {
       throw new ArrayIndexOutOfBoundsException(index);
     }
-    int arrayIndex = index / ARRAY_SIZE;
-    int elementIndex = index % ARRAY_SIZE;
+    int arrayIndex = getArrayIndex(index);
+    int elementIndex = getElementIndex(index);
     timestamps.get(arrayIndex)[elementIndex] = timestamp;
     values.get(arrayIndex)[elementIndex] = value;
   }
@@ -155,7 +155,7 @@ public class BinaryTVList extends TVList {
   @Override
   protected void expandValues() {
     values.add((Binary[]) PrimitiveArrayPool
-        .getInstance().getPrimitiveDataListByType(TSDataType.TEXT));
+        .getInstance().getPrimitiveDataListByType(TSDataType.TEXT, getArraySize(values.size())));
   }
 
   @Override
@@ -184,9 +184,9 @@ public class BinaryTVList extends TVList {
 
     while (idx < length) {
       int inputRemaining = length - idx;
-      int arrayIdx = size / ARRAY_SIZE;
-      int elementIdx = size % ARRAY_SIZE;
-      int internalRemaining  = ARRAY_SIZE - elementIdx;
+      int arrayIdx = getArrayIndex(size);
+      int elementIdx = getElementIndex(size);
+      int internalRemaining  = getArraySize(arrayIdx) - elementIdx;
       if (internalRemaining >= inputRemaining) {
         // the remaining inputs can fit the last array, copy all remaining inputs into last array
         System.arraycopy(time, idx, timestamps.get(arrayIdx), elementIdx, inputRemaining);
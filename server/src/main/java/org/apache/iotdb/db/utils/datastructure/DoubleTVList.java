@@ -41,8 +41,8 @@ public class DoubleTVList extends TVList {
   @Override
   public void putDouble(long timestamp, double value) {
     checkExpansion();
-    int arrayIndex = size / ARRAY_SIZE;
-    int elementIndex = size % ARRAY_SIZE;
+    int arrayIndex = getArrayIndex(size);
+    int elementIndex = getElementIndex(size);
     minTime = minTime <= timestamp ? minTime : timestamp;
     timestamps.get(arrayIndex)[elementIndex] = timestamp;
     values.get(arrayIndex)[elementIndex] = value;
@@ -57,8 +57,8 @@ public class DoubleTVList extends TVList {
     if (index >= size) {
       throw new ArrayIndexOutOfBoundsException(index);
     }
-    int arrayIndex = index / ARRAY_SIZE;
-    int elementIndex = index % ARRAY_SIZE;
+    int arrayIndex = getArrayIndex(index);
+    int elementIndex = getElementIndex(index);
     return values.get(arrayIndex)[elementIndex];
   }
 
@@ -66,8 +66,8 @@ public class DoubleTVList extends TVList {
     if (index >= size) {
       throw new ArrayIndexOutOfBoundsException(index);
     }
-    int arrayIndex = index / ARRAY_SIZE;
-    int elementIndex = index % ARRAY_SIZE;
+    int arrayIndex = getArrayIndex(index);
+    int elementIndex = getElementIndex(index);
     timestamps.get(arrayIndex)[elementIndex] = timestamp;
     values.get(arrayIndex)[elementIndex] = value;
   }
@@ -154,7 +154,7 @@ public class DoubleTVList extends TVList {
   @Override
   protected void expandValues() {
     values.add((double[]) PrimitiveArrayPool
-        .getInstance().getPrimitiveDataListByType(TSDataType.DOUBLE));
+        .getInstance().getPrimitiveDataListByType(TSDataType.DOUBLE, getArraySize(values.size())));
   }
 
   @Override
@@ -183,9 +183,9 @@ public class DoubleTVList extends TVList {
 
     while (idx < length) {
       int inputRemaining = length - idx;
-      int arrayIdx = size / ARRAY_SIZE;
-      int elementIdx = size % ARRAY_SIZE;
-      int internalRemaining  = ARRAY_SIZE - elementIdx;
+      int arrayIdx = getArrayIndex(size);
+      int elementIdx = getElementIndex(size);
+      int internalRemaining  = getArraySize(arrayIdx) - elementIdx;
       if (internalRemaining >= inputRemaining) {
         // the remaining inputs can fit the last array, copy all remaining inputs into last array
         System.arraycopy(time, idx, timestamps.get(arrayIdx), elementIdx, inputRemaining);
@@ -0,0 +1,410 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.ARRAY_SIZE;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.apache.iotdb.db.rescon.OffHeapSlabPool;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+/**
+ * A TVList whose timestamps and values live in direct memory blocks of an OffHeapSlabPool
+ * instead of pooled primitive arrays, so that a memtable with many series only keeps one int[]
+ * of block handles per series on heap. Values of all numeric types are stored by their raw bits.
+ * TEXT is not supported because Binary values are heap objects anyway.
+ */
+public class OffHeapTVList extends TVList {
+
+  private final TSDataType dataType;
+
+  private final OffHeapSlabPool pool;
+
+  private int[] blocks = new int[1];
+  private int blockNum;
+
+  private int[] sortedBlocks;
+
+  private long pivotValue;
+
+  OffHeapTVList(TSDataType dataType) {
+    super();
+    this.dataType = dataType;
+    this.pool = OffHeapSlabPool.getInstance(getValueSize(dataType));
+  }
+
+  static boolean isSupported(TSDataType dataType) {
+    return dataType != TSDataType.TEXT;
+  }
+
+  private static int getValueSize(TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+        return Byte.BYTES;
+      case INT32:
+      case FLOAT:
+        return Integer.BYTES;
+      case INT64:
+      case DOUBLE:
+        return Long.BYTES;
+      default:
+        throw new UnSupportedDataTypeException("Off-heap TVList does not support " + dataType);
+    }
+  }
+
+  public TSDataType getDataType() {
+    return dataType;
+  }
+
+  @Override
+  public long getTime(int index) {
+    if (index >= size) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    int block = blocks[index / ARRAY_SIZE];
+    return pool.getSlab(block).getLong(pool.getTimeOffset(block, index % ARRAY_SIZE));
+  }
+
+  private long getValueBits(int index) {
+    if (index >= size) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    return readValueBits(blocks, index);
+  }
+
+  private long readValueBits(int[] blockArray, int index) {
+    int block = blockArray[index / ARRAY_SIZE];
+    ByteBuffer slab = pool.getSlab(block);
+    int offset = pool.getValueOffset(block, index % ARRAY_SIZE);
+    switch (pool.getValueSize()) {
+      case Byte.BYTES:
+        return slab.get(offset);
+      case Integer.BYTES:
+        return slab.getInt(offset);
+      default:
+        return slab.getLong(offset);
+    }
+  }
+
+  private void write(int[] blockArray, int index, long time, long valueBits) {
+    int block = blockArray[index / ARRAY_SIZE];
+    ByteBuffer slab = pool.getSlab(block);
+    int elementIndex = index % ARRAY_SIZE;
+    slab.putLong(pool.getTimeOffset(block, elementIndex), time);
+    int offset = pool.getValueOffset(block, elementIndex);
+    switch (pool.getValueSize()) {
+      case Byte.BYTES:
+        slab.put(offset, (byte) valueBits);
+        break;
+      case Integer.BYTES:
+        slab.putInt(offset, (int) valueBits);
+        break;
+      default:
+        slab.putLong(offset, valueBits);
+        break;
+    }
+  }
+
+  private void checkType(TSDataType expected) {
+    if (dataType != expected) {
+      throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+    }
+  }
+
+  private void put(long time, long valueBits) {
+    checkExpansion();
+    minTime = minTime <= time ? minTime : time;
+    write(blocks, size, time, valueBits);
+    size++;
+    if (sorted && size > 1 && time < getTime(size - 2)) {
+      sorted = false;
+    }
+  }
+
+  /**
+   * append without maintaining minTime and sorted, which are updated by
+   * updateMinTimeAndSorted() for the whole batch beforehand.
+   */
+  private void append(long time, long valueBits) {
+    checkExpansion();
+    write(blocks, size, time, valueBits);
+    size++;
+  }
+
+  @Override
+  public void putLong(long time, long value) {
+    checkType(TSDataType.INT64);
+    put(time, value);
+  }
+
+  @Override
+  public void putInt(long time, int value) {
+    checkType(TSDataType.INT32);
+    put(time, value);
+  }
+
+  @Override
+  public void putFloat(long time, float value) {
+    checkType(TSDataType.FLOAT);
+    put(time, Float.floatToRawIntBits(value));
+  }
+
+  @Override
+  public void putDouble(long time, double value) {
+    checkType(TSDataType.DOUBLE);
+    put(time, Double.doubleToRawLongBits(value));
+  }
+
+  @Override
+  public void putBoolean(long time, boolean value) {
+    checkType(TSDataType.BOOLEAN);
+    put(time, value ? 1 : 0);
+  }
+
+  @Override
+  public void putLongs(long[] time, long[] value) {
+    checkType(TSDataType.INT64);
+    updateMinTimeAndSorted(time);
+    for (int i = 0; i < time.length; i++) {
+      append(time[i], value[i]);
+    }
+  }
+
+  @Override
+  public void putInts(long[] time, int[] value) {
+    checkType(TSDataType.INT32);
+    updateMinTimeAndSorted(time);
+    for (int i = 0; i < time.length; i++) {
+      append(time[i], value[i]);
+    }
+  }
+
+  @Override
+  public void putFloats(long[] time, float[] value) {
+    checkType(TSDataType.FLOAT);
+    updateMinTimeAndSorted(time);
+    for (int i = 0; i < time.length; i++) {
+      append(time[i], Float.floatToRawIntBits(value[i]));
+    }
+  }
+
+  @Override
+  public void putDoubles(long[] time, double[] value) {
+    checkType(TSDataType.DOUBLE);
+    updateMinTimeAndSorted(time);
+    for (int i = 0; i < time.length; i++) {
+      append(time[i], Double.doubleToRawLongBits(value[i]));
+    }
+  }
+
+  @Override
+  public void putBooleans(long[] time, boolean[] value) {
+    checkType(TSDataType.BOOLEAN);
+    updateMinTimeAndSorted(time);
+    for (int i = 0; i < time.length; i++) {
+      append(time[i], value[i] ? 1 : 0);
+    }
+  }
+
+  @Override
+  public long getLong(int index) {
+    checkType(TSDataType.INT64);
+    return getValueBits(index);
+  }
+
+  @Override
+  public int getInt(int index) {
+    checkType(TSDataType.INT32);
+    return (int) getValueBits(index);
+  }
+
+  @Override
+  public float getFloat(int index) {
+    checkType(TSDataType.FLOAT);
+    return Float.intBitsToFloat((int) getValueBits(index));
+  }
+
+  @Override
+  public double getDouble(int index) {
+    checkType(TSDataType.DOUBLE);
+    return Double.longBitsToDouble(getValueBits(index));
+  }
+
+  @Override
+  public boolean getBoolean(int index) {
+    checkType(TSDataType.BOOLEAN);
+    return getValueBits(index) != 0;
+  }
+
+  @Override
+  public void sort() {
+    if (!sorted) {
+      int arrayNumber = (size + ARRAY_SIZE - 1) / ARRAY_SIZE;
+      sortedBlocks = new int[arrayNumber];
+      for (int i = 0; i < arrayNumber; i++) {
+        sortedBlocks[i] = pool.allocate();
+      }
+      sort(0, size);
+      clearSortedValue();
+    }
+    sorted = true;
+  }
+
+  @Override
+  protected void set(int src, int dest) {
+    write(blocks, dest, getTime(src), getValueBits(src));
+  }
+
+  @Override
+  protected void setFromSorted(int src, int dest) {
+    int block = sortedBlocks[src / ARRAY_SIZE];
+    long time = pool.getSlab(block).getLong(pool.getTimeOffset(block, src % ARRAY_SIZE));
+    write(blocks, dest, time, readValueBits(sortedBlocks, src));
+  }
+
+  @Override
+  protected void setToSorted(int src, int dest) {
+    write(sortedBlocks, dest, getTime(src), getValueBits(src));
+  }
+
+  @Override
+  protected void reverseRange(int lo, int hi) {
+    hi--;
+    while (lo < hi) {
+      long loT = getTime(lo);
+      long loV = getValueBits(lo);
+      long hiT = getTime(hi);
+      long hiV = getValueBits(hi);
+      write(blocks, lo++, hiT, hiV);
+      write(blocks, hi--, loT, loV);
+    }
+  }
+
+  @Override
+  protected void saveAsPivot(int pos) {
+    pivotTime = getTime(pos);
+    pivotValue = getValueBits(pos);
+  }
+
+  @Override
+  protected void setPivotTo(int pos) {
+    write(blocks, pos, pivotTime, pivotValue);
+  }
+
+  @Override
+  protected void checkExpansion() {
+    if ((size % ARRAY_SIZE) == 0) {
+      expandValues();
+    }
+  }
+
+  @Override
+  public int getCapacity() {
+    return blockNum * ARRAY_SIZE;
+  }
+
+  @Override
+  protected void expandValues() {
+    if (blockNum == blocks.length) {
+      blocks = Arrays.copyOf(blocks, blocks.length * 2);
+    }
+    blocks[blockNum++] = pool.allocate();
+  }
+
+  @Override
+  protected void releaseLastValueArray() {
+    pool.release(blocks[--blockNum]);
+  }
+
+  @Override
+  protected void releaseLastTimeArray() {
+    // timestamps share the block with values
+  }
+
+  @Override
+  public void delete(long upperBound) {
+    int newSize = 0;
+    minTime = Long.MAX_VALUE;
+    for (int i = 0; i < size; i++) {
+      long time = getTime(i);
+      if (time > upperBound) {
+        set(i, newSize++);
+        minTime = time < minTime ? time : minTime;
+      }
+    }
+    size = newSize;
+    // release blocks that are empty
+    int newBlockNum = (newSize + ARRAY_SIZE - 1) / ARRAY_SIZE;
+    while (blockNum > newBlockNum) {
+      releaseLastValueArray();
+    }
+  }
+
+  /**
+   * The clone is an on-heap TVList, it is used by queries and is not released explicitly, so it
+   * must not hold any block of the pool.
+   */
+  @Override
+  public TVList clone() {
+    TVList cloneList = TVList.newList(dataType);
+    for (int i = 0; i < size; i++) {
+      long time = getTime(i);
+      switch (dataType) {
+        case BOOLEAN:
+          cloneList.putBoolean(time, getBoolean(i));
+          break;
+        case INT32:
+          cloneList.putInt(time, getInt(i));
+          break;
+        case INT64:
+          cloneList.putLong(time, getLong(i));
+          break;
+        case FLOAT:
+          cloneList.putFloat(time, getFloat(i));
+          break;
+        case DOUBLE:
+          cloneList.putDouble(time, getDouble(i));
+          break;
+        default:
+          throw new UnSupportedDataTypeException("Off-heap TVList does not support " + dataType);
+      }
+    }
+    cloneList.minTime = minTime;
+    return cloneList;
+  }
+
+  @Override
+  void clearValue() {
+    while (blockNum > 0) {
+      releaseLastValueArray();
+    }
+  }
+
+  @Override
+  void clearSortedValue() {
+    if (sortedBlocks != null) {
+      for (int block : sortedBlocks) {
+        pool.release(block);
+      }
+      sortedBlocks = null;
+    }
+  }
+}
@@ -19,7 +19,8 @@
 
 package org.apache.iotdb.db.utils.datastructure;
 
-import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.ARRAY_SIZE;
+import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.MAX_ARRAY_SIZE;
+import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.MIN_ARRAY_SIZE;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -30,10 +31,19 @@ import org.apache.iotdb.tsfile.utils.Binary;
 @SuppressWarnings("unused")
 public abstract class TVList {
 
-  private static final String ERR_DATATYPE_NOT_CONSISTENT = "DataType not consistent";
+  protected static final String ERR_DATATYPE_NOT_CONSISTENT = "DataType not consistent";
 
   protected static final int SMALL_ARRAY_LENGTH = 32;
 
+  /**
+   * Arrays of a TVList grow geometrically: the first two arrays have MIN_ARRAY_SIZE elements, and
+   * each following one doubles the capacity of the list until arrays reach MAX_ARRAY_SIZE, so the
+   * i-th array (i > 0) starts at element MIN_ARRAY_SIZE << (i - 1). A sparse series only pins a
+   * few small arrays while a dense one ends up with large ones.
+   */
+  private static final int FIRST_MAX_ARRAY_INDEX =
+      Integer.numberOfTrailingZeros(MAX_ARRAY_SIZE / MIN_ARRAY_SIZE) + 1;
+
   protected List<long[]> timestamps;
   protected int size;
 
@@ -63,9 +73,7 @@ public abstract class TVList {
     if (index >= size) {
       throw new ArrayIndexOutOfBoundsException(index);
     }
-    int arrayIndex = index / ARRAY_SIZE;
-    int elementIndex = index % ARRAY_SIZE;
-    return timestamps.get(arrayIndex)[elementIndex];
+    return timestamps.get(getArrayIndex(index))[getElementIndex(index)];
   }
 
   public void putLong(long time, long value) {
@@ -176,11 +184,8 @@ public abstract class TVList {
     }
     size = newSize;
     // release primitive arrays that are empty
-    int newArrayNum = newSize / ARRAY_SIZE;
-    if (newSize % ARRAY_SIZE != 0) {
-      newArrayNum ++;
-    }
-    for (int releaseIdx = newArrayNum; releaseIdx < timestamps.size(); releaseIdx++) {
+    int newArrayNum = newSize == 0 ? 0 : getArrayIndex(newSize - 1) + 1;
+    while (timestamps.size() > newArrayNum) {
       releaseLastTimeArray();
       releaseLastValueArray();
     }
@@ -230,10 +235,68 @@ public abstract class TVList {
   abstract void clearSortedValue();
 
   protected void checkExpansion() {
-    if ((size % ARRAY_SIZE) == 0) {
+    if (size == getArrayStart(timestamps.size())) {
       expandValues();
-      timestamps.add((long[]) PrimitiveArrayPool.getInstance().getPrimitiveDataListByType(TSDataType.INT64));
+      timestamps.add((long[]) PrimitiveArrayPool.getInstance()
+          .getPrimitiveDataListByType(TSDataType.INT64, getArraySize(timestamps.size())));
+    }
+  }
+
+  /**
+   * @return number of elements the allocated arrays can hold
+   */
+  public int getCapacity() {
+    return getArrayStart(timestamps.size());
+  }
+
+  /**
+   * @return index of the array holding the index-th element
+   */
+  protected static int getArrayIndex(int index) {
+    if (index < MIN_ARRAY_SIZE) {
+      return 0;
+    }
+    if (index < MAX_ARRAY_SIZE) {
+      return Integer.SIZE - Integer.numberOfLeadingZeros(index / MIN_ARRAY_SIZE);
+    }
+    return FIRST_MAX_ARRAY_INDEX - 1 + index / MAX_ARRAY_SIZE;
+  }
+
+  /**
+   * @return position of the index-th element in its array
+   */
+  protected static int getElementIndex(int index) {
+    if (index >= MAX_ARRAY_SIZE) {
+      return index % MAX_ARRAY_SIZE;
+    }
+    return index - getArrayStart(getArrayIndex(index));
+  }
+
+  /**
+   * @return index of the first element of the arrayIndex-th array, which is also the capacity of
+   * the arrays before it
+   */
+  protected static int getArrayStart(int arrayIndex) {
+    if (arrayIndex == 0) {
+      return 0;
+    }
+    if (arrayIndex <= FIRST_MAX_ARRAY_INDEX) {
+      return MIN_ARRAY_SIZE << (arrayIndex - 1);
+    }
+    return MAX_ARRAY_SIZE * (arrayIndex - FIRST_MAX_ARRAY_INDEX + 1);
+  }
+
+  /**
+   * @return length of the arrayIndex-th array
+   */
+  protected static int getArraySize(int arrayIndex) {
+    if (arrayIndex == 0) {
+      return MIN_ARRAY_SIZE;
     }
+    if (arrayIndex >= FIRST_MAX_ARRAY_INDEX) {
+      return MAX_ARRAY_SIZE;
+    }
+    return MIN_ARRAY_SIZE << (arrayIndex - 1);
   }
 
   protected long[] cloneTime(long[] array) {
@@ -299,6 +362,17 @@ public abstract class TVList {
     return null;
   }
 
+  /**
+   * @return a TVList storing its data in direct memory, or an on-heap one if the data type
+   * cannot be stored off-heap
+   */
+  public static TVList newOffHeapList(TSDataType dataType) {
+    if (OffHeapTVList.isSupported(dataType)) {
+      return new OffHeapTVList(dataType);
+    }
+    return newList(dataType);
+  }
+
   /**
    * this field is effective only in the Tvlist in a RealOnlyMemChunk.
    * @return
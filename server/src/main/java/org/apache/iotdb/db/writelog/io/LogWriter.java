@@ -41,6 +41,7 @@ public class LogWriter implements ILogWriter {
   private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
   private ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
   private ByteBuffer checkSumBuffer = ByteBuffer.allocate(8);
+  private ByteBuffer[] gatheredBuffers = new ByteBuffer[3];
 
   public LogWriter(String logFilePath) {
     logFile = SystemFileFactory.INSTANCE.getFile(logFilePath);
@@ -73,9 +74,14 @@ public class LogWriter implements ILogWriter {
     lengthBuffer.flip();
     checkSumBuffer.flip();
 
-    channel.write(lengthBuffer);
-    channel.write(logBuffer);
-    channel.write(checkSumBuffer);
+    // one gathered write instead of three separate ones
+    gatheredBuffers[0] = lengthBuffer;
+    gatheredBuffers[1] = logBuffer;
+    gatheredBuffers[2] = checkSumBuffer;
+    while (checkSumBuffer.hasRemaining()) {
+      channel.write(gatheredBuffers);
+    }
+    gatheredBuffers[1] = null;
 
     if (config.getForceWalPeriodInMs() == 0) {
       channel.force(true);
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.zip.CRC32;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.tsfile.utils.MmapUtils;
+
+/**
+ * MappedLogWriter writes the binarized logs in the same format as LogWriter, but into a
+ * preallocated segment through a MappedByteBuffer. The segment may be a recycled WAL file, so an
+ * int 0 is always kept after the last log to tell readers where the logs end. When the segment is
+ * full, it is extended by another segment size and mapped again.
+ * <p>
+ * The old logs of a recycled file are invalidated on disk by {@link #invalidate(File)} before it
+ * is recycled and ignored when it is opened, while the logs of any other existing file are kept
+ * and new logs are appended after the last valid one.
+ */
+public class MappedLogWriter implements ILogWriter {
+
+  // 4 bytes size and 8 bytes check sum
+  private static final int LOG_HEADER_AND_TAIL_SIZE = 12;
+  private static final int END_MARK_SIZE = 4;
+  private static final int ZERO_BUFFER_SIZE = 64 * 1024;
+
+  private File logFile;
+  private RandomAccessFile randomAccessFile;
+  private FileChannel channel;
+  private MappedByteBuffer mappedBuffer;
+  private CRC32 checkSummer = new CRC32();
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private long segmentSize;
+  private boolean recycled;
+
+  /**
+   * @param recycled whether the file is a recycled WAL file whose logs are obsolete
+   */
+  public MappedLogWriter(File logFile, boolean recycled) {
+    this.logFile = logFile;
+    this.segmentSize = config.getWalSegmentSizeInByte();
+    this.recycled = recycled;
+  }
+
+  @Override
+  public void write(ByteBuffer logBuffer) throws IOException {
+    if (mappedBuffer == null) {
+      open();
+    }
+    logBuffer.flip();
+    int logSize = logBuffer.limit();
+    checkSummer.reset();
+    checkSummer.update(logBuffer);
+    long checkSum = checkSummer.getValue();
+    logBuffer.flip();
+
+    int required = LOG_HEADER_AND_TAIL_SIZE + logSize + END_MARK_SIZE;
+    if (mappedBuffer.remaining() < required) {
+      extend(required);
+    }
+    mappedBuffer.putInt(logSize);
+    mappedBuffer.put(logBuffer);
+    mappedBuffer.putLong(checkSum);
+    mappedBuffer.putInt(mappedBuffer.position(), 0);
+
+    if (config.getForceWalPeriodInMs() == 0) {
+      mappedBuffer.force();
+    }
+  }
+
+  private void open() throws IOException {
+    randomAccessFile = new RandomAccessFile(logFile, "rw");
+    channel = randomAccessFile.getChannel();
+    long size = Math.max(channel.size(), segmentSize);
+    preallocate(size);
+    mappedBuffer = channel.map(MapMode.READ_WRITE, 0, size);
+    if (!recycled) {
+      mappedBuffer.position(findLogEnd());
+    }
+    // hide the old logs of a recycled file, or a torn log after the valid ones
+    if (mappedBuffer.remaining() >= END_MARK_SIZE) {
+      mappedBuffer.putInt(mappedBuffer.position(), 0);
+    }
+    recycled = false;
+  }
+
+  /**
+   * Overwrite the size of the first log in the file with an end mark and force it, so that none
+   * of its logs can be replayed even if the file is renamed to a WAL file and never written.
+   */
+  public static void invalidate(File logFile) throws IOException {
+    try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+      FileChannel fileChannel = file.getChannel();
+      ByteBuffer endMark = ByteBuffer.allocate(END_MARK_SIZE);
+      while (endMark.hasRemaining()) {
+        fileChannel.write(endMark, endMark.position());
+      }
+      fileChannel.force(true);
+    }
+  }
+
+  /**
+   * @return the position after the last log whose size and check sum are valid
+   */
+  private int findLogEnd() {
+    int position = 0;
+    while (mappedBuffer.capacity() - position >= LOG_HEADER_AND_TAIL_SIZE) {
+      int logSize = mappedBuffer.getInt(position);
+      if (logSize <= 0 || logSize > mappedBuffer.capacity() - position - LOG_HEADER_AND_TAIL_SIZE) {
+        break;
+      }
+      ByteBuffer log = mappedBuffer.duplicate();
+      log.position(position + Integer.BYTES);
+      log.limit(position + Integer.BYTES + logSize);
+      checkSummer.reset();
+      checkSummer.update(log);
+      if (checkSummer.getValue() != mappedBuffer.getLong(position + Integer.BYTES + logSize)) {
+        break;
+      }
+      position += LOG_HEADER_AND_TAIL_SIZE + logSize;
+    }
+    return position;
+  }
+
+  private void extend(int required) throws IOException {
+    long newSize = (long) mappedBuffer.capacity() + Math.max(segmentSize, required);
+    if (newSize > Integer.MAX_VALUE) {
+      throw new IOException(String.format("WAL file %s exceeds the max mapped size", logFile));
+    }
+    int position = mappedBuffer.position();
+    mappedBuffer.force();
+    MmapUtils.unmap(mappedBuffer);
+    preallocate(newSize);
+    mappedBuffer = channel.map(MapMode.READ_WRITE, 0, newSize);
+    mappedBuffer.position(position);
+  }
+
+  /**
+   * Fill the file with zeros up to the given size, so that the file system allocates the extents
+   * now rather than when the logs are written.
+   */
+  private void preallocate(long size) throws IOException {
+    long position = channel.size();
+    if (position >= size) {
+      return;
+    }
+    ByteBuffer zeros = ByteBuffer.allocate(ZERO_BUFFER_SIZE);
+    while (position < size) {
+      zeros.clear();
+      zeros.limit((int) Math.min(ZERO_BUFFER_SIZE, size - position));
+      position += channel.write(zeros, position);
+    }
+    channel.force(true);
+  }
+
+  @Override
+  public void force() throws IOException {
+    if (mappedBuffer != null) {
+      mappedBuffer.force();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (mappedBuffer != null) {
+      MmapUtils.unmap(mappedBuffer);
+      mappedBuffer = null;
+      channel.close();
+      channel = null;
+      randomAccessFile.close();
+      randomAccessFile = null;
+    }
+  }
+}
@@ -21,6 +21,8 @@ package org.apache.iotdb.db.writelog.manager;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
@@ -43,6 +45,11 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
   private Map<String, WriteLogNode> nodeMap;
 
   private Thread forceThread;
+
+  /**
+   * threads that write and force the logs of all nodes in group commit mode
+   */
+  private ExecutorService groupCommitExecutor;
   private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
 
   private final Runnable forceTask = () -> {
@@ -95,6 +102,14 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
     return node;
   }
 
+  /**
+   * @return the executor of group commit tasks, or null if group commit is disabled or the
+   * manager is not started, in which case nodes commit in the inserting thread
+   */
+  public ExecutorService getGroupCommitExecutor() {
+    return groupCommitExecutor;
+  }
+
   @Override
   public void deleteNode(String identifier) throws IOException {
     WriteLogNode node = nodeMap.remove(identifier);
@@ -105,6 +120,11 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
 
   @Override
   public void close() {
+    if (groupCommitExecutor != null) {
+      // submitted commits still finish, later ones are done by the inserting threads
+      groupCommitExecutor.shutdown();
+      groupCommitExecutor = null;
+    }
     if (!isActivated(forceThread)) {
       logger.warn("MultiFileLogNodeManager has not yet started");
       return;
@@ -144,6 +164,10 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
       } else {
         logger.warn("MultiFileLogNodeManager has already started");
       }
+      if (config.isEnableWalGroupCommit() && groupCommitExecutor == null) {
+        groupCommitExecutor = IoTDBThreadPoolFactory.newFixedThreadPool(
+            config.getWalGroupCommitThreadNum(), ThreadName.WAL_GROUP_COMMIT.getName());
+      }
     } catch (Exception e) {
       throw new StartupException(this.getID().getName(), e.getMessage());
     }
@@ -23,7 +23,12 @@ import java.io.IOException;
 import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.commons.io.FileUtils;
@@ -35,7 +40,9 @@ import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.writelog.io.ILogReader;
 import org.apache.iotdb.db.writelog.io.ILogWriter;
 import org.apache.iotdb.db.writelog.io.LogWriter;
+import org.apache.iotdb.db.writelog.io.MappedLogWriter;
 import org.apache.iotdb.db.writelog.io.MultiFileLogReader;
+import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +52,7 @@ import org.slf4j.LoggerFactory;
 public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<ExclusiveWriteLogNode> {
 
   public static final String WAL_FILE_NAME = "wal";
+  public static final String RECYCLED_WAL_FILE_NAME = "recycled-wal";
   private static final Logger logger = LoggerFactory.getLogger(ExclusiveWriteLogNode.class);
   private static int logBufferSize = IoTDBDescriptor.getInstance().getConfig().getWalBufferSize();
 
@@ -65,6 +73,51 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
   private int bufferedLogNum = 0;
 
+  /**
+   * In mmap mode, logs are written into preallocated segments and the files of flushed logs are
+   * renamed to RECYCLED_WAL_FILE_NAME for reuse instead of being deleted.
+   */
+  private final boolean mmapWal = config.isEnableMmapWal();
+
+  /**
+   * In group commit mode, write() and awaitDurable() return only after the log is forced to disk.
+   * Callers that append under their own lock wait after releasing it. Logs are appended
+   * to logBuffer while a group commit task writes and forces the previous buffer, then the two
+   * buffers are swapped, so one write and one force serve all logs appended in the meantime.
+   */
+  private final boolean groupCommit = config.isEnableWalGroupCommit();
+
+  private ByteBuffer spareLogBuffer;
+
+  private Condition commitCondition = lock.writeLock().newCondition();
+
+  /**
+   * sequence number of the last appended log
+   */
+  private long appendedSeq = 0;
+
+  /**
+   * logs whose sequence numbers are not larger than this have been written (or failed)
+   */
+  private long durableSeq = 0;
+
+  /**
+   * logs whose sequence numbers are not larger than this failed to be written
+   */
+  private long failedSeq = 0;
+
+  private boolean commitScheduled = false;
+
+  /**
+   * number of buffer writes done in group commit mode, each covers one or more appends
+   */
+  private long commitNum = 0;
+
+  /**
+   * whether a group commit task is writing a swapped-out buffer without holding the lock
+   */
+  private boolean commitInProgress = false;
+
   /**
    * constructor of ExclusiveWriteLogNode.
    *
@@ -81,12 +134,28 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
   @Override
   public void write(PhysicalPlan plan) throws IOException {
+    write(Collections.singletonList(plan));
+  }
+
+  @Override
+  public void write(List<PhysicalPlan> plans) throws IOException {
+    awaitDurable(append(plans));
+  }
+
+  @Override
+  public long append(List<PhysicalPlan> plans) throws IOException {
+    if (groupCommit) {
+      return groupCommitAppend(plans);
+    }
     lock.writeLock().lock();
     try {
-      putLog(plan);
+      for (PhysicalPlan plan : plans) {
+        putLog(plan);
+      }
       if (bufferedLogNum >= config.getFlushWalThreshold()) {
         sync();
       }
+      return 0;
     } catch (BufferOverflowException e) {
       throw new IOException("Log cannot fit into buffer, please increase wal_buffer_size", e);
     } finally {
@@ -107,12 +176,156 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
     bufferedLogNum ++;
   }
 
+  /**
+   * Append all plans to the buffer and schedule a commit that covers all of them.
+   *
+   * @return the sequence number to wait for
+   */
+  private long groupCommitAppend(List<PhysicalPlan> plans) throws IOException {
+    lock.writeLock().lock();
+    try {
+      for (PhysicalPlan plan : plans) {
+        logBuffer.mark();
+        try {
+          plan.serializeTo(logBuffer);
+        } catch (BufferOverflowException e) {
+          logBuffer.reset();
+          // the buffer is full, commit it in this thread
+          sync();
+          logBuffer.mark();
+          try {
+            plan.serializeTo(logBuffer);
+          } catch (BufferOverflowException e1) {
+            logBuffer.reset();
+            throw new IOException("Log cannot fit into buffer, please increase wal_buffer_size",
+                e1);
+          }
+        }
+        bufferedLogNum++;
+      }
+      long seq = ++appendedSeq;
+      scheduleGroupCommit();
+      return seq;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void awaitDurable(long seq) throws IOException {
+    if (seq <= 0) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      while (durableSeq < seq) {
+        commitCondition.await();
+      }
+      if (seq <= failedSeq) {
+        throw new IOException("Log node " + identifier + " failed to write the log");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted when waiting for the log to be written", e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void scheduleGroupCommit() {
+    if (commitScheduled) {
+      return;
+    }
+    ExecutorService executor = MultiFileLogNodeManager.getInstance().getGroupCommitExecutor();
+    if (executor != null) {
+      try {
+        executor.submit(this::groupCommit);
+        commitScheduled = true;
+        return;
+      } catch (RejectedExecutionException e) {
+        logger.debug("Log node {} commits in the inserting thread because the group commit "
+            + "executor is shut down", identifier);
+      }
+    }
+    sync();
+  }
+
+  /**
+   * Keep writing and forcing the buffered logs until no log is appended during the last commit.
+   */
+  private void groupCommit() {
+    while (true) {
+      ByteBuffer committingBuffer;
+      ILogWriter writer;
+      long committingSeq;
+      lock.writeLock().lock();
+      try {
+        if (bufferedLogNum == 0) {
+          commitScheduled = false;
+          return;
+        }
+        if (spareLogBuffer == null) {
+          spareLogBuffer = ByteBuffer.allocate(logBufferSize);
+        }
+        committingBuffer = logBuffer;
+        logBuffer = spareLogBuffer;
+        spareLogBuffer = null;
+        bufferedLogNum = 0;
+        committingSeq = appendedSeq;
+        writer = getCurrentFileWriter();
+        commitInProgress = true;
+      } finally {
+        lock.writeLock().unlock();
+      }
+
+      boolean success = false;
+      try {
+        writer.write(committingBuffer);
+        // LogWriter has forced the channel if force_wal_period_in_ms is 0
+        if (config.getForceWalPeriodInMs() != 0) {
+          writer.force();
+        }
+        success = true;
+      } catch (IOException e) {
+        logger.error("Log node {} group commit failed, change system mode to read-only",
+            identifier, e);
+        IoTDBDescriptor.getInstance().getConfig().setReadOnly(true);
+      } finally {
+        lock.writeLock().lock();
+        try {
+          committingBuffer.clear();
+          spareLogBuffer = committingBuffer;
+          commitInProgress = false;
+          if (!success) {
+            failedSeq = committingSeq;
+          }
+          durableSeq = committingSeq;
+          commitNum++;
+          commitCondition.signalAll();
+        } finally {
+          lock.writeLock().unlock();
+        }
+      }
+    }
+  }
+
+  /**
+   * Wait until the buffer being written by a group commit task is done, so that the file writer
+   * can be used or closed by the current thread. The write lock must be held.
+   */
+  private void awaitGroupCommit() {
+    while (commitInProgress) {
+      commitCondition.awaitUninterruptibly();
+    }
+  }
+
   @Override
   public void close() {
     sync();
     forceWal();
     lock.writeLock().lock();
     try {
+      awaitGroupCommit();
       if (this.currentFileWriter != null) {
         this.currentFileWriter.close();
         this.currentFileWriter = null;
@@ -168,7 +381,13 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
   public void delete() throws IOException {
     lock.writeLock().lock();
     try {
+      awaitGroupCommit();
       logBuffer.clear();
+      bufferedLogNum = 0;
+      // logs waiting for group commit are abandoned together with the node
+      failedSeq = appendedSeq;
+      durableSeq = appendedSeq;
+      commitCondition.signalAll();
       close();
       FileUtils.deleteDirectory(SystemFileFactory.INSTANCE.getFile(logDirectory));
     } finally {
@@ -178,7 +397,8 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
   @Override
   public ILogReader getLogReader() {
-    File[] logFiles = SystemFileFactory.INSTANCE.getFile(logDirectory).listFiles();
+    File[] logFiles = SystemFileFactory.INSTANCE.getFile(logDirectory)
+        .listFiles((dir, name) -> name.startsWith(WAL_FILE_NAME));
     Arrays.sort(logFiles,
         Comparator.comparingInt(f -> Integer.parseInt(f.getName().replace(WAL_FILE_NAME, ""))));
     return new MultiFileLogReader(logFiles);
@@ -187,6 +407,8 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
   private void discard(File logFile) {
     if (!logFile.exists()) {
       logger.info("Log file does not exist");
+    } else if (mmapWal && recycle(logFile)) {
+      logger.info("Log node {} recycled old file", identifier);
     } else {
       try {
         FileUtils.forceDelete(logFile);
@@ -197,10 +419,33 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
     }
   }
 
+  private boolean recycle(File logFile) {
+    File[] recycledFiles = listRecycledFiles();
+    if (recycledFiles != null && recycledFiles.length >= config.getMaxRecycledWalSegmentNum()) {
+      return false;
+    }
+    try {
+      // the logs must be hidden on disk before the file can become a WAL file again, or a crash
+      // before its first forced write would replay them
+      MappedLogWriter.invalidate(logFile);
+    } catch (IOException e) {
+      logger.warn("Log node {} cannot invalidate {}", identifier, logFile, e);
+      return false;
+    }
+    return logFile.renameTo(
+        SystemFileFactory.INSTANCE.getFile(logDirectory, RECYCLED_WAL_FILE_NAME + lastFlushedId));
+  }
+
+  private File[] listRecycledFiles() {
+    return SystemFileFactory.INSTANCE.getFile(logDirectory)
+        .listFiles((dir, name) -> name.startsWith(RECYCLED_WAL_FILE_NAME));
+  }
+
   private void forceWal() {
     lock.writeLock().lock();
     try {
       try {
+        awaitGroupCommit();
         if (currentFileWriter != null) {
           currentFileWriter.force();
         }
@@ -215,24 +460,64 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
   private void sync() {
     lock.writeLock().lock();
     try {
+      awaitGroupCommit();
       if (bufferedLogNum == 0) {
         return;
       }
       try {
         getCurrentFileWriter().write(logBuffer);
+        if (groupCommit && config.getForceWalPeriodInMs() != 0) {
+          getCurrentFileWriter().force();
+        }
       } catch (IOException e) {
         logger.error("Log node {} sync failed, change system mode to read-only", identifier, e);
         IoTDBDescriptor.getInstance().getConfig().setReadOnly(true);
+        if (groupCommit) {
+          logBuffer.clear();
+          bufferedLogNum = 0;
+          failedSeq = appendedSeq;
+          durableSeq = appendedSeq;
+          commitCondition.signalAll();
+        }
         return;
       }
       logBuffer.clear();
       bufferedLogNum = 0;
+      if (groupCommit) {
+        durableSeq = appendedSeq;
+        commitNum++;
+        commitCondition.signalAll();
+      }
       logger.debug("Log node {} ends sync.", identifier);
     } finally {
       lock.writeLock().unlock();
     }
   }
 
+  /**
+   * @return the number of appends in group commit mode
+   */
+  public long getAppendedLogNum() {
+    lock.writeLock().lock();
+    try {
+      return appendedSeq;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return the number of buffer writes that made appended logs durable in group commit mode
+   */
+  public long getCommitNum() {
+    lock.writeLock().lock();
+    try {
+      return commitNum;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
   private ILogWriter getCurrentFileWriter() {
     if (currentFileWriter == null) {
       nextFileWriter();
@@ -246,7 +531,20 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
     if (newFile.getParentFile().mkdirs()) {
       logger.info("create WAL parent folder {}.", newFile.getParent());
     }
-    currentFileWriter = new LogWriter(newFile);
+    if (mmapWal) {
+      // never recycle a file over an existing one, whose logs may not be replayed yet
+      boolean recycled = false;
+      File[] recycledFiles = listRecycledFiles();
+      if (!newFile.exists() && recycledFiles != null && recycledFiles.length > 0) {
+        recycled = recycledFiles[0].renameTo(newFile);
+        if (!recycled) {
+          logger.warn("Log node {} cannot reuse {}", identifier, recycledFiles[0]);
+        }
+      }
+      currentFileWriter = new MappedLogWriter(newFile, recycled);
+    } else {
+      currentFileWriter = new LogWriter(newFile);
+    }
   }
 
   @Override
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.node;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * WALs appended while a storage group holds its insert lock. The inserting thread waits for them
+ * with {@link #await()} after releasing the lock, so that concurrent inserts can append to the
+ * same group commit.
+ */
+public class PendingWalWrites {
+
+  private static final Logger logger = LoggerFactory.getLogger(PendingWalWrites.class);
+
+  private List<WriteLogNode> nodes = new ArrayList<>(2);
+  private List<Long> seqs = new ArrayList<>(2);
+  private List<Runnable> failureHandlers = new ArrayList<>(2);
+
+  /**
+   * @param seq the return value of node.append()
+   * @param failureHandler run if the logs fail to be written, may be null
+   */
+  public void add(WriteLogNode node, long seq, Runnable failureHandler) {
+    if (seq <= 0) {
+      return;
+    }
+    nodes.add(node);
+    seqs.add(seq);
+    failureHandlers.add(failureHandler);
+  }
+
+  /**
+   * Wait for all added logs to be written.
+   *
+   * @return false if any of them failed
+   */
+  public boolean await() {
+    boolean success = true;
+    for (int i = 0; i < nodes.size(); i++) {
+      try {
+        nodes.get(i).awaitDurable(seqs.get(i));
+      } catch (IOException e) {
+        logger.error("write WAL failed", e);
+        if (failureHandlers.get(i) != null) {
+          failureHandlers.get(i).run();
+        }
+        success = false;
+      }
+    }
+    return success;
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.writelog.node;
 
 import java.io.IOException;
+import java.util.List;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.writelog.io.ILogReader;
 
@@ -36,6 +37,31 @@ public interface WriteLogNode {
    */
   void write(PhysicalPlan plan) throws IOException;
 
+  /**
+   * Write wals for several PhysicalPlans at once, so that they share one acquisition of the node
+   * and, in group commit mode, one wait for the logs to be forced.
+   *
+   * @param plans - PhysicalPlans to be logged in order
+   */
+  void write(List<PhysicalPlan> plans) throws IOException;
+
+  /**
+   * Append wals for several PhysicalPlans without waiting for them to be forced, so that a caller
+   * holding its own lock can release it before waiting with {@link #awaitDurable(long)} and let
+   * other writers join the same group commit.
+   *
+   * @param plans - PhysicalPlans to be logged in order
+   * @return the sequence number to wait for, 0 if there is nothing to wait for
+   */
+  long append(List<PhysicalPlan> plans) throws IOException;
+
+  /**
+   * Wait until the wals appended by the append() call that returned seq are written.
+   *
+   * @param seq - the return value of append()
+   */
+  void awaitDurable(long seq) throws IOException;
+
   /**
    * Sync and close streams.
    */
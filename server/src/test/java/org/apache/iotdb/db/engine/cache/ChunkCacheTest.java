@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import java.util.List;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.db.query.reader.ReaderTestHelper;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChunkCacheTest extends ReaderTestHelper {
+
+  @Test
+  public void testGetAndRemove() throws IOException {
+    QueryDataSource queryDataSource = storageGroupProcessor
+        .query(deviceId, measurementId, EnvironmentUtils.TEST_QUERY_CONTEXT, null);
+    TsFileResource resource = queryDataSource.getSeqResources().get(0);
+    Assert.assertTrue(resource.isClosed());
+    List<ChunkMetaData> metaDataList = DeviceMetaDataCache.getInstance()
+        .get(resource, new Path(deviceId, measurementId));
+    Assert.assertFalse(metaDataList.isEmpty());
+    ChunkMetaData chunkMetaData = metaDataList.get(0);
+    TsFileSequenceReader reader = FileReaderManager.getInstance().get(resource, true);
+    Chunk expected = reader.readMemChunk(chunkMetaData);
+
+    ChunkCache cache = ChunkCache.getInstance();
+    cache.clear();
+    Chunk chunk = cache.get(resource, chunkMetaData, reader);
+    Assert.assertEquals(expected.getData(), chunk.getData());
+    // consuming the returned chunk does not affect the cached one
+    chunk.getData().position(chunk.getData().limit());
+
+    double hitRatio = cache.calculateChunkHitRatio();
+    chunk = cache.get(resource, chunkMetaData, reader);
+    Assert.assertEquals(expected.getData(), chunk.getData());
+    Assert.assertEquals(chunkMetaData.getDeletedAt(), chunk.getDeletedAt());
+    Assert.assertTrue(cache.calculateChunkHitRatio() > hitRatio);
+
+    cache.remove(resource);
+    hitRatio = cache.calculateChunkHitRatio();
+    cache.get(resource, chunkMetaData, reader);
+    Assert.assertTrue(cache.calculateChunkHitRatio() < hitRatio);
+  }
+
+  @Override
+  protected void insertData() throws IOException, QueryProcessException {
+    for (int j = 1; j <= 1000; j++) {
+      insertOneRecord(j, j);
+    }
+    storageGroupProcessor.waitForAllCurrentTsFileProcessorsClosed();
+  }
+}
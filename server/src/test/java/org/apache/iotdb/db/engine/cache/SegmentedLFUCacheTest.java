@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SegmentedLFUCacheTest {
+
+  private static final long ENTRY_SIZE = 100;
+
+  private SegmentedLFUCache<Integer, String> newCache(long maxMemInB) {
+    return new SegmentedLFUCache<Integer, String>(maxMemInB, ENTRY_SIZE) {
+      @Override
+      protected long calEntrySize(Integer key, String value) {
+        return ENTRY_SIZE;
+      }
+    };
+  }
+
+  @Test
+  public void testPutAndGet() {
+    SegmentedLFUCache<Integer, String> cache = newCache(1024 * 1024);
+    for (int i = 0; i < 100; i++) {
+      cache.put(i, String.valueOf(i));
+    }
+    for (int i = 0; i < 100; i++) {
+      assertEquals(String.valueOf(i), cache.get(i));
+    }
+    assertNull(cache.get(100));
+
+    cache.remove(1);
+    assertNull(cache.peek(1));
+    cache.removeIf(k -> k % 2 == 0);
+    assertNull(cache.get(2));
+    assertNotNull(cache.get(3));
+    cache.clear();
+    assertNull(cache.get(3));
+    assertEquals(0.0, cache.getUsedMemoryProportion(), 0.0);
+  }
+
+  @Test
+  public void testMemoryBound() {
+    long maxMem = 100 * ENTRY_SIZE * 16;
+    SegmentedLFUCache<Integer, String> cache = newCache(maxMem);
+    for (int i = 0; i < 100000; i++) {
+      cache.put(i, String.valueOf(i));
+      assertTrue(cache.getUsedMemoryProportion() <= 1.0);
+    }
+  }
+
+  @Test
+  public void testScanResistance() {
+    SegmentedLFUCache<Integer, String> cache = newCache(1000 * ENTRY_SIZE * 16);
+    // a hot working set which is accessed repeatedly
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 1000; i++) {
+        if (cache.get(i) == null) {
+          cache.put(i, String.valueOf(i));
+        }
+      }
+    }
+    // a scan over many keys accessed only once
+    for (int i = 1000; i < 100000; i++) {
+      if (cache.get(i) == null) {
+        cache.put(i, String.valueOf(i));
+      }
+    }
+    int hit = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (cache.peek(i) != null) {
+        hit++;
+      }
+    }
+    assertTrue("only " + hit + " hot keys survive the scan", hit > 900);
+  }
+}
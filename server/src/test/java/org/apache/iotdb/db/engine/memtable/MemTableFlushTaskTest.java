@@ -21,12 +21,15 @@ package org.apache.iotdb.db.engine.memtable;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import org.apache.iotdb.db.conf.adapter.ActiveTimeSeriesCounter;
 import org.apache.iotdb.db.constant.TestConstant;
 import org.apache.iotdb.db.engine.MetadataManagerHelper;
+import org.apache.iotdb.db.engine.flush.FlushManager;
 import org.apache.iotdb.db.engine.flush.MemTableFlushTask;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
@@ -82,4 +85,28 @@ public class MemTableFlushTaskTest {
     assertEquals(MemTableTestUtils.dataType0, chunkMetaData.getDataType());
     assertEquals(endTime - startTime + 1, chunkMetaData.getNumOfPoints());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testFlushManyDevices() throws ExecutionException, InterruptedException {
+    int deviceNum = 50;
+    for (int i = 0; i < deviceNum; i++) {
+      MemTableTestUtils.produceData(memTable, startTime, endTime + i, "d" + i,
+          MemTableTestUtils.measurementId0, MemTableTestUtils.dataType0);
+    }
+    long flushedNum = FlushManager.getInstance().getNumberOfFlushedMemTables();
+    new MemTableFlushTask(memTable, MemTableTestUtils.getSchema(), writer, storageGroup)
+        .syncFlushMemTable();
+    assertEquals(flushedNum + 1, FlushManager.getInstance().getNumberOfFlushedMemTables());
+
+    // every device is still written as one chunk group holding its own chunk
+    List<ChunkGroupMetaData> chunkGroups = writer.getChunkGroupMetaDatas();
+    assertEquals(deviceNum, chunkGroups.size());
+    for (ChunkGroupMetaData chunkGroup : chunkGroups) {
+      assertEquals(1, chunkGroup.getChunkMetaDataList().size());
+      int deviceIndex = Integer.parseInt(chunkGroup.getDeviceID().substring(1));
+      ChunkMetaData chunkMetaData = chunkGroup.getChunkMetaDataList().get(0);
+      assertEquals(startTime, chunkMetaData.getStartTime());
+      assertEquals(endTime + deviceIndex, chunkMetaData.getEndTime());
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.engine.rollup.RollupIndex.SeriesRollup;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RollupIndexTest {
+
+  private static final String DEVICE = "root.rollup.d0";
+  private static final long BUCKET_SIZE = 100;
+  private static final long PT_NUM = 1000;
+
+  private File tsFile = new File(TestConstant.BASE_OUTPUT_PATH.concat("rollup-test.tsfile"));
+
+  @Before
+  public void setUp() throws Exception {
+    tsFile.getParentFile().mkdirs();
+    TsFileWriter fileWriter = new TsFileWriter(tsFile);
+    fileWriter.addMeasurement(new MeasurementSchema("s0", TSDataType.INT64, TSEncoding.PLAIN,
+        CompressionType.UNCOMPRESSED));
+    fileWriter.addMeasurement(new MeasurementSchema("s1", TSDataType.DOUBLE, TSEncoding.PLAIN,
+        CompressionType.UNCOMPRESSED));
+    for (long i = 0; i < PT_NUM; i++) {
+      TSRecord record = new TSRecord(i, DEVICE);
+      record.addTuple(DataPoint.getDataPoint(TSDataType.INT64, "s0", String.valueOf(i)));
+      // s1 only has points in odd buckets
+      if ((i / BUCKET_SIZE) % 2 == 1) {
+        record.addTuple(DataPoint.getDataPoint(TSDataType.DOUBLE, "s1", String.valueOf(i)));
+      }
+      fileWriter.write(record);
+      if ((i + 1) % 150 == 0) {
+        fileWriter.flushForTest();
+      }
+    }
+    fileWriter.close();
+  }
+
+  @After
+  public void tearDown() {
+    tsFile.delete();
+    RollupIndex.getIndexFile(tsFile).delete();
+  }
+
+  @Test
+  public void testBuildAndSerialize() throws Exception {
+    RollupIndex.build(tsFile, BUCKET_SIZE).serialize(tsFile);
+    assertTrue(RollupIndex.getIndexFile(tsFile).exists());
+    RollupIndex index = RollupIndex.deserialize(tsFile);
+    assertEquals(BUCKET_SIZE, index.getBucketSize());
+    assertNull(index.getSeriesRollup(DEVICE + ".s2"));
+
+    SeriesRollup s0 = index.getSeriesRollup(DEVICE + ".s0");
+    assertEquals(TSDataType.INT64, s0.getDataType());
+    List<Statistics> buckets = s0.getStatistics(0, PT_NUM);
+    assertEquals(PT_NUM / BUCKET_SIZE, buckets.size());
+    for (int i = 0; i < buckets.size(); i++) {
+      Statistics statistics = buckets.get(i);
+      long start = i * BUCKET_SIZE;
+      long end = start + BUCKET_SIZE - 1;
+      assertEquals(BUCKET_SIZE, statistics.getCount());
+      assertEquals(start, statistics.getStartTime());
+      assertEquals(end, statistics.getEndTime());
+      assertEquals(start, statistics.getMinValue());
+      assertEquals(end, statistics.getMaxValue());
+      assertEquals(start, statistics.getFirstValue());
+      assertEquals(end, statistics.getLastValue());
+      assertEquals((start + end) * BUCKET_SIZE / 2.0, statistics.getSumValue(), 0.0);
+    }
+
+    // the buckets starting in [250, 550) are 300, 400 and 500, and s1 has no point in 400
+    SeriesRollup s1 = index.getSeriesRollup(DEVICE + ".s1");
+    buckets = s1.getStatistics(250, 550);
+    assertEquals(2, buckets.size());
+    assertEquals(300, buckets.get(0).getStartTime());
+    assertEquals(399.0, buckets.get(0).getMaxValue());
+    assertEquals(500, buckets.get(1).getStartTime());
+    assertEquals(500.0, buckets.get(1).getMinValue());
+  }
+
+  @Test
+  public void testBuilderMatchesScan() throws Exception {
+    // the builder is fed by flushes with the same points that the scan reads from the file
+    RollupIndex.Builder builder = new RollupIndex.Builder(BUCKET_SIZE);
+    RollupIndex.SeriesBuilder s0Builder = builder.getSeriesBuilder(DEVICE + ".s0",
+        TSDataType.INT64);
+    for (long i = 0; i < PT_NUM; i++) {
+      s0Builder.getBucket(i).update(i, i);
+    }
+    SeriesRollup built = builder.build().getSeriesRollup(DEVICE + ".s0");
+    SeriesRollup scanned = RollupIndex.build(tsFile, BUCKET_SIZE)
+        .getSeriesRollup(DEVICE + ".s0");
+    List<Statistics> builtBuckets = built.getStatistics(0, PT_NUM);
+    List<Statistics> scannedBuckets = scanned.getStatistics(0, PT_NUM);
+    assertEquals(scannedBuckets.size(), builtBuckets.size());
+    for (int i = 0; i < builtBuckets.size(); i++) {
+      assertEquals(scannedBuckets.get(i).getCount(), builtBuckets.get(i).getCount());
+      assertEquals(scannedBuckets.get(i).getStartTime(), builtBuckets.get(i).getStartTime());
+      assertEquals(scannedBuckets.get(i).getEndTime(), builtBuckets.get(i).getEndTime());
+      assertEquals(scannedBuckets.get(i).getSumValue(), builtBuckets.get(i).getSumValue(), 0.0);
+    }
+  }
+}
@@ -21,9 +21,14 @@ package org.apache.iotdb.db.engine.storagegroup;
 import static org.junit.Assert.assertFalse;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.adapter.ActiveTimeSeriesCounter;
 import org.apache.iotdb.db.constant.TestConstant;
 import org.apache.iotdb.db.engine.MetadataManagerHelper;
@@ -31,10 +36,15 @@ import org.apache.iotdb.db.engine.merge.manage.MergeManager;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.exception.storageGroup.StorageGroupProcessorException;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
+import org.apache.iotdb.db.writelog.node.ExclusiveWriteLogNode;
+import org.apache.iotdb.db.writelog.node.WriteLogNode;
+import org.apache.iotdb.rpc.TSStatusCode;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.write.record.TSRecord;
 import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
@@ -147,6 +157,145 @@ public class StorageGroupProcessorTest {
   }
 
 
+  @Test
+  public void testInsertBatches() throws QueryProcessException {
+    String[] measurements = new String[]{"s0", "s1"};
+    List<Integer> dataTypes = new ArrayList<>();
+    dataTypes.add(TSDataType.INT32.ordinal());
+    dataTypes.add(TSDataType.INT64.ordinal());
+
+    processor.insertBatches(Collections.singletonList(
+        createBatchInsertPlan(measurements, dataTypes, 0, 100)));
+    processor.putAllWorkingTsFileProcessorIntoClosingList();
+
+    // the first plan goes to both the sequence and the unsequence file
+    List<Integer[]> resultsList = processor.insertBatches(Arrays.asList(
+        createBatchInsertPlan(measurements, dataTypes, 50, 100),
+        createBatchInsertPlan(measurements, dataTypes, 150, 50)));
+    Assert.assertEquals(2, resultsList.size());
+    Assert.assertEquals(100, resultsList.get(0).length);
+    Assert.assertEquals(50, resultsList.get(1).length);
+    for (Integer[] results : resultsList) {
+      for (Integer result : results) {
+        Assert.assertEquals(TSStatusCode.SUCCESS_STATUS.getStatusCode(), (int) result);
+      }
+    }
+    processor.putAllWorkingTsFileProcessorIntoClosingList();
+    processor.waitForAllCurrentTsFileProcessorsClosed();
+
+    QueryDataSource queryDataSource = processor.query(deviceId, measurementId, context,
+        null);
+    Assert.assertEquals(2, queryDataSource.getSeqResources().size());
+    Assert.assertEquals(1, queryDataSource.getUnseqResources().size());
+    Assert.assertEquals(199,
+        (long) queryDataSource.getSeqResources().get(1).getEndTimeMap().get(deviceId));
+  }
+
+  @Test
+  public void testWalGroupCommit() throws Exception {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    boolean enableGroupCommit = config.isEnableWalGroupCommit();
+    int groupCommitThreadNum = config.getWalGroupCommitThreadNum();
+    config.setEnableWalGroupCommit(true);
+    config.setWalGroupCommitThreadNum(2);
+    MultiFileLogNodeManager.getInstance().start();
+    try {
+      int threadNum = 8;
+      int recordNumPerThread = 200;
+      // the first insert creates the working processor and its log node
+      TSRecord first = new TSRecord(0, deviceId);
+      first.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, "0"));
+      processor.insert(new InsertPlan(first));
+
+      List<Thread> threads = new ArrayList<>();
+      List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+      for (int i = 0; i < threadNum; i++) {
+        int threadIndex = i;
+        Thread thread = new Thread(() -> {
+          try {
+            for (int j = 1; j <= recordNumPerThread; j++) {
+              TSRecord record = new TSRecord(threadIndex * recordNumPerThread + j, deviceId);
+              record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId,
+                  String.valueOf(j)));
+              processor.insert(new InsertPlan(record));
+            }
+          } catch (Throwable e) {
+            errors.add(e);
+          }
+        });
+        threads.add(thread);
+        thread.start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      Assert.assertTrue(errors.isEmpty());
+
+      ExclusiveWriteLogNode logNode = (ExclusiveWriteLogNode) processor
+          .getWorkSequenceTsFileProcessor().getLogNode();
+      long appendedLogNum = logNode.getAppendedLogNum();
+      long commitNum = logNode.getCommitNum();
+      Assert.assertEquals(threadNum * recordNumPerThread + 1, appendedLogNum);
+      // inserts waiting for their logs do not block others, so commits carry several records
+      Assert.assertTrue(String.format("%d records in %d commits", appendedLogNum, commitNum),
+          commitNum < appendedLogNum);
+    } finally {
+      MultiFileLogNodeManager.getInstance().stop();
+      config.setEnableWalGroupCommit(enableGroupCommit);
+      config.setWalGroupCommitThreadNum(groupCommitThreadNum);
+    }
+  }
+
+  @Test
+  public void testWalNotDurable() throws Exception {
+    // the first insert creates the working processor, whose log node then fails every commit
+    TSRecord first = new TSRecord(0, deviceId);
+    first.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, "0"));
+    processor.insert(new InsertPlan(first));
+    TsFileProcessor tsFileProcessor = processor.getWorkSequenceTsFileProcessor();
+    WriteLogNode logNode = tsFileProcessor.getLogNode();
+    tsFileProcessor.setLogNode(new ExclusiveWriteLogNode(logNode.getIdentifier()) {
+      @Override
+      public long append(List<PhysicalPlan> plans) {
+        return 1;
+      }
+
+      @Override
+      public void awaitDurable(long seq) throws IOException {
+        throw new IOException("injected WAL failure");
+      }
+    });
+
+    TSRecord record = new TSRecord(1, deviceId);
+    record.addTuple(DataPoint.getDataPoint(TSDataType.INT32, measurementId, "1"));
+    try {
+      processor.insert(new InsertPlan(record));
+      Assert.fail("an insert whose WAL is not durable must fail");
+    } catch (QueryProcessException e) {
+      Assert.assertEquals(String.format("WAL of %s is not durable", deviceId), e.getMessage());
+    } finally {
+      tsFileProcessor.setLogNode(logNode);
+    }
+  }
+
+  private BatchInsertPlan createBatchInsertPlan(String[] measurements, List<Integer> dataTypes,
+      long startTime, int rowCount) {
+    BatchInsertPlan batchInsertPlan = new BatchInsertPlan(deviceId, measurements, dataTypes);
+    long[] times = new long[rowCount];
+    Object[] columns = new Object[2];
+    columns[0] = new int[rowCount];
+    columns[1] = new long[rowCount];
+    for (int r = 0; r < rowCount; r++) {
+      times[r] = startTime + r;
+      ((int[]) columns[0])[r] = 1;
+      ((long[]) columns[1])[r] = 1;
+    }
+    batchInsertPlan.setTimes(times);
+    batchInsertPlan.setColumns(columns);
+    batchInsertPlan.setRowCount(rowCount);
+    return batchInsertPlan;
+  }
+
   @Test
   public void testSeqAndUnSeqSyncClose() throws QueryProcessException {
 
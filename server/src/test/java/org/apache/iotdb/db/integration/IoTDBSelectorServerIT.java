@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.service.IoTDB;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.jdbc.Config;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Serves more connections than worker threads with the selector-based rpc server and checks that
+ * the session state of each connection stays with its connection.
+ */
+public class IoTDBSelectorServerIT {
+
+  private static final int CONNECTION_NUM = 16;
+
+  private IoTDB daemon;
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private boolean prevSelectorServerEnable;
+  private int prevWorkerThreadNum;
+
+  @Before
+  public void setUp() throws Exception {
+    prevSelectorServerEnable = config.isRpcSelectorServerEnable();
+    prevWorkerThreadNum = config.getRpcWorkerThreadNum();
+    config.setRpcSelectorServerEnable(true);
+    config.setRpcWorkerThreadNum(2);
+
+    Class.forName(Config.JDBC_DRIVER_NAME);
+    EnvironmentUtils.closeStatMonitor();
+    daemon = IoTDB.getInstance();
+    daemon.active();
+    EnvironmentUtils.envSetUp();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    daemon.stop();
+    EnvironmentUtils.cleanEnv();
+    config.setRpcSelectorServerEnable(prevSelectorServerEnable);
+    config.setRpcWorkerThreadNum(prevWorkerThreadNum);
+  }
+
+  @Test
+  public void testManyConnections() throws Exception {
+    Properties info = new Properties();
+    info.setProperty("user", "root");
+    info.setProperty("password", "root");
+    info.setProperty("framed_transport", "true");
+
+    List<Connection> connections = new ArrayList<>();
+    try {
+      for (int i = 0; i < CONNECTION_NUM; i++) {
+        connections.add(
+            DriverManager.getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", info));
+      }
+      try (Statement statement = connections.get(0).createStatement()) {
+        statement.execute("SET STORAGE GROUP TO root.selector");
+        statement.execute(
+            "CREATE TIMESERIES root.selector.d0.s0 WITH DATATYPE=INT64,ENCODING=PLAIN");
+      }
+
+      for (int i = 0; i < CONNECTION_NUM; i++) {
+        try (Statement statement = connections.get(i).createStatement()) {
+          statement.execute(
+              String.format("INSERT INTO root.selector.d0(timestamp, s0) VALUES (%d, %d)", i, i));
+        }
+      }
+
+      // interleave the fetches of open result sets of different connections, which share two
+      // worker threads
+      List<Statement> statements = new ArrayList<>();
+      List<ResultSet> resultSets = new ArrayList<>();
+      for (Connection connection : connections) {
+        Statement statement = connection.createStatement();
+        statement.setFetchSize(1);
+        statements.add(statement);
+        resultSets.add(statement.executeQuery("SELECT s0 FROM root.selector.d0"));
+      }
+      for (int row = 0; row < CONNECTION_NUM; row++) {
+        for (ResultSet resultSet : resultSets) {
+          assertTrue(resultSet.next());
+          assertEquals(row, resultSet.getLong("root.selector.d0.s0"));
+        }
+      }
+      for (int i = 0; i < CONNECTION_NUM; i++) {
+        resultSets.get(i).close();
+        statements.get(i).close();
+      }
+    } finally {
+      for (Connection connection : connections) {
+        connection.close();
+      }
+    }
+  }
+}
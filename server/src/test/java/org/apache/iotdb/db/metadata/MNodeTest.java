@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.junit.Test;
+
+public class MNodeTest {
+
+  @Test
+  public void testChildrenKeepOrderWhenGrowing() {
+    MNode parent = new MNode("d0", null, false);
+    int childNum = MNode.SMALL_CHILDREN_THRESHOLD * 2;
+    for (int i = childNum - 1; i >= 0; i--) {
+      parent.addChild("s" + i, new MNode("s" + i, parent, false));
+      assertEquals(childNum - i, parent.getChildren().size());
+    }
+    List<String> expected = new ArrayList<>();
+    for (int i = childNum - 1; i >= 0; i--) {
+      expected.add("s" + i);
+    }
+    assertEquals(expected, new ArrayList<>(parent.getChildren().keySet()));
+    for (int i = 0; i < childNum; i++) {
+      assertEquals("s" + i, parent.getChild("s" + i).getName());
+    }
+    assertNull(parent.getChild("s" + childNum));
+  }
+
+  @Test
+  public void testDeleteChild() {
+    MNode parent = new MNode("d0", null, false);
+    for (int i = 0; i < 3; i++) {
+      parent.addChild("s" + i, new MNode("s" + i, parent, false));
+    }
+    parent.deleteChild("s1");
+    assertFalse(parent.hasChild("s1"));
+    assertEquals(2, parent.getChildren().size());
+    assertTrue(parent.hasChild("s0"));
+    assertTrue(parent.hasChild("s2"));
+    parent.deleteChild("s0");
+    parent.deleteChild("s2");
+    assertEquals(0, parent.getChildren().size());
+  }
+
+  @Test
+  public void testPathsComputedFromParents() {
+    MNode root = new MNode("root", null, false);
+    MNode sg = new MNode("sg", root, false);
+    root.addChild("sg", sg);
+    sg.setStorageGroup(true);
+    sg.setDataTTL(1000);
+    MNode device = new MNode("d0", sg, false);
+    sg.addChild("d0", device);
+    MNode leaf = new MNode("s0", device, TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY);
+    device.addChild("s0", leaf);
+
+    assertEquals("root.sg.d0.s0", leaf.getFullPath());
+    assertEquals("root.sg", leaf.getDataFileName());
+    assertEquals("root.sg", sg.getDataFileName());
+    assertNull(root.getDataFileName());
+    assertEquals(1000, sg.getDataTTL());
+    // ttl is only kept by storage groups
+    device.setDataTTL(1000);
+    assertEquals(Long.MAX_VALUE, device.getDataTTL());
+  }
+
+  @Test
+  public void testSharedSchema() {
+    MNode d0 = new MNode("d0", null, false);
+    MNode d1 = new MNode("d1", null, false);
+    MNode s0 = new MNode("s0", d0, TSDataType.INT32, TSEncoding.RLE, CompressionType.SNAPPY);
+    MNode s1 = new MNode("s0", d1, TSDataType.INT32, TSEncoding.RLE, CompressionType.SNAPPY);
+    assertSame(s0.getSchema(), s1.getSchema());
+
+    MNode withProps = new MNode("s0", d1, TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.singletonMap("max_point_number", "3"));
+    assertEquals("3", withProps.getSchema().getProps().get("max_point_number"));
+    assertTrue(s0.getSchema().getProps().isEmpty());
+  }
+}
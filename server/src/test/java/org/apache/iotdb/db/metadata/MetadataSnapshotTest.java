@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetadataSnapshotTest {
+
+  private File snapshotFile = new File("target", MetadataConstant.METADATA_SNAPSHOT);
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.envSetUp();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+    snapshotFile.delete();
+  }
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    MGraph mgraph = new MGraph(MetadataConstant.ROOT);
+    mgraph.setStorageGroup("root.a.sg0");
+    mgraph.addPathToMTree("root.a.sg0.d0.s0", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.singletonMap("max_point_number", "3"));
+    mgraph.addPathToMTree("root.a.sg0.d1.s0", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY, null);
+    mgraph.addPathToMTree("root.a.sg0.d1.s1", TSDataType.TEXT, TSEncoding.PLAIN,
+        CompressionType.UNCOMPRESSED, null);
+    mgraph.setStorageGroup("root.b");
+    mgraph.getNodeByPath("root.b").setDataTTL(1000);
+    mgraph.addPathToMTree("root.b.d0.s0", TSDataType.DOUBLE, TSEncoding.GORILLA,
+        CompressionType.SNAPPY, null);
+
+    MetadataSnapshot.write(mgraph.getMTree(), 123, snapshotFile);
+    MetadataSnapshot snapshot = MetadataSnapshot.read(snapshotFile);
+
+    assertEquals(123, snapshot.getLogOffset());
+    assertEquals(2, snapshot.getStorageGroupNum());
+    assertEquals(4, snapshot.getSeriesNum());
+    MGraph recovered = new MGraph(snapshot.getMTree());
+    assertEquals(mgraph.toString(), recovered.toString());
+    assertEquals(mgraph.getAllStorageGroupNames(), recovered.getAllStorageGroupNames());
+
+    MNode sg0 = recovered.getNodeByPath("root.a.sg0");
+    assertTrue(sg0.isStorageGroup());
+    assertEquals(2, sg0.getSchemaMap().size());
+    assertEquals(2, (int) sg0.getNumSchemaMap().get("s0"));
+    assertEquals(1, (int) sg0.getNumSchemaMap().get("s1"));
+    assertEquals(1000, recovered.getNodeByPath("root.b").getDataTTL());
+    assertFalse(recovered.getNodeByPath("root.a").isStorageGroup());
+
+    MNode leaf = recovered.getNodeByPath("root.a.sg0.d0.s0");
+    assertEquals("root.a.sg0", leaf.getDataFileName());
+    MeasurementSchema schema = leaf.getSchema();
+    assertEquals(TSDataType.INT64, schema.getType());
+    assertEquals(TSEncoding.RLE, schema.getEncodingType());
+    assertEquals(CompressionType.SNAPPY, schema.getCompressor());
+    assertEquals("3", schema.getProps().get("max_point_number"));
+    assertEquals("root.b", recovered.getNodeByPath("root.b.d0").getDataFileName());
+  }
+
+  @Test
+  public void testSnapshotCoversLog() throws Exception {
+    MManager manager = MManager.getInstance();
+    manager.setStorageGroupToMTree("root.sg");
+    manager.addPathToMTree("root.sg.d0.s0", TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY, null);
+    manager.setTTL("root.sg", 100);
+    manager.takeSnapshot();
+
+    String schemaDir = IoTDBDescriptor.getInstance().getConfig().getSchemaDir();
+    File logFile = new File(schemaDir, MetadataConstant.METADATA_LOG);
+    MetadataSnapshot snapshot = MetadataSnapshot
+        .read(new File(schemaDir, MetadataConstant.METADATA_SNAPSHOT));
+    assertEquals(logFile.length(), snapshot.getLogOffset());
+    assertEquals(1, snapshot.getSeriesNum());
+    assertEquals(100, snapshot.getMTree().getNode("root.sg").getDataTTL());
+  }
+
+  @Test
+  public void testInitFromSnapshotAndLogTail() throws Exception {
+    MManager manager = MManager.getInstance();
+    manager.setStorageGroupToMTree("root.sg1");
+    manager.addPathToMTree("root.sg1.d0.s0", TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY, null);
+    manager.addPathToMTree("root.sg1.d0.s1", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY, null);
+    manager.addPathToMTree("root.sg1.d1.s0", TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY, null);
+    manager.takeSnapshot();
+
+    // the log tail after the snapshot
+    manager.deletePaths(Collections.singletonList(new Path("root.sg1.d0.s1")), false);
+    manager.setTTL("root.sg1", 1000);
+    manager.setStorageGroupToMTree("root.sg2");
+    manager.addPathToMTree("root.sg2.d0.s0", TSDataType.TEXT, TSEncoding.PLAIN,
+        CompressionType.UNCOMPRESSED, null);
+
+    String metadata = manager.getMetadataInString();
+    Set<String> storageGroups = new HashSet<>(manager.getAllStorageGroupNames());
+    MNode sg1 = manager.getNodeByPathWithCheck("root.sg1");
+    Map<String, MeasurementSchema> schemaMap = new HashMap<>(sg1.getSchemaMap());
+    Map<String, Integer> numSchemaMap = new HashMap<>(sg1.getNumSchemaMap());
+    long maxSeriesNumber = manager.getMaximalSeriesNumberAmongStorageGroups();
+
+    // restart
+    manager.clear();
+    manager.init();
+
+    assertEquals(4, manager.getReplayedLogEntryNum());
+    assertEquals(metadata, manager.getMetadataInString());
+    assertEquals(storageGroups, new HashSet<>(manager.getAllStorageGroupNames()));
+    sg1 = manager.getNodeByPathWithCheck("root.sg1");
+    assertEquals(schemaMap, sg1.getSchemaMap());
+    assertEquals(numSchemaMap, sg1.getNumSchemaMap());
+    assertFalse(sg1.getSchemaMap().containsKey("s1"));
+    assertEquals(2, (int) sg1.getNumSchemaMap().get("s0"));
+    assertEquals(1000, sg1.getDataTTL());
+    assertEquals(TSDataType.TEXT,
+        manager.getNodeByPathWithCheck("root.sg2").getSchemaMap().get("s0").getType());
+    assertEquals(2, manager.getSeriesNumber("root.sg1"));
+    assertEquals(1, manager.getSeriesNumber("root.sg2"));
+    assertEquals(maxSeriesNumber, manager.getMaximalSeriesNumberAmongStorageGroups());
+    assertFalse(manager.pathExist("root.sg1.d0.s1"));
+    assertTrue(manager.pathExist("root.sg2.d0.s0"));
+  }
+
+  @Test
+  public void testBackgroundSnapshot() throws Exception {
+    int snapshotInterval = IoTDBDescriptor.getInstance().getConfig().getMetadataSnapshotInterval();
+    IoTDBDescriptor.getInstance().getConfig().setMetadataSnapshotInterval(10);
+    try {
+      MManager manager = MManager.getInstance();
+      manager.setStorageGroupToMTree("root.sg");
+      for (int i = 0; i < 20; i++) {
+        manager.addPathToMTree("root.sg.d0.s" + i, TSDataType.INT32, TSEncoding.RLE,
+            CompressionType.SNAPPY, null);
+      }
+
+      // the snapshot is written by a background thread
+      String schemaDir = IoTDBDescriptor.getInstance().getConfig().getSchemaDir();
+      File snapshotFile = new File(schemaDir, MetadataConstant.METADATA_SNAPSHOT);
+      long startTime = System.currentTimeMillis();
+      while (!snapshotFile.exists() && System.currentTimeMillis() - startTime < 10000) {
+        Thread.sleep(10);
+      }
+      assertTrue(snapshotFile.exists());
+      MetadataSnapshot snapshot = MetadataSnapshot.read(snapshotFile);
+      assertTrue(snapshot.getSeriesNum() >= 9);
+      assertTrue(snapshot.getLogOffset() > 0);
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setMetadataSnapshotInterval(snapshotInterval);
+    }
+  }
+}
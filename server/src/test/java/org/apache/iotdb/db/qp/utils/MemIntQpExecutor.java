@@ -198,6 +198,12 @@ public class MemIntQpExecutor extends AbstractQueryProcessExecutor {
     return null;
   }
 
+  @Override
+  public List<Integer[]> insertBatches(List<BatchInsertPlan> batchInsertPlans)
+      throws QueryProcessException {
+    return null;
+  }
+
   @Override
   protected QueryDataSet processAuthorQuery(AuthorPlan plan, QueryContext context) {
     return null;
@@ -28,6 +28,13 @@ import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.constant.TestConstant;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.engine.fileSystem.SystemFileFactory;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -142,4 +149,41 @@ public class FileReaderManagerTest {
       }
     }
   }
+
+  @Test
+  public void testReleaseDeletedMappedFile() throws Exception {
+    boolean enableMmapRead = dbConfig.isEnableMmapRead();
+    dbConfig.setEnableMmapRead(true);
+    File file = SystemFileFactory.INSTANCE
+        .getFile(TestConstant.BASE_OUTPUT_PATH.concat("mapped-test.tsfile"));
+    try {
+      file.getParentFile().mkdirs();
+      TsFileWriter fileWriter = new TsFileWriter(file);
+      fileWriter.addMeasurement(new MeasurementSchema("s0", TSDataType.INT64, TSEncoding.PLAIN,
+          CompressionType.UNCOMPRESSED));
+      for (long i = 0; i < 100; i++) {
+        TSRecord record = new TSRecord(i, "root.sg.d0");
+        record.addTuple(DataPoint.getDataPoint(TSDataType.INT64, "s0", String.valueOf(i)));
+        fileWriter.write(record);
+      }
+      fileWriter.close();
+
+      FileReaderManager manager = FileReaderManager.getInstance();
+      TsFileResource tsFile = new TsFileResource(file);
+      long mappedBytes = manager.getMappedBytes();
+      manager.increaseFileReaderReference(tsFile, true);
+      manager.get(tsFile, true);
+      Assert.assertEquals(mappedBytes + file.length(), manager.getMappedBytes());
+
+      // the reader of a deleted file is closed once no query refers to it
+      Assert.assertTrue(file.delete());
+      manager.decreaseFileReaderReference(tsFile, true);
+      Assert.assertFalse(manager.contains(tsFile, true));
+      Assert.assertEquals(mappedBytes, manager.getMappedBytes());
+    } finally {
+      dbConfig.setEnableMmapRead(enableMmapRead);
+      FileReaderManager.getInstance().closeAndRemoveAllOpenedReaders();
+      file.delete();
+    }
+  }
 }
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.junit.Test;
+
+public class QueryMemoryPoolTest {
+
+  @Test
+  public void testAdmitAndAllocate() throws QueryProcessException {
+    QueryMemoryPool pool = new QueryMemoryPool(100, 40, 10);
+
+    // the estimation is capped at the budget of one query
+    pool.admit(1, 1000);
+    assertEquals(40, pool.getUsedMemory(1));
+    // admitting the same job again does not reserve more
+    pool.admit(1, 30);
+    assertEquals(40, pool.getUsedMemory());
+
+    pool.admit(2, 10);
+    assertTrue(pool.tryAllocate(2, 20));
+    // over the budget of job 2
+    assertFalse(pool.tryAllocate(2, 20));
+    assertEquals(70, pool.getUsedMemory());
+
+    // jobs never admitted are not accounted
+    assertTrue(pool.tryAllocate(3, 1000));
+    assertEquals(70, pool.getUsedMemory());
+
+    pool.release(1);
+    pool.release(2);
+    assertEquals(0, pool.getUsedMemory());
+  }
+
+  @Test
+  public void testAdmissionTimeout() throws QueryProcessException {
+    QueryMemoryPool pool = new QueryMemoryPool(100, 60, 10);
+    pool.admit(1, 60);
+    try {
+      pool.admit(2, 60);
+      fail();
+    } catch (QueryProcessException e) {
+      assertEquals(0, pool.getUsedMemory(2));
+    }
+    // the pool is full for job 1 as well
+    assertFalse(pool.tryAllocate(1, 50));
+  }
+
+  @Test
+  public void testAdmissionWaitsForRelease() throws Exception {
+    QueryMemoryPool pool = new QueryMemoryPool(100, 60, 10_000);
+    pool.admit(1, 60);
+
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicBoolean admitted = new AtomicBoolean(false);
+    Thread thread = new Thread(() -> {
+      started.countDown();
+      try {
+        pool.admit(2, 60);
+        admitted.set(true);
+      } catch (QueryProcessException e) {
+        // admitted stays false
+      }
+    });
+    thread.start();
+    started.await();
+    Thread.sleep(50);
+    assertFalse(admitted.get());
+
+    pool.release(1);
+    thread.join(10_000);
+    assertTrue(admitted.get());
+    assertEquals(60, pool.getUsedMemory());
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryTaskPoolManagerTest {
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private int maxQueryParallelism;
+
+  @Before
+  public void setUp() {
+    maxQueryParallelism = config.getMaxQueryParallelism();
+    config.setMaxQueryParallelism(4);
+    QueryTaskPoolManager.getInstance().start();
+  }
+
+  @After
+  public void tearDown() {
+    QueryTaskPoolManager.getInstance().stop();
+    config.setMaxQueryParallelism(maxQueryParallelism);
+  }
+
+  @Test
+  public void testResultOrder() throws IOException, QueryProcessException {
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      int value = i;
+      tasks.add(() -> {
+        threads.add(Thread.currentThread().getName());
+        return value * 2;
+      });
+    }
+    List<Integer> results = QueryTaskPoolManager.getInstance().invokeAll(tasks);
+    assertEquals(1000, results.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i * 2, (int) results.get(i));
+    }
+    assertTrue(threads.size() <= 4);
+  }
+
+  @Test
+  public void testException() throws QueryProcessException {
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      int value = i;
+      tasks.add(() -> {
+        if (value == 50) {
+          throw new IOException("series 50 fails");
+        }
+        return value;
+      });
+    }
+    try {
+      QueryTaskPoolManager.getInstance().invokeAll(tasks);
+      fail();
+    } catch (IOException e) {
+      assertEquals("series 50 fails", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testStopped() throws IOException, QueryProcessException {
+    QueryTaskPoolManager.getInstance().stop();
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      int value = i;
+      tasks.add(() -> {
+        threads.add(Thread.currentThread().getName());
+        return value;
+      });
+    }
+    List<Integer> results = QueryTaskPoolManager.getInstance().invokeAll(tasks);
+    assertEquals(100, results.size());
+    // the tasks run in the calling thread once the pool is stopped
+    assertEquals(1, threads.size());
+    assertTrue(threads.contains(Thread.currentThread().getName()));
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.reader.fileRelated;
+
+import java.io.IOException;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.reader.IAggregateReader;
+import org.apache.iotdb.db.query.reader.ReaderTestHelper;
+import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceIterateReader;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChunkStatisticsAggregateReaderTest extends ReaderTestHelper {
+
+  @Test
+  public void testChunksOutsideUnseqFilesUseStatistics() throws IOException {
+    IAggregateReader reader = createReader(EnvironmentUtils.TEST_QUERY_CONTEXT, null);
+
+    // the chunk of [1000, 1999] intersects the unsequence TsFile of [1500, 1509]
+    Assert.assertTrue(reader.hasNext());
+    PageHeader pageHeader = reader.nextPageHeader();
+    Assert.assertNotEquals(0, pageHeader.getUncompressedSize());
+    Assert.assertEquals(1000, pageHeader.getStartTime());
+    long count = 0;
+    while (pageHeader.getStartTime() < 2000) {
+      count += reader.nextBatch().length();
+      Assert.assertTrue(reader.hasNext());
+      pageHeader = reader.nextPageHeader();
+    }
+    Assert.assertEquals(1000, count);
+
+    // the chunk of [2000, 2999] is answered by its statistics as a whole
+    Assert.assertEquals(0, pageHeader.getUncompressedSize());
+    Assert.assertEquals(2000, pageHeader.getStartTime());
+    Assert.assertEquals(2999, pageHeader.getEndTime());
+    Assert.assertEquals(1000, pageHeader.getNumOfValues());
+    reader.skipPageData();
+    Assert.assertFalse(reader.hasNext());
+  }
+
+  @Test
+  public void testFilterNotContainingChunk() throws IOException {
+    IAggregateReader reader = createReader(EnvironmentUtils.TEST_QUERY_CONTEXT,
+        TimeFilter.gtEq(2500L));
+    Assert.assertTrue(reader.hasNext());
+    PageHeader pageHeader = reader.nextPageHeader();
+    Assert.assertNotEquals(0, pageHeader.getUncompressedSize());
+    BatchData batchData = reader.nextBatch();
+    Assert.assertEquals(2500, batchData.currentTime());
+    Assert.assertEquals(500, batchData.length());
+    Assert.assertFalse(reader.hasNext());
+  }
+
+  @Test
+  public void testStatisticsChunkReadOnDemand() throws IOException {
+    IAggregateReader reader = createReader(EnvironmentUtils.TEST_QUERY_CONTEXT,
+        TimeFilter.gtEq(2000L));
+    Assert.assertTrue(reader.hasNext());
+    Assert.assertEquals(0, reader.nextPageHeader().getUncompressedSize());
+    // the caller may still ask for the points
+    long count = 0;
+    BatchData batchData = reader.nextBatch();
+    Assert.assertEquals(2000, batchData.currentTime());
+    count += batchData.length();
+    while (reader.hasNext()) {
+      count += reader.nextBatch().length();
+    }
+    Assert.assertEquals(1000, count);
+  }
+
+  @Test
+  public void testDeletedPagesHideHeaders() throws IOException {
+    storageGroupProcessor.delete(deviceId, measurementId, 2499);
+    IAggregateReader reader = createReader(new QueryContext(), null);
+
+    // the chunk of [1000, 1999] is deleted entirely, the statistics of the other count deleted
+    // points
+    Assert.assertTrue(reader.hasNext());
+    Assert.assertNull(reader.nextPageHeader());
+    long count = 0;
+    BatchData batchData = reader.nextBatch();
+    Assert.assertEquals(2500, batchData.currentTime());
+    count += batchData.length();
+    while (reader.hasNext()) {
+      Assert.assertNull(reader.nextPageHeader());
+      count += reader.nextBatch().length();
+    }
+    Assert.assertEquals(500, count);
+  }
+
+  private IAggregateReader createReader(QueryContext context, Filter filter) {
+    QueryDataSource queryDataSource = storageGroupProcessor.query(deviceId, measurementId, context,
+        null);
+    return new SeqResourceIterateReader(new Path(deviceId, measurementId),
+        queryDataSource.getSeqResources(), queryDataSource.getUnseqResources(), filter, context,
+        false);
+  }
+
+  @Override
+  protected void insertData() throws IOException, QueryProcessException {
+    for (int j = 1000; j <= 1999; j++) {
+      insertOneRecord(j, j);
+    }
+    storageGroupProcessor.waitForAllCurrentTsFileProcessorsClosed();
+    for (int j = 2000; j <= 2999; j++) {
+      insertOneRecord(j, j);
+    }
+    storageGroupProcessor.waitForAllCurrentTsFileProcessorsClosed();
+    for (int j = 1500; j <= 1509; j++) {
+      insertOneRecord(j, j);
+    }
+    storageGroupProcessor.waitForAllCurrentTsFileProcessorsClosed();
+  }
+}
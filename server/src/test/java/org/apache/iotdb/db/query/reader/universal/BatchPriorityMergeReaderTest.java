@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.reader.universal;
+
+import java.io.IOException;
+import java.util.Random;
+import org.apache.iotdb.db.query.reader.IBatchReader;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchPriorityMergeReaderTest {
+
+  @Test
+  public void testPointSources() throws IOException {
+    // 2 series
+    test(new long[]{1, 2, 3, 4, 5, 6}, new long[]{2, 2, 2, 1, 2, 2}, new long[]{1, 2, 3, 4, 5},
+        new long[]{1, 2, 3, 5, 6});
+    test(new long[]{1, 2, 3, 4, 5}, new long[]{1, 1, 1, 1, 1}, new long[]{1, 2, 3, 4, 5},
+        new long[]{});
+    test(new long[]{1, 2, 3, 4, 5}, new long[]{2, 2, 2, 2, 2}, new long[]{},
+        new long[]{1, 2, 3, 4, 5});
+    test(new long[]{1, 2, 3, 4, 5, 6, 7, 8}, new long[]{1, 1, 1, 1, 1, 2, 2, 2},
+        new long[]{1, 2, 3, 4, 5},
+        new long[]{6, 7, 8});
+
+    // 3 series
+    test(new long[]{1, 2, 3, 4, 5, 6, 7}, new long[]{3, 3, 3, 1, 3, 2, 3},
+        new long[]{1, 2, 3, 4, 5},
+        new long[]{1, 2, 3, 5, 6}, new long[]{1, 2, 3, 5, 7});
+    test(new long[]{1, 2, 3, 4, 5, 6}, new long[]{1, 1, 2, 3, 2, 3}, new long[]{1, 2},
+        new long[]{3, 5},
+        new long[]{4, 6});
+  }
+
+  private void test(long[] retTimestamp, long[] retValue, long[]... sources) throws IOException {
+    BatchPriorityMergeReader reader = new BatchPriorityMergeReader();
+    for (int i = 0; i < sources.length; i++) {
+      reader.addReaderWithPriority(new FakedSeriesReader(sources[i], i + 1), i + 1);
+    }
+
+    int i = 0;
+    while (reader.hasNext()) {
+      TimeValuePair timeValuePair = reader.next();
+      Assert.assertEquals(retTimestamp[i], timeValuePair.getTimestamp());
+      Assert.assertEquals(retValue[i], timeValuePair.getValue().getValue());
+      i++;
+    }
+    Assert.assertEquals(retTimestamp.length, i);
+  }
+
+  /**
+   * merge random paged sources and compare the result with PriorityMergeReader.
+   */
+  @Test
+  public void testRandomPagedSources() throws IOException {
+    Random random = new Random(7);
+    for (int round = 0; round < 20; round++) {
+      int sourceNum = 1 + random.nextInt(8);
+      long[][] sources = new long[sourceNum][];
+      for (int i = 0; i < sourceNum; i++) {
+        int size = random.nextInt(20000);
+        long time = random.nextInt(50000);
+        sources[i] = new long[size];
+        for (int j = 0; j < size; j++) {
+          time += 1 + random.nextInt(i + 3);
+          sources[i][j] = time;
+        }
+      }
+
+      PriorityMergeReader expected = new PriorityMergeReader();
+      BatchPriorityMergeReader actual = new BatchPriorityMergeReader();
+      for (int i = 0; i < sourceNum; i++) {
+        expected.addReaderWithPriority(new FakedSeriesReader(sources[i], i + 1), i + 1);
+        actual.addReaderWithPriority(new FakedPagedReader(sources[i], i + 1, 1 + random.nextInt(
+            1000)), i + 1);
+      }
+      while (expected.hasNext()) {
+        Assert.assertTrue(actual.hasNext());
+        TimeValuePair expectedPair = expected.next();
+        TimeValuePair actualPair = actual.next();
+        Assert.assertEquals(expectedPair.getTimestamp(), actualPair.getTimestamp());
+        Assert.assertEquals(expectedPair.getValue().getValue(), actualPair.getValue().getValue());
+      }
+      Assert.assertFalse(actual.hasNext());
+    }
+  }
+
+  @Test
+  public void testNextBatch() throws IOException {
+    BatchPriorityMergeReader reader = new BatchPriorityMergeReader();
+    reader.addReaderWithPriority(new FakedPagedReader(new long[]{1, 2, 3, 10, 11}, 1, 2), 1);
+    reader.addReaderWithPriority(new FakedPagedReader(new long[]{3, 4, 20}, 2, 10), 2);
+    long[] expectedTimes = {1, 2, 3, 4, 10, 11, 20};
+    long[] expectedValues = {1, 1, 2, 2, 1, 1, 2};
+    int i = 0;
+    while (reader.hasNext()) {
+      BatchData batchData = reader.nextBatch();
+      while (batchData.hasNext()) {
+        Assert.assertEquals(expectedTimes[i], batchData.currentTime());
+        Assert.assertEquals(expectedValues[i], batchData.getLong());
+        batchData.next();
+        i++;
+      }
+    }
+    Assert.assertEquals(expectedTimes.length, i);
+  }
+
+  private static class FakedPagedReader implements IPointReader, IBatchReader {
+
+    private long[] timestamps;
+    private long value;
+    private int pageSize;
+    private int index = 0;
+
+    private FakedPagedReader(long[] timestamps, long value, int pageSize) {
+      this.timestamps = timestamps;
+      this.value = value;
+      this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < timestamps.length;
+    }
+
+    @Override
+    public BatchData nextBatch() {
+      BatchData batchData = new BatchData(TSDataType.INT64, true);
+      for (int i = 0; i < pageSize && index < timestamps.length; i++) {
+        batchData.putTime(timestamps[index++]);
+        batchData.putLong(value);
+      }
+      return batchData;
+    }
+
+    @Override
+    public TimeValuePair next() throws IOException {
+      throw new IOException("the paged reader is only read by pages");
+    }
+
+    @Override
+    public TimeValuePair current() throws IOException {
+      throw new IOException("the paged reader is only read by pages");
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
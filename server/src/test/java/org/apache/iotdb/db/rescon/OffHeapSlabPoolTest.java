@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.rescon;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OffHeapSlabPoolTest {
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private long offHeapMemtableBudget;
+
+  @Before
+  public void setUp() {
+    offHeapMemtableBudget = config.getOffHeapMemtableBudgetInByte();
+    OffHeapSlabPool.releaseIdleSlabs();
+  }
+
+  @After
+  public void tearDown() {
+    config.setOffHeapMemtableBudgetInByte(offHeapMemtableBudget);
+    OffHeapSlabPool.releaseIdleSlabs();
+  }
+
+  @Test
+  public void testFallBackToHeap() {
+    OffHeapSlabPool pool = OffHeapSlabPool.getInstance(Long.BYTES);
+    long directSize = OffHeapSlabPool.getDirectSizeInByte();
+    long allocatedSize = pool.getAllocatedSizeInByte();
+    config.setOffHeapMemtableBudgetInByte(directSize);
+
+    // the free blocks of the existing slabs are used up before a heap slab is allocated
+    List<Integer> blocks = new ArrayList<>();
+    int block;
+    do {
+      block = pool.allocate();
+      blocks.add(block);
+    } while (pool.getSlab(block).isDirect());
+    Assert.assertEquals(directSize, OffHeapSlabPool.getDirectSizeInByte());
+    ByteBuffer slab = pool.getSlab(block);
+    slab.putLong(pool.getTimeOffset(block, 1), 10L);
+    slab.putLong(pool.getValueOffset(block, 1), 20L);
+    Assert.assertEquals(10L, slab.getLong(pool.getTimeOffset(block, 1)));
+    Assert.assertEquals(20L, slab.getLong(pool.getValueOffset(block, 1)));
+
+    for (int usedBlock : blocks) {
+      pool.release(usedBlock);
+    }
+    // an idle heap slab is dropped at once
+    Assert.assertEquals(allocatedSize, pool.getAllocatedSizeInByte());
+  }
+
+  @Test
+  public void testReleaseIdleSlabsForBudget() {
+    OffHeapSlabPool longPool = OffHeapSlabPool.getInstance(Long.BYTES);
+    OffHeapSlabPool bytePool = OffHeapSlabPool.getInstance(Byte.BYTES);
+    config.setOffHeapMemtableBudgetInByte(Long.MAX_VALUE);
+    long directSize = OffHeapSlabPool.getDirectSizeInByte();
+
+    // allocate a new direct slab in the long pool and make it idle
+    List<Integer> blocks = new ArrayList<>();
+    do {
+      blocks.add(longPool.allocate());
+    } while (OffHeapSlabPool.getDirectSizeInByte() == directSize);
+    long longSlabSize = OffHeapSlabPool.getDirectSizeInByte() - directSize;
+    for (int block : blocks) {
+      longPool.release(block);
+    }
+    // idle direct slabs are kept for reuse within the budget
+    Assert.assertEquals(directSize + longSlabSize, OffHeapSlabPool.getDirectSizeInByte());
+
+    // a new slab of the byte pool only fits after the idle slab of the long pool is freed
+    config.setOffHeapMemtableBudgetInByte(directSize + longSlabSize);
+    blocks.clear();
+    int block;
+    do {
+      block = bytePool.allocate();
+      blocks.add(block);
+    } while (OffHeapSlabPool.getDirectSizeInByte() == directSize + longSlabSize
+        && bytePool.getSlab(block).isDirect());
+    Assert.assertTrue(bytePool.getSlab(block).isDirect());
+    Assert.assertTrue(OffHeapSlabPool.getDirectSizeInByte() < directSize + longSlabSize);
+    for (int usedBlock : blocks) {
+      bytePool.release(usedBlock);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.rescon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimitiveArrayPoolTest {
+
+  @Test
+  public void testReuseInSameThread() {
+    PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+    long[] array = (long[]) pool.getPrimitiveDataListByType(TSDataType.INT64);
+    Assert.assertEquals(PrimitiveArrayPool.ARRAY_SIZE, array.length);
+    pool.release(array);
+
+    long hitCount = pool.getHitCount();
+    Assert.assertSame(array, pool.getPrimitiveDataListByType(TSDataType.INT64));
+    Assert.assertEquals(hitCount + 1, pool.getHitCount());
+  }
+
+  @Test
+  public void testReuseAcrossThreads() throws Exception {
+    PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+    int arrayNum = 1000;
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      // arrays released by another thread overflow its magazine into the shared depot
+      Future<?> future = executor.submit(() -> {
+        List<Object> arrays = new ArrayList<>();
+        for (int i = 0; i < arrayNum; i++) {
+          arrays.add(pool.getPrimitiveDataListByType(TSDataType.DOUBLE));
+        }
+        for (Object array : arrays) {
+          pool.release(array);
+        }
+      });
+      future.get();
+    } finally {
+      executor.shutdown();
+    }
+    Assert.assertTrue(pool.getNumberOfPooledArrays() > 0);
+
+    long hitCount = pool.getHitCount();
+    for (int i = 0; i < arrayNum / 2; i++) {
+      pool.getPrimitiveDataListByType(TSDataType.DOUBLE);
+    }
+    Assert.assertEquals(hitCount + arrayNum / 2, pool.getHitCount());
+  }
+
+  @Test
+  public void testGetDataLists() {
+    long[][] arrays = (long[][]) PrimitiveArrayPool.getInstance()
+        .getDataListsByType(TSDataType.INT64, PrimitiveArrayPool.ARRAY_SIZE * 3 + 1);
+    Assert.assertEquals(4, arrays.length);
+    for (long[] array : arrays) {
+      Assert.assertEquals(PrimitiveArrayPool.ARRAY_SIZE, array.length);
+      PrimitiveArrayPool.getInstance().release(array);
+    }
+  }
+
+  @Test
+  public void testSizeClasses() {
+    PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+    for (int size = PrimitiveArrayPool.MIN_ARRAY_SIZE; size <= PrimitiveArrayPool.MAX_ARRAY_SIZE;
+        size *= 2) {
+      int[] array = (int[]) pool.getPrimitiveDataListByType(TSDataType.INT32, size);
+      Assert.assertEquals(size, array.length);
+      pool.release(array);
+      // each size class is pooled separately
+      Assert.assertSame(array, pool.getPrimitiveDataListByType(TSDataType.INT32, size));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalSize() {
+    PrimitiveArrayPool.getInstance().getPrimitiveDataListByType(TSDataType.INT32, 100);
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.iotdb.db.utils.datastructure;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import org.apache.iotdb.db.rescon.PrimitiveArrayPool;
 import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.db.utils.TsPrimitiveType.TsLong;
 import org.junit.Assert;
@@ -55,6 +56,25 @@ public class LongTVListTest {
     }
   }
 
+  @Test
+  public void testGeometricGrowth() {
+    LongTVList tvList = new LongTVList();
+    tvList.putLong(0, 0);
+    Assert.assertEquals(PrimitiveArrayPool.MIN_ARRAY_SIZE, tvList.getCapacity());
+    for (long i = 1; i < 5000; i++) {
+      tvList.putLong(i, i);
+    }
+    // arrays double until they reach MAX_ARRAY_SIZE, then grow by MAX_ARRAY_SIZE
+    Assert.assertEquals(5 * PrimitiveArrayPool.MAX_ARRAY_SIZE, tvList.getCapacity());
+    for (int i = 0; i < tvList.size(); i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Assert.assertEquals(i, tvList.getLong(i));
+    }
+    tvList.delete(4000);
+    Assert.assertEquals(999, tvList.size());
+    Assert.assertEquals(PrimitiveArrayPool.MAX_ARRAY_SIZE, tvList.getCapacity());
+  }
+
   @Test
   public void testLongTVList3() {
     Random random = new Random();
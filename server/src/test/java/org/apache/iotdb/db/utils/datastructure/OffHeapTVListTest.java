@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.db.utils.TsPrimitiveType.TsDouble;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapTVListTest {
+
+  @Test
+  public void testSortedInput() {
+    TVList tvList = TVList.newOffHeapList(TSDataType.INT64);
+    Assert.assertTrue(tvList instanceof OffHeapTVList);
+    for (long i = 0; i < 1000; i++) {
+      tvList.putLong(i, i);
+    }
+    tvList.sort();
+    for (int i = 0; i < tvList.size(); i++) {
+      Assert.assertEquals(i, tvList.getLong(i));
+      Assert.assertEquals(i, tvList.getTime(i));
+    }
+    tvList.clear();
+  }
+
+  @Test
+  public void testRandomInput() {
+    Random random = new Random();
+    TVList tvList = TVList.newOffHeapList(TSDataType.DOUBLE);
+    List<TimeValuePair> inputs = new ArrayList<>();
+    for (long i = 0; i < 10000; i++) {
+      long time = random.nextInt(10000);
+      double value = random.nextDouble();
+      tvList.putDouble(time, value);
+      inputs.add(new TimeValuePair(time, new TsDouble(value)));
+    }
+    tvList.sort();
+    inputs.sort(TimeValuePair::compareTo);
+    for (int i = 0; i < tvList.size(); i++) {
+      Assert.assertEquals(inputs.get(i).getTimestamp(), tvList.getTime(i));
+      Assert.assertEquals(inputs.get(i).getValue().getDouble(), tvList.getDouble(i), 0);
+    }
+    tvList.clear();
+  }
+
+  @Test
+  public void testBatchPutAndDelete() {
+    TVList tvList = TVList.newOffHeapList(TSDataType.INT32);
+    long[] times = new long[1000];
+    int[] values = new int[1000];
+    for (int i = 0; i < 1000; i++) {
+      times[i] = 999 - i;
+      values[i] = 999 - i;
+    }
+    tvList.putInts(times, values);
+    tvList.delete(499);
+    tvList.sort();
+    Assert.assertEquals(500, tvList.size());
+    Assert.assertEquals(500, tvList.getMinTime());
+    for (int i = 0; i < tvList.size(); i++) {
+      Assert.assertEquals(500 + i, tvList.getTime(i));
+      Assert.assertEquals(500 + i, tvList.getInt(i));
+    }
+    tvList.clear();
+  }
+
+  @Test
+  public void testCloneOnHeap() {
+    TVList tvList = TVList.newOffHeapList(TSDataType.BOOLEAN);
+    for (long i = 0; i < 300; i++) {
+      tvList.putBoolean(i, i % 3 == 0);
+    }
+    TVList cloneList = tvList.clone();
+    Assert.assertTrue(cloneList instanceof BooleanTVList);
+    tvList.clear();
+    for (int i = 0; i < cloneList.size(); i++) {
+      Assert.assertEquals(i, cloneList.getTime(i));
+      Assert.assertEquals(i % 3 == 0, cloneList.getBoolean(i));
+    }
+  }
+
+  @Test
+  public void testTextStaysOnHeap() {
+    Assert.assertTrue(TVList.newOffHeapList(TSDataType.TEXT) instanceof BinaryTVList);
+  }
+}
@@ -24,12 +24,17 @@ import static junit.framework.TestCase.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.db.writelog.io.ILogReader;
+import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
 import org.apache.iotdb.db.writelog.node.ExclusiveWriteLogNode;
 import org.apache.iotdb.db.writelog.node.WriteLogNode;
 import org.apache.iotdb.tsfile.read.common.Path;
@@ -193,4 +198,144 @@ public class WriteLogNodeTest {
 
     logNode.delete();
   }
+
+  @Test
+  public void testGroupCommit() throws Exception {
+    // this test appends logs concurrently with group commit enabled and waits for them out of
+    // the append, every log must be readable from the log file once its wait returns
+    boolean enableGroupCommit = config.isEnableWalGroupCommit();
+    int groupCommitThreadNum = config.getWalGroupCommitThreadNum();
+    config.setEnableWalGroupCommit(true);
+    config.setWalGroupCommitThreadNum(2);
+    MultiFileLogNodeManager.getInstance().start();
+    String identifier = "root.logTestDevice.group";
+    ExclusiveWriteLogNode logNode = new ExclusiveWriteLogNode(identifier);
+    try {
+      int threadNum = 4;
+      int logNumPerThread = 100;
+      List<Thread> threads = new ArrayList<>();
+      List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+      for (int i = 0; i < threadNum; i++) {
+        int threadIndex = i;
+        Thread thread = new Thread(() -> {
+          try {
+            long lastSeq = 0;
+            for (int j = 0; j < logNumPerThread; j++) {
+              List<PhysicalPlan> plans = Collections.singletonList(
+                  new InsertPlan(identifier, threadIndex * logNumPerThread + j,
+                      new String[]{"s1"}, new String[]{"1.0"}));
+              long seq = logNode.append(plans);
+              assertTrue(seq > lastSeq);
+              lastSeq = seq;
+              logNode.awaitDurable(seq);
+            }
+          } catch (Throwable e) {
+            errors.add(e);
+          }
+        });
+        threads.add(thread);
+        thread.start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      assertTrue(errors.isEmpty());
+      assertEquals(threadNum * logNumPerThread, logNode.getAppendedLogNum());
+      assertTrue(logNode.getCommitNum() <= logNode.getAppendedLogNum());
+
+      // all logs are on disk before the node is closed
+      ILogReader reader = logNode.getLogReader();
+      int cnt = 0;
+      while (reader.hasNext()) {
+        reader.next();
+        cnt++;
+      }
+      reader.close();
+      assertEquals(threadNum * logNumPerThread, cnt);
+    } finally {
+      logNode.delete();
+      MultiFileLogNodeManager.getInstance().stop();
+      config.setEnableWalGroupCommit(enableGroupCommit);
+      config.setWalGroupCommitThreadNum(groupCommitThreadNum);
+    }
+  }
+
+  @Test
+  public void testMmapWal() throws IOException {
+    // this test writes logs into small preallocated segments so that they have to be extended,
+    // then checks that a recycled segment does not expose its old logs
+    boolean enableMmapWal = config.isEnableMmapWal();
+    long walSegmentSize = config.getWalSegmentSizeInByte();
+    config.setEnableMmapWal(true);
+    config.setWalSegmentSizeInByte(1024);
+    String identifier = "root.logTestDevice.mmap";
+    WriteLogNode logNode = new ExclusiveWriteLogNode(identifier);
+    try {
+      for (int i = 0; i < 100; i++) {
+        logNode.awaitDurable(logNode.append(Collections.singletonList(
+            new InsertPlan(identifier, i, new String[]{"s1"}, new String[]{"1.0"}))));
+      }
+      logNode.notifyStartFlush();
+      InsertPlan insertPlan = new InsertPlan(identifier, 200, new String[]{"s1"},
+          new String[]{"2.0"});
+      logNode.awaitDurable(logNode.append(Collections.singletonList(insertPlan)));
+      logNode.notifyEndFlush();
+      // wal1 is recycled rather than deleted
+      assertTrue(new File(logNode.getLogDirectory(),
+          ExclusiveWriteLogNode.RECYCLED_WAL_FILE_NAME + 1).exists());
+
+      logNode.notifyStartFlush();
+      DeletePlan deletePlan = new DeletePlan(50, new Path(identifier + ".s1"));
+      logNode.awaitDurable(logNode.append(Collections.singletonList(deletePlan)));
+      logNode.close();
+      // wal3 reuses the recycled segment
+      assertFalse(new File(logNode.getLogDirectory(),
+          ExclusiveWriteLogNode.RECYCLED_WAL_FILE_NAME + 1).exists());
+
+      ILogReader reader = logNode.getLogReader();
+      assertEquals(insertPlan, reader.next());
+      assertEquals(deletePlan, reader.next());
+      assertFalse(reader.hasNext());
+      reader.close();
+    } finally {
+      logNode.delete();
+      config.setEnableMmapWal(enableMmapWal);
+      config.setWalSegmentSizeInByte(walSegmentSize);
+    }
+  }
+
+  @Test
+  public void testRecycledWalNotReplayed() throws IOException {
+    // this test rolls a node onto a recycled segment and reopens the node without writing to it,
+    // as after a crash, then checks that the flushed logs of the segment are not replayed
+    boolean enableMmapWal = config.isEnableMmapWal();
+    long walSegmentSize = config.getWalSegmentSizeInByte();
+    config.setEnableMmapWal(true);
+    config.setWalSegmentSizeInByte(1024);
+    String identifier = "root.logTestDevice.recycle";
+    WriteLogNode logNode = new ExclusiveWriteLogNode(identifier);
+    try {
+      for (int i = 0; i < 10; i++) {
+        logNode.write(new InsertPlan(identifier, i, new String[]{"s1"}, new String[]{"1.0"}));
+      }
+      logNode.notifyStartFlush();
+      logNode.notifyEndFlush();
+      assertTrue(new File(logNode.getLogDirectory(),
+          ExclusiveWriteLogNode.RECYCLED_WAL_FILE_NAME + 1).exists());
+
+      // wal2 is never written, wal3 takes the recycled segment and is never written either
+      logNode.notifyStartFlush();
+      assertTrue(new File(logNode.getLogDirectory(),
+          ExclusiveWriteLogNode.WAL_FILE_NAME + 3).exists());
+
+      WriteLogNode recoveredNode = new ExclusiveWriteLogNode(identifier);
+      ILogReader reader = recoveredNode.getLogReader();
+      assertFalse(reader.hasNext());
+      reader.close();
+    } finally {
+      logNode.delete();
+      config.setEnableMmapWal(enableMmapWal);
+      config.setWalSegmentSizeInByte(walSegmentSize);
+    }
+  }
 }
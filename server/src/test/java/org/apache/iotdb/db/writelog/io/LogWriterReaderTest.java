@@ -77,4 +77,40 @@ public class LogWriterReaderTest {
       new File(filePath).delete();
     }
   }
+
+  @Test
+  public void testMappedWriterKeepsExistingLogs() throws IOException {
+    try {
+      MappedLogWriter writer = new MappedLogWriter(new File(filePath), false);
+      writer.write(logsBuffer);
+      writer.close();
+      // the logs of an existing file may not be replayed yet, so new logs are appended
+      writer = new MappedLogWriter(new File(filePath), false);
+      writer.write(logsBuffer);
+      writer.close();
+      List<PhysicalPlan> res = readPlans();
+      assertEquals(plans.size() * 2, res.size());
+      for (int i = 0; i < res.size(); i++) {
+        assertEquals(plans.get(i % plans.size()), res.get(i));
+      }
+
+      // the old logs of a recycled file are hidden
+      writer = new MappedLogWriter(new File(filePath), true);
+      writer.write(logsBuffer);
+      writer.close();
+      assertEquals(plans, readPlans());
+    } finally {
+      new File(filePath).delete();
+    }
+  }
+
+  private List<PhysicalPlan> readPlans() throws IOException {
+    SingleFileLogReader reader = new SingleFileLogReader(new File(filePath));
+    List<PhysicalPlan> res = new ArrayList<>();
+    while (reader.hasNext()) {
+      res.add(reader.next());
+    }
+    reader.close();
+    return res;
+  }
 }
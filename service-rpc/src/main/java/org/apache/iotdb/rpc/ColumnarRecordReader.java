@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.rpc;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * ColumnarRecordReader decodes RowRecords lazily from a buffer in columnar format, which is the
+ * format of the query results in the RPC responses, only the fields of the returned record are
+ * materialized. The format is:
+ * <ul>
+ * <li>the time column: rowCount longs</li>
+ * <li>for each value column: a null bitmap of (rowCount + 7) / 8 bytes (bit i % 8 of byte i / 8 is
+ * set when row i has a value), an int of the size of the values in byte, then the values of the
+ * non-null rows (TEXT values are prefixed by their lengths)</li>
+ * </ul>
+ */
+public class ColumnarRecordReader implements Iterator<RowRecord> {
+
+  private ByteBuffer buffer;
+  private TSDataType[] dataTypes;
+  private int rowCount;
+  private int rowIndex = 0;
+
+  private int timeOffset;
+  private int[] bitmapOffsets;
+  private int[] valueOffsets;
+
+  /**
+   * @param buffer the columnar data, from its position to its limit, which is not modified
+   */
+  public ColumnarRecordReader(ByteBuffer buffer, List<TSDataType> dataTypes, int rowCount) {
+    this.buffer = buffer;
+    this.dataTypes = dataTypes.toArray(new TSDataType[0]);
+    this.rowCount = rowCount;
+    this.timeOffset = buffer.position();
+    this.bitmapOffsets = new int[this.dataTypes.length];
+    this.valueOffsets = new int[this.dataTypes.length];
+    int offset = timeOffset + rowCount * Long.BYTES;
+    int bitmapSize = getBitmapSize(rowCount);
+    for (int i = 0; i < this.dataTypes.length; i++) {
+      bitmapOffsets[i] = offset;
+      offset += bitmapSize;
+      int valueSize = buffer.getInt(offset);
+      offset += Integer.BYTES;
+      valueOffsets[i] = offset;
+      offset += valueSize;
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    return rowIndex < rowCount;
+  }
+
+  @Override
+  public RowRecord next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    RowRecord record = new RowRecord(buffer.getLong(timeOffset + rowIndex * Long.BYTES));
+    for (int i = 0; i < dataTypes.length; i++) {
+      if ((buffer.get(bitmapOffsets[i] + rowIndex / 8) & (1 << (rowIndex % 8))) == 0) {
+        record.addField(new Field(null));
+      } else {
+        record.addField(readField(i));
+      }
+    }
+    rowIndex++;
+    return record;
+  }
+
+  private Field readField(int column) {
+    TSDataType dataType = dataTypes[column];
+    int offset = valueOffsets[column];
+    Field field = new Field(dataType);
+    switch (dataType) {
+      case BOOLEAN:
+        field.setBoolV(buffer.get(offset) != 0);
+        offset += 1;
+        break;
+      case INT32:
+        field.setIntV(buffer.getInt(offset));
+        offset += Integer.BYTES;
+        break;
+      case INT64:
+        field.setLongV(buffer.getLong(offset));
+        offset += Long.BYTES;
+        break;
+      case FLOAT:
+        field.setFloatV(buffer.getFloat(offset));
+        offset += Float.BYTES;
+        break;
+      case DOUBLE:
+        field.setDoubleV(buffer.getDouble(offset));
+        offset += Double.BYTES;
+        break;
+      case TEXT:
+        int length = buffer.getInt(offset);
+        offset += Integer.BYTES;
+        byte[] values = new byte[length];
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.get(values);
+        field.setBinaryV(new Binary(values));
+        offset += length;
+        break;
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", dataType));
+    }
+    valueOffsets[column] = offset;
+    return field;
+  }
+
+  private static int getBitmapSize(int rowCount) {
+    return (rowCount + 7) / 8;
+  }
+
+  /**
+   * @return the size in byte of the given records in columnar format
+   */
+  public static int getSerializedSize(List<RowRecord> records, int columnNum) {
+    int rowCount = records.size();
+    int size = rowCount * Long.BYTES + columnNum * (getBitmapSize(rowCount) + Integer.BYTES);
+    for (RowRecord record : records) {
+      for (Field field : record.getFields()) {
+        if (field.getDataType() != null) {
+          size += getValueSize(field);
+        }
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Write the given records into the buffer in columnar format, the buffer must have at least
+   * getSerializedSize() bytes remaining.
+   */
+  public static void serialize(List<RowRecord> records, int columnNum, ByteBuffer buffer) {
+    for (RowRecord record : records) {
+      buffer.putLong(record.getTimestamp());
+    }
+    int rowCount = records.size();
+    int bitmapSize = getBitmapSize(rowCount);
+    for (int i = 0; i < columnNum; i++) {
+      int bitmapOffset = buffer.position();
+      for (int j = 0; j < bitmapSize; j++) {
+        buffer.put((byte) 0);
+      }
+      int sizeOffset = buffer.position();
+      buffer.putInt(0);
+      for (int j = 0; j < rowCount; j++) {
+        Field field = records.get(j).getFields().get(i);
+        if (field.getDataType() != null) {
+          int byteOffset = bitmapOffset + j / 8;
+          buffer.put(byteOffset, (byte) (buffer.get(byteOffset) | (1 << (j % 8))));
+          putValue(field, buffer);
+        }
+      }
+      buffer.putInt(sizeOffset, buffer.position() - sizeOffset - Integer.BYTES);
+    }
+  }
+
+  private static int getValueSize(Field field) {
+    switch (field.getDataType()) {
+      case BOOLEAN:
+        return 1;
+      case INT32:
+        return Integer.BYTES;
+      case INT64:
+        return Long.BYTES;
+      case FLOAT:
+        return Float.BYTES;
+      case DOUBLE:
+        return Double.BYTES;
+      case TEXT:
+        return Integer.BYTES + field.getBinaryV().getLength();
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", field.getDataType()));
+    }
+  }
+
+  private static void putValue(Field field, ByteBuffer buffer) {
+    switch (field.getDataType()) {
+      case BOOLEAN:
+        buffer.put(field.getBoolV() ? (byte) 1 : (byte) 0);
+        break;
+      case INT32:
+        buffer.putInt(field.getIntV());
+        break;
+      case INT64:
+        buffer.putLong(field.getLongV());
+        break;
+      case FLOAT:
+        buffer.putFloat(field.getFloatV());
+        break;
+      case DOUBLE:
+        buffer.putDouble(field.getDoubleV());
+        break;
+      case TEXT:
+        buffer.putInt(field.getBinaryV().getLength());
+        buffer.put(field.getBinaryV().getValues());
+        break;
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", field.getDataType()));
+    }
+  }
+}
@@ -168,12 +168,16 @@ struct TSCloseOperationReq {
 struct TSQueryDataSet{
    1: required binary values
    2: required i32 rowCount
+   // whether values are in the columnar format of ColumnarRecordReader
+   3: optional bool columnar
 }
 
 struct TSFetchResultsReq{
 	1: required string statement
 	2: required i32 fetch_size
 	3: required i64 queryId
+	// the client can decode values in the columnar format
+	4: optional bool columnar
 }
 
 struct TSFetchResultsResp{
@@ -236,6 +240,17 @@ struct TSBatchInsertionReq {
     6: required i32 size
 }
 
+// Rows of many devices in one request. The timestamps and values of the devices are encoded as in
+// TSBatchInsertionReq and concatenated in the order of deviceIds.
+struct TSMultiBatchInsertionReq {
+    1: required list<string> deviceIds
+    2: required list<list<string>> measurementsList
+    3: required binary values
+    4: required binary timestamps
+    5: required list<list<i32>> typesList
+    6: required list<i32> sizeList
+}
+
 struct TSInsertReq {
     1: required string deviceId
     2: required list<string> measurements
@@ -299,6 +314,9 @@ service TSIService {
 
 	TSExecuteBatchStatementResp insertBatch(1:TSBatchInsertionReq req);
 
+	// the result list holds the results of the rows of all devices in the order of the request
+	TSExecuteBatchStatementResp insertMultiBatch(1:TSMultiBatchInsertionReq req);
+
 	TSStatus setStorageGroup(1:string storageGroup);
 
 	TSStatus createTimeseries(1:TSCreateTimeseriesReq req);
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.rpc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.junit.Test;
+
+public class ColumnarRecordReaderTest {
+
+  @Test
+  public void testSerializeAndRead() {
+    List<TSDataType> dataTypes = Arrays.asList(TSDataType.BOOLEAN, TSDataType.INT32,
+        TSDataType.INT64, TSDataType.FLOAT, TSDataType.DOUBLE, TSDataType.TEXT);
+    List<RowRecord> records = new ArrayList<>();
+    for (int i = 0; i < 21; i++) {
+      RowRecord record = new RowRecord(i * 10L);
+      for (int j = 0; j < dataTypes.size(); j++) {
+        // leave a different set of rows empty in each column
+        if ((i + j) % 3 == 0) {
+          record.addField(new Field(null));
+          continue;
+        }
+        Field field = new Field(dataTypes.get(j));
+        field.setBoolV(i % 2 == 0);
+        field.setIntV(i);
+        field.setLongV(i * 100L);
+        field.setFloatV(i + 0.5f);
+        field.setDoubleV(i + 0.25);
+        field.setBinaryV(new Binary("text" + i));
+        record.addField(field);
+      }
+      records.add(record);
+    }
+
+    int size = ColumnarRecordReader.getSerializedSize(records, dataTypes.size());
+    // the reader must respect the start position of the buffer
+    ByteBuffer buffer = ByteBuffer.allocate(size + 3);
+    buffer.position(3);
+    ColumnarRecordReader.serialize(records, dataTypes.size(), buffer);
+    assertEquals(size + 3, buffer.position());
+    buffer.position(3);
+
+    ColumnarRecordReader reader = new ColumnarRecordReader(buffer, dataTypes, records.size());
+    for (RowRecord expected : records) {
+      RowRecord actual = reader.next();
+      assertEquals(expected.getTimestamp(), actual.getTimestamp());
+      for (int j = 0; j < dataTypes.size(); j++) {
+        Field expectedField = expected.getFields().get(j);
+        Field actualField = actual.getFields().get(j);
+        if (expectedField.getDataType() == null) {
+          assertNull(actualField.getDataType());
+        } else {
+          assertEquals(expectedField.getStringValue(), actualField.getStringValue());
+        }
+      }
+    }
+    assertFalse(reader.hasNext());
+  }
+
+  @Test
+  public void testEmpty() {
+    List<TSDataType> dataTypes = Arrays.asList(TSDataType.INT32, TSDataType.TEXT);
+    ByteBuffer buffer = ByteBuffer
+        .allocate(ColumnarRecordReader.getSerializedSize(new ArrayList<>(), dataTypes.size()));
+    ColumnarRecordReader.serialize(new ArrayList<>(), dataTypes.size(), buffer);
+    buffer.flip();
+    assertFalse(new ColumnarRecordReader(buffer, dataTypes, 0).hasNext());
+  }
+}
@@ -0,0 +1,711 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.session;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.iotdb.rpc.TSStatusCode;
+import org.apache.iotdb.service.rpc.thrift.TSExecuteBatchStatementResp;
+import org.apache.iotdb.service.rpc.thrift.TSStatus;
+import org.apache.iotdb.service.rpc.thrift.TSStatusType;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.write.record.RowBatch;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An asynchronous session that multiplexes requests over a pool of connections. Every request
+ * returns a CompletableFuture and is executed by the worker thread of one idle connection. The
+ * futures are completed in callback threads after the connection is returned to the pool.
+ *
+ * Single-row inserts are buffered and sent when insertBatchSize rows are buffered or the first
+ * buffered row has waited lingerTimeInMs. Typed rows are sent by one insertMultiBatch request and
+ * rows with string values by one insertInBatch request. At most maxPendingRequests
+ * requests (buffered rows included) can be pending; a new request waits up to
+ * backPressureTimeoutInMs for a slot and fails if none is freed.
+ */
+public class AsyncSession {
+
+  private static final Logger logger = LoggerFactory.getLogger(AsyncSession.class);
+
+  private String host;
+  private int port;
+  private String username;
+  private String password;
+  private int poolSize;
+
+  private int insertBatchSize = Config.DEFAULT_INSERT_BATCH_SIZE;
+  private long lingerTimeInMs = Config.DEFAULT_LINGER_TIME_IN_MS;
+  private int maxPendingRequests = Config.DEFAULT_MAX_PENDING_REQUESTS;
+  private long backPressureTimeoutInMs = Config.DEFAULT_BACK_PRESSURE_TIMEOUT_IN_MS;
+  private boolean enableFramedTransport = false;
+
+  private List<Session> sessions = new ArrayList<>();
+  private BlockingQueue<Session> idleSessions = new LinkedBlockingQueue<>();
+  private ExecutorService requestExecutor;
+  /**
+   * threads that complete the futures, so that callbacks never run in a worker thread
+   */
+  private ExecutorService callbackExecutor;
+  private ScheduledExecutorService lingerTimer;
+  private Semaphore pendingPermits;
+  private volatile boolean isClosed = true;
+
+  private final Object insertBufferLock = new Object();
+  private List<PendingInsert> insertBuffer = new ArrayList<>();
+  private ScheduledFuture<?> lingerTask;
+
+  /**
+   * number of requests waiting for an idle connection
+   */
+  private AtomicInteger queueDepth = new AtomicInteger();
+  private LongAdder completedRequestNum = new LongAdder();
+  private LongAdder totalLatencyInNs = new LongAdder();
+  private AtomicLong maxLatencyInNs = new AtomicLong();
+
+  public AsyncSession(String host, int port) {
+    this(host, port, Config.DEFAULT_USER, Config.DEFAULT_PASSWORD, Config.DEFAULT_ASYNC_POOL_SIZE);
+  }
+
+  public AsyncSession(String host, int port, String username, String password, int poolSize) {
+    this.host = host;
+    this.port = port;
+    this.username = username;
+    this.password = password;
+    this.poolSize = poolSize;
+  }
+
+  public synchronized void open() throws IoTDBSessionException {
+    if (!isClosed) {
+      return;
+    }
+    try {
+      for (int i = 0; i < poolSize; i++) {
+        Session session = new Session(host, port, username, password);
+        session.setEnableFramedTransport(enableFramedTransport);
+        session.open();
+        sessions.add(session);
+        idleSessions.add(session);
+      }
+    } catch (IoTDBSessionException e) {
+      closeSessions();
+      throw e;
+    }
+    pendingPermits = new Semaphore(maxPendingRequests);
+    requestExecutor = Executors.newFixedThreadPool(poolSize, new SessionThreadFactory("Worker"));
+    callbackExecutor = Executors.newCachedThreadPool(new SessionThreadFactory("Callback"));
+    lingerTimer = Executors
+        .newSingleThreadScheduledExecutor(new SessionThreadFactory("LingerTimer"));
+    isClosed = false;
+  }
+
+  /**
+   * Send the buffered inserts, wait for all pending requests and close the connections.
+   */
+  public synchronized void close() throws IoTDBSessionException {
+    if (isClosed) {
+      return;
+    }
+    isClosed = true;
+    flush();
+    lingerTimer.shutdownNow();
+    requestExecutor.shutdown();
+    try {
+      if (!requestExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+        logger.warn("Pending requests of the async session are not finished");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IoTDBSessionException("Interrupted when waiting for pending requests", e);
+    } finally {
+      // submitted callbacks still run
+      callbackExecutor.shutdown();
+      closeSessions();
+    }
+  }
+
+  private void closeSessions() {
+    for (Session session : sessions) {
+      try {
+        session.close();
+      } catch (IoTDBSessionException e) {
+        logger.warn("Cannot close a connection of the async session", e);
+      }
+    }
+    sessions.clear();
+    idleSessions.clear();
+  }
+
+  /**
+   * insert data in one row with typed values. The row is buffered and the buffered rows are sent
+   * by one insertMultiBatch request, in which the rows of a device with the same measurements form
+   * one RowBatch.
+   *
+   * @param types data types of the measurements
+   * @param values one value per measurement, a Boolean, Integer, Long, Float, Double, or a Binary
+   * or String for TEXT
+   * @see Session#insertMultiBatch(List)
+   */
+  public CompletableFuture<TSStatus> insert(String deviceId, long time, List<String> measurements,
+      List<TSDataType> types, List<Object> values) {
+    CompletableFuture<TSStatus> future = new CompletableFuture<>();
+    if (measurements.size() != types.size() || measurements.size() != values.size()) {
+      future.completeExceptionally(new IllegalArgumentException(
+          "measurements, types and values' size should be equal"));
+      return future;
+    }
+    for (int i = 0; i < types.size(); i++) {
+      if (!isValueOfType(values.get(i), types.get(i))) {
+        future.completeExceptionally(new IllegalArgumentException(String.format(
+            "Value %s of %s is not of type %s", values.get(i), measurements.get(i),
+            types.get(i))));
+        return future;
+      }
+    }
+    return bufferInsert(
+        new PendingInsert(deviceId, time, measurements, types, values, null, future));
+  }
+
+  /**
+   * insert data in one row whose values are parsed by the server. This is a convenience for
+   * callers without the data types, the buffered rows of this method are sent by one
+   * insertInBatch request, which executes the rows one by one.
+   *
+   * @see Session#insertInBatch(List, List, List, List)
+   */
+  public CompletableFuture<TSStatus> insert(String deviceId, long time, List<String> measurements,
+      List<String> values) {
+    return bufferInsert(new PendingInsert(deviceId, time, measurements, null, null, values,
+        new CompletableFuture<>()));
+  }
+
+  private CompletableFuture<TSStatus> bufferInsert(PendingInsert pendingInsert) {
+    CompletableFuture<TSStatus> future = pendingInsert.future;
+    if (!acquirePermit(future)) {
+      return future;
+    }
+    List<PendingInsert> batch = null;
+    synchronized (insertBufferLock) {
+      // close() sets isClosed before draining the buffer, so no row is left behind
+      if (isClosed) {
+        pendingPermits.release();
+        future.completeExceptionally(new IoTDBSessionException("Session is closed"));
+        return future;
+      }
+      insertBuffer.add(pendingInsert);
+      if (insertBuffer.size() >= insertBatchSize) {
+        batch = drainInsertBuffer();
+      } else if (insertBuffer.size() == 1) {
+        lingerTask = lingerTimer.schedule(this::flush, lingerTimeInMs, TimeUnit.MILLISECONDS);
+      }
+    }
+    if (batch != null) {
+      sendInserts(batch);
+    }
+    return future;
+  }
+
+  /**
+   * Send the buffered inserts without waiting for the linger time.
+   */
+  public void flush() {
+    List<PendingInsert> batch;
+    synchronized (insertBufferLock) {
+      batch = drainInsertBuffer();
+    }
+    if (!batch.isEmpty()) {
+      sendInserts(batch);
+    }
+  }
+
+  /**
+   * @see Session#insertBatch(RowBatch)
+   */
+  public CompletableFuture<TSExecuteBatchStatementResp> insertBatch(RowBatch rowBatch) {
+    return submit(session -> session.insertBatch(rowBatch));
+  }
+
+  /**
+   * @see Session#insertMultiBatch(List)
+   */
+  public CompletableFuture<TSExecuteBatchStatementResp> insertMultiBatch(
+      List<RowBatch> rowBatches) {
+    return submit(session -> session.insertMultiBatch(rowBatches));
+  }
+
+  /**
+   * @see Session#deleteData(List, long)
+   */
+  public CompletableFuture<TSStatus> deleteData(List<String> paths, long time) {
+    return submit(session -> session.deleteData(paths, time));
+  }
+
+  /**
+   * @see Session#executeNonQueryStatement(String)
+   */
+  public CompletableFuture<Void> executeNonQueryStatement(String sql) {
+    return submit(session -> {
+      session.executeNonQueryStatement(sql);
+      return null;
+    });
+  }
+
+  private <T> CompletableFuture<T> submit(SessionCall<T> call) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    if (!acquirePermit(future)) {
+      return future;
+    }
+    long startTime = System.nanoTime();
+    // the counters are updated before the future is completed, so that they already include the
+    // request when its caller is notified
+    execute(call, result -> {
+      onRequestEnd(startTime);
+      future.complete(result);
+    }, e -> {
+      onRequestEnd(startTime);
+      future.completeExceptionally(e);
+    });
+    return future;
+  }
+
+  private void sendInserts(List<PendingInsert> batch) {
+    List<PendingInsert> typedInserts = new ArrayList<>(batch.size());
+    List<PendingInsert> stringInserts = new ArrayList<>();
+    for (PendingInsert pendingInsert : batch) {
+      if (pendingInsert.types != null) {
+        typedInserts.add(pendingInsert);
+      } else {
+        stringInserts.add(pendingInsert);
+      }
+    }
+    if (!typedInserts.isEmpty()) {
+      sendRowBatches(typedInserts);
+    }
+    if (!stringInserts.isEmpty()) {
+      sendStringInserts(stringInserts);
+    }
+  }
+
+  private void sendRowBatches(List<PendingInsert> batch) {
+    // rows of a device with the same measurements and types form one RowBatch, the rows are
+    // reordered accordingly so that they match the results of the request
+    Map<List<Object>, List<PendingInsert>> groups = new LinkedHashMap<>();
+    for (PendingInsert pendingInsert : batch) {
+      groups.computeIfAbsent(
+          Arrays.asList(pendingInsert.deviceId, pendingInsert.measurements, pendingInsert.types),
+          k -> new ArrayList<>()).add(pendingInsert);
+    }
+    List<PendingInsert> orderedInserts = new ArrayList<>(batch.size());
+    List<RowBatch> rowBatches = new ArrayList<>(groups.size());
+    for (List<PendingInsert> group : groups.values()) {
+      rowBatches.add(toRowBatch(group));
+      orderedInserts.addAll(group);
+    }
+
+    execute(session -> session.insertMultiBatch(rowBatches), resp -> {
+      onInsertsEnd(orderedInserts);
+      for (int i = 0; i < orderedInserts.size(); i++) {
+        orderedInserts.get(i).future.complete(getRowStatus(resp, i));
+      }
+    }, e -> {
+      onInsertsEnd(orderedInserts);
+      for (PendingInsert pendingInsert : orderedInserts) {
+        pendingInsert.future.completeExceptionally(e);
+      }
+    });
+  }
+
+  /**
+   * @param group rows of the same device with the same measurements and types
+   */
+  private RowBatch toRowBatch(List<PendingInsert> group) {
+    PendingInsert first = group.get(0);
+    List<MeasurementSchema> schemas = new ArrayList<>(first.measurements.size());
+    for (int i = 0; i < first.measurements.size(); i++) {
+      // only the ids and types are sent
+      schemas.add(new MeasurementSchema(first.measurements.get(i), first.types.get(i),
+          TSEncoding.PLAIN, CompressionType.UNCOMPRESSED));
+    }
+    RowBatch rowBatch = new RowBatch(first.deviceId, schemas, group.size());
+    for (int row = 0; row < group.size(); row++) {
+      PendingInsert pendingInsert = group.get(row);
+      rowBatch.timestamps[row] = pendingInsert.time;
+      for (int i = 0; i < schemas.size(); i++) {
+        setValue(rowBatch.values[i], first.types.get(i), row, pendingInsert.typedValues.get(i));
+      }
+    }
+    rowBatch.batchSize = group.size();
+    return rowBatch;
+  }
+
+  private static void setValue(Object column, TSDataType type, int row, Object value) {
+    switch (type) {
+      case BOOLEAN:
+        ((boolean[]) column)[row] = (Boolean) value;
+        break;
+      case INT32:
+        ((int[]) column)[row] = (Integer) value;
+        break;
+      case INT64:
+        ((long[]) column)[row] = (Long) value;
+        break;
+      case FLOAT:
+        ((float[]) column)[row] = (Float) value;
+        break;
+      case DOUBLE:
+        ((double[]) column)[row] = (Double) value;
+        break;
+      case TEXT:
+        ((Binary[]) column)[row] =
+            value instanceof Binary ? (Binary) value : new Binary((String) value);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", type));
+    }
+  }
+
+  private static boolean isValueOfType(Object value, TSDataType type) {
+    switch (type) {
+      case BOOLEAN:
+        return value instanceof Boolean;
+      case INT32:
+        return value instanceof Integer;
+      case INT64:
+        return value instanceof Long;
+      case FLOAT:
+        return value instanceof Float;
+      case DOUBLE:
+        return value instanceof Double;
+      case TEXT:
+        return value instanceof Binary || value instanceof String;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return the status of the index-th row of an insertMultiBatch request, the status of the
+   * request if the results of the rows are missing
+   */
+  private static TSStatus getRowStatus(TSExecuteBatchStatementResp resp, int index) {
+    if (resp.getResult() == null) {
+      return resp.getStatus();
+    }
+    int code = resp.getResult().get(index);
+    String message = code == TSStatusCode.SUCCESS_STATUS.getStatusCode() ? ""
+        : resp.getStatus().getStatusType().getMessage();
+    return new TSStatus(new TSStatusType(code, message));
+  }
+
+  private void sendStringInserts(List<PendingInsert> batch) {
+    execute(session -> {
+      List<String> deviceIds = new ArrayList<>(batch.size());
+      List<Long> times = new ArrayList<>(batch.size());
+      List<List<String>> measurementsList = new ArrayList<>(batch.size());
+      List<List<String>> valuesList = new ArrayList<>(batch.size());
+      for (PendingInsert pendingInsert : batch) {
+        deviceIds.add(pendingInsert.deviceId);
+        times.add(pendingInsert.time);
+        measurementsList.add(pendingInsert.measurements);
+        valuesList.add(pendingInsert.values);
+      }
+      return session.insertInBatch(deviceIds, times, measurementsList, valuesList);
+    }, statusList -> {
+      onInsertsEnd(batch);
+      for (int i = 0; i < batch.size(); i++) {
+        batch.get(i).future.complete(statusList.get(i));
+      }
+    }, e -> {
+      onInsertsEnd(batch);
+      for (PendingInsert pendingInsert : batch) {
+        pendingInsert.future.completeExceptionally(e);
+      }
+    });
+  }
+
+  /**
+   * Run the call with an idle connection in a worker thread, then hand its result or error to
+   * the handlers in a callback thread. The connection and the worker are released before any
+   * future is completed, so that a callback of the caller that sends another request and waits
+   * for it does not hold what the request needs. A connection that fails is reopened before being
+   * returned to the pool.
+   */
+  private <T> void execute(SessionCall<T> call, ResultHandler<T> onResult, ErrorHandler onError) {
+    queueDepth.incrementAndGet();
+    try {
+      requestExecutor.execute(() -> {
+        queueDepth.decrementAndGet();
+        Session session;
+        try {
+          session = idleSessions.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          onError.onError(new IoTDBSessionException("Interrupted when waiting for a connection",
+              e));
+          return;
+        }
+        Runnable completion;
+        try {
+          T result = call.call(session);
+          completion = () -> onResult.onResult(result);
+        } catch (Exception e) {
+          logger.debug("A request of the async session failed", e);
+          if (e instanceof TException || e.getCause() instanceof TException) {
+            reconnect(session);
+          }
+          completion = () -> onError.onError(e);
+        } finally {
+          idleSessions.add(session);
+        }
+        complete(completion);
+      });
+    } catch (RejectedExecutionException e) {
+      queueDepth.decrementAndGet();
+      onError.onError(new IoTDBSessionException("Session is closed", e));
+    }
+  }
+
+  private void complete(Runnable completion) {
+    try {
+      callbackExecutor.execute(completion);
+    } catch (RejectedExecutionException e) {
+      // the session is closed while the request is running
+      completion.run();
+    }
+  }
+
+  private void reconnect(Session session) {
+    try {
+      session.close();
+    } catch (IoTDBSessionException e) {
+      logger.debug("Cannot close a failed connection of the async session", e);
+    }
+    try {
+      session.open();
+    } catch (IoTDBSessionException e) {
+      logger.warn("Cannot reopen a connection of the async session to {}:{}", host, port, e);
+    }
+  }
+
+  private List<PendingInsert> drainInsertBuffer() {
+    List<PendingInsert> batch = insertBuffer;
+    insertBuffer = new ArrayList<>();
+    if (lingerTask != null) {
+      lingerTask.cancel(false);
+      lingerTask = null;
+    }
+    return batch;
+  }
+
+  /**
+   * @return false if the session is closed or no slot is freed within backPressureTimeoutInMs,
+   * the future is completed exceptionally in this case
+   */
+  private boolean acquirePermit(CompletableFuture<?> future) {
+    if (isClosed) {
+      future.completeExceptionally(new IoTDBSessionException("Session is closed"));
+      return false;
+    }
+    try {
+      if (pendingPermits.tryAcquire(backPressureTimeoutInMs, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+      future.completeExceptionally(new IoTDBSessionException(String.format(
+          "Too many pending requests, %d requests are not finished", maxPendingRequests)));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      future.completeExceptionally(
+          new IoTDBSessionException("Interrupted when waiting for a pending request slot", e));
+    }
+    return false;
+  }
+
+  private void onInsertsEnd(List<PendingInsert> batch) {
+    long endTime = System.nanoTime();
+    for (PendingInsert pendingInsert : batch) {
+      recordLatency(endTime - pendingInsert.startTime);
+    }
+    pendingPermits.release(batch.size());
+  }
+
+  private void onRequestEnd(long startTime) {
+    recordLatency(System.nanoTime() - startTime);
+    pendingPermits.release();
+  }
+
+  private void recordLatency(long latency) {
+    completedRequestNum.increment();
+    totalLatencyInNs.add(latency);
+    maxLatencyInNs.accumulateAndGet(latency, Math::max);
+  }
+
+  public void setInsertBatchSize(int insertBatchSize) {
+    this.insertBatchSize = insertBatchSize;
+  }
+
+  public void setLingerTimeInMs(long lingerTimeInMs) {
+    this.lingerTimeInMs = lingerTimeInMs;
+  }
+
+  /**
+   * takes effect when the session is opened
+   */
+  public void setMaxPendingRequests(int maxPendingRequests) {
+    this.maxPendingRequests = maxPendingRequests;
+  }
+
+  public void setBackPressureTimeoutInMs(long backPressureTimeoutInMs) {
+    this.backPressureTimeoutInMs = backPressureTimeoutInMs;
+  }
+
+  /**
+   * takes effect when the session is opened
+   */
+  public void setEnableFramedTransport(boolean enableFramedTransport) {
+    this.enableFramedTransport = enableFramedTransport;
+  }
+
+  /**
+   * @return number of requests waiting for an idle connection
+   */
+  public int getQueueDepth() {
+    return queueDepth.get();
+  }
+
+  /**
+   * @return number of inserts buffered and not sent yet
+   */
+  public int getBufferedInsertNum() {
+    synchronized (insertBufferLock) {
+      return insertBuffer.size();
+    }
+  }
+
+  /**
+   * @return number of requests (buffered inserts included) that are not finished
+   */
+  public int getPendingRequestNum() {
+    return isClosed ? 0 : maxPendingRequests - pendingPermits.availablePermits();
+  }
+
+  /**
+   * @return number of finished requests, each insert is counted as one request
+   */
+  public long getCompletedRequestNum() {
+    return completedRequestNum.sum();
+  }
+
+  /**
+   * @return average latency from submitting to finishing of the finished requests
+   */
+  public double getAverageLatencyInMs() {
+    long num = completedRequestNum.sum();
+    return num == 0 ? 0 : totalLatencyInNs.sum() / 1_000_000.0 / num;
+  }
+
+  public double getMaxLatencyInMs() {
+    return maxLatencyInNs.get() / 1_000_000.0;
+  }
+
+  @FunctionalInterface
+  private interface SessionCall<T> {
+
+    T call(Session session) throws Exception;
+  }
+
+  @FunctionalInterface
+  private interface ResultHandler<T> {
+
+    void onResult(T result);
+  }
+
+  @FunctionalInterface
+  private interface ErrorHandler {
+
+    void onError(Exception e);
+  }
+
+  /**
+   * A buffered row, either with types and typed values or with string values only.
+   */
+  private static class PendingInsert {
+
+    private String deviceId;
+    private long time;
+    private List<String> measurements;
+    private List<TSDataType> types;
+    private List<Object> typedValues;
+    private List<String> values;
+    private CompletableFuture<TSStatus> future;
+    private long startTime = System.nanoTime();
+
+    private PendingInsert(String deviceId, long time, List<String> measurements,
+        List<TSDataType> types, List<Object> typedValues, List<String> values,
+        CompletableFuture<TSStatus> future) {
+      this.deviceId = deviceId;
+      this.time = time;
+      this.measurements = measurements;
+      this.types = types;
+      this.typedValues = typedValues;
+      this.values = values;
+      this.future = future;
+    }
+  }
+
+  private static class SessionThreadFactory implements ThreadFactory {
+
+    private final String namePrefix;
+    private final AtomicInteger threadNum = new AtomicInteger();
+
+    private SessionThreadFactory(String name) {
+      this.namePrefix = "AsyncSession-" + name + "-";
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, namePrefix + threadNum.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
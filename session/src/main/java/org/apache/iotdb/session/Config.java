@@ -26,6 +26,12 @@ public class Config {
   public static final String DEFAULT_USER = "user";
   public static final String DEFAULT_PASSWORD = "password";
 
+  public static final int DEFAULT_ASYNC_POOL_SIZE = 4;
+  public static final int DEFAULT_INSERT_BATCH_SIZE = 1000;
+  public static final long DEFAULT_LINGER_TIME_IN_MS = 10;
+  public static final int DEFAULT_MAX_PENDING_REQUESTS = 10000;
+  public static final long DEFAULT_BACK_PRESSURE_TIMEOUT_IN_MS = 1000;
+
   public static final String PATH_MATCHER =
       PATH_ROOT + "([" + PATH_SEPARATOR + "](([a-zA-Z_][a-zA-Z0-9_-]*)|([+-]?[0-9]+)))+";
 
@@ -39,6 +39,7 @@ import org.apache.iotdb.service.rpc.thrift.TSGetTimeZoneResp;
 import org.apache.iotdb.service.rpc.thrift.TSIService;
 import org.apache.iotdb.service.rpc.thrift.TSInsertInBatchReq;
 import org.apache.iotdb.service.rpc.thrift.TSInsertReq;
+import org.apache.iotdb.service.rpc.thrift.TSMultiBatchInsertionReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionResp;
 import org.apache.iotdb.service.rpc.thrift.TSProtocolVersion;
@@ -53,7 +54,9 @@ import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.thrift.TException;
 import org.apache.thrift.protocol.TBinaryProtocol;
 import org.apache.thrift.protocol.TCompactProtocol;
+import org.apache.thrift.transport.TFramedTransport;
 import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
 import org.apache.thrift.transport.TTransportException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -68,7 +71,8 @@ public class Session {
   private String password;
   private TSIService.Iface client = null;
   private TS_SessionHandle sessionHandle = null;
-  private TSocket transport;
+  private TTransport transport;
+  private boolean enableFramedTransport = false;
   private boolean isClosed = true;
   private ZoneId zoneId;
   private long statementId;
@@ -89,6 +93,14 @@ public class Session {
     this.password = password;
   }
 
+  /**
+   * Framed transport is required by a server running in selector mode. Takes effect when the
+   * session is opened.
+   */
+  public void setEnableFramedTransport(boolean enableFramedTransport) {
+    this.enableFramedTransport = enableFramedTransport;
+  }
+
   public synchronized void open() throws IoTDBSessionException {
     open(false, 0);
   }
@@ -99,6 +111,9 @@ public class Session {
       return;
     }
     transport = new TSocket(host, port, connectionTimeoutInMs);
+    if (enableFramedTransport) {
+      transport = new TFramedTransport(transport);
+    }
     if (!transport.isOpen()) {
       try {
         transport.open();
@@ -191,6 +206,38 @@ public class Session {
     }
   }
 
+  /**
+   * use batch interface to insert data of many devices in one request. The server inserts the
+   * batches of each storage group under one lock and logs them by one WAL write.
+   *
+   * @param rowBatches data batches, one or more per device
+   * @return the results of the rows of all batches, in the order of rowBatches
+   */
+  public TSExecuteBatchStatementResp insertMultiBatch(List<RowBatch> rowBatches)
+      throws IoTDBSessionException {
+    TSMultiBatchInsertionReq request = new TSMultiBatchInsertionReq();
+    for (RowBatch rowBatch : rowBatches) {
+      List<String> measurements = new ArrayList<>(rowBatch.measurements.size());
+      List<Integer> types = new ArrayList<>(rowBatch.measurements.size());
+      for (MeasurementSchema measurementSchema : rowBatch.measurements) {
+        measurements.add(measurementSchema.getMeasurementId());
+        types.add(measurementSchema.getType().ordinal());
+      }
+      request.addToDeviceIds(rowBatch.deviceId);
+      request.addToMeasurementsList(measurements);
+      request.addToTypesList(types);
+      request.addToSizeList(rowBatch.batchSize);
+    }
+    request.setTimestamps(SessionUtils.getTimeBuffer(rowBatches));
+    request.setValues(SessionUtils.getValueBuffer(rowBatches));
+
+    try {
+      return checkAndReturn(client.insertMultiBatch(request));
+    } catch (TException e) {
+      throw new IoTDBSessionException(e);
+    }
+  }
+
   /**
    * insert data in batch format, which can reduce the overhead of network
    */
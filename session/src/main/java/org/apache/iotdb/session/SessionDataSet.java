@@ -93,6 +93,7 @@ public class SessionDataSet {
       throws SQLException, IoTDBRPCException {
     if ((recordItr == null || !recordItr.hasNext())) {
       TSFetchResultsReq req = new TSFetchResultsReq(sql, batchSize, queryId);
+      req.setColumnar(true);
 
       try {
         TSFetchResultsResp resp = client.fetchResults(req);
@@ -103,9 +104,15 @@ public class SessionDataSet {
           return false;
         } else {
           TSQueryDataSet tsQueryDataSet = resp.getQueryDataSet();
-          List<RowRecord> records = SessionUtils
-              .convertRowRecords(tsQueryDataSet, columnTypeDeduplicatedList);
-          recordItr = records.iterator();
+          if (tsQueryDataSet.isColumnar()) {
+            // records are decoded lazily
+            recordItr = SessionUtils
+                .getColumnarRecordReader(tsQueryDataSet, columnTypeDeduplicatedList);
+          } else {
+            List<RowRecord> records = SessionUtils
+                .convertRowRecords(tsQueryDataSet, columnTypeDeduplicatedList);
+            recordItr = records.iterator();
+          }
         }
       } catch (TException e) {
         throw new SQLException(
@@ -21,6 +21,7 @@ package org.apache.iotdb.session;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.iotdb.rpc.ColumnarRecordReader;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -34,15 +35,57 @@ public class SessionUtils {
 
   public static ByteBuffer getTimeBuffer(RowBatch rowBatch) {
     ByteBuffer timeBuffer = ByteBuffer.allocate(rowBatch.getTimeBytesSize());
-    for (int i = 0; i < rowBatch.batchSize; i++) {
-      timeBuffer.putLong(rowBatch.timestamps[i]);
-    }
+    putTimes(rowBatch, timeBuffer);
     timeBuffer.flip();
     return timeBuffer;
   }
 
   public static ByteBuffer getValueBuffer(RowBatch rowBatch) {
     ByteBuffer valueBuffer = ByteBuffer.allocate(rowBatch.getValueBytesSize());
+    putValues(rowBatch, valueBuffer);
+    valueBuffer.flip();
+    return valueBuffer;
+  }
+
+  /**
+   * concatenate the timestamps of the row batches in one buffer
+   */
+  public static ByteBuffer getTimeBuffer(List<RowBatch> rowBatches) {
+    int size = 0;
+    for (RowBatch rowBatch : rowBatches) {
+      size += rowBatch.getTimeBytesSize();
+    }
+    ByteBuffer timeBuffer = ByteBuffer.allocate(size);
+    for (RowBatch rowBatch : rowBatches) {
+      putTimes(rowBatch, timeBuffer);
+    }
+    timeBuffer.flip();
+    return timeBuffer;
+  }
+
+  /**
+   * concatenate the values of the row batches in one buffer
+   */
+  public static ByteBuffer getValueBuffer(List<RowBatch> rowBatches) {
+    int size = 0;
+    for (RowBatch rowBatch : rowBatches) {
+      size += rowBatch.getValueBytesSize();
+    }
+    ByteBuffer valueBuffer = ByteBuffer.allocate(size);
+    for (RowBatch rowBatch : rowBatches) {
+      putValues(rowBatch, valueBuffer);
+    }
+    valueBuffer.flip();
+    return valueBuffer;
+  }
+
+  private static void putTimes(RowBatch rowBatch, ByteBuffer timeBuffer) {
+    for (int i = 0; i < rowBatch.batchSize; i++) {
+      timeBuffer.putLong(rowBatch.timestamps[i]);
+    }
+  }
+
+  private static void putValues(RowBatch rowBatch, ByteBuffer valueBuffer) {
     for (int i = 0; i < rowBatch.measurements.size(); i++) {
       TSDataType dataType = rowBatch.measurements.get(i).getType();
       switch (dataType) {
@@ -88,11 +131,22 @@ public class SessionUtils {
               String.format("Data type %s is not supported.", dataType));
       }
     }
-    valueBuffer.flip();
-    return valueBuffer;
   }
 
 
+  /**
+   * create a reader that decodes records lazily from a data set in columnar format.
+   */
+  static ColumnarRecordReader getColumnarRecordReader(TSQueryDataSet tsQueryDataSet,
+      List<String> columnTypeList) {
+    List<TSDataType> dataTypes = new ArrayList<>(columnTypeList.size());
+    for (String type : columnTypeList) {
+      dataTypes.add(TSDataType.valueOf(type));
+    }
+    return new ColumnarRecordReader(tsQueryDataSet.bufferForValues(), dataTypes,
+        tsQueryDataSet.getRowCount());
+  }
+
   /**
    * convert row records.
    */
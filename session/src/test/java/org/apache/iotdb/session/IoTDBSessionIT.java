@@ -19,6 +19,8 @@
 package org.apache.iotdb.session;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.sql.Connection;
@@ -28,7 +30,12 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBConstant;
@@ -36,11 +43,16 @@ import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.service.IoTDB;
 import org.apache.iotdb.jdbc.Config;
 import org.apache.iotdb.rpc.IoTDBRPCException;
+import org.apache.iotdb.rpc.TSStatusCode;
+import org.apache.iotdb.service.rpc.thrift.TSExecuteBatchStatementResp;
+import org.apache.iotdb.service.rpc.thrift.TSStatus;
 import org.apache.iotdb.session.utils.EnvironmentUtils;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.record.RowBatch;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.schema.Schema;
@@ -404,6 +416,267 @@ public class IoTDBSessionIT {
     session.close();
   }
 
+  @Test
+  public void asyncSessionTest()
+      throws IoTDBSessionException, TException, IoTDBRPCException, InterruptedException,
+      ExecutionException {
+    session = new Session("127.0.0.1", 6667, "root", "root");
+    session.open();
+    session.setStorageGroup("root.sg1");
+    for (int i = 1; i <= 3; i++) {
+      session.createTimeseries("root.sg1.d1.s" + i, TSDataType.INT64, TSEncoding.RLE,
+          CompressionType.SNAPPY);
+    }
+
+    AsyncSession asyncSession = new AsyncSession("127.0.0.1", 6667, "root", "root", 2);
+    asyncSession.setInsertBatchSize(100);
+    asyncSession.open();
+    List<String> measurements = new ArrayList<>();
+    measurements.add("s1");
+    measurements.add("s2");
+    measurements.add("s3");
+    List<String> values = new ArrayList<>();
+    values.add("1");
+    values.add("2");
+    values.add("3");
+    List<CompletableFuture<TSStatus>> futures = new ArrayList<>();
+    // the last 50 rows are sent when the linger time expires
+    for (long time = 0; time < 250; time++) {
+      futures.add(asyncSession.insert("root.sg1.d1", time, measurements, values));
+    }
+    for (CompletableFuture<TSStatus> future : futures) {
+      assertEquals(TSStatusCode.SUCCESS_STATUS.getStatusCode(),
+          future.get().getStatusType().getCode());
+    }
+    assertEquals(250, asyncSession.getCompletedRequestNum());
+    assertEquals(0, asyncSession.getPendingRequestNum());
+    asyncSession.close();
+
+    SessionDataSet sessionDataSet = session.executeQueryStatement("select * from root.sg1.d1");
+    int count = 0;
+    while (sessionDataSet.hasNext()) {
+      sessionDataSet.next();
+      count++;
+    }
+    assertEquals(250, count);
+    sessionDataSet.closeOperationHandle();
+  }
+
+  @Test
+  public void asyncSessionTypedInsertTest()
+      throws IoTDBSessionException, TException, IoTDBRPCException, InterruptedException,
+      ExecutionException {
+    session = new Session("127.0.0.1", 6667, "root", "root");
+    session.open();
+    session.setStorageGroup("root.sg1");
+    session.setStorageGroup("root.sg2");
+    session.createTimeseries("root.sg1.d1.s1", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY);
+    session.createTimeseries("root.sg1.d1.s2", TSDataType.DOUBLE, TSEncoding.GORILLA,
+        CompressionType.SNAPPY);
+    session.createTimeseries("root.sg2.d1.s1", TSDataType.TEXT, TSEncoding.PLAIN,
+        CompressionType.SNAPPY);
+
+    AsyncSession asyncSession = new AsyncSession("127.0.0.1", 6667, "root", "root", 2);
+    asyncSession.setInsertBatchSize(100);
+    asyncSession.open();
+    List<String> measurements1 = new ArrayList<>();
+    measurements1.add("s1");
+    measurements1.add("s2");
+    List<TSDataType> types1 = new ArrayList<>();
+    types1.add(TSDataType.INT64);
+    types1.add(TSDataType.DOUBLE);
+    List<String> measurements2 = Collections.singletonList("s1");
+    List<TSDataType> types2 = Collections.singletonList(TSDataType.TEXT);
+    List<CompletableFuture<TSStatus>> futures = new ArrayList<>();
+    // rows of both devices are interleaved, each request carries one RowBatch per device
+    for (long time = 0; time < 150; time++) {
+      List<Object> values1 = new ArrayList<>();
+      values1.add(time);
+      values1.add(time * 0.5);
+      futures.add(asyncSession.insert("root.sg1.d1", time, measurements1, types1, values1));
+      futures.add(asyncSession.insert("root.sg2.d1", time, measurements2, types2,
+          Collections.singletonList("v" + time)));
+    }
+    for (CompletableFuture<TSStatus> future : futures) {
+      assertEquals(TSStatusCode.SUCCESS_STATUS.getStatusCode(),
+          future.get().getStatusType().getCode());
+    }
+    assertEquals(300, asyncSession.getCompletedRequestNum());
+
+    // a value that does not match its type is rejected before it is buffered
+    CompletableFuture<TSStatus> mismatched = asyncSession.insert("root.sg1.d1", 150,
+        measurements2, Collections.singletonList(TSDataType.INT64),
+        Collections.singletonList("1"));
+    try {
+      mismatched.get();
+      fail("The insert should be rejected for its value type");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+    asyncSession.close();
+
+    SessionDataSet sessionDataSet = session
+        .executeQueryStatement("select s1, s2 from root.sg1.d1");
+    int count = 0;
+    while (sessionDataSet.hasNext()) {
+      RowRecord record = sessionDataSet.next();
+      assertEquals(record.getTimestamp(), record.getFields().get(0).getLongV());
+      assertEquals(record.getTimestamp() * 0.5, record.getFields().get(1).getDoubleV(), 0);
+      count++;
+    }
+    assertEquals(150, count);
+    sessionDataSet.closeOperationHandle();
+
+    sessionDataSet = session.executeQueryStatement("select s1 from root.sg2.d1");
+    count = 0;
+    while (sessionDataSet.hasNext()) {
+      RowRecord record = sessionDataSet.next();
+      assertEquals("v" + record.getTimestamp(), record.getFields().get(0).getStringValue());
+      count++;
+    }
+    assertEquals(150, count);
+    sessionDataSet.closeOperationHandle();
+  }
+
+  @Test
+  public void asyncSessionBackPressureTest()
+      throws IoTDBSessionException, TException, IoTDBRPCException, InterruptedException,
+      ExecutionException {
+    session = new Session("127.0.0.1", 6667, "root", "root");
+    session.open();
+    session.setStorageGroup("root.sg1");
+    session.createTimeseries("root.sg1.d1.s1", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY);
+
+    AsyncSession asyncSession = new AsyncSession("127.0.0.1", 6667, "root", "root", 1);
+    asyncSession.setMaxPendingRequests(1);
+    asyncSession.setBackPressureTimeoutInMs(100);
+    // the first row stays buffered until it is flushed explicitly
+    asyncSession.setInsertBatchSize(100);
+    asyncSession.setLingerTimeInMs(60_000);
+    asyncSession.open();
+    List<String> measurements = Collections.singletonList("s1");
+    List<String> values = Collections.singletonList("1");
+    try {
+      CompletableFuture<TSStatus> first = asyncSession.insert("root.sg1.d1", 1, measurements,
+          values);
+      assertEquals(1, asyncSession.getPendingRequestNum());
+
+      // no slot is freed within the timeout
+      CompletableFuture<TSStatus> rejected = asyncSession.insert("root.sg1.d1", 2, measurements,
+          values);
+      try {
+        rejected.get();
+        fail("The insert should be rejected by back pressure");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IoTDBSessionException);
+      }
+      assertEquals(1, asyncSession.getBufferedInsertNum());
+
+      asyncSession.flush();
+      assertEquals(TSStatusCode.SUCCESS_STATUS.getStatusCode(),
+          first.get().getStatusType().getCode());
+      assertEquals(0, asyncSession.getPendingRequestNum());
+
+      // the slot is free again
+      CompletableFuture<TSStatus> accepted = asyncSession.insert("root.sg1.d1", 3, measurements,
+          values);
+      asyncSession.flush();
+      assertEquals(TSStatusCode.SUCCESS_STATUS.getStatusCode(),
+          accepted.get().getStatusType().getCode());
+      assertEquals(2, asyncSession.getCompletedRequestNum());
+    } finally {
+      asyncSession.close();
+    }
+  }
+
+  @Test
+  public void asyncSessionCallbackTest()
+      throws IoTDBSessionException, InterruptedException, ExecutionException, TimeoutException {
+    session = new Session("127.0.0.1", 6667, "root", "root");
+    session.open();
+    session.setStorageGroup("root.sg1");
+    session.createTimeseries("root.sg1.d1.s1", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY);
+
+    // with one connection, a callback that sends another request and waits for it must not
+    // block the worker or the connection the request needs
+    AsyncSession asyncSession = new AsyncSession("127.0.0.1", 6667, "root", "root", 1);
+    asyncSession.open();
+    try {
+      CompletableFuture<Void> chained = asyncSession
+          .executeNonQueryStatement("insert into root.sg1.d1(timestamp, s1) values(1, 1)")
+          .thenAccept(v -> asyncSession
+              .executeNonQueryStatement("insert into root.sg1.d1(timestamp, s1) values(2, 2)")
+              .join());
+      chained.get(10, TimeUnit.SECONDS);
+      assertEquals(2, asyncSession.getCompletedRequestNum());
+    } finally {
+      asyncSession.close();
+    }
+  }
+
+  @Test
+  public void insertMultiBatchTest()
+      throws IoTDBSessionException, TException, IoTDBRPCException, SQLException {
+    session = new Session("127.0.0.1", 6667, "root", "root");
+    session.open();
+    session.setStorageGroup("root.sg1");
+    session.setStorageGroup("root.sg2");
+    String[] deviceIds = {"root.sg1.d1", "root.sg2.d1", "root.sg1.d2"};
+    // the devices have different row numbers and value types, so that a wrong offset in the
+    // concatenated buffers breaks the values read back
+    TSDataType[] s2Types = {TSDataType.DOUBLE, TSDataType.TEXT, TSDataType.DOUBLE};
+    List<RowBatch> rowBatches = new ArrayList<>();
+    for (int d = 0; d < deviceIds.length; d++) {
+      session.createTimeseries(deviceIds[d] + ".s1", TSDataType.INT64, TSEncoding.RLE,
+          CompressionType.SNAPPY);
+      session.createTimeseries(deviceIds[d] + ".s2", s2Types[d], TSEncoding.PLAIN,
+          CompressionType.SNAPPY);
+      List<MeasurementSchema> schemas = new ArrayList<>();
+      schemas.add(new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.RLE));
+      schemas.add(new MeasurementSchema("s2", s2Types[d], TSEncoding.PLAIN));
+      int rowNum = (d + 1) * 10;
+      RowBatch rowBatch = new RowBatch(deviceIds[d], schemas, rowNum);
+      for (long time = 0; time < rowNum; time++) {
+        int row = rowBatch.batchSize++;
+        rowBatch.timestamps[row] = time;
+        ((long[]) rowBatch.values[0])[row] = time * 10 + d;
+        if (s2Types[d] == TSDataType.TEXT) {
+          ((Binary[]) rowBatch.values[1])[row] = new Binary("v" + time);
+        } else {
+          ((double[]) rowBatch.values[1])[row] = time + 0.5;
+        }
+      }
+      rowBatches.add(rowBatch);
+    }
+
+    TSExecuteBatchStatementResp resp = session.insertMultiBatch(rowBatches);
+    assertEquals(TSStatusCode.SUCCESS_STATUS.getStatusCode(),
+        resp.getStatus().getStatusType().getCode());
+    assertEquals(60, resp.getResult().size());
+
+    for (int d = 0; d < deviceIds.length; d++) {
+      SessionDataSet sessionDataSet = session
+          .executeQueryStatement("select s1, s2 from " + deviceIds[d]);
+      long time = 0;
+      while (sessionDataSet.hasNext()) {
+        RowRecord record = sessionDataSet.next();
+        assertEquals(time, record.getTimestamp());
+        assertEquals(time * 10 + d, record.getFields().get(0).getLongV());
+        if (s2Types[d] == TSDataType.TEXT) {
+          assertEquals("v" + time, record.getFields().get(1).getStringValue());
+        } else {
+          assertEquals(time + 0.5, record.getFields().get(1).getDoubleV(), 0);
+        }
+        time++;
+      }
+      assertEquals((d + 1) * 10, time);
+      sessionDataSet.closeOperationHandle();
+    }
+  }
+
   private void checkSetSG(Session session, String sg, boolean correctStatus) {
     boolean status = true;
     try {
@@ -127,10 +127,14 @@ public class TSFileConfig {
    */
   private double dftSatisfyRate = 0.1;
   /**
-   * Data compression method, TsFile supports UNCOMPRESSED or SNAPPY. Default value is UNCOMPRESSED
-   * which means no compression
+   * Data compression method, TsFile supports UNCOMPRESSED, SNAPPY, LZ4 or ZSTD. Default value is
+   * UNCOMPRESSED which means no compression
    */
   private String compressor = "UNCOMPRESSED";
+  /**
+   * Compression level used by ZSTD, from 1 (fastest) to 22 (smallest). Default value is 3.
+   */
+  private int zstdCompressionLevel = 3;
   /**
    * Line count threshold for checking page memory occupied size.
    */
@@ -324,6 +328,14 @@ public class TSFileConfig {
     this.compressor = compressor;
   }
 
+  public int getZstdCompressionLevel() {
+    return zstdCompressionLevel;
+  }
+
+  public void setZstdCompressionLevel(int zstdCompressionLevel) {
+    this.zstdCompressionLevel = zstdCompressionLevel;
+  }
+
   public int getPageCheckSizeThreshold() {
     return pageCheckSizeThreshold;
   }
@@ -22,8 +22,14 @@ package org.apache.iotdb.tsfile.compress;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import com.github.luben.zstd.Zstd;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.exception.compress.CompressionTypeNotSupportedException;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.utils.BytesUtils;
 import org.xerial.snappy.Snappy;
 
 /**
@@ -51,6 +57,10 @@ public interface ICompressor extends Serializable {
         return new NoCompressor();
       case SNAPPY:
         return new SnappyCompressor();
+      case LZ4:
+        return new LZ4Compressor();
+      case ZSTD:
+        return new ZstdCompressor();
       default:
         throw new CompressionTypeNotSupportedException(name.toString());
     }
@@ -140,4 +150,127 @@ public interface ICompressor extends Serializable {
       return CompressionType.SNAPPY;
     }
   }
+
+  /**
+   * Compress a byte buffer through the byte[] method of the compressor. Heap buffers are accessed
+   * in place, direct buffers are copied. The compressed bytes are put at the position of
+   * compressed, whose limit is set to the end of them.
+   */
+  static int compressByArray(ICompressor compressor, ByteBuffer data, ByteBuffer compressed)
+      throws IOException {
+    int length = data.remaining();
+    byte[] input;
+    int inputOffset;
+    if (data.hasArray()) {
+      input = data.array();
+      inputOffset = data.arrayOffset() + data.position();
+    } else {
+      input = new byte[length];
+      data.duplicate().get(input);
+      inputOffset = 0;
+    }
+    int position = compressed.position();
+    byte[] output = new byte[compressor.getMaxBytesForCompression(length)];
+    int size = compressor.compress(input, inputOffset, length, output);
+    compressed.put(output, 0, size);
+    compressed.limit(position + size);
+    compressed.position(position);
+    return size;
+  }
+
+  /**
+   * LZ4Compressor trades some compression ratio for very fast compression and decompression. The
+   * compressed bytes are prefixed by the uncompressed length (4 bytes), because the LZ4 block
+   * format does not record it.
+   */
+  class LZ4Compressor implements ICompressor {
+
+    private static final net.jpountz.lz4.LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance()
+        .fastCompressor();
+
+    @Override
+    public byte[] compress(byte[] data) throws IOException {
+      if (data == null) {
+        return new byte[0];
+      }
+      byte[] compressed = new byte[getMaxBytesForCompression(data.length)];
+      int size = compress(data, 0, data.length, compressed);
+      return Arrays.copyOf(compressed, size);
+    }
+
+    @Override
+    public int compress(byte[] data, int offset, int length, byte[] compressed)
+        throws IOException {
+      BytesUtils.intToBytes(length, compressed, 0);
+      try {
+        return Integer.BYTES + COMPRESSOR.compress(data, offset, length, compressed,
+            Integer.BYTES, compressed.length - Integer.BYTES);
+      } catch (LZ4Exception e) {
+        throw new IOException(e);
+      }
+    }
+
+    @Override
+    public int compress(ByteBuffer data, ByteBuffer compressed) throws IOException {
+      return ICompressor.compressByArray(this, data, compressed);
+    }
+
+    @Override
+    public int getMaxBytesForCompression(int uncompressedDataSize) {
+      return Integer.BYTES + COMPRESSOR.maxCompressedLength(uncompressedDataSize);
+    }
+
+    @Override
+    public CompressionType getType() {
+      return CompressionType.LZ4;
+    }
+  }
+
+  /**
+   * ZstdCompressor compresses better than SNAPPY and LZ4 at a higher CPU cost, which is tuned by
+   * zstd_compression_level. The compressed bytes are prefixed by the uncompressed length (4
+   * bytes) so that the output buffer can be sized without parsing the frame.
+   */
+  class ZstdCompressor implements ICompressor {
+
+    private final int level = TSFileDescriptor.getInstance().getConfig()
+        .getZstdCompressionLevel();
+
+    @Override
+    public byte[] compress(byte[] data) throws IOException {
+      if (data == null) {
+        return new byte[0];
+      }
+      byte[] compressed = new byte[getMaxBytesForCompression(data.length)];
+      int size = compress(data, 0, data.length, compressed);
+      return Arrays.copyOf(compressed, size);
+    }
+
+    @Override
+    public int compress(byte[] data, int offset, int length, byte[] compressed)
+        throws IOException {
+      BytesUtils.intToBytes(length, compressed, 0);
+      long size = Zstd.compressByteArray(compressed, Integer.BYTES,
+          compressed.length - Integer.BYTES, data, offset, length, level);
+      if (Zstd.isError(size)) {
+        throw new IOException("Zstd compression failed: " + Zstd.getErrorName(size));
+      }
+      return Integer.BYTES + (int) size;
+    }
+
+    @Override
+    public int compress(ByteBuffer data, ByteBuffer compressed) throws IOException {
+      return ICompressor.compressByArray(this, data, compressed);
+    }
+
+    @Override
+    public int getMaxBytesForCompression(int uncompressedDataSize) {
+      return Integer.BYTES + (int) Zstd.compressBound(uncompressedDataSize);
+    }
+
+    @Override
+    public CompressionType getType() {
+      return CompressionType.ZSTD;
+    }
+  }
 }
@@ -21,8 +21,13 @@ package org.apache.iotdb.tsfile.compress;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import com.github.luben.zstd.Zstd;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
 import org.apache.iotdb.tsfile.exception.compress.CompressionTypeNotSupportedException;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.utils.BytesUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xerial.snappy.Snappy;
@@ -47,6 +52,10 @@ public interface IUnCompressor {
         return new NoUnCompressor();
       case SNAPPY:
         return new SnappyUnCompressor();
+      case LZ4:
+        return new LZ4UnCompressor();
+      case ZSTD:
+        return new ZstdUnCompressor();
       default:
         throw new CompressionTypeNotSupportedException(name.toString());
     }
@@ -184,4 +193,155 @@ public interface IUnCompressor {
       return CompressionType.SNAPPY;
     }
   }
+
+  /**
+   * Uncompress a byte buffer through the byte[] method of the uncompressor. Heap buffers are
+   * accessed in place, direct buffers are copied. The uncompressed bytes are put at the position
+   * of uncompressed, whose limit is set to the end of them.
+   */
+  static int uncompressByArray(IUnCompressor unCompressor, ByteBuffer compressed,
+      ByteBuffer uncompressed) throws IOException {
+    if (compressed == null || !compressed.hasRemaining()) {
+      return 0;
+    }
+    int length = compressed.remaining();
+    byte[] input;
+    int inputOffset;
+    if (compressed.hasArray()) {
+      input = compressed.array();
+      inputOffset = compressed.arrayOffset() + compressed.position();
+    } else {
+      input = new byte[length];
+      compressed.duplicate().get(input);
+      inputOffset = 0;
+    }
+    int position = uncompressed.position();
+    int size;
+    if (uncompressed.hasArray()) {
+      size = unCompressor.uncompress(input, inputOffset, length, uncompressed.array(),
+          uncompressed.arrayOffset() + position);
+    } else {
+      byte[] output = new byte[unCompressor.getUncompressedLength(input, inputOffset, length)];
+      size = unCompressor.uncompress(input, inputOffset, length, output, 0);
+      uncompressed.put(output, 0, size);
+    }
+    uncompressed.limit(position + size);
+    uncompressed.position(position);
+    return size;
+  }
+
+  /**
+   * Base of the uncompressors whose input is prefixed by the uncompressed length (4 bytes), see
+   * {@link ICompressor.LZ4Compressor} and {@link ICompressor.ZstdCompressor}.
+   */
+  abstract class LengthPrefixedUnCompressor implements IUnCompressor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LengthPrefixedUnCompressor.class);
+
+    @Override
+    public int getUncompressedLength(byte[] array, int offset, int length) throws IOException {
+      if (length < Integer.BYTES) {
+        throw new IOException(getCodecName() + " input is too short: " + length);
+      }
+      return BytesUtils.bytesToInt(array, offset);
+    }
+
+    @Override
+    public int getUncompressedLength(ByteBuffer buffer) throws IOException {
+      if (buffer.remaining() < Integer.BYTES) {
+        throw new IOException(getCodecName() + " input is too short: " + buffer.remaining());
+      }
+      return buffer.getInt(buffer.position());
+    }
+
+    @Override
+    public byte[] uncompress(byte[] bytes) {
+      if (bytes == null || bytes.length == 0) {
+        return new byte[0];
+      }
+
+      try {
+        byte[] output = new byte[getUncompressedLength(bytes, 0, bytes.length)];
+        uncompress(bytes, 0, bytes.length, output, 0);
+        return output;
+      } catch (IOException e) {
+        logger.error("tsfile-compression {}: errors occurs when uncompress input byte",
+            getClass().getSimpleName(), e);
+      }
+      return new byte[0];
+    }
+
+    @Override
+    public int uncompress(byte[] byteArray, int offset, int length, byte[] output, int outOffset)
+        throws IOException {
+      int uncompressedLength = getUncompressedLength(byteArray, offset, length);
+      if (output.length - outOffset < uncompressedLength) {
+        throw new IOException(String.format("%s output buffer is too small, need %d but got %d",
+            getCodecName(), uncompressedLength, output.length - outOffset));
+      }
+      uncompressBody(byteArray, offset + Integer.BYTES, length - Integer.BYTES, output, outOffset,
+          uncompressedLength);
+      return uncompressedLength;
+    }
+
+    @Override
+    public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+      return IUnCompressor.uncompressByArray(this, compressed, uncompressed);
+    }
+
+    /**
+     * uncompress the bytes following the length prefix into exactly uncompressedLength bytes of
+     * the output.
+     */
+    abstract void uncompressBody(byte[] byteArray, int offset, int length, byte[] output,
+        int outOffset, int uncompressedLength) throws IOException;
+  }
+
+  class LZ4UnCompressor extends LengthPrefixedUnCompressor {
+
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance()
+        .fastDecompressor();
+
+    @Override
+    void uncompressBody(byte[] byteArray, int offset, int length, byte[] output, int outOffset,
+        int uncompressedLength) throws IOException {
+      try {
+        int read = DECOMPRESSOR.decompress(byteArray, offset, output, outOffset,
+            uncompressedLength);
+        if (read != length) {
+          throw new IOException(
+              String.format("LZ4 input is corrupted, read %d of %d bytes", read, length));
+        }
+      } catch (LZ4Exception e) {
+        throw new IOException(e);
+      }
+    }
+
+    @Override
+    public CompressionType getCodecName() {
+      return CompressionType.LZ4;
+    }
+  }
+
+  class ZstdUnCompressor extends LengthPrefixedUnCompressor {
+
+    @Override
+    void uncompressBody(byte[] byteArray, int offset, int length, byte[] output, int outOffset,
+        int uncompressedLength) throws IOException {
+      long size = Zstd.decompressByteArray(output, outOffset, uncompressedLength, byteArray,
+          offset, length);
+      if (Zstd.isError(size)) {
+        throw new IOException("Zstd decompression failed: " + Zstd.getErrorName(size));
+      }
+      if (size != uncompressedLength) {
+        throw new IOException(String.format("Zstd input is corrupted, got %d of %d bytes", size,
+            uncompressedLength));
+      }
+    }
+
+    @Override
+    public CompressionType getCodecName() {
+      return CompressionType.ZSTD;
+    }
+  }
 }
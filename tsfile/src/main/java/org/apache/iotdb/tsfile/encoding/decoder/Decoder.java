@@ -149,6 +149,75 @@ public abstract class Decoder {
     throw new TsFileDecodingException("Method readBigDecimal is not supproted by Decoder");
   }
 
+  /**
+   * Decode at most max values into dst from position off. Decoders override the bulk methods with
+   * a tight loop over their decoded blocks; this default falls back to the per-value method.
+   *
+   * @return the number of decoded values, less than max only when the buffer is exhausted
+   */
+  public int readBooleans(ByteBuffer buffer, boolean[] dst, int off, int max) throws IOException {
+    int n = 0;
+    while (n < max && hasNext(buffer)) {
+      dst[off + n++] = readBoolean(buffer);
+    }
+    return n;
+  }
+
+  /**
+   * @see #readBooleans(ByteBuffer, boolean[], int, int)
+   */
+  public int readInts(ByteBuffer buffer, int[] dst, int off, int max) throws IOException {
+    int n = 0;
+    while (n < max && hasNext(buffer)) {
+      dst[off + n++] = readInt(buffer);
+    }
+    return n;
+  }
+
+  /**
+   * @see #readBooleans(ByteBuffer, boolean[], int, int)
+   */
+  public int readLongs(ByteBuffer buffer, long[] dst, int off, int max) throws IOException {
+    int n = 0;
+    while (n < max && hasNext(buffer)) {
+      dst[off + n++] = readLong(buffer);
+    }
+    return n;
+  }
+
+  /**
+   * @see #readBooleans(ByteBuffer, boolean[], int, int)
+   */
+  public int readFloats(ByteBuffer buffer, float[] dst, int off, int max) throws IOException {
+    int n = 0;
+    while (n < max && hasNext(buffer)) {
+      dst[off + n++] = readFloat(buffer);
+    }
+    return n;
+  }
+
+  /**
+   * @see #readBooleans(ByteBuffer, boolean[], int, int)
+   */
+  public int readDoubles(ByteBuffer buffer, double[] dst, int off, int max) throws IOException {
+    int n = 0;
+    while (n < max && hasNext(buffer)) {
+      dst[off + n++] = readDouble(buffer);
+    }
+    return n;
+  }
+
+  /**
+   * @see #readBooleans(ByteBuffer, boolean[], int, int)
+   */
+  public int readBinaries(ByteBuffer buffer, Binary[] dst, int off, int max) throws IOException {
+    int n = 0;
+    while (n < max && hasNext(buffer)) {
+      dst[off + n++] = readBinary(buffer);
+    }
+    return n;
+  }
+
   public abstract boolean hasNext(ByteBuffer buffer) throws IOException;
 
   public abstract void reset();
@@ -113,6 +113,25 @@ public abstract class DeltaBinaryDecoder extends Decoder {
       return readT(buffer);
     }
 
+    /**
+     * Copy the decoded pack in bulk, only the first value of each pack is read separately.
+     */
+    @Override
+    public int readInts(ByteBuffer buffer, int[] dst, int off, int max) throws IOException {
+      int n = 0;
+      while (n < max && hasNext(buffer)) {
+        if (nextReadIndex == readIntTotalCount) {
+          dst[off + n++] = loadIntBatch(buffer);
+          continue;
+        }
+        int count = Math.min(readIntTotalCount - nextReadIndex, max - n);
+        System.arraycopy(data, nextReadIndex, dst, off + n, count);
+        nextReadIndex += count;
+        n += count;
+      }
+      return n;
+    }
+
     /**
      * if remaining data has been run out, load next pack from InputStream.
      *
@@ -231,6 +250,25 @@ public abstract class DeltaBinaryDecoder extends Decoder {
       return readT(buffer);
     }
 
+    /**
+     * Copy the decoded pack in bulk, only the first value of each pack is read separately.
+     */
+    @Override
+    public int readLongs(ByteBuffer buffer, long[] dst, int off, int max) throws IOException {
+      int n = 0;
+      while (n < max && hasNext(buffer)) {
+        if (nextReadIndex == readIntTotalCount) {
+          dst[off + n++] = loadIntBatch(buffer);
+          continue;
+        }
+        int count = Math.min(readIntTotalCount - nextReadIndex, max - n);
+        System.arraycopy(data, nextReadIndex, dst, off + n, count);
+        nextReadIndex += count;
+        n += count;
+      }
+      return n;
+    }
+
     @Override
     protected void readHeader(ByteBuffer buffer) {
       minDeltaBase = ReadWriteIOUtils.readLong(buffer);
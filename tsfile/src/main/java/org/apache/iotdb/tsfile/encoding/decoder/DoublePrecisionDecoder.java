@@ -73,6 +73,15 @@ public class DoublePrecisionDecoder extends GorillaDecoder {
     return Double.NaN;
   }
 
+  @Override
+  public int readDoubles(ByteBuffer buffer, double[] dst, int off, int max) {
+    int n = 0;
+    while (n < max && (buffer.remaining() > 0 || !isEnd)) {
+      dst[off + n++] = readDouble(buffer);
+    }
+    return n;
+  }
+
   /**
    * check whether there is any value to encode left.
    *
@@ -89,11 +98,9 @@ public class DoublePrecisionDecoder extends GorillaDecoder {
 
     if (!nextFlag2) {
       // case: '10'
-      long tmp = 0;
-      for (int i = 0; i < TSFileConfig.DOUBLE_LENGTH - leadingZeroNum - tailingZeroNum; i++) {
-        long bit = readBit(buffer) ? 1 : 0;
-        tmp |= (bit << (TSFileConfig.DOUBLE_LENGTH - 1 - leadingZeroNum - i));
-      }
+      int length = TSFileConfig.DOUBLE_LENGTH - leadingZeroNum - tailingZeroNum;
+      long tmp = readLongFromStream(buffer, length);
+      tmp <<= tailingZeroNum;
       tmp ^= preValue;
       preValue = tmp;
     } else {
@@ -50,6 +50,12 @@ public class FloatDecoder extends Decoder {
    */
   private boolean isMaxPointNumberRead;
 
+  /**
+   * scratch arrays of the bulk methods, the integral values are decoded in bulk into them first
+   */
+  private int[] intBuffer = new int[0];
+  private long[] longBuffer = new long[0];
+
   public FloatDecoder(TSEncoding encodingType, TSDataType dataType) {
     super(encodingType);
     if (encodingType == TSEncoding.RLE) {
@@ -96,6 +102,32 @@ public class FloatDecoder extends Decoder {
     return value / maxPointValue;
   }
 
+  @Override
+  public int readFloats(ByteBuffer buffer, float[] dst, int off, int max) throws IOException {
+    readMaxPointValue(buffer);
+    if (intBuffer.length < max) {
+      intBuffer = new int[max];
+    }
+    int n = decoder.readInts(buffer, intBuffer, 0, max);
+    for (int i = 0; i < n; i++) {
+      dst[off + i] = (float) (intBuffer[i] / maxPointValue);
+    }
+    return n;
+  }
+
+  @Override
+  public int readDoubles(ByteBuffer buffer, double[] dst, int off, int max) throws IOException {
+    readMaxPointValue(buffer);
+    if (longBuffer.length < max) {
+      longBuffer = new long[max];
+    }
+    int n = decoder.readLongs(buffer, longBuffer, 0, max);
+    for (int i = 0; i < n; i++) {
+      dst[off + i] = longBuffer[i] / maxPointValue;
+    }
+    return n;
+  }
+
   private void readMaxPointValue(ByteBuffer buffer) {
     if (!isMaxPointNumberRead) {
       int maxPointNumber = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
@@ -103,16 +103,12 @@ public abstract class GorillaDecoder extends Decoder {
    * @throws IOException cannot read from stream
    */
   protected int readIntFromStream(ByteBuffer buffer, int len) throws IOException {
-    int num = 0;
-    for (int i = 0; i < len; i++) {
-      int bit = readBit(buffer) ? 1 : 0;
-      num |= bit << (len - 1 - i);
-    }
-    return num;
+    return (int) readLongFromStream(buffer, len);
   }
 
   /**
-   * read some bits and convert them to a long value.
+   * read some bits and convert them to a long value. The bits left in the buffered byte are taken
+   * at once rather than bit by bit.
    *
    * @param buffer stream to read
    * @param len    number of bit to read
@@ -121,9 +117,18 @@ public abstract class GorillaDecoder extends Decoder {
    */
   protected long readLongFromStream(ByteBuffer buffer, int len) throws IOException {
     long num = 0;
-    for (int i = 0; i < len; i++) {
-      long bit = (long) (readBit(buffer) ? 1 : 0);
-      num |= bit << (len - 1 - i);
+    int remaining = len;
+    while (remaining > 0) {
+      if (numberLeftInBuffer == 0 && !isEnd) {
+        fillBuffer(buffer);
+      }
+      if (isEmpty()) {
+        throw new IOException("Reading from empty buffer");
+      }
+      int bits = Math.min(remaining, numberLeftInBuffer);
+      numberLeftInBuffer -= bits;
+      num = (num << bits) | ((this.buffer >> numberLeftInBuffer) & ((1 << bits) - 1));
+      remaining -= bits;
     }
     return num;
   }
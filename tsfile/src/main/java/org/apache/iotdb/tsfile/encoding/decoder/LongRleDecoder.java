@@ -21,6 +21,7 @@ package org.apache.iotdb.tsfile.encoding.decoder;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.encoding.bitpacking.LongPacker;
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
@@ -99,6 +100,25 @@ public class LongRleDecoder extends RleDecoder {
     return result;
   }
 
+  /**
+   * Decode whole rle runs and bit-packed groups at a time instead of value by value.
+   */
+  @Override
+  public int readLongs(ByteBuffer buffer, long[] dst, int off, int max) throws IOException {
+    int n = 0;
+    while (n < max && hasNext(buffer)) {
+      int count = nextRun(buffer, max - n);
+      if (mode == Mode.RLE) {
+        Arrays.fill(dst, off + n, off + n + count, currentValue);
+      } else {
+        System.arraycopy(currentBuffer, bitPackingNum - currentCount, dst, off + n, count);
+      }
+      n += count;
+      endRun(count);
+    }
+    return n;
+  }
+
   @Override
   protected void initPacker() {
     packer = new LongPacker(bitWidth);
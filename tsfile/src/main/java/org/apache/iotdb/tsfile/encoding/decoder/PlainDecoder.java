@@ -105,6 +105,57 @@ public class PlainDecoder extends Decoder {
     return new Binary(buf);
   }
 
+  @Override
+  public int readBooleans(ByteBuffer buffer, boolean[] dst, int off, int max) {
+    int n = Math.min(max, buffer.remaining());
+    for (int i = 0; i < n; i++) {
+      dst[off + i] = buffer.get() != 0;
+    }
+    return n;
+  }
+
+  @Override
+  public int readInts(ByteBuffer buffer, int[] dst, int off, int max) {
+    setOrder(buffer);
+    int n = Math.min(max, buffer.remaining() / Integer.BYTES);
+    buffer.asIntBuffer().get(dst, off, n);
+    buffer.position(buffer.position() + n * Integer.BYTES);
+    return n;
+  }
+
+  @Override
+  public int readLongs(ByteBuffer buffer, long[] dst, int off, int max) {
+    setOrder(buffer);
+    int n = Math.min(max, buffer.remaining() / Long.BYTES);
+    buffer.asLongBuffer().get(dst, off, n);
+    buffer.position(buffer.position() + n * Long.BYTES);
+    return n;
+  }
+
+  @Override
+  public int readFloats(ByteBuffer buffer, float[] dst, int off, int max) {
+    setOrder(buffer);
+    int n = Math.min(max, buffer.remaining() / Float.BYTES);
+    buffer.asFloatBuffer().get(dst, off, n);
+    buffer.position(buffer.position() + n * Float.BYTES);
+    return n;
+  }
+
+  @Override
+  public int readDoubles(ByteBuffer buffer, double[] dst, int off, int max) {
+    setOrder(buffer);
+    int n = Math.min(max, buffer.remaining() / Double.BYTES);
+    buffer.asDoubleBuffer().get(dst, off, n);
+    buffer.position(buffer.position() + n * Double.BYTES);
+    return n;
+  }
+
+  private void setOrder(ByteBuffer buffer) {
+    if (this.getEndianType() == EndianType.LITTLE_ENDIAN) {
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
   @Override
   public boolean hasNext(ByteBuffer buffer) throws IOException {
     return buffer.remaining() > 0;
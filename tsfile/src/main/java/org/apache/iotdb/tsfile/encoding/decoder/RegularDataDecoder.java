@@ -151,6 +151,26 @@ public abstract class RegularDataDecoder extends Decoder {
       return readT(buffer);
     }
 
+    /**
+     * Copy the decoded pack in bulk when it has no missing point, otherwise the bitmap is followed
+     * value by value.
+     */
+    @Override
+    public int readInts(ByteBuffer buffer, int[] dst, int off, int max) throws IOException {
+      int n = 0;
+      while (n < max && hasNext(buffer)) {
+        if (nextReadIndex == readIntTotalCount || isMissingPoint) {
+          dst[off + n++] = readT(buffer);
+          continue;
+        }
+        int count = Math.min(readIntTotalCount - nextReadIndex, max - n);
+        System.arraycopy(data, nextReadIndex, dst, off + n, count);
+        nextReadIndex += count;
+        n += count;
+      }
+      return n;
+    }
+
     @Override
     protected void readHeader(ByteBuffer buffer) {
       minDeltaBase = ReadWriteIOUtils.readInt(buffer);
@@ -264,6 +284,26 @@ public abstract class RegularDataDecoder extends Decoder {
       return readT(buffer);
     }
 
+    /**
+     * Copy the decoded pack in bulk when it has no missing point, otherwise the bitmap is followed
+     * value by value.
+     */
+    @Override
+    public int readLongs(ByteBuffer buffer, long[] dst, int off, int max) throws IOException {
+      int n = 0;
+      while (n < max && hasNext(buffer)) {
+        if (nextReadIndex == readIntTotalCount || isMissingPoint) {
+          dst[off + n++] = readT(buffer);
+          continue;
+        }
+        int count = Math.min(readIntTotalCount - nextReadIndex, max - n);
+        System.arraycopy(data, nextReadIndex, dst, off + n, count);
+        nextReadIndex += count;
+        n += count;
+      }
+      return n;
+    }
+
     @Override
     protected void readHeader(ByteBuffer buffer) {
       minDeltaBase = ReadWriteIOUtils.readLong(buffer);
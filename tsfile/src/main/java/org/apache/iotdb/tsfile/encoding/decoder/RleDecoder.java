@@ -186,6 +186,33 @@ public abstract class RleDecoder extends Decoder {
     return currentCount > 0 || byteCache.remaining() > 0;
   }
 
+  /**
+   * Make sure the current rle run or bit-packed group has values left.
+   *
+   * @param max how many values the caller wants at most
+   * @return how many values can be taken from the current run, at most max
+   */
+  protected int nextRun(ByteBuffer buffer, int max) throws IOException {
+    if (!isLengthAndBitWidthReaded) {
+      // start to read a new rle+bit-packing pattern
+      readLengthAndBitWidth(buffer);
+    }
+    if (currentCount == 0) {
+      readNext();
+    }
+    return Math.min(currentCount, max);
+  }
+
+  /**
+   * Consume count values of the current run, which are taken by the caller.
+   */
+  protected void endRun(int count) {
+    currentCount -= count;
+    if (!hasNextPackage()) {
+      isLengthAndBitWidthReaded = false;
+    }
+  }
+
   protected abstract void initPacker();
 
   /**
@@ -69,6 +69,15 @@ public class SinglePrecisionDecoder extends GorillaDecoder {
     return Float.NaN;
   }
 
+  @Override
+  public int readFloats(ByteBuffer buffer, float[] dst, int off, int max) {
+    int n = 0;
+    while (n < max && (buffer.remaining() > 0 || !isEnd)) {
+      dst[off + n++] = readFloat(buffer);
+    }
+    return n;
+  }
+
   /**
    * check whether there is any value to encode left.
    *
@@ -85,11 +94,9 @@ public class SinglePrecisionDecoder extends GorillaDecoder {
 
     if (!nextFlag2) {
       // case: '10'
-      int tmp = 0;
-      for (int i = 0; i < TSFileConfig.FLOAT_LENGTH - leadingZeroNum - tailingZeroNum; i++) {
-        int bit = readBit(buffer) ? 1 : 0;
-        tmp |= bit << (TSFileConfig.FLOAT_LENGTH - 1 - leadingZeroNum - i);
-      }
+      int length = TSFileConfig.FLOAT_LENGTH - leadingZeroNum - tailingZeroNum;
+      int tmp = readIntFromStream(buffer, length);
+      tmp <<= tailingZeroNum;
       tmp ^= preValue;
       preValue = tmp;
     } else {
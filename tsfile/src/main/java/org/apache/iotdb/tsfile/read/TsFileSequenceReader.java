@@ -48,6 +48,7 @@ import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.reader.MappedTsFileInput;
 import org.apache.iotdb.tsfile.read.reader.TsFileInput;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
@@ -64,6 +65,10 @@ public class TsFileSequenceReader implements AutoCloseable {
   private long fileMetadataPos;
   private int fileMetadataSize;
   private ByteBuffer markerBuffer = ByteBuffer.allocate(Byte.BYTES);
+  /**
+   * reused by readPage() to hold the uncompressed page, grown on demand.
+   */
+  private ByteBuffer uncompressedPageBuffer = ByteBuffer.allocate(0);
   private int totalChunkNum;
   private TsFileMetaData tsFileMetaData;
   private EndianType endianType = EndianType.BIG_ENDIAN;
@@ -92,8 +97,21 @@ public class TsFileSequenceReader implements AutoCloseable {
    * @param loadMetadataSize -whether load meta data size
    */
   public TsFileSequenceReader(String file, boolean loadMetadataSize) throws IOException {
+    this(file, FSFactoryProducer.getFileInputFactory().getTsFileInput(file), loadMetadataSize);
+  }
+
+  /**
+   * construct function for TsFileSequenceReader, which reads the given file through the given
+   * input instead of the one of the configured file system, e.g. a {@link MappedTsFileInput}.
+   *
+   * @param file -given file name
+   * @param input -the input of the file
+   * @param loadMetadataSize -whether load meta data size
+   */
+  public TsFileSequenceReader(String file, TsFileInput input, boolean loadMetadataSize)
+      throws IOException {
     this.file = file;
-    tsFileInput = FSFactoryProducer.getFileInputFactory().getTsFileInput(file);
+    tsFileInput = input;
     // old version number of TsFile using little endian starts with "v"
     this.endianType = this.readVersionNumber().startsWith("v")
         ? EndianType.LITTLE_ENDIAN : EndianType.BIG_ENDIAN;
@@ -428,6 +446,11 @@ public class TsFileSequenceReader implements AutoCloseable {
     tsFileInput.position(tsFileInput.position() + header.getCompressedSize());
   }
 
+  /**
+   * read and uncompress the data of a page. <br> this method is not thread safe, and the returned
+   * buffer of a compressed page is reused by the next call, so consume it before reading the next
+   * page.
+   */
   public ByteBuffer readPage(PageHeader header, CompressionType type) throws IOException {
     return readPage(header, type, -1);
   }
@@ -435,18 +458,18 @@ public class TsFileSequenceReader implements AutoCloseable {
   private ByteBuffer readPage(PageHeader header, CompressionType type, long position)
       throws IOException {
     ByteBuffer buffer = readData(position, header.getCompressedSize());
+    if (type == CompressionType.UNCOMPRESSED) {
+      return buffer;
+    }
     IUnCompressor unCompressor = IUnCompressor.getUnCompressor(type);
-    ByteBuffer uncompressedBuffer = ByteBuffer.allocate(header.getUncompressedSize());
-    switch (type) {
-      case UNCOMPRESSED:
-        return buffer;
-      default:
-        // FIXME if the buffer is not array-implemented.
-        unCompressor.uncompress(buffer.array(), buffer.position(), buffer.remaining(),
-            uncompressedBuffer.array(),
-            0);
-        return uncompressedBuffer;
+    int uncompressedSize = header.getUncompressedSize();
+    if (uncompressedPageBuffer.capacity() < uncompressedSize) {
+      uncompressedPageBuffer = ByteBuffer.allocate(uncompressedSize);
     }
+    uncompressedPageBuffer.clear();
+    // the buffer is not array-implemented if it is a slice of a mapped file
+    IUnCompressor.uncompressByArray(unCompressor, buffer, uncompressedPageBuffer);
+    return uncompressedPageBuffer;
   }
 
   /**
@@ -487,9 +510,16 @@ public class TsFileSequenceReader implements AutoCloseable {
    * @param position the start position of data in the tsFileInput, or the current position if
    * position = -1
    * @param size the size of data that want to read
-   * @return data that been read.
+   * @return data that been read, which is a read-only view of the file without copying if the
+   * file is mapped.
    */
   private ByteBuffer readData(long position, int size) throws IOException {
+    if (tsFileInput instanceof MappedTsFileInput) {
+      ByteBuffer slice = readMappedData(position, size);
+      if (slice != null) {
+        return slice;
+      }
+    }
     ByteBuffer buffer = ByteBuffer.allocate(size);
     if (position == -1) {
       if (ReadWriteIOUtils.readAsPossible(tsFileInput, buffer) != size) {
@@ -504,6 +534,18 @@ public class TsFileSequenceReader implements AutoCloseable {
     return buffer;
   }
 
+  private ByteBuffer readMappedData(long position, int size) throws IOException {
+    boolean movePosition = position == -1;
+    if (movePosition) {
+      position = tsFileInput.position();
+    }
+    ByteBuffer slice = ((MappedTsFileInput) tsFileInput).slice(position, size);
+    if (slice != null && movePosition) {
+      tsFileInput.position(position + size);
+    }
+    return slice;
+  }
+
   /**
    * notice, the target bytebuffer are not flipped.
    */
@@ -363,6 +363,256 @@ public class BatchData implements Serializable {
     valueLength++;
   }
 
+  /**
+   * put timestamps in bulk.
+   *
+   * @param src timestamps
+   * @param off start position in src
+   * @param len number of timestamps to put
+   */
+  public void putTimes(long[] src, int off, int len) {
+    while (len > 0) {
+      if (curTimeIdx == timeCapacity) {
+        if (timeCapacity >= capacityThreshold) {
+          this.timeRet.add(new long[timeCapacity]);
+          timeArrayIdx++;
+          curTimeIdx = 0;
+        } else {
+          int newCapacity = timeCapacity * 2;
+          while (newCapacity < capacityThreshold && newCapacity - curTimeIdx < len) {
+            newCapacity *= 2;
+          }
+          long[] newData = new long[newCapacity];
+          System.arraycopy(timeRet.get(0), 0, newData, 0, timeCapacity);
+          this.timeRet.set(0, newData);
+          timeCapacity = newCapacity;
+        }
+      }
+      int n = Math.min(len, timeCapacity - curTimeIdx);
+      System.arraycopy(src, off, timeRet.get(timeArrayIdx), curTimeIdx, n);
+      curTimeIdx += n;
+      timeLength += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * put boolean data in bulk.
+   *
+   * @param src boolean data
+   * @param off start position in src
+   * @param len number of values to put
+   */
+  public void putBooleans(boolean[] src, int off, int len) {
+    while (len > 0) {
+      if (curValueIdx == valueCapacity) {
+        if (valueCapacity >= capacityThreshold) {
+          if (this.booleanRet.size() <= valueArrayIdx + 1) {
+            this.booleanRet.add(new boolean[valueCapacity]);
+          }
+          valueArrayIdx++;
+          curValueIdx = 0;
+        } else {
+          int newCapacity = valueCapacity * 2;
+          while (newCapacity < capacityThreshold && newCapacity - curValueIdx < len) {
+            newCapacity *= 2;
+          }
+          boolean[] newData = new boolean[newCapacity];
+          System.arraycopy(booleanRet.get(0), 0, newData, 0, valueCapacity);
+          this.booleanRet.set(0, newData);
+          valueCapacity = newCapacity;
+        }
+      }
+      int n = Math.min(len, valueCapacity - curValueIdx);
+      System.arraycopy(src, off, booleanRet.get(valueArrayIdx), curValueIdx, n);
+      curValueIdx += n;
+      valueLength += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * put int data in bulk.
+   *
+   * @param src int data
+   * @param off start position in src
+   * @param len number of values to put
+   */
+  public void putInts(int[] src, int off, int len) {
+    while (len > 0) {
+      if (curValueIdx == valueCapacity) {
+        if (valueCapacity >= capacityThreshold) {
+          if (this.intRet.size() <= valueArrayIdx + 1) {
+            this.intRet.add(new int[valueCapacity]);
+          }
+          valueArrayIdx++;
+          curValueIdx = 0;
+        } else {
+          int newCapacity = valueCapacity * 2;
+          while (newCapacity < capacityThreshold && newCapacity - curValueIdx < len) {
+            newCapacity *= 2;
+          }
+          int[] newData = new int[newCapacity];
+          System.arraycopy(intRet.get(0), 0, newData, 0, valueCapacity);
+          this.intRet.set(0, newData);
+          valueCapacity = newCapacity;
+        }
+      }
+      int n = Math.min(len, valueCapacity - curValueIdx);
+      System.arraycopy(src, off, intRet.get(valueArrayIdx), curValueIdx, n);
+      curValueIdx += n;
+      valueLength += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * put long data in bulk.
+   *
+   * @param src long data
+   * @param off start position in src
+   * @param len number of values to put
+   */
+  public void putLongs(long[] src, int off, int len) {
+    while (len > 0) {
+      if (curValueIdx == valueCapacity) {
+        if (valueCapacity >= capacityThreshold) {
+          if (this.longRet.size() <= valueArrayIdx + 1) {
+            this.longRet.add(new long[valueCapacity]);
+          }
+          valueArrayIdx++;
+          curValueIdx = 0;
+        } else {
+          int newCapacity = valueCapacity * 2;
+          while (newCapacity < capacityThreshold && newCapacity - curValueIdx < len) {
+            newCapacity *= 2;
+          }
+          long[] newData = new long[newCapacity];
+          System.arraycopy(longRet.get(0), 0, newData, 0, valueCapacity);
+          this.longRet.set(0, newData);
+          valueCapacity = newCapacity;
+        }
+      }
+      int n = Math.min(len, valueCapacity - curValueIdx);
+      System.arraycopy(src, off, longRet.get(valueArrayIdx), curValueIdx, n);
+      curValueIdx += n;
+      valueLength += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * put float data in bulk.
+   *
+   * @param src float data
+   * @param off start position in src
+   * @param len number of values to put
+   */
+  public void putFloats(float[] src, int off, int len) {
+    while (len > 0) {
+      if (curValueIdx == valueCapacity) {
+        if (valueCapacity >= capacityThreshold) {
+          if (this.floatRet.size() <= valueArrayIdx + 1) {
+            this.floatRet.add(new float[valueCapacity]);
+          }
+          valueArrayIdx++;
+          curValueIdx = 0;
+        } else {
+          int newCapacity = valueCapacity * 2;
+          while (newCapacity < capacityThreshold && newCapacity - curValueIdx < len) {
+            newCapacity *= 2;
+          }
+          float[] newData = new float[newCapacity];
+          System.arraycopy(floatRet.get(0), 0, newData, 0, valueCapacity);
+          this.floatRet.set(0, newData);
+          valueCapacity = newCapacity;
+        }
+      }
+      int n = Math.min(len, valueCapacity - curValueIdx);
+      System.arraycopy(src, off, floatRet.get(valueArrayIdx), curValueIdx, n);
+      curValueIdx += n;
+      valueLength += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * put double data in bulk.
+   *
+   * @param src double data
+   * @param off start position in src
+   * @param len number of values to put
+   */
+  public void putDoubles(double[] src, int off, int len) {
+    while (len > 0) {
+      if (curValueIdx == valueCapacity) {
+        if (valueCapacity >= capacityThreshold) {
+          if (this.doubleRet.size() <= valueArrayIdx + 1) {
+            this.doubleRet.add(new double[valueCapacity]);
+          }
+          valueArrayIdx++;
+          curValueIdx = 0;
+        } else {
+          int newCapacity = valueCapacity * 2;
+          while (newCapacity < capacityThreshold && newCapacity - curValueIdx < len) {
+            newCapacity *= 2;
+          }
+          double[] newData = new double[newCapacity];
+          System.arraycopy(doubleRet.get(0), 0, newData, 0, valueCapacity);
+          this.doubleRet.set(0, newData);
+          valueCapacity = newCapacity;
+        }
+      }
+      int n = Math.min(len, valueCapacity - curValueIdx);
+      System.arraycopy(src, off, doubleRet.get(valueArrayIdx), curValueIdx, n);
+      curValueIdx += n;
+      valueLength += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * put binary data in bulk.
+   *
+   * @param src binary data
+   * @param off start position in src
+   * @param len number of values to put
+   */
+  public void putBinaries(Binary[] src, int off, int len) {
+    while (len > 0) {
+      if (curValueIdx == valueCapacity) {
+        if (valueCapacity >= capacityThreshold) {
+          if (this.binaryRet.size() <= valueArrayIdx + 1) {
+            this.binaryRet.add(new Binary[valueCapacity]);
+          }
+          valueArrayIdx++;
+          curValueIdx = 0;
+        } else {
+          int newCapacity = valueCapacity * 2;
+          while (newCapacity < capacityThreshold && newCapacity - curValueIdx < len) {
+            newCapacity *= 2;
+          }
+          Binary[] newData = new Binary[newCapacity];
+          System.arraycopy(binaryRet.get(0), 0, newData, 0, valueCapacity);
+          this.binaryRet.set(0, newData);
+          valueCapacity = newCapacity;
+        }
+      }
+      int n = Math.min(len, valueCapacity - curValueIdx);
+      System.arraycopy(src, off, binaryRet.get(valueArrayIdx), curValueIdx, n);
+      curValueIdx += n;
+      valueLength += n;
+      off += n;
+      len -= n;
+    }
+  }
+
   /**
    * Checks if the given index is in range. If not, throws an appropriate runtime exception.
    */
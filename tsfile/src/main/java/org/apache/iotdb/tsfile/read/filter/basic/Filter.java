@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.tsfile.read.filter.basic;
 
+import java.lang.reflect.Array;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 
 /**
@@ -44,6 +45,34 @@ public interface Filter {
    */
   boolean satisfy(long time, Object value);
 
+  /**
+   * To examine a block of points at a time. The selection holds the indexes of the points still
+   * under consideration in ascending order, and it is narrowed in place to those satisfying the
+   * filter. The operators evaluate primitive columns without boxing; this default adapts the
+   * single point {@link #satisfy(long, Object)}.
+   *
+   * @param times
+   *            the time column of the block
+   * @param values
+   *            the value column of the block, a boolean[], int[], long[], float[], double[] or
+   *            Binary[] array
+   * @param selection
+   *            indexes of the selected points in ascending order
+   * @param selected
+   *            how many leading entries of selection are valid
+   * @return how many leading entries of selection satisfy the filter
+   */
+  default int satisfyBatch(long[] times, Object values, int[] selection, int selected) {
+    int satisfied = 0;
+    for (int i = 0; i < selected; i++) {
+      int index = selection[i];
+      if (satisfy(times[index], Array.get(values, index))) {
+        selection[satisfied++] = index;
+      }
+    }
+    return satisfied;
+  }
+
   /**
    * To examine whether the min time and max time are satisfied with the filter.
    *
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.filter.basic;
+
+/**
+ * Set operations on the selections of {@link Filter#satisfyBatch}, i.e. ascending index vectors.
+ */
+public class SelectionUtils {
+
+  private SelectionUtils() {
+    throw new IllegalAccessError("Utility class");
+  }
+
+  /**
+   * Write the indexes of the first selection that are not in the second one into dst, which may be
+   * the first selection itself.
+   *
+   * @return the size of the difference
+   */
+  public static int difference(int[] selection, int selected, int[] excluded, int excludedNum,
+      int[] dst) {
+    int size = 0;
+    int j = 0;
+    for (int i = 0; i < selected; i++) {
+      int index = selection[i];
+      while (j < excludedNum && excluded[j] < index) {
+        j++;
+      }
+      if (j < excludedNum && excluded[j] == index) {
+        j++;
+      } else {
+        dst[size++] = index;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Merge two disjoint selections into dst, which must not be either of them.
+   *
+   * @return the size of the union
+   */
+  public static int union(int[] first, int firstNum, int[] second, int secondNum, int[] dst) {
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < firstNum && j < secondNum) {
+      dst[size++] = first[i] < second[j] ? first[i++] : second[j++];
+    }
+    while (i < firstNum) {
+      dst[size++] = first[i++];
+    }
+    while (j < secondNum) {
+      dst[size++] = second[j++];
+    }
+    return size;
+  }
+}
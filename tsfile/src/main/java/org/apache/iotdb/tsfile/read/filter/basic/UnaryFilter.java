@@ -46,6 +46,37 @@ public abstract class UnaryFilter<T extends Comparable<T>> implements Filter, Se
     return filterType;
   }
 
+  @Override
+  public int satisfyBatch(long[] times, Object values, int[] selection, int selected) {
+    if (filterType == FilterType.TIME_FILTER) {
+      return selectLongs(times, (Long) value, selection, selected);
+    } else if (values instanceof long[] && value instanceof Long) {
+      return selectLongs((long[]) values, (Long) value, selection, selected);
+    } else if (values instanceof int[] && value instanceof Integer) {
+      return selectInts((int[]) values, (Integer) value, selection, selected);
+    } else if (values instanceof float[] && value instanceof Float) {
+      return selectFloats((float[]) values, (Float) value, selection, selected);
+    } else if (values instanceof double[] && value instanceof Double) {
+      return selectDoubles((double[]) values, (Double) value, selection, selected);
+    }
+    // booleans and binaries are rarely filtered, they are compared as objects
+    return Filter.super.satisfyBatch(times, values, selection, selected);
+  }
+
+  /**
+   * Narrow the selection to the points whose value in the column satisfies this operator with the
+   * operand, see {@link Filter#satisfyBatch}.
+   */
+  protected abstract int selectLongs(long[] column, long operand, int[] selection, int selected);
+
+  protected abstract int selectInts(int[] column, int operand, int[] selection, int selected);
+
+  protected abstract int selectFloats(float[] column, float operand, int[] selection,
+      int selected);
+
+  protected abstract int selectDoubles(double[] column, double operand, int[] selection,
+      int selected);
+
   @Override
   public abstract String toString();
 
@@ -43,6 +43,13 @@ public class AndFilter extends BinaryFilter {
     return left.satisfy(time, value) && right.satisfy(time, value);
   }
 
+  @Override
+  public int satisfyBatch(long[] times, Object values, int[] selection, int selected) {
+    // the right side only examines what the left side selects
+    return right.satisfyBatch(times, values, selection,
+        left.satisfyBatch(times, values, selection, selected));
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     return left.satisfyStartEndTime(startTime, endTime) && right
@@ -55,6 +55,54 @@ public class LtEq<T extends Comparable<T>> extends UnaryFilter<T> {
     return this.value.compareTo((T) v) >= 0;
   }
 
+  @Override
+  protected int selectLongs(long[] column, long operand, int[] selection, int selected) {
+    int satisfied = 0;
+    for (int i = 0; i < selected; i++) {
+      int index = selection[i];
+      if (column[index] <= operand) {
+        selection[satisfied++] = index;
+      }
+    }
+    return satisfied;
+  }
+
+  @Override
+  protected int selectInts(int[] column, int operand, int[] selection, int selected) {
+    int satisfied = 0;
+    for (int i = 0; i < selected; i++) {
+      int index = selection[i];
+      if (column[index] <= operand) {
+        selection[satisfied++] = index;
+      }
+    }
+    return satisfied;
+  }
+
+  @Override
+  protected int selectFloats(float[] column, float operand, int[] selection, int selected) {
+    int satisfied = 0;
+    for (int i = 0; i < selected; i++) {
+      int index = selection[i];
+      if (Float.compare(column[index], operand) <= 0) {
+        selection[satisfied++] = index;
+      }
+    }
+    return satisfied;
+  }
+
+  @Override
+  protected int selectDoubles(double[] column, double operand, int[] selection, int selected) {
+    int satisfied = 0;
+    for (int i = 0; i < selected; i++) {
+      int index = selection[i];
+      if (Double.compare(column[index], operand) <= 0) {
+        selection[satisfied++] = index;
+      }
+    }
+    return satisfied;
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     if (filterType == FilterType.TIME_FILTER) {
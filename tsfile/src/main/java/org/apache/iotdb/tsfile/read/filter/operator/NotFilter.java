@@ -19,8 +19,10 @@
 package org.apache.iotdb.tsfile.read.filter.operator;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.basic.SelectionUtils;
 
 /**
  * NotFilter necessary. Use InvertExpressionVisitor
@@ -44,6 +46,13 @@ public class NotFilter implements Filter, Serializable {
     return !that.satisfy(time, value);
   }
 
+  @Override
+  public int satisfyBatch(long[] times, Object values, int[] selection, int selected) {
+    int[] satisfied = Arrays.copyOf(selection, selected);
+    int satisfiedNum = that.satisfyBatch(times, values, satisfied, selected);
+    return SelectionUtils.difference(selection, selected, satisfied, satisfiedNum, selection);
+  }
+
   /**
    * Notice that, if the not filter only contains value filter, this method may return false, this
    * may cause misunderstanding.
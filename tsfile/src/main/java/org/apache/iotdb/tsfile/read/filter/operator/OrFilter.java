@@ -19,9 +19,11 @@
 package org.apache.iotdb.tsfile.read.filter.operator;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.read.filter.basic.BinaryFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.basic.SelectionUtils;
 
 /**
  * Either of the left and right operators of AndExpression must satisfy the condition.
@@ -54,6 +56,21 @@ public class OrFilter extends BinaryFilter implements Serializable {
     return left.satisfy(time, value) || right.satisfy(time, value);
   }
 
+  @Override
+  public int satisfyBatch(long[] times, Object values, int[] selection, int selected) {
+    int[] candidates = Arrays.copyOf(selection, selected);
+    int leftSelected = left.satisfyBatch(times, values, selection, selected);
+    if (leftSelected == selected) {
+      return selected;
+    }
+    // the right side only examines what the left side rejects
+    int[] rest = new int[selected - leftSelected];
+    int restNum = SelectionUtils.difference(candidates, selected, selection, leftSelected, rest);
+    int rightSelected = right.satisfyBatch(times, values, rest, restNum);
+    System.arraycopy(selection, 0, candidates, 0, leftSelected);
+    return SelectionUtils.union(candidates, leftSelected, rest, rightSelected, selection);
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     return left.satisfyStartEndTime(startTime, endTime) || right
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.apache.iotdb.tsfile.utils.MmapUtils;
+
+/**
+ * A TsFileInput that maps the whole file into memory, which is only suitable for a sealed file
+ * that will not grow. Data is served from the page cache of the OS, and {@link #slice(long, int)}
+ * returns a view of the mapped data without copying it to the heap.
+ * <p>
+ * The mapping is split into regions of at most 2GB, as a MappedByteBuffer is indexed by int. The
+ * regions are unmapped when the input is closed, so that the memory and the disk space of a
+ * deleted file are released at once. The owner must only close the input after every slice of it
+ * has been dropped or copied.
+ */
+public class MappedTsFileInput implements TsFileInput {
+
+  private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+  private FileChannel channel;
+  private long size;
+  private MappedByteBuffer[] regions;
+
+  public MappedTsFileInput(Path file) throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      size = channel.size();
+      int regionNum = (int) ((size + MAX_REGION_SIZE - 1) / MAX_REGION_SIZE);
+      regions = new MappedByteBuffer[regionNum];
+      for (int i = 0; i < regionNum; i++) {
+        long regionStart = i * MAX_REGION_SIZE;
+        regions[i] = channel
+            .map(MapMode.READ_ONLY, regionStart, Math.min(MAX_REGION_SIZE, size - regionStart));
+      }
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Get a read-only view of [position, position + length) of the file without copying.
+   *
+   * @return the view whose position is 0 and limit is length, or null if the range crosses two
+   * regions, in which case the data should be read by copying
+   */
+  public ByteBuffer slice(long position, int length) throws IOException {
+    if (position < 0 || length < 0 || position + length > size) {
+      throw new IOException(String.format("Cannot read [%d, %d) from a file of %d bytes",
+          position, position + length, size));
+    }
+    int regionIndex = (int) (position / MAX_REGION_SIZE);
+    int offset = (int) (position % MAX_REGION_SIZE);
+    if (offset + (long) length > MAX_REGION_SIZE) {
+      return null;
+    }
+    ByteBuffer region = regions[regionIndex].duplicate();
+    region.position(offset);
+    region.limit(offset + length);
+    return region.slice();
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public long position() throws IOException {
+    return channel.position();
+  }
+
+  @Override
+  public TsFileInput position(long newPosition) throws IOException {
+    channel.position(newPosition);
+    return this;
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    long position = channel.position();
+    int read = read(dst, position);
+    if (read > 0) {
+      channel.position(position + read);
+    }
+    return read;
+  }
+
+  @Override
+  public int read(ByteBuffer dst, long position) throws IOException {
+    if (position >= size) {
+      return -1;
+    }
+    int read = 0;
+    while (dst.hasRemaining() && position < size) {
+      ByteBuffer region = regions[(int) (position / MAX_REGION_SIZE)].duplicate();
+      region.position((int) (position % MAX_REGION_SIZE));
+      int length = Math.min(dst.remaining(), region.remaining());
+      region.limit(region.position() + length);
+      dst.put(region);
+      read += length;
+      position += length;
+    }
+    return read;
+  }
+
+  @Override
+  public int read() throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public FileChannel wrapAsFileChannel() throws IOException {
+    return channel;
+  }
+
+  @Override
+  public InputStream wrapAsInputStream() throws IOException {
+    return Channels.newInputStream(channel);
+  }
+
+  @Override
+  public void close() throws IOException {
+    MappedByteBuffer[] mappedRegions = regions;
+    regions = new MappedByteBuffer[0];
+    for (MappedByteBuffer region : mappedRegions) {
+      MmapUtils.unmap(region);
+    }
+    channel.close();
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -22,13 +22,13 @@ package org.apache.iotdb.tsfile.read.reader.chunk;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.Arrays;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.compress.IUnCompressor;
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.common.BatchData;
@@ -42,6 +42,11 @@ public abstract class ChunkReader {
   private ByteBuffer chunkDataBuffer;
 
   private IUnCompressor unCompressor;
+  /**
+   * reused to hold the uncompressed page, as each page is decoded completely before the next one
+   * is read.
+   */
+  private byte[] uncompressedPageBuffer = new byte[0];
   private EndianType endianType;
   private Decoder valueDecoder;
   private Decoder timeDecoder = Decoder.getDecoderByType(
@@ -144,18 +149,38 @@ public abstract class ChunkReader {
 
   private PageReader constructPageReaderForNextPage(int compressedPageBodyLength)
       throws IOException {
-    byte[] compressedPageBody = new byte[compressedPageBodyLength];
-
     // already in memory
     if (compressedPageBodyLength > chunkDataBuffer.remaining()) {
       throw new IOException(
           "unexpected byte read length when read compressedPageBody. Expected:"
-              + Arrays.toString(compressedPageBody) + ". Actual:" + chunkDataBuffer
-              .remaining());
+              + compressedPageBodyLength + ". Actual:" + chunkDataBuffer.remaining());
     }
-    chunkDataBuffer.get(compressedPageBody, 0, compressedPageBodyLength);
     valueDecoder.reset();
-    ByteBuffer pageData = ByteBuffer.wrap(unCompressor.uncompress(compressedPageBody));
+    ByteBuffer pageData;
+    if (chunkHeader.getCompressionType() == CompressionType.UNCOMPRESSED) {
+      pageData = chunkDataBuffer.slice();
+      pageData.limit(compressedPageBodyLength);
+    } else {
+      byte[] compressedPageBody;
+      int offset;
+      if (chunkDataBuffer.hasArray()) {
+        compressedPageBody = chunkDataBuffer.array();
+        offset = chunkDataBuffer.arrayOffset() + chunkDataBuffer.position();
+      } else {
+        compressedPageBody = new byte[compressedPageBodyLength];
+        chunkDataBuffer.duplicate().get(compressedPageBody);
+        offset = 0;
+      }
+      int uncompressedSize = unCompressor
+          .getUncompressedLength(compressedPageBody, offset, compressedPageBodyLength);
+      if (uncompressedPageBuffer.length < uncompressedSize) {
+        uncompressedPageBuffer = new byte[uncompressedSize];
+      }
+      unCompressor.uncompress(compressedPageBody, offset, compressedPageBodyLength,
+          uncompressedPageBuffer, 0);
+      pageData = ByteBuffer.wrap(uncompressedPageBuffer, 0, uncompressedSize).slice();
+    }
+    skipBytesInStreamByLength(compressedPageBodyLength);
     PageReader reader = new PageReader(pageData, chunkHeader.getDataType(),
         valueDecoder, timeDecoder, filter);
     reader.setDeletedAt(deletedAt);
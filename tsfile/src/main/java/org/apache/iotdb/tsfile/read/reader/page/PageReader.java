@@ -31,6 +31,11 @@ import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
 
 public class PageReader {
 
+  /**
+   * how many points are decoded at a time
+   */
+  private static final int DECODE_BLOCK_SIZE = 1024;
+
   private TSDataType dataType;
 
   /** decoder for value column */
@@ -103,55 +108,42 @@ public class PageReader {
     return data;
   }
 
+  /**
+   * Decode the page in blocks through the bulk methods of the decoders. The points of a page are in
+   * ascending time order, so the deleted points of a block are always its prefix.
+   */
   private BatchData getAllPageData() throws IOException {
-
     BatchData pageData = new BatchData(dataType, true);
+    long[] times = new long[DECODE_BLOCK_SIZE];
+    Object values = allocateValueBlock();
 
     while (timeDecoder.hasNext(timeBuffer)) {
-      long timestamp = timeDecoder.readLong(timeBuffer);
-
+      int n = timeDecoder.readLongs(timeBuffer, times, 0, DECODE_BLOCK_SIZE);
+      readValues(values, n);
+      int start = 0;
+      while (start < n && times[start] <= deletedAt) {
+        start++;
+      }
+      int length = n - start;
+      pageData.putTimes(times, start, length);
       switch (dataType) {
         case BOOLEAN:
-          boolean aBoolean = valueDecoder.readBoolean(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putBoolean(aBoolean);
-          }
+          pageData.putBooleans((boolean[]) values, start, length);
           break;
         case INT32:
-          int anInt = valueDecoder.readInt(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putInt(anInt);
-          }
+          pageData.putInts((int[]) values, start, length);
           break;
         case INT64:
-          long aLong = valueDecoder.readLong(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putLong(aLong);
-          }
+          pageData.putLongs((long[]) values, start, length);
           break;
         case FLOAT:
-          float aFloat = valueDecoder.readFloat(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putFloat(aFloat);
-          }
+          pageData.putFloats((float[]) values, start, length);
           break;
         case DOUBLE:
-          double aDouble = valueDecoder.readDouble(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putDouble(aDouble);
-          }
+          pageData.putDoubles((double[]) values, start, length);
           break;
         case TEXT:
-          Binary aBinary = valueDecoder.readBinary(valueBuffer);
-          if (timestamp > deletedAt) {
-            pageData.putTime(timestamp);
-            pageData.putBinary(aBinary);
-          }
+          pageData.putBinaries((Binary[]) values, start, length);
           break;
         default:
           throw new UnSupportedDataTypeException(String.valueOf(dataType));
@@ -160,84 +152,128 @@ public class PageReader {
     return pageData;
   }
 
+  /**
+   * Decode the page in blocks like {@link #getAllPageData()}, and evaluate the filter on each block
+   * at a time.
+   */
   private BatchData getAllPageDataWithFilter() throws IOException {
     BatchData pageData = new BatchData(dataType, true);
+    long[] times = new long[DECODE_BLOCK_SIZE];
+    Object values = allocateValueBlock();
+    int[] selection = new int[DECODE_BLOCK_SIZE];
 
     while (timeDecoder.hasNext(timeBuffer)) {
-      long timestamp = timeDecoder.readLong(timeBuffer);
-
-      switch (dataType) {
-        case BOOLEAN:
-          readBoolean(pageData, timestamp);
-          break;
-        case INT32:
-          readInt(pageData, timestamp);
-          break;
-        case INT64:
-          readLong(pageData, timestamp);
-          break;
-        case FLOAT:
-          readFloat(pageData, timestamp);
-          break;
-        case DOUBLE:
-          readDouble(pageData, timestamp);
-          break;
-        case TEXT:
-          readText(pageData, timestamp);
-          break;
-        default:
-          throw new UnSupportedDataTypeException(String.valueOf(dataType));
+      int n = timeDecoder.readLongs(timeBuffer, times, 0, DECODE_BLOCK_SIZE);
+      readValues(values, n);
+      int selected = 0;
+      for (int i = 0; i < n; i++) {
+        if (times[i] > deletedAt) {
+          selection[selected++] = i;
+        }
       }
+      selected = filter.satisfyBatch(times, values, selection, selected);
+      putSelected(pageData, times, values, selection, selected);
     }
 
     return pageData;
   }
 
-  private void readBoolean(BatchData pageData, long timestamp) {
-    boolean aBoolean = valueDecoder.readBoolean(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aBoolean)) {
-      pageData.putTime(timestamp);
-      pageData.putBoolean(aBoolean);
+  private Object allocateValueBlock() {
+    switch (dataType) {
+      case BOOLEAN:
+        return new boolean[DECODE_BLOCK_SIZE];
+      case INT32:
+        return new int[DECODE_BLOCK_SIZE];
+      case INT64:
+        return new long[DECODE_BLOCK_SIZE];
+      case FLOAT:
+        return new float[DECODE_BLOCK_SIZE];
+      case DOUBLE:
+        return new double[DECODE_BLOCK_SIZE];
+      case TEXT:
+        return new Binary[DECODE_BLOCK_SIZE];
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
     }
   }
 
-  private void readInt(BatchData pageData, long timestamp) {
-    int anInt = valueDecoder.readInt(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, anInt)) {
-      pageData.putTime(timestamp);
-      pageData.putInt(anInt);
-    }
-  }
-
-  private void readLong(BatchData pageData, long timestamp) {
-    long aLong = valueDecoder.readLong(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aLong)) {
-      pageData.putTime(timestamp);
-      pageData.putLong(aLong);
+  /**
+   * decode the values of the n timestamps just decoded
+   */
+  private void readValues(Object values, int n) throws IOException {
+    int read;
+    switch (dataType) {
+      case BOOLEAN:
+        read = valueDecoder.readBooleans(valueBuffer, (boolean[]) values, 0, n);
+        break;
+      case INT32:
+        read = valueDecoder.readInts(valueBuffer, (int[]) values, 0, n);
+        break;
+      case INT64:
+        read = valueDecoder.readLongs(valueBuffer, (long[]) values, 0, n);
+        break;
+      case FLOAT:
+        read = valueDecoder.readFloats(valueBuffer, (float[]) values, 0, n);
+        break;
+      case DOUBLE:
+        read = valueDecoder.readDoubles(valueBuffer, (double[]) values, 0, n);
+        break;
+      case TEXT:
+        read = valueDecoder.readBinaries(valueBuffer, (Binary[]) values, 0, n);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
     }
-  }
-
-  private void readFloat(BatchData pageData, long timestamp) {
-    float aFloat = valueDecoder.readFloat(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aFloat)) {
-      pageData.putTime(timestamp);
-      pageData.putFloat(aFloat);
+    if (read != n) {
+      throw new IOException(String.format("The page has %d timestamps but only %d values are "
+          + "decoded", n, read));
     }
   }
 
-  private void readDouble(BatchData pageData, long timestamp) {
-    double aDouble = valueDecoder.readDouble(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aDouble)) {
-      pageData.putTime(timestamp);
-      pageData.putDouble(aDouble);
+  private void putSelected(BatchData pageData, long[] times, Object values, int[] selection,
+      int selected) {
+    for (int i = 0; i < selected; i++) {
+      pageData.putTime(times[selection[i]]);
     }
-  }
-
-  private void readText(BatchData pageData, long timestamp) {
-    Binary aBinary = valueDecoder.readBinary(valueBuffer);
-    if (timestamp > deletedAt && filter.satisfy(timestamp, aBinary)) {
-      pageData.putTime(timestamp);
-      pageData.putBinary(aBinary);
+    switch (dataType) {
+      case BOOLEAN:
+        boolean[] booleans = (boolean[]) values;
+        for (int i = 0; i < selected; i++) {
+          pageData.putBoolean(booleans[selection[i]]);
+        }
+        break;
+      case INT32:
+        int[] ints = (int[]) values;
+        for (int i = 0; i < selected; i++) {
+          pageData.putInt(ints[selection[i]]);
+        }
+        break;
+      case INT64:
+        long[] longs = (long[]) values;
+        for (int i = 0; i < selected; i++) {
+          pageData.putLong(longs[selection[i]]);
+        }
+        break;
+      case FLOAT:
+        float[] floats = (float[]) values;
+        for (int i = 0; i < selected; i++) {
+          pageData.putFloat(floats[selection[i]]);
+        }
+        break;
+      case DOUBLE:
+        double[] doubles = (double[]) values;
+        for (int i = 0; i < selected; i++) {
+          pageData.putDouble(doubles[selection[i]]);
+        }
+        break;
+      case TEXT:
+        Binary[] binaries = (Binary[]) values;
+        for (int i = 0; i < selected; i++) {
+          pageData.putBinary(binaries[selection[i]]);
+        }
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
     }
   }
 
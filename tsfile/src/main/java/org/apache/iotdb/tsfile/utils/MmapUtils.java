@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.utils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class MmapUtils {
+
+  private static final Logger logger = LoggerFactory.getLogger(MmapUtils.class);
+
+  private MmapUtils() {
+  }
+
+  /**
+   * Release the mapping now instead of waiting for GC, so that the memory and the disk space of
+   * a deleted file are freed at once. The buffer and any view of it must not be accessed after
+   * this, otherwise the JVM may crash.
+   */
+  public static void unmap(MappedByteBuffer buffer) {
+    clean(buffer);
+  }
+
+  /**
+   * Release the memory of a mapped or direct buffer now instead of waiting for GC. The buffer and
+   * any view of it must not be accessed after this, otherwise the JVM may crash.
+   */
+  public static void clean(ByteBuffer buffer) {
+    try {
+      // Java 9+
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      invokeCleaner.invoke(theUnsafe.get(null), buffer);
+    } catch (NoSuchMethodException e) {
+      // Java 8
+      try {
+        Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+        Object cleaner = cleanerMethod.invoke(buffer);
+        cleaner.getClass().getMethod("clean").invoke(cleaner);
+      } catch (ReflectiveOperationException | RuntimeException e1) {
+        logger.debug("Cannot release buffer, leave it to GC", e1);
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      logger.debug("Cannot release buffer, leave it to GC", e);
+    }
+  }
+}
@@ -21,8 +21,10 @@ package org.apache.iotdb.tsfile.compress;
 import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.utils.PublicBAOS;
 import org.junit.After;
 import org.junit.Before;
@@ -77,4 +79,44 @@ public class CompressTest {
     assertEquals(inputString, result);
   }
 
+  @Test
+  public void lz4CompressorTest() throws IOException {
+    roundTrip(CompressionType.LZ4);
+  }
+
+  @Test
+  public void zstdCompressorTest() throws IOException {
+    roundTrip(CompressionType.ZSTD);
+  }
+
+  private void roundTrip(CompressionType type) throws IOException {
+    ICompressor compressor = ICompressor.getCompressor(type);
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(type);
+    byte[] input = inputString.getBytes(StandardCharsets.UTF_8);
+
+    byte[] compressed = compressor.compress(input);
+    assertEquals(inputString, new String(unCompressor.uncompress(compressed),
+        StandardCharsets.UTF_8));
+
+    // compress a slice and uncompress into the middle of a larger, reused output buffer
+    byte[] padded = new byte[input.length + 6];
+    System.arraycopy(input, 0, padded, 3, input.length);
+    byte[] buffer = new byte[compressor.getMaxBytesForCompression(input.length) + 5];
+    int size = compressor.compress(padded, 3, input.length, buffer);
+    assertEquals(input.length, unCompressor.getUncompressedLength(buffer, 0, size));
+    byte[] output = new byte[input.length + 2];
+    assertEquals(input.length, unCompressor.uncompress(buffer, 0, size, output, 2));
+    assertEquals(inputString,
+        new String(output, 2, input.length, StandardCharsets.UTF_8));
+
+    ByteBuffer compressedBuffer = ByteBuffer
+        .allocateDirect(compressor.getMaxBytesForCompression(input.length));
+    size = compressor.compress(ByteBuffer.wrap(input), compressedBuffer);
+    assertEquals(size, compressedBuffer.remaining());
+    assertEquals(input.length, unCompressor.getUncompressedLength(compressedBuffer));
+    ByteBuffer uncompressedBuffer = ByteBuffer.allocate(input.length);
+    assertEquals(input.length, unCompressor.uncompress(compressedBuffer, uncompressedBuffer));
+    assertEquals(inputString, new String(uncompressedBuffer.array(), StandardCharsets.UTF_8));
+  }
+
 }
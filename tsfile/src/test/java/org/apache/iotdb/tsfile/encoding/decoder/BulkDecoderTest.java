@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.TSEncodingBuilder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.junit.Test;
+
+/**
+ * The bulk methods of the decoders must decode the same values as the per-value methods, whatever
+ * the block size is.
+ */
+public class BulkDecoderTest {
+
+  private static final int SIZE = 3000;
+  private static final int[] BLOCK_SIZES = {1, 7, 1024, SIZE + 1};
+
+  private Random random = new Random(42);
+
+  @Test
+  public void testInts() throws IOException {
+    int[] values = new int[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      // runs of repeated values mixed with random ones, so rle uses both of its modes
+      values[i] = (i / 100) % 2 == 0 ? i / 10 : random.nextInt(1000);
+    }
+    for (TSEncoding encoding : new TSEncoding[]{TSEncoding.PLAIN, TSEncoding.RLE,
+        TSEncoding.TS_2DIFF}) {
+      ByteBuffer encoded = encode(encoding, TSDataType.INT32, values);
+      for (int blockSize : BLOCK_SIZES) {
+        int[] decoded = new int[SIZE];
+        Decoder decoder = Decoder.getDecoderByType(encoding, TSDataType.INT32);
+        ByteBuffer buffer = encoded.duplicate();
+        int n = 0;
+        while (decoder.hasNext(buffer)) {
+          n += decoder.readInts(buffer, decoded, n, Math.min(blockSize, SIZE - n));
+        }
+        assertEquals(SIZE, n);
+        assertArrayEquals(encoding + " " + blockSize, values, decoded);
+      }
+    }
+  }
+
+  @Test
+  public void testLongs() throws IOException {
+    long[] values = new long[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      values[i] = (i / 100) % 2 == 0 ? i * 1000L : random.nextLong();
+    }
+    for (TSEncoding encoding : new TSEncoding[]{TSEncoding.PLAIN, TSEncoding.RLE,
+        TSEncoding.TS_2DIFF}) {
+      assertLongs(encoding, values);
+    }
+
+    // regular data with and without a missing point
+    long[] regular = new long[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      regular[i] = 1000L + i * 10;
+    }
+    assertLongs(TSEncoding.REGULAR, regular);
+    long[] missing = new long[SIZE - 1];
+    for (int i = 0, j = 0; i < SIZE; i++) {
+      if (i != SIZE / 2) {
+        missing[j++] = regular[i];
+      }
+    }
+    assertLongs(TSEncoding.REGULAR, missing);
+  }
+
+  private void assertLongs(TSEncoding encoding, long[] values) throws IOException {
+    ByteBuffer encoded = encode(encoding, TSDataType.INT64, values);
+    for (int blockSize : BLOCK_SIZES) {
+      long[] decoded = new long[values.length];
+      Decoder decoder = Decoder.getDecoderByType(encoding, TSDataType.INT64);
+      ByteBuffer buffer = encoded.duplicate();
+      int n = 0;
+      while (decoder.hasNext(buffer)) {
+        n += decoder.readLongs(buffer, decoded, n, Math.min(blockSize, values.length - n));
+      }
+      assertEquals(values.length, n);
+      assertArrayEquals(encoding + " " + blockSize, values, decoded);
+    }
+  }
+
+  @Test
+  public void testDoubles() throws IOException {
+    double[] values = new double[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      values[i] = (i / 100) % 2 == 0 ? i / 4.0 : random.nextInt(100000);
+    }
+    for (TSEncoding encoding : new TSEncoding[]{TSEncoding.PLAIN, TSEncoding.RLE,
+        TSEncoding.TS_2DIFF, TSEncoding.GORILLA}) {
+      ByteBuffer encoded = encode(encoding, TSDataType.DOUBLE, values);
+      // rle and ts_2diff are lossy for floating points, so compare with the per-value decoding
+      double[] expected = new double[SIZE];
+      Decoder valueDecoder = Decoder.getDecoderByType(encoding, TSDataType.DOUBLE);
+      ByteBuffer valueBuffer = encoded.duplicate();
+      for (int i = 0; i < SIZE; i++) {
+        expected[i] = valueDecoder.readDouble(valueBuffer);
+      }
+      for (int blockSize : BLOCK_SIZES) {
+        double[] decoded = new double[SIZE];
+        Decoder decoder = Decoder.getDecoderByType(encoding, TSDataType.DOUBLE);
+        ByteBuffer buffer = encoded.duplicate();
+        int n = 0;
+        while (n < SIZE && decoder.hasNext(buffer)) {
+          n += decoder.readDoubles(buffer, decoded, n, Math.min(blockSize, SIZE - n));
+        }
+        assertEquals(SIZE, n);
+        assertArrayEquals(encoding + " " + blockSize, expected, decoded, 0);
+      }
+    }
+  }
+
+  @Test
+  public void testFloats() throws IOException {
+    float[] values = new float[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      values[i] = (i / 100) % 2 == 0 ? i / 4.0f : random.nextInt(100000);
+    }
+    for (TSEncoding encoding : new TSEncoding[]{TSEncoding.PLAIN, TSEncoding.RLE,
+        TSEncoding.TS_2DIFF, TSEncoding.GORILLA}) {
+      ByteBuffer encoded = encode(encoding, TSDataType.FLOAT, values);
+      // rle and ts_2diff are lossy for floating points, so compare with the per-value decoding
+      float[] expected = new float[SIZE];
+      Decoder valueDecoder = Decoder.getDecoderByType(encoding, TSDataType.FLOAT);
+      ByteBuffer valueBuffer = encoded.duplicate();
+      for (int i = 0; i < SIZE; i++) {
+        expected[i] = valueDecoder.readFloat(valueBuffer);
+      }
+      for (int blockSize : BLOCK_SIZES) {
+        float[] decoded = new float[SIZE];
+        Decoder decoder = Decoder.getDecoderByType(encoding, TSDataType.FLOAT);
+        ByteBuffer buffer = encoded.duplicate();
+        int n = 0;
+        while (n < SIZE && decoder.hasNext(buffer)) {
+          n += decoder.readFloats(buffer, decoded, n, Math.min(blockSize, SIZE - n));
+        }
+        assertEquals(SIZE, n);
+        assertArrayEquals(encoding + " " + blockSize, expected, decoded, 0f);
+      }
+    }
+  }
+
+  @Test
+  public void testBooleans() throws IOException {
+    boolean[] values = new boolean[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      values[i] = (i / 100) % 2 == 0 ? i % 200 < 50 : random.nextBoolean();
+    }
+    for (TSEncoding encoding : new TSEncoding[]{TSEncoding.PLAIN, TSEncoding.RLE}) {
+      ByteBuffer encoded = encode(encoding, TSDataType.BOOLEAN, values);
+      for (int blockSize : BLOCK_SIZES) {
+        boolean[] decoded = new boolean[SIZE];
+        Decoder decoder = Decoder.getDecoderByType(encoding, TSDataType.BOOLEAN);
+        ByteBuffer buffer = encoded.duplicate();
+        int n = 0;
+        while (decoder.hasNext(buffer)) {
+          n += decoder.readBooleans(buffer, decoded, n, Math.min(blockSize, SIZE - n));
+        }
+        assertEquals(SIZE, n);
+        assertArrayEquals(encoding + " " + blockSize, values, decoded);
+      }
+    }
+  }
+
+  private ByteBuffer encode(TSEncoding encoding, TSDataType dataType, Object values)
+      throws IOException {
+    Encoder encoder = TSEncodingBuilder.getConverter(encoding).getEncoder(dataType);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    switch (dataType) {
+      case BOOLEAN:
+        for (boolean value : (boolean[]) values) {
+          encoder.encode(value, out);
+        }
+        break;
+      case INT32:
+        for (int value : (int[]) values) {
+          encoder.encode(value, out);
+        }
+        break;
+      case INT64:
+        for (long value : (long[]) values) {
+          encoder.encode(value, out);
+        }
+        break;
+      case FLOAT:
+        for (float value : (float[]) values) {
+          encoder.encode(value, out);
+        }
+        break;
+      default:
+        for (double value : (double[]) values) {
+          encoder.encode(value, out);
+        }
+        break;
+    }
+    encoder.flush(out);
+    return ByteBuffer.wrap(out.toByteArray());
+  }
+}
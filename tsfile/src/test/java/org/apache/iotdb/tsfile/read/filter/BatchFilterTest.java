@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.filter;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Random;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.junit.Test;
+
+/**
+ * {@link Filter#satisfyBatch} must select exactly the points accepted by the single point
+ * satisfy.
+ */
+public class BatchFilterTest {
+
+  private static final int SIZE = 500;
+
+  private Random random = new Random(7);
+  private long[] times = new long[SIZE];
+
+  public BatchFilterTest() {
+    for (int i = 0; i < SIZE; i++) {
+      times[i] = i * 2L;
+    }
+  }
+
+  @Test
+  public void testTimeFilters() {
+    long[] values = new long[SIZE];
+    for (Filter filter : new Filter[]{TimeFilter.eq(100L), TimeFilter.notEq(100L),
+        TimeFilter.gt(100L), TimeFilter.gtEq(100L), TimeFilter.lt(100L), TimeFilter.ltEq(100L)}) {
+      assertBatch(filter, values);
+    }
+  }
+
+  @Test
+  public void testValueFilters() {
+    int[] ints = new int[SIZE];
+    long[] longs = new long[SIZE];
+    float[] floats = new float[SIZE];
+    double[] doubles = new double[SIZE];
+    boolean[] booleans = new boolean[SIZE];
+    Binary[] binaries = new Binary[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      ints[i] = random.nextInt(100);
+      longs[i] = random.nextInt(100);
+      floats[i] = random.nextInt(100) / 2.0f;
+      doubles[i] = random.nextInt(100) / 2.0;
+      booleans[i] = random.nextBoolean();
+      binaries[i] = new Binary("s" + random.nextInt(100));
+    }
+    floats[0] = Float.NaN;
+    doubles[0] = Double.NaN;
+    doubles[1] = -0.0;
+
+    assertOperators(ints, 50);
+    assertOperators(longs, 50L);
+    assertOperators(floats, 25.0f);
+    assertOperators(doubles, 25.0);
+    assertOperators(doubles, 0.0);
+    assertOperators(binaries, new Binary("s50"));
+    assertBatch(ValueFilter.eq(true), booleans);
+    assertBatch(ValueFilter.notEq(true), booleans);
+  }
+
+  @Test
+  public void testBinaryFilters() {
+    long[] values = new long[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      values[i] = random.nextInt(100);
+    }
+    Filter timeFilter = FilterFactory.and(TimeFilter.gtEq(100L), TimeFilter.lt(800L));
+    assertBatch(timeFilter, values);
+    assertBatch(FilterFactory.and(timeFilter, ValueFilter.gt(30L)), values);
+    assertBatch(FilterFactory.or(timeFilter, ValueFilter.gt(30L)), values);
+    assertBatch(FilterFactory.or(ValueFilter.lt(10L), ValueFilter.gt(90L)), values);
+    assertBatch(FilterFactory.not(FilterFactory.or(timeFilter, ValueFilter.lt(50L))), values);
+    assertBatch(FilterFactory.and(FilterFactory.not(timeFilter),
+        FilterFactory.or(ValueFilter.eq(1L), ValueFilter.ltEq(20L))), values);
+  }
+
+  private <T extends Comparable<T>> void assertOperators(Object values, T operand) {
+    for (Filter filter : new Filter[]{ValueFilter.eq(operand), ValueFilter.notEq(operand),
+        ValueFilter.gt(operand), ValueFilter.gtEq(operand), ValueFilter.lt(operand),
+        ValueFilter.ltEq(operand)}) {
+      assertBatch(filter, values);
+    }
+  }
+
+  private void assertBatch(Filter filter, Object values) {
+    // all points, and only the points at odd positions
+    int[] all = new int[SIZE];
+    int[] odd = new int[SIZE / 2];
+    for (int i = 0; i < SIZE; i++) {
+      all[i] = i;
+      if (i % 2 == 1) {
+        odd[i / 2] = i;
+      }
+    }
+    for (int[] candidates : new int[][]{all, odd}) {
+      int expectedNum = 0;
+      int[] expected = new int[candidates.length];
+      for (int index : candidates) {
+        if (filter.satisfy(times[index], Array.get(values, index))) {
+          expected[expectedNum++] = index;
+        }
+      }
+      int[] selection = candidates.clone();
+      int selected = filter.satisfyBatch(times, values, selection, selection.length);
+      assertArrayEquals(filter.toString(), Arrays.copyOf(expected, expectedNum),
+          Arrays.copyOf(selection, selected));
+    }
+  }
+}
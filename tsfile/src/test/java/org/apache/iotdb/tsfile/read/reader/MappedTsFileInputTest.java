@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.List;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.MetaMarker;
+import org.apache.iotdb.tsfile.file.footer.ChunkGroupFooter;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
+import org.apache.iotdb.tsfile.read.controller.MetadataQuerierByFileImpl;
+import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReader;
+import org.apache.iotdb.tsfile.read.reader.series.FileSeriesReaderWithoutFilter;
+import org.apache.iotdb.tsfile.utils.TsFileGeneratorForTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedTsFileInputTest {
+
+  private static final String FILE_PATH = TsFileGeneratorForTest.outputDataFile;
+  private TsFileSequenceReader channelReader;
+  private TsFileSequenceReader mappedReader;
+
+  @Before
+  public void before() throws IOException {
+    TsFileGeneratorForTest.generateFile(10000, 1024 * 1024, 1000);
+    channelReader = new TsFileSequenceReader(FILE_PATH);
+    mappedReader = new TsFileSequenceReader(FILE_PATH,
+        new MappedTsFileInput(Paths.get(FILE_PATH)), true);
+  }
+
+  @After
+  public void after() throws IOException {
+    channelReader.close();
+    mappedReader.close();
+    TsFileGeneratorForTest.after();
+  }
+
+  @Test
+  public void testReadAndSlice() throws IOException {
+    MappedTsFileInput input = new MappedTsFileInput(Paths.get(FILE_PATH));
+    DefaultTsFileInput expectedInput = new DefaultTsFileInput(Paths.get(FILE_PATH));
+    try {
+      Assert.assertEquals(expectedInput.size(), input.size());
+      int length = (int) Math.min(100, input.size() - 10);
+      ByteBuffer expected = ByteBuffer.allocate(length);
+      expectedInput.read(expected, 10);
+      expected.flip();
+
+      ByteBuffer slice = input.slice(10, length);
+      Assert.assertTrue(slice.isReadOnly());
+      Assert.assertEquals(expected, slice);
+
+      ByteBuffer copy = ByteBuffer.allocate(length);
+      input.position(10);
+      Assert.assertEquals(length, input.read(copy));
+      Assert.assertEquals(10 + length, input.position());
+      copy.flip();
+      Assert.assertEquals(expected, copy);
+
+      Assert.assertEquals(-1, input.read(ByteBuffer.allocate(1), input.size()));
+    } finally {
+      input.close();
+      expectedInput.close();
+    }
+  }
+
+  @Test
+  public void testReadSequentially() throws IOException {
+    int headLength = TSFileConfig.MAGIC_STRING.getBytes().length
+        + TSFileConfig.VERSION_NUMBER.getBytes().length;
+    channelReader.position(headLength);
+    mappedReader.position(headLength);
+    int pageNum = 0;
+    byte marker;
+    while ((marker = mappedReader.readMarker()) != MetaMarker.SEPARATOR) {
+      Assert.assertEquals(channelReader.readMarker(), marker);
+      switch (marker) {
+        case MetaMarker.CHUNK_HEADER:
+          ChunkHeader header = mappedReader.readChunkHeader();
+          channelReader.readChunkHeader();
+          for (int j = 0; j < header.getNumOfPages(); j++) {
+            PageHeader pageHeader = mappedReader.readPageHeader(header.getDataType());
+            channelReader.readPageHeader(header.getDataType());
+            Assert.assertEquals(channelReader.readPage(pageHeader, header.getCompressionType()),
+                mappedReader.readPage(pageHeader, header.getCompressionType()));
+            pageNum++;
+          }
+          break;
+        case MetaMarker.CHUNK_GROUP_FOOTER:
+          ChunkGroupFooter footer = mappedReader.readChunkGroupFooter();
+          Assert.assertEquals(channelReader.readChunkGroupFooter().getDeviceID(),
+              footer.getDeviceID());
+          break;
+        default:
+          MetaMarker.handleUnexpectedMarker(marker);
+      }
+      Assert.assertEquals(channelReader.position(), mappedReader.position());
+    }
+    Assert.assertTrue(pageNum > 0);
+  }
+
+  @Test
+  public void testReadSeries() throws IOException {
+    for (String series : new String[]{"d1.s1", "d1.s4", "d2.s2"}) {
+      Assert.assertEquals(readSeries(channelReader, series), readSeries(mappedReader, series));
+    }
+  }
+
+  private String readSeries(TsFileSequenceReader reader, String series) throws IOException {
+    List<ChunkMetaData> chunkMetaDataList = new MetadataQuerierByFileImpl(reader)
+        .getChunkMetaDataList(new Path(series));
+    FileSeriesReader seriesReader = new FileSeriesReaderWithoutFilter(
+        new ChunkLoaderImpl(reader), chunkMetaDataList);
+    StringBuilder builder = new StringBuilder();
+    while (seriesReader.hasNextBatch()) {
+      BatchData data = seriesReader.nextBatch();
+      while (data.hasNext()) {
+        builder.append(data.currentTime()).append(',').append(data.currentValue()).append(';');
+        data.next();
+      }
+    }
+    return builder.toString();
+  }
+}